@@ -5,10 +5,24 @@ import com.order.processing.factory.StandardOrderFactory;
 import com.order.processing.model.Order;
 import com.order.processing.model.OrderItem;
 import com.order.processing.observer.PendingOrderProcessor;
+import com.order.processing.persistence.FileOrderJournal;
+import com.order.processing.persistence.GroupCommitConfig;
+import com.order.processing.persistence.MappedSegmentJournal;
+import com.order.processing.persistence.OrderJournal;
+import com.order.processing.persistence.PartitionedOrderJournal;
+import com.order.processing.persistence.SnapshotStore;
+import com.order.processing.service.OrderPage;
 import com.order.processing.service.OrderService;
+import com.order.processing.stats.SlidingWindows;
+import com.order.processing.store.HeapOrderStore;
+import com.order.processing.store.OffHeapOrderStore;
+import com.order.processing.store.OrderStore;
+import com.order.processing.store.TieredOrderStore;
 import com.order.processing.state.OrderStatus;
 
 import java.math.BigDecimal;
+import java.nio.file.Paths;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
@@ -29,6 +43,8 @@ import java.util.concurrent.TimeUnit;
  */
 public class Main {
     
+    private static final int LIST_PAGE_SIZE = 20;
+    
     private static OrderService orderService;
     private static OrderFactory orderFactory;
     private static PendingOrderProcessor pendingProcessor;
@@ -66,9 +82,52 @@ public class Main {
         orderFactory = new StandardOrderFactory();
         System.out.println("✓ Factory initialized");
         
-        // Create service
-        orderService = new OrderService(orderFactory);
-        System.out.println("✓ OrderService initialized");
+        // Create service (durable when -Dorder.journal=<file> or -Dorder.journal.dir=<dir> is given,
+        // partitioned with -Dorder.journal.partitions=<n> on top of the latter, otherwise compacted
+        // every minute at up to -Dorder.journal.compact=<MB per second>, and snapshotting
+        // every minute when -Dorder.snapshot.dir=<dir> is given as well; terminal orders move
+        // to a compressed off-heap tier after -Dorder.cold.after=<ISO-8601 duration>, e.g. PT30M,
+        // or every order lives in direct-buffer slabs with -Dorder.store=offheap)
+        String journalPath = System.getProperty("order.journal");
+        String journalDir = System.getProperty("order.journal.dir");
+        String partitions = System.getProperty("order.journal.partitions");
+        String snapshotDir = System.getProperty("order.snapshot.dir");
+        String coldAfter = System.getProperty("order.cold.after");
+        boolean offHeap = "offheap".equals(System.getProperty("order.store"));
+        OrderJournal journal = null;
+        if (journalPath != null) {
+            journal = new FileOrderJournal(Paths.get(journalPath), GroupCommitConfig.DEFAULT);
+        } else if (journalDir != null && partitions != null) {
+            journal = new PartitionedOrderJournal(Paths.get(journalDir),
+                Integer.parseInt(partitions), GroupCommitConfig.DEFAULT);
+        } else if (journalDir != null) {
+            MappedSegmentJournal segmented = new MappedSegmentJournal(Paths.get(journalDir),
+                MappedSegmentJournal.DEFAULT_SEGMENT_SIZE, GroupCommitConfig.DEFAULT);
+            String compactRate = System.getProperty("order.journal.compact");
+            if (compactRate != null) {
+                segmented.startCompaction(1, TimeUnit.MINUTES, Long.parseLong(compactRate) * 1024 * 1024);
+            }
+            journal = segmented;
+        }
+        SnapshotStore snapshots = journal != null && snapshotDir != null
+            ? new SnapshotStore(Paths.get(snapshotDir)) : null;
+        OrderStore store = new HeapOrderStore();
+        if (offHeap) {
+            store = new OffHeapOrderStore();
+        } else if (coldAfter != null) {
+            TieredOrderStore tiered = new TieredOrderStore(Duration.parse(coldAfter));
+            tiered.startDemotion(1, TimeUnit.MINUTES);
+            store = tiered;
+        }
+        orderService = new OrderService(orderFactory, journal, snapshots, store);
+        if (snapshots != null) {
+            orderService.startSnapshots(1, TimeUnit.MINUTES);
+        }
+        System.out.println("✓ OrderService initialized"
+            + (journal != null ? " (journal: " + (journalPath != null ? journalPath : journalDir) + ")" : "")
+            + (snapshots != null ? " (snapshots: " + snapshotDir + ")" : "")
+            + (offHeap ? " (off-heap store)" : coldAfter != null ? " (cold tier after " + coldAfter + ")" : ""));
+        orderService.getRecoveryStats().ifPresent(stats -> System.out.println("✓ " + stats));
         
         // Create executor for background processing
         executorService = Executors.newScheduledThreadPool(2);
@@ -209,7 +268,7 @@ public class Main {
         
         // Get the first order
         if (orderService.getOrderCount() > 0) {
-            Order order = orderService.getAllOrders().get(0);
+            Order order = orderService.getOrderPage(null, 1).getOrders().get(0);
             String orderId = order.getId();
             
             pause("Press Enter to retrieve order " + orderId + "...");
@@ -370,7 +429,7 @@ public class Main {
                     retrieveOrderInteractive(scanner);
                     break;
                 case "3":
-                    listAllOrders();
+                    listAllOrders(scanner);
                     break;
                 case "4":
                     listOrdersByStatus(scanner);
@@ -434,8 +493,23 @@ public class Main {
         }
     }
     
-    private static void listAllOrders() {
-        displayAllOrders();
+    private static void listAllOrders(Scanner scanner) {
+        System.out.println("\n--- All Orders (" + orderService.getOrderCount() + ") ---");
+        OrderPage page = orderService.getOrderPage(null, LIST_PAGE_SIZE);
+        if (page.getOrders().isEmpty()) {
+            System.out.println("No orders in system");
+        }
+        while (true) {
+            page.getOrders().forEach(System.out::println);
+            if (!page.hasMore()) {
+                break;
+            }
+            System.out.print("-- Enter for the next " + LIST_PAGE_SIZE + " orders, q to stop: ");
+            if (scanner.nextLine().trim().equalsIgnoreCase("q")) {
+                break;
+            }
+            page = orderService.getOrderPage(page.getNextCursor().get(), LIST_PAGE_SIZE);
+        }
     }
     
     private static void listOrdersByStatus(Scanner scanner) {
@@ -479,15 +553,20 @@ public class Main {
         System.out.println("  SHIPPED: " + stats.getShippedOrders());
         System.out.println("  DELIVERED: " + stats.getDeliveredOrders());
         System.out.println("  CANCELLED: " + stats.getCancelledOrders());
+        System.out.println("Recent activity:");
+        for (SlidingWindows.Window window : SlidingWindows.Window.values()) {
+            System.out.println("  " + orderService.getWindowStats(window));
+        }
+        System.out.println("Observers:");
+        orderService.getObserverStats().forEach(observer -> System.out.println("  " + observer));
     }
     
     private static void displayAllOrders() {
-        List<Order> allOrders = orderService.getAllOrders();
-        System.out.println("\n--- All Orders (" + allOrders.size() + ") ---");
-        if (allOrders.isEmpty()) {
+        System.out.println("\n--- All Orders (" + orderService.getOrderCount() + ") ---");
+        if (orderService.getOrderCount() == 0) {
             System.out.println("No orders in system");
         } else {
-            allOrders.forEach(System.out::println);
+            orderService.streamOrders().forEach(System.out::println);
         }
     }
     
@@ -517,6 +596,9 @@ public class Main {
                 Thread.currentThread().interrupt();
             }
         }
+        if (orderService != null) {
+            orderService.shutdown();
+        }
         System.out.println("✓ System shutdown complete");
         System.out.println("\nThank you for using the Order Processing System!\n");
     }
@@ -0,0 +1,416 @@
+package com.order.processing.archive;
+
+import com.order.processing.codec.OrderCodec;
+import com.order.processing.codec.ProductDictionary;
+import com.order.processing.codec.Varints;
+import com.order.processing.model.Order;
+import com.order.processing.model.OrderItem;
+import com.order.processing.state.OrderStates;
+import com.order.processing.state.OrderStatus;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+/**
+ * Memory-mapped reader for an archive written by {@link ColumnarArchiveWriter}.
+ *
+ * Aggregations read only the columns they need, straight from the mapping, and
+ * use each block's min/max statistics to skip blocks that cannot match. No
+ * Order objects are built except by {@link #forEach}.
+ *
+ * File layout:
+ * <pre>
+ *   int magic "OCOL", int format version
+ *   blocks, each holding its columns back to back:
+ *     long[rows]  createdAt, epoch nanos (UTC)
+ *     long[rows]  lastModifiedAt, epoch nanos (UTC)
+ *     long[rows]  total amount, unscaled at the block's total scale
+ *     long[items] item price unscaled value
+ *     int[rows]   item count per order
+ *     int[items]  item product code
+ *     int[items]  item quantity
+ *     byte[rows]  status ordinal
+ *     byte[items] item price scale
+ *     ids as written by {@link OrderCodec#putId}
+ *   footer:
+ *     varint product count, then varint length + UTF-8 per product code
+ *     per block: long offset, int length, int rows, int items, int status bitmask,
+ *       int total scale, long min/max createdAt, long min/max lastModifiedAt,
+ *       long min/max unscaled total
+ *   trailer: long footer offset, long order count, int block count,
+ *     int crc32c of the footer, int magic
+ * </pre>
+ *
+ * Timestamps are stored as nanoseconds since the epoch, which covers the years
+ * 1677 to 2262. The file is immutable; a reader may be shared between threads.
+ */
+public class ColumnarArchive implements Closeable {
+
+    static final int MAGIC = 0x4F434F4C; // "OCOL"
+    static final int FORMAT_VERSION = 1;
+    static final int HEADER_SIZE = 8;
+    static final int TRAILER_SIZE = 28;
+    static final int DIRECTORY_ENTRY_SIZE = 76;
+
+    private static final OrderStatus[] STATUSES = OrderStatus.values();
+
+    /**
+     * Which timestamp a time range applies to.
+     */
+    public enum TimeColumn {
+        CREATED_AT,
+        LAST_MODIFIED_AT
+    }
+
+    /**
+     * Outcome of {@link #revenue}: matching orders, their summed totals and how
+     * many blocks the statistics let the scan skip.
+     */
+    public static class ScanResult {
+        private final long orders;
+        private final BigDecimal revenue;
+        private final int blocksScanned;
+        private final int blocksSkipped;
+
+        ScanResult(long orders, BigDecimal revenue, int blocksScanned, int blocksSkipped) {
+            this.orders = orders;
+            this.revenue = revenue;
+            this.blocksScanned = blocksScanned;
+            this.blocksSkipped = blocksSkipped;
+        }
+
+        public long getOrders() { return orders; }
+        public BigDecimal getRevenue() { return revenue; }
+        public int getBlocksScanned() { return blocksScanned; }
+        public int getBlocksSkipped() { return blocksSkipped; }
+
+        @Override
+        public String toString() {
+            return String.format("ScanResult[orders=%d, revenue=%s, blocks scanned=%d, skipped=%d]",
+                orders, revenue, blocksScanned, blocksSkipped);
+        }
+    }
+
+    /**
+     * One block: its mapping plus the statistics from the footer.
+     */
+    private static final class Block {
+        MappedByteBuffer data;
+        int rows;
+        int items;
+        int statusMask;
+        int totalScale;
+        long minCreated;
+        long maxCreated;
+        long minModified;
+        long maxModified;
+        long minTotal;
+        long maxTotal;
+
+        int createdColumn() { return 0; }
+        int modifiedColumn() { return rows * Long.BYTES; }
+        int totalColumn() { return 2 * rows * Long.BYTES; }
+        int priceColumn() { return 3 * rows * Long.BYTES; }
+        int itemCountColumn() { return priceColumn() + items * Long.BYTES; }
+        int productColumn() { return itemCountColumn() + rows * Integer.BYTES; }
+        int quantityColumn() { return productColumn() + items * Integer.BYTES; }
+        int statusColumn() { return quantityColumn() + items * Integer.BYTES; }
+        int priceScaleColumn() { return statusColumn() + rows; }
+        int idColumn() { return priceScaleColumn() + items; }
+
+        long minTime(TimeColumn column) { return column == TimeColumn.CREATED_AT ? minCreated : minModified; }
+        long maxTime(TimeColumn column) { return column == TimeColumn.CREATED_AT ? maxCreated : maxModified; }
+        int timeColumn(TimeColumn column) { return column == TimeColumn.CREATED_AT ? createdColumn() : modifiedColumn(); }
+    }
+
+    private final Path file;
+    private final FileChannel channel;
+    private final ProductDictionary dictionary = new ProductDictionary();
+    private final Block[] blocks;
+    private final long orderCount;
+
+    /**
+     * Open and map an archive.
+     *
+     * @throws UncheckedIOException if the file cannot be read, is not an archive or fails its checksum
+     */
+    public ColumnarArchive(Path file) {
+        this.file = file;
+        try {
+            channel = FileChannel.open(file, StandardOpenOption.READ);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open archive " + file, e);
+        }
+        try {
+            long size = channel.size();
+            if (size < HEADER_SIZE + TRAILER_SIZE) {
+                throw new IOException("Not an archive: " + file);
+            }
+            ByteBuffer header = readAt(0, HEADER_SIZE);
+            ByteBuffer trailer = readAt(size - TRAILER_SIZE, TRAILER_SIZE);
+            if (header.getInt() != MAGIC || header.getInt() != FORMAT_VERSION || trailer.getInt(24) != MAGIC) {
+                throw new IOException("Not an archive of this format: " + file);
+            }
+            long footerOffset = trailer.getLong();
+            orderCount = trailer.getLong();
+            int blockCount = trailer.getInt();
+            int expectedCrc = trailer.getInt();
+            if (footerOffset < HEADER_SIZE || footerOffset > size - TRAILER_SIZE) {
+                throw new IOException("Corrupt archive trailer: " + file);
+            }
+
+            ByteBuffer footer = readAt(footerOffset, (int) (size - TRAILER_SIZE - footerOffset));
+            CRC32C crc = new CRC32C();
+            crc.update(footer.duplicate());
+            if ((int) crc.getValue() != expectedCrc) {
+                throw new IOException("Archive footer checksum mismatch: " + file);
+            }
+            int products = Varints.getVarInt(footer);
+            for (int code = 0; code < products; code++) {
+                byte[] product = new byte[Varints.getVarInt(footer)];
+                footer.get(product);
+                dictionary.define(code, new String(product, StandardCharsets.UTF_8));
+            }
+            blocks = new Block[blockCount];
+            for (int i = 0; i < blockCount; i++) {
+                long offset = footer.getLong();
+                int length = footer.getInt();
+                Block block = new Block();
+                block.rows = footer.getInt();
+                block.items = footer.getInt();
+                block.statusMask = footer.getInt();
+                block.totalScale = footer.getInt();
+                block.minCreated = footer.getLong();
+                block.maxCreated = footer.getLong();
+                block.minModified = footer.getLong();
+                block.maxModified = footer.getLong();
+                block.minTotal = footer.getLong();
+                block.maxTotal = footer.getLong();
+                block.data = channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+                blocks[i] = block;
+            }
+        } catch (IOException e) {
+            closeQuietly();
+            throw new UncheckedIOException("Cannot read archive " + file, e);
+        } catch (RuntimeException e) {
+            closeQuietly();
+            throw e;
+        }
+    }
+
+    public long getOrderCount() {
+        return orderCount;
+    }
+
+    public int getBlockCount() {
+        return blocks.length;
+    }
+
+    /**
+     * Sum the totals of orders with the given status whose timestamp falls in
+     * {@code [from, to)}. Reads the status, timestamp and total columns only, and
+     * skips blocks whose statistics rule them out.
+     *
+     * @param status Status to match, or null for any
+     * @param column Timestamp the range applies to
+     * @param from Inclusive lower bound
+     * @param to Exclusive upper bound
+     */
+    public ScanResult revenue(OrderStatus status, TimeColumn column, LocalDateTime from, LocalDateTime to) {
+        long fromNanos = toEpochNanos(from);
+        long toNanos = toEpochNanos(to);
+        int statusBit = status != null ? 1 << status.ordinal() : -1;
+        long orders = 0;
+        BigDecimal revenue = BigDecimal.ZERO;
+        int scanned = 0;
+        int skipped = 0;
+
+        for (Block block : blocks) {
+            if ((block.statusMask & statusBit) == 0
+                    || block.maxTime(column) < fromNanos || block.minTime(column) >= toNanos) {
+                skipped++;
+                continue;
+            }
+            scanned++;
+            // Where the statistics already prove a predicate true, skip its column
+            boolean allStatus = status == null || block.statusMask == statusBit;
+            boolean allInRange = block.minTime(column) >= fromNanos && block.maxTime(column) < toNanos;
+            ByteBuffer data = block.data;
+            int statusColumn = block.statusColumn();
+            int timeColumn = block.timeColumn(column);
+            int totalColumn = block.totalColumn();
+            long sum = 0;
+            boolean overflowed = false;
+            BigDecimal exact = BigDecimal.ZERO;
+
+            for (int row = 0; row < block.rows; row++) {
+                if (!allStatus && data.get(statusColumn + row) != status.ordinal()) {
+                    continue;
+                }
+                if (!allInRange) {
+                    long time = data.getLong(timeColumn + row * Long.BYTES);
+                    if (time < fromNanos || time >= toNanos) {
+                        continue;
+                    }
+                }
+                long total = data.getLong(totalColumn + row * Long.BYTES);
+                orders++;
+                if (!overflowed) {
+                    long next = sum + total;
+                    if (((sum ^ next) & (total ^ next)) >= 0) {
+                        sum = next;
+                        continue;
+                    }
+                    overflowed = true;
+                    exact = BigDecimal.valueOf(sum);
+                }
+                exact = exact.add(BigDecimal.valueOf(total));
+            }
+            BigDecimal blockSum = overflowed ? exact : BigDecimal.valueOf(sum);
+            revenue = revenue.add(blockSum.movePointLeft(block.totalScale));
+        }
+        return new ScanResult(orders, revenue, scanned, skipped);
+    }
+
+    /**
+     * Count archived orders per status, reading only the status column.
+     */
+    public Map<OrderStatus, Long> countByStatus() {
+        long[] counts = new long[STATUSES.length];
+        for (Block block : blocks) {
+            if (Integer.bitCount(block.statusMask) == 1) {
+                counts[Integer.numberOfTrailingZeros(block.statusMask)] += block.rows;
+                continue;
+            }
+            int statusColumn = block.statusColumn();
+            for (int row = 0; row < block.rows; row++) {
+                counts[block.data.get(statusColumn + row)]++;
+            }
+        }
+        Map<OrderStatus, Long> result = new EnumMap<>(OrderStatus.class);
+        for (OrderStatus status : STATUSES) {
+            result.put(status, counts[status.ordinal()]);
+        }
+        return result;
+    }
+
+    /**
+     * Total quantity sold per product, reading only the item product and
+     * quantity columns.
+     */
+    public Map<String, Long> quantityByProduct() {
+        long[] quantities = new long[dictionary.size()];
+        for (Block block : blocks) {
+            ByteBuffer data = block.data;
+            int productColumn = block.productColumn();
+            int quantityColumn = block.quantityColumn();
+            for (int item = 0; item < block.items; item++) {
+                quantities[data.getInt(productColumn + item * Integer.BYTES)]
+                    += data.getInt(quantityColumn + item * Integer.BYTES);
+            }
+        }
+        Map<String, Long> result = new HashMap<>();
+        for (int code = 0; code < quantities.length; code++) {
+            if (quantities[code] > 0) {
+                result.put(dictionary.productOf(code), quantities[code]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Rebuild every archived order, in file order. Reads all columns; prefer the
+     * aggregations where they fit.
+     */
+    public void forEach(Consumer<Order> consumer) {
+        for (Block block : blocks) {
+            ByteBuffer data = block.data;
+            ByteBuffer ids = data.duplicate().position(block.idColumn());
+            int item = 0;
+            for (int row = 0; row < block.rows; row++) {
+                String id = OrderCodec.getId(ids);
+                int count = data.getInt(block.itemCountColumn() + row * Integer.BYTES);
+                List<OrderItem> items = new ArrayList<>(count);
+                for (int i = 0; i < count; i++, item++) {
+                    items.add(new OrderItem(
+                        dictionary.productOf(data.getInt(block.productColumn() + item * Integer.BYTES)),
+                        data.getInt(block.quantityColumn() + item * Integer.BYTES),
+                        BigDecimal.valueOf(data.getLong(block.priceColumn() + item * Long.BYTES),
+                                           data.get(block.priceScaleColumn() + item))));
+                }
+                consumer.accept(new Order(id, items,
+                    OrderStates.forStatus(STATUSES[data.get(block.statusColumn() + row)]),
+                    fromEpochNanos(data.getLong(block.createdColumn() + row * Long.BYTES)),
+                    fromEpochNanos(data.getLong(block.modifiedColumn() + row * Long.BYTES))));
+            }
+        }
+    }
+
+    /**
+     * Close the file. Mappings are released once unreachable; the reader must
+     * not be used afterwards.
+     */
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot close archive " + file, e);
+        }
+    }
+
+    static int fixedColumnsSize(int rows, int items) {
+        return rows * (3 * Long.BYTES + Integer.BYTES + 1) + items * (Long.BYTES + 2 * Integer.BYTES + 1);
+    }
+
+    /**
+     * @throws IllegalArgumentException if the time is outside the years 1677 to 2262
+     */
+    static long toEpochNanos(LocalDateTime time) {
+        try {
+            return Math.addExact(Math.multiplyExact(time.toEpochSecond(ZoneOffset.UTC), 1_000_000_000L), time.getNano());
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Timestamp out of range for the archive: " + time, e);
+        }
+    }
+
+    static LocalDateTime fromEpochNanos(long nanos) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(nanos, 1_000_000_000L),
+            (int) Math.floorMod(nanos, 1_000_000_000L), ZoneOffset.UTC);
+    }
+
+    private ByteBuffer readAt(long position, int length) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(length);
+        while (buf.hasRemaining()) {
+            if (channel.read(buf, position + buf.position()) < 0) {
+                throw new IOException("Unexpected end of archive " + file);
+            }
+        }
+        return buf.flip();
+    }
+
+    private void closeQuietly() {
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // Already failing
+        }
+    }
+}
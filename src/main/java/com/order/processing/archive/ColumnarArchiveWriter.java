@@ -0,0 +1,293 @@
+package com.order.processing.archive;
+
+import com.order.processing.codec.OrderCodec;
+import com.order.processing.codec.ProductDictionary;
+import com.order.processing.codec.Varints;
+import com.order.processing.model.Order;
+import com.order.processing.model.OrderItem;
+import com.order.processing.state.OrderStatus;
+import com.order.processing.util.DebugLogger;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * Writes terminal orders into an immutable columnar archive file, read back
+ * with {@link ColumnarArchive}.
+ *
+ * Orders are grouped into blocks of up to {@code rowsPerBlock} rows. Within a
+ * block every field is stored as its own contiguous column, so a scan touches
+ * only the columns it needs. Each block's min/max statistics go into the
+ * footer, letting a scan skip blocks without reading them. Skipping works best
+ * when orders arrive roughly in time order, as they do from a periodic export.
+ *
+ * Orders that are not DELIVERED or CANCELLED are skipped: only orders that can
+ * no longer change belong in an immutable file.
+ */
+public class ColumnarArchiveWriter {
+
+    public static final int DEFAULT_ROWS_PER_BLOCK = 64 * 1024;
+
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final int rowsPerBlock;
+
+    public ColumnarArchiveWriter() {
+        this(DEFAULT_ROWS_PER_BLOCK);
+    }
+
+    /**
+     * @param rowsPerBlock Maximum orders per block; smaller blocks skip more finely
+     */
+    public ColumnarArchiveWriter(int rowsPerBlock) {
+        if (rowsPerBlock < 1) {
+            throw new IllegalArgumentException("Rows per block must be positive: " + rowsPerBlock);
+        }
+        this.rowsPerBlock = rowsPerBlock;
+    }
+
+    /**
+     * Write every terminal order to a new archive file, replacing any file
+     * already at that path. The file is written under a temporary name and
+     * renamed once complete.
+     *
+     * @param file Archive file to create
+     * @param orders Orders to archive; non-terminal ones are skipped
+     * @return Number of orders written
+     * @throws UncheckedIOException if the file cannot be written
+     * @throws IllegalArgumentException if an order's timestamps or amounts do not fit the format
+     */
+    public long write(Path file, Iterable<Order> orders) {
+        Path temp = file.resolveSibling(file.getFileName() + TEMP_SUFFIX);
+        ProductDictionary dictionary = new ProductDictionary();
+        BlockBuilder block = new BlockBuilder(rowsPerBlock);
+        List<ByteBuffer> directory = new ArrayList<>();
+        long count = 0;
+
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            writeFully(channel, ByteBuffer.allocate(ColumnarArchive.HEADER_SIZE)
+                .putInt(ColumnarArchive.MAGIC).putInt(ColumnarArchive.FORMAT_VERSION).flip());
+
+            for (Order order : orders) {
+                OrderStatus status = order.getStatus();
+                if (status != OrderStatus.DELIVERED && status != OrderStatus.CANCELLED) {
+                    continue;
+                }
+                block.add(order, dictionary);
+                count++;
+                if (block.rows == rowsPerBlock) {
+                    directory.add(block.flush(channel));
+                }
+            }
+            if (block.rows > 0) {
+                directory.add(block.flush(channel));
+            }
+
+            long footerOffset = channel.position();
+            ByteBuffer footer = footer(dictionary, directory);
+            CRC32C crc = new CRC32C();
+            crc.update(footer.duplicate());
+            writeFully(channel, footer);
+            writeFully(channel, ByteBuffer.allocate(ColumnarArchive.TRAILER_SIZE)
+                .putLong(footerOffset).putLong(count).putInt(directory.size())
+                .putInt((int) crc.getValue()).putInt(ColumnarArchive.MAGIC).flip());
+            channel.force(true);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write archive " + file, e);
+        }
+
+        try {
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot install archive " + file, e);
+        }
+        DebugLogger.log(DebugLogger.Category.STORE, "ColumnarArchiveWriter",
+            String.format("Archived %d order(s) in %d block(s) to %s", count, directory.size(), file.getFileName()));
+        return count;
+    }
+
+    private static ByteBuffer footer(ProductDictionary dictionary, List<ByteBuffer> directory) {
+        List<byte[]> products = new ArrayList<>();
+        int size = 5 + directory.size() * ColumnarArchive.DIRECTORY_ENTRY_SIZE;
+        for (int code = 0; code < dictionary.size(); code++) {
+            byte[] product = dictionary.productOf(code).getBytes(StandardCharsets.UTF_8);
+            products.add(product);
+            size += 5 + product.length;
+        }
+        ByteBuffer footer = ByteBuffer.allocate(size);
+        Varints.putVarInt(footer, products.size());
+        for (byte[] product : products) {
+            Varints.putVarInt(footer, product.length);
+            footer.put(product);
+        }
+        for (ByteBuffer entry : directory) {
+            footer.put(entry);
+        }
+        return footer.flip();
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buf) throws IOException {
+        while (buf.hasRemaining()) {
+            channel.write(buf);
+        }
+    }
+
+    /**
+     * Column buffers for the block being filled.
+     */
+    private static final class BlockBuilder {
+        final byte[] status;
+        final long[] created;
+        final long[] modified;
+        final BigDecimal[] totals;
+        final int[] itemCounts;
+        int[] products = new int[1024];
+        int[] quantities = new int[1024];
+        long[] prices = new long[1024];
+        byte[] priceScales = new byte[1024];
+        ByteBuffer ids = ByteBuffer.allocate(64 * 1024);
+        int rows;
+        int items;
+
+        BlockBuilder(int capacity) {
+            status = new byte[capacity];
+            created = new long[capacity];
+            modified = new long[capacity];
+            totals = new BigDecimal[capacity];
+            itemCounts = new int[capacity];
+        }
+
+        void add(Order order, ProductDictionary dictionary) {
+            int row = rows;
+            status[row] = (byte) order.getStatus().ordinal();
+            created[row] = ColumnarArchive.toEpochNanos(order.getCreatedAt());
+            modified[row] = ColumnarArchive.toEpochNanos(order.getLastModifiedAt());
+            totals[row] = order.getTotalAmount();
+
+            List<OrderItem> orderItems = order.getItems();
+            itemCounts[row] = orderItems.size();
+            if (items + orderItems.size() > products.length) {
+                int capacity = Math.max(products.length * 2, items + orderItems.size());
+                products = Arrays.copyOf(products, capacity);
+                quantities = Arrays.copyOf(quantities, capacity);
+                prices = Arrays.copyOf(prices, capacity);
+                priceScales = Arrays.copyOf(priceScales, capacity);
+            }
+            for (OrderItem item : orderItems) {
+                BigDecimal price = item.getPricePerUnit();
+                products[items] = dictionary.intern(item.getProductId());
+                quantities[items] = item.getQuantity();
+                prices[items] = unscaled(price, order);
+                priceScales[items] = (byte) price.scale();
+                items++;
+            }
+
+            while (true) {
+                int start = ids.position();
+                try {
+                    OrderCodec.putId(ids, order.getId());
+                    break;
+                } catch (BufferOverflowException e) {
+                    ids.position(start);
+                    ids = ByteBuffer.allocate(ids.capacity() * 2).put(ids.flip());
+                }
+            }
+            rows++;
+        }
+
+        /**
+         * Write the block's columns and reset.
+         *
+         * @return The block's directory entry
+         */
+        ByteBuffer flush(FileChannel channel) throws IOException {
+            // All totals share the block's largest scale so the column holds plain longs
+            int scale = 0;
+            for (int i = 0; i < rows; i++) {
+                scale = Math.max(scale, totals[i].scale());
+            }
+            long[] unscaledTotals = new long[rows];
+            long minTotal = Long.MAX_VALUE;
+            long maxTotal = Long.MIN_VALUE;
+            long minCreated = Long.MAX_VALUE;
+            long maxCreated = Long.MIN_VALUE;
+            long minModified = Long.MAX_VALUE;
+            long maxModified = Long.MIN_VALUE;
+            int statusMask = 0;
+            for (int i = 0; i < rows; i++) {
+                try {
+                    unscaledTotals[i] = totals[i].setScale(scale).unscaledValue().longValueExact();
+                } catch (ArithmeticException e) {
+                    throw new IllegalArgumentException("Order total out of range for the archive: " + totals[i], e);
+                }
+                minTotal = Math.min(minTotal, unscaledTotals[i]);
+                maxTotal = Math.max(maxTotal, unscaledTotals[i]);
+                minCreated = Math.min(minCreated, created[i]);
+                maxCreated = Math.max(maxCreated, created[i]);
+                minModified = Math.min(minModified, modified[i]);
+                maxModified = Math.max(maxModified, modified[i]);
+                statusMask |= 1 << status[i];
+            }
+
+            ids.flip();
+            int length = ColumnarArchive.fixedColumnsSize(rows, items) + ids.remaining();
+            ByteBuffer out = ByteBuffer.allocate(length);
+            putLongs(out, created, rows);
+            putLongs(out, modified, rows);
+            putLongs(out, unscaledTotals, rows);
+            putLongs(out, prices, items);
+            out.asIntBuffer().put(itemCounts, 0, rows);
+            out.position(out.position() + rows * Integer.BYTES);
+            out.asIntBuffer().put(products, 0, items);
+            out.position(out.position() + items * Integer.BYTES);
+            out.asIntBuffer().put(quantities, 0, items);
+            out.position(out.position() + items * Integer.BYTES);
+            out.put(status, 0, rows);
+            out.put(priceScales, 0, items);
+            out.put(ids);
+            out.flip();
+
+            long offset = channel.position();
+            writeFully(channel, out);
+
+            ByteBuffer entry = ByteBuffer.allocate(ColumnarArchive.DIRECTORY_ENTRY_SIZE)
+                .putLong(offset).putInt(length).putInt(rows).putInt(items)
+                .putInt(statusMask).putInt(scale)
+                .putLong(minCreated).putLong(maxCreated)
+                .putLong(minModified).putLong(maxModified)
+                .putLong(minTotal).putLong(maxTotal);
+            Arrays.fill(totals, 0, rows, null);
+            ids.clear();
+            rows = 0;
+            items = 0;
+            return entry.flip();
+        }
+
+        private static void putLongs(ByteBuffer out, long[] values, int count) {
+            out.asLongBuffer().put(values, 0, count);
+            out.position(out.position() + count * Long.BYTES);
+        }
+
+        private static long unscaled(BigDecimal price, Order order) {
+            try {
+                return price.unscaledValue().longValueExact();
+            } catch (ArithmeticException e) {
+                throw new IllegalArgumentException("Item price out of range for the archive in order " + order.getId(), e);
+            }
+        }
+    }
+}
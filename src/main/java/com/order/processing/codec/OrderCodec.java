@@ -0,0 +1,215 @@
+package com.order.processing.codec;
+
+import com.order.processing.model.Order;
+import com.order.processing.model.OrderItem;
+import com.order.processing.state.OrderStates;
+import com.order.processing.state.OrderStatus;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Versioned binary encoding of an Order, shared by persistence, replication and export.
+ *
+ * Layout (version 1):
+ * <pre>
+ *   byte     version
+ *   byte     id kind: 0 = UUID as two longs, 1 = varint length + UTF-8
+ *   ...      id
+ *   byte     status ordinal
+ *   zigzag   createdAt epoch seconds (UTC), varint nano-of-second
+ *   zigzag   lastModifiedAt seconds minus createdAt seconds, varint nano-of-second
+ *   varint   item count
+ *   per item:
+ *     varint   product code from the {@link ProductDictionary}
+ *     varint   quantity
+ *     zigzag   price unscaled value, byte price scale (fixed-point, exact)
+ * </pre>
+ *
+ * Reads and writes go straight against the caller's ByteBuffer. Encoding assigns
+ * dictionary codes to products it has not seen; the dictionary itself is not
+ * part of the output.
+ */
+public class OrderCodec {
+
+    public static final byte VERSION = 1;
+
+    private static final byte ID_UUID = 0;
+    private static final byte ID_STRING = 1;
+    private static final int UUID_LENGTH = 36;
+    private static final OrderStatus[] STATUSES = OrderStatus.values();
+
+    private final ProductDictionary dictionary;
+
+    public OrderCodec(ProductDictionary dictionary) {
+        this.dictionary = dictionary;
+    }
+
+    public ProductDictionary getDictionary() {
+        return dictionary;
+    }
+
+    /**
+     * Write the order at the buffer's position.
+     *
+     * @throws java.nio.BufferOverflowException if the buffer is too small
+     */
+    public void encode(Order order, ByteBuffer buf) {
+        buf.put(VERSION);
+        putId(buf, order.getId());
+        buf.put((byte) order.getStatus().ordinal());
+
+        LocalDateTime createdAt = order.getCreatedAt();
+        LocalDateTime lastModifiedAt = order.getLastModifiedAt();
+        long createdSeconds = createdAt.toEpochSecond(ZoneOffset.UTC);
+        Varints.putSignedVarLong(buf, createdSeconds);
+        Varints.putVarInt(buf, createdAt.getNano());
+        Varints.putSignedVarLong(buf, lastModifiedAt.toEpochSecond(ZoneOffset.UTC) - createdSeconds);
+        Varints.putVarInt(buf, lastModifiedAt.getNano());
+
+        List<OrderItem> items = order.getItems();
+        Varints.putVarInt(buf, items.size());
+        for (int i = 0; i < items.size(); i++) {
+            OrderItem item = items.get(i);
+            Varints.putVarInt(buf, dictionary.intern(item.getProductId()));
+            Varints.putVarInt(buf, item.getQuantity());
+            BigDecimal price = item.getPricePerUnit();
+            Varints.putSignedVarLong(buf, price.unscaledValue().longValueExact());
+            buf.put((byte) price.scale());
+        }
+    }
+
+    /**
+     * Read an order at the buffer's position.
+     *
+     * @throws IllegalArgumentException if the version is unsupported or the data is malformed
+     */
+    public Order decode(ByteBuffer buf) {
+        byte version = buf.get();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported order encoding version: " + version);
+        }
+        String id = getId(buf);
+        int statusOrdinal = buf.get();
+        if (statusOrdinal < 0 || statusOrdinal >= STATUSES.length) {
+            throw new IllegalArgumentException("Invalid status ordinal: " + statusOrdinal);
+        }
+
+        long createdSeconds = Varints.getSignedVarLong(buf);
+        LocalDateTime createdAt = LocalDateTime.ofEpochSecond(createdSeconds, Varints.getVarInt(buf), ZoneOffset.UTC);
+        long modifiedSeconds = createdSeconds + Varints.getSignedVarLong(buf);
+        LocalDateTime lastModifiedAt = LocalDateTime.ofEpochSecond(modifiedSeconds, Varints.getVarInt(buf), ZoneOffset.UTC);
+
+        int count = Varints.getVarInt(buf);
+        List<OrderItem> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String productId = dictionary.productOf(Varints.getVarInt(buf));
+            int quantity = Varints.getVarInt(buf);
+            long unscaled = Varints.getSignedVarLong(buf);
+            int scale = buf.get();
+            items.add(new OrderItem(productId, quantity, BigDecimal.valueOf(unscaled, scale)));
+        }
+        return new Order(id, items, OrderStates.forStatus(STATUSES[statusOrdinal]), createdAt, lastModifiedAt);
+    }
+
+    /**
+     * Copy an encoded order from {@code src} to {@code dst} with a new status and
+     * last-modified time, leaving its ID, creation time and items untouched.
+     * Nothing is decoded beyond the fields being replaced, so product codes are
+     * copied as-is and both sides must share one dictionary.
+     *
+     * @param src Exactly one encoded order, from its position to its limit; consumed
+     * @param modifiedEpochSecond Last-modified epoch seconds (UTC)
+     * @throws java.nio.BufferOverflowException if dst is too small
+     * @throws IllegalArgumentException if the version is unsupported
+     */
+    public static void copyWithState(ByteBuffer src, ByteBuffer dst, OrderStatus status,
+                                     long modifiedEpochSecond, int modifiedNano) {
+        int start = src.position();
+        byte version = src.get();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported order encoding version: " + version);
+        }
+        int idLength = src.get() == ID_UUID ? 16 : Varints.getVarInt(src);
+        src.position(src.position() + idLength);
+        int statusAt = src.position();
+        src.get();
+        long createdSeconds = Varints.getSignedVarLong(src);
+        Varints.getVarInt(src);
+        int createdEnd = src.position();
+        Varints.getSignedVarLong(src);
+        Varints.getVarInt(src);
+
+        dst.put(src.duplicate().position(start).limit(statusAt));
+        dst.put((byte) status.ordinal());
+        dst.put(src.duplicate().position(statusAt + 1).limit(createdEnd));
+        Varints.putSignedVarLong(dst, modifiedEpochSecond - createdSeconds);
+        Varints.putVarInt(dst, modifiedNano);
+        dst.put(src);
+    }
+
+    /**
+     * Write an order ID: canonical lowercase UUIDs as 16 raw bytes, anything else as UTF-8.
+     */
+    public static void putId(ByteBuffer buf, String id) {
+        if (isCanonicalUuid(id)) {
+            buf.put(ID_UUID);
+            buf.putLong(parseHex(id, 0, 8) << 32 | parseHex(id, 9, 13) << 16 | parseHex(id, 14, 18));
+            buf.putLong(parseHex(id, 19, 23) << 48 | parseHex(id, 24, 36));
+        } else {
+            byte[] bytes = id.getBytes(StandardCharsets.UTF_8);
+            buf.put(ID_STRING);
+            Varints.putVarInt(buf, bytes.length);
+            buf.put(bytes);
+        }
+    }
+
+    /**
+     * Read an order ID written by {@link #putId}.
+     */
+    public static String getId(ByteBuffer buf) {
+        byte kind = buf.get();
+        if (kind == ID_UUID) {
+            long mostSig = buf.getLong();
+            long leastSig = buf.getLong();
+            return new UUID(mostSig, leastSig).toString();
+        }
+        if (kind == ID_STRING) {
+            byte[] bytes = new byte[Varints.getVarInt(buf)];
+            buf.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+        throw new IllegalArgumentException("Invalid id kind: " + kind);
+    }
+
+    private static boolean isCanonicalUuid(String id) {
+        if (id.length() != UUID_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < UUID_LENGTH; i++) {
+            char c = id.charAt(i);
+            if (i == 8 || i == 13 || i == 18 || i == 23) {
+                if (c != '-') {
+                    return false;
+                }
+            } else if (!((c >= '0' && c <= '9') || (c >= 'a' && c <= 'f'))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long parseHex(String s, int from, int to) {
+        long value = 0;
+        for (int i = from; i < to; i++) {
+            value = value << 4 | Character.digit(s.charAt(i), 16);
+        }
+        return value;
+    }
+}
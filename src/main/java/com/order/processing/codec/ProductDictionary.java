@@ -0,0 +1,97 @@
+package com.order.processing.codec;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Two-way mapping between product IDs and small dense integer codes.
+ *
+ * Encoded orders refer to products by code, so a product ID string is stored
+ * once per dictionary instead of once per item. Whoever owns an encoded stream
+ * (a journal, a snapshot, an export file) must persist its dictionary too.
+ *
+ * Lookups are lock-free; assigning a new code is synchronized.
+ */
+public class ProductDictionary {
+
+    private final Map<String, Integer> codes = new ConcurrentHashMap<>();
+    private volatile String[] products = new String[64];
+    private int size;
+
+    /**
+     * Get the code for a product, or -1 if it has none yet.
+     */
+    public int codeOf(String productId) {
+        Integer code = codes.get(productId);
+        return code != null ? code : -1;
+    }
+
+    /**
+     * Get the code for a product, assigning the next free one if needed.
+     */
+    public int intern(String productId) {
+        Integer code = codes.get(productId);
+        if (code != null) {
+            return code;
+        }
+        synchronized (this) {
+            code = codes.get(productId);
+            if (code != null) {
+                return code;
+            }
+            int assigned = size;
+            define(assigned, productId);
+            return assigned;
+        }
+    }
+
+    /**
+     * Record a known mapping, e.g. one read back from persisted data.
+     * Redefining a code with the same product is a no-op.
+     *
+     * @throws IllegalStateException if the code is already bound to another product
+     */
+    public synchronized void define(int code, String productId) {
+        if (code < 0) {
+            throw new IllegalArgumentException("Product code must be non-negative: " + code);
+        }
+        String[] current = products;
+        if (code < current.length && current[code] != null) {
+            if (!current[code].equals(productId)) {
+                throw new IllegalStateException(String.format(
+                    "Product code %d already bound to %s, cannot rebind to %s", code, current[code], productId));
+            }
+            return;
+        }
+        if (code >= current.length) {
+            current = Arrays.copyOf(current, Math.max(current.length * 2, code + 1));
+        }
+        current[code] = productId;
+        // Publish the array before the code, so a reader holding the code finds the product
+        products = current;
+        codes.put(productId, code);
+        size = Math.max(size, code + 1);
+    }
+
+    /**
+     * Get the product ID for a code.
+     *
+     * @throws IllegalArgumentException if the code is unknown
+     */
+    public String productOf(int code) {
+        String[] current = products;
+        String productId = code >= 0 && code < current.length ? current[code] : null;
+        if (productId == null) {
+            throw new IllegalArgumentException("Unknown product code: " + code);
+        }
+        return productId;
+    }
+
+    /**
+     * Number of codes assigned so far; codes run from 0 to size - 1.
+     */
+    public synchronized int size() {
+        return size;
+    }
+}
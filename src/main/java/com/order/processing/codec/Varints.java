@@ -0,0 +1,77 @@
+package com.order.processing.codec;
+
+import java.nio.ByteBuffer;
+
+/**
+ * LEB128-style variable-length integers: 7 bits per byte, high bit set on
+ * every byte except the last. Small values take one byte.
+ *
+ * Signed values that may be negative should go through the zigzag variants,
+ * which map small negative numbers to small unsigned ones.
+ */
+public final class Varints {
+
+    private Varints() {
+    }
+
+    public static void putVarInt(ByteBuffer buf, int value) {
+        while ((value & ~0x7F) != 0) {
+            buf.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buf.put((byte) value);
+    }
+
+    public static int getVarInt(ByteBuffer buf) {
+        int result = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = buf.get();
+            result |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return result;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+
+    public static void putVarLong(ByteBuffer buf, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buf.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buf.put((byte) value);
+    }
+
+    public static long getVarLong(ByteBuffer buf) {
+        long result = 0;
+        for (int shift = 0; shift < 70; shift += 7) {
+            byte b = buf.get();
+            result |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return result;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varlong");
+    }
+
+    public static void putSignedVarLong(ByteBuffer buf, long value) {
+        putVarLong(buf, (value << 1) ^ (value >> 63));
+    }
+
+    public static long getSignedVarLong(ByteBuffer buf) {
+        long raw = getVarLong(buf);
+        return (raw >>> 1) ^ -(raw & 1);
+    }
+
+    /**
+     * Number of bytes {@link #putVarLong} writes for the value.
+     */
+    public static int varLongSize(long value) {
+        int size = 1;
+        while ((value & ~0x7FL) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+}
@@ -2,7 +2,7 @@ package com.order.processing.factory;
 
 import com.order.processing.model.Order;
 import com.order.processing.model.OrderItem;
-import com.order.processing.state.PendingState;
+import com.order.processing.state.OrderStates;
 import com.order.processing.util.DebugLogger;
 
 import java.math.BigDecimal;
@@ -48,7 +48,7 @@ public class StandardOrderFactory implements OrderFactory {
         DebugLogger.log(DebugLogger.Category.FACTORY, "createOrder", 
             "Creating Order object with PendingState");
         
-        Order order = new Order(items, new PendingState());
+        Order order = new Order(items, OrderStates.PENDING);
         
         DebugLogger.logOrderCreation(order.getId(), 
             order.getItemCount(), 
@@ -0,0 +1,245 @@
+package com.order.processing.index;
+
+import com.order.processing.state.OrderStatus;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Ordered index of order IDs by total amount, one skip list per
+ * {@link OrderStatus}, for top-K and amount-range queries.
+ *
+ * Queries for one status walk that status's skip list; queries across all
+ * statuses merge the per-status lists lazily. Either way only the entries a
+ * caller consumes are visited: nothing is copied or sorted.
+ *
+ * An order's amount never changes, so a status change moves its entry from one
+ * list to another. As in {@link StatusIndex} the entry is added to the new list
+ * before it leaves the old one; a concurrent reader may see it in both, and
+ * should compare {@link Entry#getStatus()} with the order's current status.
+ *
+ * Thread-safe; reads take no locks.
+ */
+public class AmountIndex {
+
+    private static final OrderStatus[] STATUSES = OrderStatus.values();
+
+    /**
+     * One indexed order, the amount it is indexed under and the status list it
+     * was found in.
+     */
+    public static final class Entry implements Comparable<Entry> {
+        private final BigDecimal amount;
+        private final String orderId;
+        private final OrderStatus status;
+        // -1 and 1 mark range bounds sorting before or after every order at the same amount
+        private final int bound;
+
+        Entry(BigDecimal amount, String orderId, OrderStatus status) {
+            this(amount, orderId, status, 0);
+        }
+
+        private Entry(BigDecimal amount, String orderId, OrderStatus status, int bound) {
+            this.amount = amount;
+            this.orderId = orderId;
+            this.status = status;
+            this.bound = bound;
+        }
+
+        public BigDecimal getAmount() {
+            return amount;
+        }
+
+        public String getOrderId() {
+            return orderId;
+        }
+
+        public OrderStatus getStatus() {
+            return status;
+        }
+
+        @Override
+        public int compareTo(Entry other) {
+            int byAmount = amount.compareTo(other.amount);
+            if (byAmount != 0) {
+                return byAmount;
+            }
+            if (bound != 0 || other.bound != 0) {
+                return Integer.compare(bound, other.bound);
+            }
+            return orderId.compareTo(other.orderId);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof Entry && compareTo((Entry) obj) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * amount.stripTrailingZeros().hashCode() + (orderId != null ? orderId.hashCode() : bound);
+        }
+    }
+
+    // Filled once here and only read afterwards, so a plain EnumMap is safe to share
+    private final Map<OrderStatus, NavigableSet<Entry>> byStatus = new EnumMap<>(OrderStatus.class);
+
+    public AmountIndex() {
+        for (OrderStatus status : STATUSES) {
+            byStatus.put(status, new ConcurrentSkipListSet<>());
+        }
+    }
+
+    /**
+     * Index an order under its amount and status. A null amount or status is
+     * ignored.
+     */
+    public void add(String orderId, BigDecimal amount, OrderStatus status) {
+        if (amount != null && status != null) {
+            byStatus.get(status).add(new Entry(amount, orderId, status));
+        }
+    }
+
+    /**
+     * Move an order from one status list to another.
+     *
+     * @param from Previous status, or null if the order was not indexed
+     * @param to New status
+     */
+    public void move(String orderId, BigDecimal amount, OrderStatus from, OrderStatus to) {
+        if (amount == null) {
+            return;
+        }
+        add(orderId, amount, to);
+        if (from != null && from != to) {
+            byStatus.get(from).remove(new Entry(amount, orderId, from));
+        }
+    }
+
+    /**
+     * Entries from the largest amount down, read lazily.
+     *
+     * @param status Status to look in, or null for all statuses
+     */
+    public Stream<Entry> descending(OrderStatus status) {
+        return range(null, null, status, false);
+    }
+
+    /**
+     * Entries with an amount in {@code [min, max]}, smallest first, read lazily.
+     *
+     * @param status Status to look in, or null for all statuses
+     */
+    public Stream<Entry> between(BigDecimal min, BigDecimal max, OrderStatus status) {
+        return range(min, max, status, true);
+    }
+
+    /**
+     * Entries with an amount in {@code [min, max]}, in either direction, read lazily.
+     *
+     * @param min Smallest amount, or null for none
+     * @param max Largest amount, or null for none
+     * @param status Status to look in, or null for all statuses
+     * @param ascending Smallest first if true, largest first otherwise
+     */
+    public Stream<Entry> range(BigDecimal min, BigDecimal max, OrderStatus status, boolean ascending) {
+        if (min != null && max != null && min.compareTo(max) > 0) {
+            return Stream.empty();
+        }
+        List<Iterable<Entry>> sources = new ArrayList<>();
+        for (NavigableSet<Entry> set : sets(status)) {
+            NavigableSet<Entry> view = set;
+            if (min != null) {
+                view = view.tailSet(new Entry(min, null, null, -1), true);
+            }
+            if (max != null) {
+                view = view.headSet(new Entry(max, null, null, 1), true);
+            }
+            sources.add(ascending ? view : view.descendingSet());
+        }
+        return merge(sources, !ascending);
+    }
+
+    /**
+     * Number of entries in one status list, or in all of them for a null
+     * status. Counts in linear time.
+     */
+    public int size(OrderStatus status) {
+        int size = 0;
+        for (NavigableSet<Entry> set : sets(status)) {
+            size += set.size();
+        }
+        return size;
+    }
+
+    private List<NavigableSet<Entry>> sets(OrderStatus status) {
+        return status != null ? List.of(byStatus.get(status)) : List.copyOf(byStatus.values());
+    }
+
+    private static Stream<Entry> merge(List<Iterable<Entry>> sources, boolean descending) {
+        if (sources.size() == 1) {
+            return StreamSupport.stream(sources.get(0).spliterator(), false);
+        }
+        Iterator<Entry> merged = new MergingIterator(sources, descending);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(merged, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * K-way merge of already sorted iterators, holding one entry per source.
+     */
+    private static final class MergingIterator implements Iterator<Entry> {
+        private static final class Head {
+            final Entry entry;
+            final Iterator<Entry> rest;
+
+            Head(Entry entry, Iterator<Entry> rest) {
+                this.entry = entry;
+                this.rest = rest;
+            }
+        }
+
+        private final PriorityQueue<Head> heads;
+
+        MergingIterator(List<Iterable<Entry>> sources, boolean descending) {
+            heads = new PriorityQueue<>(Math.max(1, sources.size()), descending
+                ? (a, b) -> b.entry.compareTo(a.entry)
+                : (a, b) -> a.entry.compareTo(b.entry));
+            for (Iterable<Entry> source : sources) {
+                advance(source.iterator());
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !heads.isEmpty();
+        }
+
+        @Override
+        public Entry next() {
+            Head head = heads.poll();
+            if (head == null) {
+                throw new NoSuchElementException();
+            }
+            advance(head.rest);
+            return head.entry;
+        }
+
+        private void advance(Iterator<Entry> source) {
+            if (source.hasNext()) {
+                heads.add(new Head(source.next(), source));
+            }
+        }
+    }
+}
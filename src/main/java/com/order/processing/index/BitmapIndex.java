@@ -0,0 +1,254 @@
+package com.order.processing.index;
+
+import com.order.processing.codec.ProductDictionary;
+import com.order.processing.model.Order;
+import com.order.processing.model.OrderItem;
+import com.order.processing.state.OrderStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Compressed {@link SlotBitmap}s of order slots per status, per creation day,
+ * per total amount bucket and per product, for filters that combine several
+ * of them.
+ *
+ * Each accessor returns a fresh bitmap, the OR of the bitmaps it covers, which
+ * the caller may AND/OR further and then turn back into order IDs with
+ * {@link #orderIdOf}. Day and status bitmaps are exact. Amount bitmaps work at
+ * bucket granularity and may include orders just outside the requested range,
+ * so callers must re-check the amount of what they materialize.
+ *
+ * Every bitmap has its own read-write lock, so writers only wait for each
+ * other when they touch the same bitmap: a transition locks just the two
+ * status bitmaps involved, one after the other, and orders for different
+ * products or days are added side by side. Transitions into the same status
+ * still take turns on that status's bitmap. Because no lock spans several
+ * bitmaps, an order being added or moved can briefly show up in some of them
+ * and not others; callers re-check the orders they materialize anyway.
+ */
+public class BitmapIndex {
+
+    private static final OrderStatus[] STATUSES = OrderStatus.values();
+
+    /**
+     * One bitmap and the lock that guards it.
+     */
+    private static final class Stripe {
+        final SlotBitmap bitmap = new SlotBitmap();
+        final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+        void add(int slot) {
+            lock.writeLock().lock();
+            try {
+                bitmap.add(slot);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void remove(int slot) {
+            lock.writeLock().lock();
+            try {
+                bitmap.remove(slot);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        /**
+         * A copy of this bitmap OR-ed into {@code result}, or just a copy if result is null.
+         */
+        SlotBitmap orInto(SlotBitmap result) {
+            lock.readLock().lock();
+            try {
+                return result == null ? bitmap.copy() : SlotBitmap.or(result, bitmap);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        int cardinality() {
+            lock.readLock().lock();
+            try {
+                return bitmap.cardinality();
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+    }
+
+    /** Default amount bucket bounds: under $10, $10-$100, ... $100k and over. */
+    public static final List<BigDecimal> DEFAULT_AMOUNT_BOUNDS = List.of(
+        new BigDecimal("10"), new BigDecimal("100"), new BigDecimal("1000"),
+        new BigDecimal("10000"), new BigDecimal("100000"));
+
+    private final OrderSlots orderSlots;
+    private final ProductDictionary products = new ProductDictionary();
+    private final BigDecimal[] amountBounds;
+    private final Stripe[] byStatus = new Stripe[STATUSES.length];
+    private final Stripe[] byAmountBucket;
+    private final NavigableMap<LocalDate, Stripe> byCreatedDay = new ConcurrentSkipListMap<>();
+    // Indexed by product code; grown under its own monitor, read without locking
+    private final List<Stripe> byProduct = new CopyOnWriteArrayList<>();
+
+    public BitmapIndex(OrderSlots orderSlots) {
+        this(orderSlots, DEFAULT_AMOUNT_BOUNDS);
+    }
+
+    /**
+     * @param orderSlots Slot mapping for order IDs, possibly shared with other indexes
+     * @param amountBounds Ascending bucket bounds; bucket i holds amounts below bound i
+     *                     and at or above bound i - 1, the last bucket everything above
+     * @throws IllegalArgumentException if the bounds are not strictly ascending
+     */
+    public BitmapIndex(OrderSlots orderSlots, List<BigDecimal> amountBounds) {
+        for (int i = 1; i < amountBounds.size(); i++) {
+            if (amountBounds.get(i).compareTo(amountBounds.get(i - 1)) <= 0) {
+                throw new IllegalArgumentException("Amount bounds must be strictly ascending: " + amountBounds);
+            }
+        }
+        this.orderSlots = orderSlots;
+        this.amountBounds = amountBounds.toArray(new BigDecimal[0]);
+        this.byAmountBucket = new Stripe[this.amountBounds.length + 1];
+        Arrays.setAll(byStatus, i -> new Stripe());
+        Arrays.setAll(byAmountBucket, i -> new Stripe());
+    }
+
+    /**
+     * Index an order under its status, creation day, amount bucket and each of
+     * its products. Null fields are skipped.
+     */
+    public void add(Order order) {
+        int slot = orderSlots.intern(order.getId());
+        OrderStatus status = order.getStatus();
+        if (status != null) {
+            byStatus[status.ordinal()].add(slot);
+        }
+        if (order.getCreatedAt() != null) {
+            byCreatedDay.computeIfAbsent(order.getCreatedAt().toLocalDate(), day -> new Stripe()).add(slot);
+        }
+        if (order.getTotalAmount() != null) {
+            byAmountBucket[bucketOf(order.getTotalAmount())].add(slot);
+        }
+        for (OrderItem item : order.getItems()) {
+            productStripe(products.intern(item.getProductId())).add(slot);
+        }
+    }
+
+    /**
+     * Move an order from one status bitmap to another.
+     *
+     * @param from Previous status, or null if the order was not indexed
+     * @param to New status
+     */
+    public void move(String orderId, OrderStatus from, OrderStatus to) {
+        int slot = orderSlots.intern(orderId);
+        byStatus[to.ordinal()].add(slot);
+        if (from != null && from != to) {
+            byStatus[from.ordinal()].remove(slot);
+        }
+    }
+
+    /**
+     * Orders in any of the given statuses.
+     */
+    public SlotBitmap withStatus(Collection<OrderStatus> statuses) {
+        List<Stripe> covered = new ArrayList<>();
+        for (OrderStatus status : statuses) {
+            covered.add(byStatus[status.ordinal()]);
+        }
+        return union(covered);
+    }
+
+    /**
+     * Orders created on any day from {@code from} to {@code to}, both inclusive.
+     */
+    public SlotBitmap createdBetween(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            return new SlotBitmap();
+        }
+        return union(byCreatedDay.subMap(from, true, to, true).values());
+    }
+
+    /**
+     * Orders in every amount bucket overlapping {@code [min, max]}: a superset
+     * of the orders whose total is in range.
+     *
+     * @param max Largest amount, or null for no upper bound
+     */
+    public SlotBitmap withTotalBetween(BigDecimal min, BigDecimal max) {
+        if (max != null && min.compareTo(max) > 0) {
+            return new SlotBitmap();
+        }
+        int last = max != null ? bucketOf(max) : byAmountBucket.length - 1;
+        return union(Arrays.asList(byAmountBucket).subList(bucketOf(min), last + 1));
+    }
+
+    /**
+     * Orders with at least one item of a product.
+     */
+    public SlotBitmap containing(String productId) {
+        int code = products.codeOf(productId);
+        return code >= 0 && code < byProduct.size() ? byProduct.get(code).orInto(null) : new SlotBitmap();
+    }
+
+    /**
+     * Number of orders with at least one item of a product, without copying
+     * its bitmap.
+     */
+    public int countContaining(String productId) {
+        int code = products.codeOf(productId);
+        return code >= 0 && code < byProduct.size() ? byProduct.get(code).cardinality() : 0;
+    }
+
+    /**
+     * Number of orders indexed under a status.
+     */
+    public int count(OrderStatus status) {
+        return byStatus[status.ordinal()].cardinality();
+    }
+
+    /**
+     * Order ID for a slot found in one of this index's bitmaps.
+     */
+    public String orderIdOf(int slot) {
+        return orderSlots.idOf(slot);
+    }
+
+    private int bucketOf(BigDecimal amount) {
+        int bucket = 0;
+        while (bucket < amountBounds.length && amount.compareTo(amountBounds[bucket]) >= 0) {
+            bucket++;
+        }
+        return bucket;
+    }
+
+    private Stripe productStripe(int code) {
+        if (code < byProduct.size()) {
+            return byProduct.get(code);
+        }
+        synchronized (byProduct) {
+            while (byProduct.size() <= code) {
+                byProduct.add(new Stripe());
+            }
+            return byProduct.get(code);
+        }
+    }
+
+    private static SlotBitmap union(Collection<Stripe> stripes) {
+        SlotBitmap result = null;
+        for (Stripe stripe : stripes) {
+            result = stripe.orInto(result);
+        }
+        return result != null ? result : new SlotBitmap();
+    }
+}
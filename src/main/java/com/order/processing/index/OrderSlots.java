@@ -0,0 +1,75 @@
+package com.order.processing.index;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Two-way mapping between order IDs and small dense integer slots, so indexes
+ * can keep primitive int lists and bitmaps instead of sets of ID strings.
+ *
+ * Slots are handed out in order from 0 and never reused. Lookups are
+ * lock-free; assigning a new slot is synchronized.
+ */
+public class OrderSlots {
+
+    private final Map<String, Integer> slots = new ConcurrentHashMap<>();
+    private volatile String[] ids = new String[1024];
+    private int size;
+
+    /**
+     * Get the slot of an order, or -1 if it has none yet.
+     */
+    public int slotOf(String orderId) {
+        Integer slot = slots.get(orderId);
+        return slot != null ? slot : -1;
+    }
+
+    /**
+     * Get the slot of an order, assigning the next free one if needed.
+     */
+    public int intern(String orderId) {
+        Integer slot = slots.get(orderId);
+        if (slot != null) {
+            return slot;
+        }
+        synchronized (this) {
+            slot = slots.get(orderId);
+            if (slot != null) {
+                return slot;
+            }
+            int assigned = size;
+            String[] current = ids;
+            if (assigned == current.length) {
+                current = Arrays.copyOf(current, current.length * 2);
+            }
+            current[assigned] = orderId;
+            // Publish the array before the slot, so a reader holding the slot finds the ID
+            ids = current;
+            slots.put(orderId, assigned);
+            size = assigned + 1;
+            return assigned;
+        }
+    }
+
+    /**
+     * Get the order ID in a slot.
+     *
+     * @throws IllegalArgumentException if the slot is unassigned
+     */
+    public String idOf(int slot) {
+        String[] current = ids;
+        String orderId = slot >= 0 && slot < current.length ? current[slot] : null;
+        if (orderId == null) {
+            throw new IllegalArgumentException("Unassigned order slot: " + slot);
+        }
+        return orderId;
+    }
+
+    /**
+     * Number of slots assigned so far; slots run from 0 to size - 1.
+     */
+    public synchronized int size() {
+        return size;
+    }
+}
@@ -0,0 +1,204 @@
+package com.order.processing.index;
+
+import com.order.processing.codec.ProductDictionary;
+import com.order.processing.model.Order;
+import com.order.processing.model.OrderItem;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.IntConsumer;
+
+/**
+ * Inverted index from product ID to the open orders that contain it, e.g. to
+ * find every order hit by a product recall.
+ *
+ * Products get dense codes from a {@link ProductDictionary} and orders get
+ * dense slots from {@link OrderSlots}; each product keeps a primitive int list
+ * of order slots, four bytes per entry. Closing an order (it reached a terminal
+ * status) only sets its bit in a closed bitmap; a product's list is compacted
+ * once more than half of it is closed, so removals are amortized constant time
+ * however popular the product.
+ *
+ * Thread-safe. Appends and compaction lock one product's list; readers lock it
+ * only to pick up its current array and length, then iterate without locks.
+ * Arrays are never written below their published length, so that pair stays
+ * valid while it is read.
+ */
+public class ProductIndex {
+
+    /**
+     * Order slots for one product. Closed slots stay until the next compaction.
+     */
+    private static final class SlotList {
+        int[] slots = new int[4];
+        int size;
+        int closed;
+    }
+
+    private final OrderSlots orderSlots;
+    private final ProductDictionary products = new ProductDictionary();
+    private volatile SlotList[] lists = new SlotList[64];
+    private volatile AtomicLongArray closedBits = new AtomicLongArray(1024);
+
+    /**
+     * @param orderSlots Slot mapping for order IDs, possibly shared with other indexes
+     */
+    public ProductIndex(OrderSlots orderSlots) {
+        this.orderSlots = orderSlots;
+    }
+
+    /**
+     * Index an open order under each distinct product it contains.
+     */
+    public void add(Order order) {
+        int slot = orderSlots.intern(order.getId());
+        for (int code : distinctCodes(order, true)) {
+            SlotList list = listFor(code);
+            synchronized (list) {
+                if (list.size == list.slots.length) {
+                    list.slots = Arrays.copyOf(list.slots, list.size * 2);
+                }
+                list.slots[list.size++] = slot;
+            }
+        }
+    }
+
+    /**
+     * Drop an order from the index because it is no longer open. Closing an
+     * order twice, or one that was never added, is a no-op.
+     */
+    public void close(Order order) {
+        int slot = orderSlots.slotOf(order.getId());
+        if (slot < 0 || !markClosed(slot)) {
+            return;
+        }
+        SlotList[] current = lists;
+        for (int code : distinctCodes(order, false)) {
+            SlotList list = code < current.length ? current[code] : null;
+            if (list == null) {
+                continue;
+            }
+            synchronized (list) {
+                if (++list.closed > list.size / 2) {
+                    compact(list);
+                }
+            }
+        }
+    }
+
+    /**
+     * Pass the slot of every open order containing a product to an action,
+     * in the order they were added.
+     */
+    public void forEachOpen(String productId, IntConsumer action) {
+        int code = products.codeOf(productId);
+        SlotList[] current = lists;
+        SlotList list = code >= 0 && code < current.length ? current[code] : null;
+        if (list == null) {
+            return;
+        }
+        int[] slots;
+        int size;
+        synchronized (list) {
+            slots = list.slots;
+            size = list.size;
+        }
+        for (int i = 0; i < size; i++) {
+            if (!isClosed(slots[i])) {
+                action.accept(slots[i]);
+            }
+        }
+    }
+
+    /**
+     * Number of open orders containing a product.
+     */
+    public int countOpen(String productId) {
+        int[] count = new int[1];
+        forEachOpen(productId, slot -> count[0]++);
+        return count[0];
+    }
+
+    /**
+     * Order ID for a slot passed to {@link #forEachOpen}.
+     */
+    public String orderIdOf(int slot) {
+        return orderSlots.idOf(slot);
+    }
+
+    private int[] distinctCodes(Order order, boolean assign) {
+        int[] codes = new int[order.getItemCount()];
+        int count = 0;
+        for (OrderItem item : order.getItems()) {
+            int code = assign ? products.intern(item.getProductId()) : products.codeOf(item.getProductId());
+            boolean seen = code < 0;
+            for (int i = 0; i < count && !seen; i++) {
+                seen = codes[i] == code;
+            }
+            if (!seen) {
+                codes[count++] = code;
+            }
+        }
+        return count == codes.length ? codes : Arrays.copyOf(codes, count);
+    }
+
+    private SlotList listFor(int code) {
+        SlotList[] current = lists;
+        if (code < current.length && current[code] != null) {
+            return current[code];
+        }
+        synchronized (this) {
+            current = lists;
+            if (code >= current.length) {
+                current = Arrays.copyOf(current, Math.max(current.length * 2, code + 1));
+            }
+            if (current[code] == null) {
+                current[code] = new SlotList();
+            }
+            lists = current;
+            return current[code];
+        }
+    }
+
+    private void compact(SlotList list) {
+        int[] live = new int[list.size];
+        int size = 0;
+        for (int i = 0; i < list.size; i++) {
+            if (!isClosed(list.slots[i])) {
+                live[size++] = list.slots[i];
+            }
+        }
+        // A fresh array: readers may still be iterating the old one
+        list.slots = Arrays.copyOf(live, Math.max(4, size * 2));
+        list.size = size;
+        list.closed = 0;
+    }
+
+    /**
+     * Set a slot's closed bit. Synchronized so growing the bitmap cannot lose
+     * a bit set while it is being copied; readers stay lock-free.
+     *
+     * @return Whether the bit was newly set
+     */
+    private synchronized boolean markClosed(int slot) {
+        AtomicLongArray bits = closedBits;
+        int word = slot >>> 6;
+        if (word >= bits.length()) {
+            AtomicLongArray grown = new AtomicLongArray(Math.max(bits.length() * 2, word + 1));
+            for (int i = 0; i < bits.length(); i++) {
+                grown.set(i, bits.get(i));
+            }
+            closedBits = grown;
+            bits = grown;
+        }
+        long previous = bits.get(word);
+        bits.set(word, previous | (1L << slot));
+        return (previous & (1L << slot)) == 0;
+    }
+
+    private boolean isClosed(int slot) {
+        AtomicLongArray bits = closedBits;
+        int word = slot >>> 6;
+        return word < bits.length() && (bits.get(word) & (1L << slot)) != 0;
+    }
+}
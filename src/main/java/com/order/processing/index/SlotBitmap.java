@@ -0,0 +1,386 @@
+package com.order.processing.index;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Compressed set of non-negative int slots, laid out like a roaring bitmap.
+ *
+ * Slots are split by their high 16 bits into chunks of 65,536. Each chunk keeps
+ * its low 16 bits either as a sorted {@code char[]} while it holds at most
+ * 4,096 values, or as a 1,024-word {@code long[]} bitset once it holds more, so
+ * no chunk takes more than 8 KB however sparse or dense it is. AND and OR work
+ * chunk by chunk and skip chunks missing on one side.
+ *
+ * Not thread-safe; {@link BitmapIndex} guards the bitmaps it keeps and hands
+ * out copies.
+ */
+public final class SlotBitmap {
+
+    /** Values above which a chunk switches from a sorted array to a bitset. */
+    static final int ARRAY_LIMIT = 4096;
+    private static final int BITSET_WORDS = 1024;
+
+    /**
+     * Low 16 bits of the slots in one chunk. Exactly one of values and words is set.
+     */
+    private static final class Chunk {
+        char[] values;
+        long[] words;
+        int cardinality;
+
+        static Chunk ofArray(char[] values, int cardinality) {
+            Chunk chunk = new Chunk();
+            chunk.values = values;
+            chunk.cardinality = cardinality;
+            return chunk;
+        }
+
+        static Chunk ofWords(long[] words, int cardinality) {
+            Chunk chunk = new Chunk();
+            chunk.words = words;
+            chunk.cardinality = cardinality;
+            return chunk;
+        }
+
+        Chunk copy() {
+            return values != null
+                ? ofArray(Arrays.copyOf(values, Math.max(cardinality, 1)), cardinality)
+                : ofWords(words.clone(), cardinality);
+        }
+
+        boolean contains(char low) {
+            if (words != null) {
+                return (words[low >>> 6] & (1L << low)) != 0;
+            }
+            return Arrays.binarySearch(values, 0, cardinality, low) >= 0;
+        }
+
+        boolean add(char low) {
+            if (words != null) {
+                long before = words[low >>> 6];
+                words[low >>> 6] = before | (1L << low);
+                if (before == words[low >>> 6]) {
+                    return false;
+                }
+                cardinality++;
+                return true;
+            }
+            int at = Arrays.binarySearch(values, 0, cardinality, low);
+            if (at >= 0) {
+                return false;
+            }
+            if (cardinality == ARRAY_LIMIT) {
+                toWords();
+                return add(low);
+            }
+            at = -at - 1;
+            if (cardinality == values.length) {
+                values = Arrays.copyOf(values, Math.min(ARRAY_LIMIT, values.length * 2));
+            }
+            System.arraycopy(values, at, values, at + 1, cardinality - at);
+            values[at] = low;
+            cardinality++;
+            return true;
+        }
+
+        boolean remove(char low) {
+            if (words != null) {
+                long before = words[low >>> 6];
+                words[low >>> 6] = before & ~(1L << low);
+                if (before == words[low >>> 6]) {
+                    return false;
+                }
+                if (--cardinality <= ARRAY_LIMIT) {
+                    toArray();
+                }
+                return true;
+            }
+            int at = Arrays.binarySearch(values, 0, cardinality, low);
+            if (at < 0) {
+                return false;
+            }
+            System.arraycopy(values, at + 1, values, at, cardinality - at - 1);
+            cardinality--;
+            return true;
+        }
+
+        void forEach(int high, IntConsumer action) {
+            if (values != null) {
+                for (int i = 0; i < cardinality; i++) {
+                    action.accept(high | values[i]);
+                }
+                return;
+            }
+            for (int w = 0; w < BITSET_WORDS; w++) {
+                long word = words[w];
+                while (word != 0) {
+                    action.accept(high | (w << 6) | Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+        }
+
+        private void toWords() {
+            long[] bits = new long[BITSET_WORDS];
+            for (int i = 0; i < cardinality; i++) {
+                bits[values[i] >>> 6] |= 1L << values[i];
+            }
+            words = bits;
+            values = null;
+        }
+
+        private void toArray() {
+            char[] array = new char[Math.max(cardinality, 1)];
+            int size = 0;
+            for (int w = 0; w < BITSET_WORDS; w++) {
+                long word = words[w];
+                while (word != 0) {
+                    array[size++] = (char) ((w << 6) | Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+            values = array;
+            words = null;
+        }
+
+        static Chunk and(Chunk a, Chunk b) {
+            if (a.words != null && b.words != null) {
+                long[] words = new long[BITSET_WORDS];
+                int cardinality = 0;
+                for (int w = 0; w < BITSET_WORDS; w++) {
+                    words[w] = a.words[w] & b.words[w];
+                    cardinality += Long.bitCount(words[w]);
+                }
+                Chunk chunk = ofWords(words, cardinality);
+                if (cardinality <= ARRAY_LIMIT) {
+                    chunk.toArray();
+                }
+                return chunk;
+            }
+            // At least one side is a small array: probe the other with each of its values
+            Chunk small = a.values != null && (b.values == null || a.cardinality <= b.cardinality) ? a : b;
+            Chunk other = small == a ? b : a;
+            char[] values = new char[Math.max(small.cardinality, 1)];
+            int cardinality = 0;
+            for (int i = 0; i < small.cardinality; i++) {
+                if (other.contains(small.values[i])) {
+                    values[cardinality++] = small.values[i];
+                }
+            }
+            return ofArray(values, cardinality);
+        }
+
+        static Chunk or(Chunk a, Chunk b) {
+            if (a.values != null && b.values != null && a.cardinality + b.cardinality <= ARRAY_LIMIT) {
+                char[] values = new char[Math.max(a.cardinality + b.cardinality, 1)];
+                int i = 0, j = 0, cardinality = 0;
+                while (i < a.cardinality || j < b.cardinality) {
+                    char next;
+                    if (j == b.cardinality || (i < a.cardinality && a.values[i] < b.values[j])) {
+                        next = a.values[i++];
+                    } else if (i == a.cardinality || b.values[j] < a.values[i]) {
+                        next = b.values[j++];
+                    } else {
+                        next = a.values[i++];
+                        j++;
+                    }
+                    values[cardinality++] = next;
+                }
+                return ofArray(values, cardinality);
+            }
+            // Start from a bitset side if there is one, and fold the other side in
+            Chunk base = a.words != null || b.words == null ? a : b;
+            Chunk other = base == a ? b : a;
+            Chunk merged = base.copy();
+            if (merged.words == null) {
+                merged.toWords();
+            }
+            if (other.words != null) {
+                int cardinality = 0;
+                for (int w = 0; w < BITSET_WORDS; w++) {
+                    merged.words[w] |= other.words[w];
+                    cardinality += Long.bitCount(merged.words[w]);
+                }
+                merged.cardinality = cardinality;
+            } else {
+                for (int i = 0; i < other.cardinality; i++) {
+                    merged.add(other.values[i]);
+                }
+            }
+            return merged;
+        }
+    }
+
+    private char[] keys = new char[4];
+    private Chunk[] chunks = new Chunk[4];
+    private int size;
+
+    public SlotBitmap() {
+    }
+
+    /**
+     * A bitmap holding the given slots.
+     */
+    public static SlotBitmap of(int... slots) {
+        SlotBitmap bitmap = new SlotBitmap();
+        for (int slot : slots) {
+            bitmap.add(slot);
+        }
+        return bitmap;
+    }
+
+    /**
+     * Add a slot.
+     *
+     * @return Whether the slot was not already present
+     * @throws IllegalArgumentException if the slot is negative
+     */
+    public boolean add(int slot) {
+        if (slot < 0) {
+            throw new IllegalArgumentException("Slot must be non-negative: " + slot);
+        }
+        char high = (char) (slot >>> 16);
+        int at = Arrays.binarySearch(keys, 0, size, high);
+        if (at < 0) {
+            at = -at - 1;
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                chunks = Arrays.copyOf(chunks, size * 2);
+            }
+            System.arraycopy(keys, at, keys, at + 1, size - at);
+            System.arraycopy(chunks, at, chunks, at + 1, size - at);
+            keys[at] = high;
+            chunks[at] = Chunk.ofArray(new char[4], 0);
+            size++;
+        }
+        return chunks[at].add((char) slot);
+    }
+
+    /**
+     * Remove a slot.
+     *
+     * @return Whether the slot was present
+     */
+    public boolean remove(int slot) {
+        if (slot < 0) {
+            return false;
+        }
+        int at = Arrays.binarySearch(keys, 0, size, (char) (slot >>> 16));
+        if (at < 0 || !chunks[at].remove((char) slot)) {
+            return false;
+        }
+        if (chunks[at].cardinality == 0) {
+            System.arraycopy(keys, at + 1, keys, at, size - at - 1);
+            System.arraycopy(chunks, at + 1, chunks, at, size - at - 1);
+            chunks[--size] = null;
+        }
+        return true;
+    }
+
+    public boolean contains(int slot) {
+        if (slot < 0) {
+            return false;
+        }
+        int at = Arrays.binarySearch(keys, 0, size, (char) (slot >>> 16));
+        return at >= 0 && chunks[at].contains((char) slot);
+    }
+
+    /**
+     * Number of slots present.
+     */
+    public int cardinality() {
+        int cardinality = 0;
+        for (int i = 0; i < size; i++) {
+            cardinality += chunks[i].cardinality;
+        }
+        return cardinality;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Pass every slot to an action, in ascending order.
+     */
+    public void forEach(IntConsumer action) {
+        for (int i = 0; i < size; i++) {
+            chunks[i].forEach(keys[i] << 16, action);
+        }
+    }
+
+    /**
+     * Every slot, in ascending order.
+     */
+    public int[] toArray() {
+        int[] slots = new int[cardinality()];
+        int[] next = new int[1];
+        forEach(slot -> slots[next[0]++] = slot);
+        return slots;
+    }
+
+    /**
+     * An independent copy of this bitmap.
+     */
+    public SlotBitmap copy() {
+        SlotBitmap copy = new SlotBitmap();
+        copy.keys = Arrays.copyOf(keys, Math.max(size, 4));
+        copy.chunks = new Chunk[copy.keys.length];
+        for (int i = 0; i < size; i++) {
+            copy.chunks[i] = chunks[i].copy();
+        }
+        copy.size = size;
+        return copy;
+    }
+
+    /**
+     * Slots present in both bitmaps, as a new bitmap.
+     */
+    public static SlotBitmap and(SlotBitmap a, SlotBitmap b) {
+        SlotBitmap result = new SlotBitmap();
+        int i = 0, j = 0;
+        while (i < a.size && j < b.size) {
+            if (a.keys[i] < b.keys[j]) {
+                i++;
+            } else if (b.keys[j] < a.keys[i]) {
+                j++;
+            } else {
+                Chunk chunk = Chunk.and(a.chunks[i], b.chunks[j]);
+                if (chunk.cardinality > 0) {
+                    result.append(a.keys[i], chunk);
+                }
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Slots present in either bitmap, as a new bitmap.
+     */
+    public static SlotBitmap or(SlotBitmap a, SlotBitmap b) {
+        SlotBitmap result = new SlotBitmap();
+        int i = 0, j = 0;
+        while (i < a.size || j < b.size) {
+            if (j == b.size || (i < a.size && a.keys[i] < b.keys[j])) {
+                result.append(a.keys[i], a.chunks[i++].copy());
+            } else if (i == a.size || b.keys[j] < a.keys[i]) {
+                result.append(b.keys[j], b.chunks[j++].copy());
+            } else {
+                result.append(a.keys[i], Chunk.or(a.chunks[i++], b.chunks[j++]));
+            }
+        }
+        return result;
+    }
+
+    private void append(char key, Chunk chunk) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            chunks = Arrays.copyOf(chunks, size * 2);
+        }
+        keys[size] = key;
+        chunks[size++] = chunk;
+    }
+}
@@ -0,0 +1,67 @@
+package com.order.processing.index;
+
+import com.order.processing.state.OrderStatus;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Secondary index from each {@link OrderStatus} to the IDs of the orders in it.
+ *
+ * A move adds the ID under its new status before removing it from the old one,
+ * so a concurrent reader never misses an order mid-transition; it may briefly
+ * see the ID under both statuses and should check the order's status itself.
+ *
+ * Thread-safe; lookups take no locks.
+ */
+public class StatusIndex {
+
+    // Filled once here and only read afterwards, so a plain EnumMap is safe to share
+    private final Map<OrderStatus, Set<String>> byStatus = new EnumMap<>(OrderStatus.class);
+
+    public StatusIndex() {
+        for (OrderStatus status : OrderStatus.values()) {
+            byStatus.put(status, ConcurrentHashMap.newKeySet());
+        }
+    }
+
+    /**
+     * Index an order under its status. A null status is ignored.
+     */
+    public void add(String orderId, OrderStatus status) {
+        if (status != null) {
+            byStatus.get(status).add(orderId);
+        }
+    }
+
+    /**
+     * Move an order from one status to another.
+     *
+     * @param from Previous status, or null if the order was not indexed
+     * @param to New status
+     */
+    public void move(String orderId, OrderStatus from, OrderStatus to) {
+        add(orderId, to);
+        if (from != null && from != to) {
+            byStatus.get(from).remove(orderId);
+        }
+    }
+
+    /**
+     * Live, unmodifiable view of the IDs currently indexed under a status.
+     * Iterating it costs in proportion to its size, not the number of orders.
+     */
+    public Set<String> idsWith(OrderStatus status) {
+        return Collections.unmodifiableSet(byStatus.get(status));
+    }
+
+    /**
+     * Number of IDs currently indexed under a status.
+     */
+    public int count(OrderStatus status) {
+        return byStatus.get(status).size();
+    }
+}
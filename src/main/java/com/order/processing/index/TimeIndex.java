@@ -0,0 +1,155 @@
+package com.order.processing.index;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.stream.Stream;
+
+/**
+ * Ordered index of order IDs by a timestamp, for range queries such as
+ * "created between T1 and T2" or "not modified since T".
+ *
+ * Entries live in a concurrent skip list sorted by time, then ID. Range
+ * queries return lazy streams over a live view of the list, so a caller that
+ * stops early never touches the rest of the range.
+ *
+ * Immutable timestamps are indexed with {@link #add}. Timestamps that change
+ * are indexed with {@link #update}, which also remembers each order's current
+ * time so its old entry can be dropped. An update adds the new entry before
+ * removing the old one: a concurrent reader may see both, and should compare
+ * {@link Entry#getTime()} with the order's current timestamp.
+ *
+ * Thread-safe; reads take no locks.
+ */
+public class TimeIndex {
+
+    /**
+     * One indexed order and the time it is indexed under.
+     */
+    public static final class Entry implements Comparable<Entry> {
+        private final LocalDateTime time;
+        private final String orderId;
+
+        Entry(LocalDateTime time, String orderId) {
+            this.time = time;
+            this.orderId = orderId;
+        }
+
+        public LocalDateTime getTime() {
+            return time;
+        }
+
+        public String getOrderId() {
+            return orderId;
+        }
+
+        @Override
+        public int compareTo(Entry other) {
+            int byTime = time.compareTo(other.time);
+            return byTime != 0 ? byTime : orderId.compareTo(other.orderId);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Entry)) {
+                return false;
+            }
+            Entry other = (Entry) obj;
+            return time.equals(other.time) && orderId.equals(other.orderId);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * time.hashCode() + orderId.hashCode();
+        }
+    }
+
+    // The empty ID sorts before every other, so (t, "") bounds a range at exactly t
+    private static final String LOWEST_ID = "";
+
+    private final NavigableSet<Entry> entries = new ConcurrentSkipListSet<>();
+    private final Map<String, LocalDateTime> current = new ConcurrentHashMap<>();
+
+    /**
+     * Index an order under a timestamp that never changes. Adding the same pair
+     * again is a no-op. A null time is ignored.
+     */
+    public void add(String orderId, LocalDateTime time) {
+        if (time != null) {
+            entries.add(new Entry(time, orderId));
+        }
+    }
+
+    /**
+     * Index an order under its latest timestamp, replacing the entry for the
+     * previous one. Updates of the same order are applied one at a time. A null
+     * time is ignored.
+     */
+    public void update(String orderId, LocalDateTime time) {
+        if (time == null) {
+            return;
+        }
+        current.compute(orderId, (id, previous) -> {
+            entries.add(new Entry(time, id));
+            if (previous != null && !previous.equals(time)) {
+                entries.remove(new Entry(previous, id));
+            }
+            return time;
+        });
+    }
+
+    /**
+     * Entries with a time in {@code [from, to)}, oldest first, read lazily.
+     */
+    public Stream<Entry> between(LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            return Stream.empty();
+        }
+        return entries.subSet(new Entry(from, LOWEST_ID), true, new Entry(to, LOWEST_ID), false).stream();
+    }
+
+    /**
+     * Entries with a time before {@code to}, oldest first, read lazily.
+     */
+    public Stream<Entry> before(LocalDateTime to) {
+        return entries.headSet(new Entry(to, LOWEST_ID), false).stream();
+    }
+
+    /**
+     * Entries with a time at or after {@code from}, oldest first, read lazily.
+     */
+    public Stream<Entry> since(LocalDateTime from) {
+        return entries.tailSet(new Entry(from, LOWEST_ID), true).stream();
+    }
+
+    /**
+     * Entries with a time in {@code [from, to)}, in either direction, read lazily.
+     *
+     * @param from Lower bound, inclusive, or null for none
+     * @param to Upper bound, exclusive, or null for none
+     * @param ascending Oldest first if true, newest first otherwise
+     */
+    public Stream<Entry> range(LocalDateTime from, LocalDateTime to, boolean ascending) {
+        if (from != null && to != null && !from.isBefore(to)) {
+            return Stream.empty();
+        }
+        NavigableSet<Entry> view = entries;
+        if (from != null) {
+            view = view.tailSet(new Entry(from, LOWEST_ID), true);
+        }
+        if (to != null) {
+            view = view.headSet(new Entry(to, LOWEST_ID), false);
+        }
+        return (ascending ? view : view.descendingSet()).stream();
+    }
+
+    /**
+     * Number of entries, including any old entry not yet removed by a concurrent
+     * update. Counts in linear time.
+     */
+    public int size() {
+        return entries.size();
+    }
+}
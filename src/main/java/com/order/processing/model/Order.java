@@ -4,27 +4,105 @@ import com.order.processing.state.OrderState;
 import com.order.processing.state.OrderStatus;
 import com.order.processing.util.DebugLogger;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneRules;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
 
+/**
+ * An order and its current state.
+ *
+ * The state, a version counting transitions and the last-modified time live
+ * together in one immutable {@link StateWord}. A transition is a
+ * compare-and-set of that word through a {@link VarHandle}, so when two
+ * threads race to move the same order only one of them wins; the other sees
+ * the winner's state and succeeds only if that state allows its transition
+ * too. Deciding the race takes no lock.
+ *
+ * Announcing the result can block, though. The transition listener hears
+ * about transitions in version order, so a winner whose predecessor's
+ * listener call is still running (which for a journaled service includes
+ * the journal write and possibly an fsync) waits on this order's monitor
+ * until that call returns. Back-to-back transitions of one order therefore
+ * take turns in the listener; transitions of different orders never wait
+ * for each other. A listener must not transition the order it is being told
+ * about.
+ */
 public class Order {
+
+    private static final VarHandle STATE;
+
+    static {
+        try {
+            STATE = MethodHandles.lookup().findVarHandle(Order.class, "state", StateWord.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private static final Clock CLOCK = Clock.systemUTC();
+    /** Default zone as of class load; looking it up per transition copies a TimeZone. */
+    private static final ZoneRules LOCAL_ZONE = Clock.systemDefaultZone().getZone().getRules();
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    /**
+     * One version of an order's state. Never modified; a transition swaps in a
+     * new word.
+     */
+    private static final class StateWord {
+        final OrderState state;
+        final long version;
+        /** Last-modified local date-time as nanoseconds since 1970-01-01T00:00, no zone. */
+        final long modifiedNanos;
+
+        StateWord(OrderState state, long version, long modifiedNanos) {
+            this.state = state;
+            this.version = version;
+            this.modifiedNanos = modifiedNanos;
+        }
+    }
+
     private final String id;
     private final List<OrderItem> items;
     private final LocalDateTime createdAt;
-    private LocalDateTime lastModifiedAt;
-    private OrderState currentState;
+    private volatile StateWord state;
     private final BigDecimal totalAmount;
+    private volatile OrderTransitionListener transitionListener;
+    /** Version whose listener call has completed. */
+    private volatile long notifiedVersion;
+    /** Thread inside the listener, to catch a listener transitioning this order. */
+    private volatile Thread notifier;
+    /** Transitions waiting on this order's monitor for their turn; changed only under it. */
+    private volatile int waiters;
 
     public Order(List<OrderItem> items, OrderState initialState) {
         this.id = UUID.randomUUID().toString();
         this.items = new ArrayList<>(items);
         this.createdAt = LocalDateTime.now();
-        this.lastModifiedAt = this.createdAt;
-        this.currentState = initialState;
+        this.state = new StateWord(initialState, 0, toNanos(this.createdAt));
+        this.totalAmount = calculateTotalAmount();
+    }
+
+    /**
+     * Rebuild an order that already exists, e.g. when replaying a journal.
+     * No transition checks are made: the given state is taken as-is.
+     *
+     * @throws IllegalArgumentException if lastModifiedAt is outside the years 1678 to 2261
+     */
+    public Order(String id, List<OrderItem> items, OrderState state,
+                 LocalDateTime createdAt, LocalDateTime lastModifiedAt) {
+        this.id = id;
+        this.items = new ArrayList<>(items);
+        this.createdAt = createdAt;
+        this.state = new StateWord(state, 0, toNanos(lastModifiedAt));
         this.totalAmount = calculateTotalAmount();
     }
 
@@ -34,35 +112,143 @@ public class Order {
                    .reduce(BigDecimal.ZERO, BigDecimal::add);
     }
 
+    /**
+     * Move to a new state.
+     *
+     * @throws IllegalStateException if the current state does not allow it,
+     *         including when a concurrent transition got there first, or the
+     *         transition listener refuses it
+     */
     public void setState(OrderState newState) {
-        OrderStatus oldStatus = currentState.getStatus();
-        
-        DebugLogger.log(DebugLogger.Category.MODEL, "Order.setState", 
-            String.format("Order[%s] - Attempting state change: %s → %s", 
-                id.substring(0, 8), oldStatus, newState.getStatus()));
+        if (!trySetState(newState)) {
+            throw new IllegalStateException(
+                "Cannot transition from " + getStatus() + 
+                " to " + newState.getStatus()
+            );
+        }
+    }
+
+    /**
+     * Move to a new state if the current state allows it, as one atomic step.
+     * When a concurrent transition wins the race, the check is repeated against
+     * the state it left behind.
+     *
+     * @return Whether this call made the transition
+     * @throws IllegalStateException if called from this order's transition
+     *         listener, or the listener refuses the transition
+     */
+    public boolean trySetState(OrderState newState) {
+        if (notifier == Thread.currentThread()) {
+            throw new IllegalStateException("A transition listener cannot transition the order it is notified about");
+        }
+        StateWord current = state;
+        boolean logging = DebugLogger.isEnabled();
         
-        if (currentState.canTransitionTo(newState)) {
-            this.currentState = newState;
-            this.lastModifiedAt = LocalDateTime.now();
-            
-            DebugLogger.logStateTransition(id, oldStatus.name(), newState.getStatus().name(), true);
+        if (logging) {
             DebugLogger.log(DebugLogger.Category.MODEL, "Order.setState", 
-                String.format("Order[%s] - State changed successfully", id.substring(0, 8)));
-        } else {
-            DebugLogger.logStateTransition(id, oldStatus.name(), newState.getStatus().name(), false);
+                String.format("Order[%s] - Attempting state change: %s → %s", 
+                    id.substring(0, 8), current.state.getStatus(), newState.getStatus()));
+        }
+        
+        while (current.state.canTransitionTo(newState)) {
+            StateWord next = new StateWord(newState, current.version + 1, nowNanos());
+            StateWord witness = (StateWord) STATE.compareAndExchange(this, current, next);
+            if (witness == current) {
+                if (logging) {
+                    DebugLogger.logStateTransition(id, current.state.getStatus().name(), newState.getStatus().name(), true);
+                    DebugLogger.log(DebugLogger.Category.MODEL, "Order.setState", 
+                        String.format("Order[%s] - State changed successfully (version %d)", id.substring(0, 8), next.version));
+                }
+                notifyListener(current.state.getStatus(), next);
+                return true;
+            }
+            // Lost the race: judge the transition again from the state that won
+            current = witness;
+        }
+        
+        if (logging) {
+            DebugLogger.logStateTransition(id, current.state.getStatus().name(), newState.getStatus().name(), false);
             DebugLogger.log(DebugLogger.Category.ERROR, "Order.setState", 
                 String.format("Order[%s] - Invalid state transition blocked", id.substring(0, 8)));
-            
-            throw new IllegalStateException(
-                "Cannot transition from " + currentState.getStatus() + 
-                " to " + newState.getStatus()
-            );
+        }
+        return false;
+    }
+
+    /**
+     * Tell the listener about a transition once every earlier one has been told,
+     * blocking until then.
+     */
+    private void notifyListener(OrderStatus from, StateWord applied) {
+        if (notifiedVersion != applied.version - 1) {
+            awaitTurn(applied.version - 1);
+        }
+        notifier = Thread.currentThread();
+        try {
+            OrderTransitionListener listener = transitionListener;
+            if (listener != null) {
+                listener.onTransition(this, from, applied.state.getStatus());
+            }
+        } finally {
+            notifier = null;
+            notifiedVersion = applied.version;
+            // A waiter registers before re-reading notifiedVersion, so it either
+            // sees the write above or is counted here
+            if (waiters > 0) {
+                synchronized (this) {
+                    notifyAll();
+                }
+            }
+        }
+    }
+
+    /**
+     * Wait until the listener call for {@code previousVersion} has returned.
+     * The transition has already been applied, so an interrupt cannot cancel
+     * the wait; it is kept for the caller instead.
+     */
+    private void awaitTurn(long previousVersion) {
+        boolean interrupted = false;
+        synchronized (this) {
+            waiters++;
+            try {
+                while (notifiedVersion != previousVersion) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+            } finally {
+                waiters--;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Current local date-time in the form StateWord keeps, matching what
+     * {@code LocalDateTime.now()} would return.
+     */
+    private static long nowNanos() {
+        Instant now = CLOCK.instant();
+        long localSeconds = now.getEpochSecond() + LOCAL_ZONE.getOffset(now).getTotalSeconds();
+        return localSeconds * NANOS_PER_SECOND + now.getNano();
+    }
+
+    private static long toNanos(LocalDateTime time) {
+        try {
+            return Math.addExact(Math.multiplyExact(time.toEpochSecond(ZoneOffset.UTC), NANOS_PER_SECOND),
+                                 time.getNano());
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Last-modified time out of range: " + time, e);
         }
     }
 
     public void processOrder() {
-        currentState.processOrder(this);
-        this.lastModifiedAt = LocalDateTime.now();
+        // setState() stamps lastModifiedAt when a transition actually happens
+        state.state.processOrder(this);
     }
 
     public String getId() {
@@ -77,16 +263,38 @@ public class Order {
         return createdAt;
     }
 
+    /**
+     * Built from the stored nanoseconds on each call, so transitions, which
+     * only store them, do not allocate the date-time objects.
+     */
     public LocalDateTime getLastModifiedAt() {
-        return lastModifiedAt;
+        long nanos = state.modifiedNanos;
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(nanos, NANOS_PER_SECOND),
+            (int) Math.floorMod(nanos, NANOS_PER_SECOND), ZoneOffset.UTC);
     }
 
     public OrderState getCurrentState() {
-        return currentState;
+        return state.state;
+    }
+
+    /**
+     * Number of transitions this instance has applied. Rebuilt orders start
+     * again from 0.
+     */
+    public long getVersion() {
+        return state.version;
+    }
+
+    /**
+     * Register the listener told about every successful {@link #setState} call,
+     * including transitions driven from inside the state classes.
+     */
+    public void setTransitionListener(OrderTransitionListener transitionListener) {
+        this.transitionListener = transitionListener;
     }
 
     public OrderStatus getStatus() {
-        return currentState.getStatus();
+        return state.state.getStatus();
     }
 
     public BigDecimal getTotalAmount() {
@@ -103,7 +311,7 @@ public class Order {
         sb.append(String.format("Order ID: %s\n", id));
         sb.append(String.format("Status: %s\n", getStatus()));
         sb.append(String.format("Created: %s\n", createdAt));
-        sb.append(String.format("Last Modified: %s\n", lastModifiedAt));
+        sb.append(String.format("Last Modified: %s\n", getLastModifiedAt()));
         sb.append("\nItems:\n");
         for (int i = 0; i < items.size(); i++) {
             OrderItem item = items.get(i);
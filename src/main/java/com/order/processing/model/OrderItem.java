@@ -12,9 +12,11 @@ public class OrderItem {
     private final BigDecimal totalPrice;
 
     public OrderItem(String productId, int quantity, BigDecimal pricePerUnit) {
-        DebugLogger.log(DebugLogger.Category.MODEL, "OrderItem", 
-            String.format("Creating item: %s (qty: %d, price: $%s)", 
-                productId, quantity, pricePerUnit));
+        if (DebugLogger.isEnabled()) {
+            DebugLogger.log(DebugLogger.Category.MODEL, "OrderItem", 
+                String.format("Creating item: %s (qty: %d, price: $%s)", 
+                    productId, quantity, pricePerUnit));
+        }
         
         if (productId == null || productId.trim().isEmpty()) {
             DebugLogger.log(DebugLogger.Category.ERROR, "OrderItem", 
@@ -37,8 +39,10 @@ public class OrderItem {
         this.pricePerUnit = pricePerUnit;
         this.totalPrice = pricePerUnit.multiply(BigDecimal.valueOf(quantity));
         
-        DebugLogger.log(DebugLogger.Category.MODEL, "OrderItem", 
-            String.format("Item created: %s, total price: $%s", productId, totalPrice));
+        if (DebugLogger.isEnabled()) {
+            DebugLogger.log(DebugLogger.Category.MODEL, "OrderItem", 
+                String.format("Item created: %s, total price: $%s", productId, totalPrice));
+        }
     }
 
     public String getProductId() {
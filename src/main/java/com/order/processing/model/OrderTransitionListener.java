@@ -0,0 +1,31 @@
+package com.order.processing.model;
+
+import com.order.processing.state.OrderStatus;
+
+/**
+ * Callback fired by {@link Order#setState} after a transition has been applied.
+ * 
+ * Unlike OrderObserver (which the service calls explicitly), this fires for
+ * every transition no matter who drives it - the service, a state class or
+ * a background processor.
+ * 
+ * Calls for one order arrive one at a time, in the order the transitions were
+ * applied. A listener must not transition the order it is called about.
+ * 
+ * A listener may refuse a transition it cannot record, e.g. one made on a
+ * stale copy of the order, by throwing IllegalStateException. The exception
+ * reaches the caller that made the transition; the order object itself keeps
+ * the new state.
+ */
+@FunctionalInterface
+public interface OrderTransitionListener {
+    
+    /**
+     * Called after the order moved from one status to another.
+     * 
+     * @param order The order that changed
+     * @param from The status before the transition
+     * @param to The status after the transition
+     */
+    void onTransition(Order order, OrderStatus from, OrderStatus to);
+}
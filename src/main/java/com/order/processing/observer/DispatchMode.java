@@ -0,0 +1,17 @@
+package com.order.processing.observer;
+
+/**
+ * How an {@link ObserverDispatcher} delivers events to one observer.
+ */
+public enum DispatchMode {
+    /** On the thread that made the change, before the service call returns. */
+    SYNC,
+    /** From the observer's own queue, drained by its own worker thread. */
+    ASYNC,
+    /**
+     * From a pre-allocated ring shared by every ring observer, each reading it
+     * on its own thread. One allocation-free publish per event, however many
+     * observers read it.
+     */
+    RING
+}
@@ -0,0 +1,324 @@
+package com.order.processing.observer;
+
+import com.order.processing.model.Order;
+import com.order.processing.util.DebugLogger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Registry of {@link OrderObserver}s that delivers order events to each of
+ * them, either synchronously or through a queue of its own.
+ *
+ * Registrations live in a copy-on-write list, so observers can be added and
+ * removed while events are being dispatched; a dispatch sees the observers
+ * registered when it started.
+ *
+ * A {@link DispatchMode#SYNC} observer is called on the dispatching thread and
+ * its exceptions reach the caller, as before. An {@link DispatchMode#ASYNC}
+ * observer gets a bounded queue and a daemon worker thread that drains it in
+ * order, so a slow observer costs the dispatching thread only an enqueue. A
+ * full queue blocks the dispatcher until there is room: events are never
+ * dropped. Exceptions from an asynchronous observer are logged and counted.
+ *
+ * {@link DispatchMode#RING} observers share one {@link OrderEventRing}, created
+ * when the first of them registers: a dispatch writes the event into the ring
+ * once, without allocating or locking, and each ring observer's consumer
+ * thread reads it from there in batches. Delivery counts for a ring observer
+ * are updated once per batch. A full ring blocks the dispatcher like a full
+ * queue does.
+ *
+ * Thread-safe.
+ */
+public class ObserverDispatcher {
+
+    /** Default capacity of each asynchronous observer's queue. */
+    public static final int DEFAULT_QUEUE_CAPACITY = 10_000;
+    /** Default number of slots in the ring shared by ring observers. */
+    public static final int DEFAULT_RING_CAPACITY = 16_384;
+
+    private static final long SHUTDOWN_WAIT_SECONDS = 30;
+
+    /**
+     * One queued event. An event with no order tells the worker to stop.
+     */
+    private static final class Event {
+        static final Event STOP = new Event(null, 0);
+
+        final Order order;
+        final long dispatchedAt;
+
+        Event(Order order, long dispatchedAt) {
+            this.order = order;
+            this.dispatchedAt = dispatchedAt;
+        }
+    }
+
+    private static final class Registration {
+        final OrderObserver observer;
+        final DispatchMode mode;
+        final BlockingQueue<Event> queue;
+        final Thread worker;
+        final LongAdder delivered = new LongAdder();
+        final LongAdder failed = new LongAdder();
+        final LongAdder totalLatency = new LongAdder();
+        final LongAccumulator maxLatency = new LongAccumulator(Math::max, 0);
+        /** Set before the registration is published, for a ring observer only. */
+        OrderEventRing.Consumer consumer;
+        // Touched only by the ring consumer thread, flushed at the end of each batch
+        private long batchDelivered;
+        private long batchFailed;
+        private long batchLatency;
+        private long batchMaxLatency;
+
+        Registration(OrderObserver observer, DispatchMode mode, int queueCapacity) {
+            this.observer = observer;
+            this.mode = mode;
+            if (mode == DispatchMode.ASYNC) {
+                this.queue = new LinkedBlockingQueue<>(queueCapacity);
+                this.worker = new Thread(this::drain, "order-observer-" + observer.getClass().getSimpleName());
+                this.worker.setDaemon(true);
+            } else {
+                this.queue = null;
+                this.worker = null;
+            }
+        }
+
+        void deliver(Order order, long dispatchedAt) {
+            try {
+                observer.onOrderStatusChanged(order);
+            } catch (RuntimeException e) {
+                failed.increment();
+                throw e;
+            } finally {
+                long latency = System.nanoTime() - dispatchedAt;
+                delivered.increment();
+                totalLatency.add(latency);
+                maxLatency.accumulate(latency);
+            }
+        }
+
+        private void drain() {
+            try {
+                while (true) {
+                    Event event = queue.take();
+                    if (event == Event.STOP) {
+                        return;
+                    }
+                    try {
+                        deliver(event.order, event.dispatchedAt);
+                    } catch (RuntimeException e) {
+                        DebugLogger.log(DebugLogger.Category.ERROR, "ObserverDispatcher",
+                            String.format("%s failed on Order[%s]: %s", observer.getClass().getSimpleName(),
+                                event.order.getId(), e));
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        void onRingEvent(OrderEventRing.Slot slot, long sequence, boolean endOfBatch) {
+            try {
+                observer.onOrderStatusChanged(slot.getOrder());
+            } catch (RuntimeException e) {
+                batchFailed++;
+                DebugLogger.log(DebugLogger.Category.ERROR, "ObserverDispatcher",
+                    String.format("%s failed on Order[%s]: %s", observer.getClass().getSimpleName(),
+                        slot.getOrder().getId(), e));
+            }
+            long latency = System.nanoTime() - slot.getPublishedAt();
+            batchDelivered++;
+            batchLatency += latency;
+            batchMaxLatency = Math.max(batchMaxLatency, latency);
+            if (endOfBatch) {
+                delivered.add(batchDelivered);
+                failed.add(batchFailed);
+                totalLatency.add(batchLatency);
+                maxLatency.accumulate(batchMaxLatency);
+                batchDelivered = batchFailed = batchLatency = batchMaxLatency = 0;
+            }
+        }
+
+        ObserverStats stats() {
+            int depth = 0;
+            if (queue != null) {
+                depth = queue.size();
+            } else if (consumer != null) {
+                depth = (int) Math.min(Integer.MAX_VALUE, consumer.lag());
+            }
+            return new ObserverStats(observer.getClass().getSimpleName(), mode, depth,
+                delivered.sum(), failed.sum(), totalLatency.sum(), maxLatency.get());
+        }
+    }
+
+    private final List<Registration> registrations = new CopyOnWriteArrayList<>();
+    private final int queueCapacity;
+    private final int ringCapacity;
+    private final OrderEventRing.WaitStrategy waitStrategy;
+    private volatile OrderEventRing ring;
+    private volatile int ringObservers;
+    private volatile boolean shutDown;
+
+    public ObserverDispatcher() {
+        this(DEFAULT_QUEUE_CAPACITY);
+    }
+
+    /**
+     * @param queueCapacity Capacity of each asynchronous observer's queue
+     */
+    public ObserverDispatcher(int queueCapacity) {
+        this(queueCapacity, DEFAULT_RING_CAPACITY, OrderEventRing.WaitStrategy.SLEEPING);
+    }
+
+    /**
+     * @param queueCapacity Capacity of each asynchronous observer's queue
+     * @param ringCapacity  Slots in the ring shared by ring observers; a power of two
+     * @param waitStrategy  How ring consumers wait for events, and dispatchers for room
+     */
+    public ObserverDispatcher(int queueCapacity, int ringCapacity, OrderEventRing.WaitStrategy waitStrategy) {
+        if (queueCapacity < 1) {
+            throw new IllegalArgumentException("Queue capacity must be positive: " + queueCapacity);
+        }
+        if (ringCapacity < 1 || Integer.bitCount(ringCapacity) != 1) {
+            throw new IllegalArgumentException("Ring capacity must be a power of two: " + ringCapacity);
+        }
+        if (waitStrategy == null) {
+            throw new IllegalArgumentException("Wait strategy cannot be null");
+        }
+        this.queueCapacity = queueCapacity;
+        this.ringCapacity = ringCapacity;
+        this.waitStrategy = waitStrategy;
+    }
+
+    /**
+     * Register an observer. The same observer may be registered more than once
+     * and is then called once per registration.
+     *
+     * @throws IllegalStateException if the dispatcher has been shut down
+     */
+    public void register(OrderObserver observer, DispatchMode mode) {
+        if (observer == null || mode == null) {
+            throw new IllegalArgumentException("Observer and dispatch mode cannot be null");
+        }
+        if (shutDown) {
+            throw new IllegalStateException("Observer dispatcher is shut down");
+        }
+        Registration registration = new Registration(observer, mode, queueCapacity);
+        if (registration.worker != null) {
+            registration.worker.start();
+        }
+        if (mode == DispatchMode.RING) {
+            synchronized (this) {
+                if (ring == null) {
+                    ring = new OrderEventRing(ringCapacity, waitStrategy);
+                }
+                registration.consumer = ring.subscribe(registration::onRingEvent,
+                    "order-observer-ring-" + observer.getClass().getSimpleName());
+                ringObservers++;
+            }
+        }
+        registrations.add(registration);
+    }
+
+    /**
+     * Remove the first registration of an observer. An asynchronous observer
+     * still receives the events already queued for it; one dispatched while
+     * the removal is under way may be lost.
+     *
+     * @return Whether the observer was registered
+     */
+    public boolean unregister(OrderObserver observer) {
+        for (Registration registration : registrations) {
+            if (registration.observer == observer && registrations.remove(registration)) {
+                stop(registration);
+                if (registration.consumer != null) {
+                    synchronized (this) {
+                        ringObservers--;
+                    }
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Hand an order to every registered observer.
+     *
+     * @throws IllegalStateException if the dispatcher has been shut down
+     */
+    public void dispatch(Order order) {
+        if (shutDown) {
+            throw new IllegalStateException("Observer dispatcher is shut down");
+        }
+        if (ringObservers > 0) {
+            ring.publish(order, order.getStatus());
+        }
+        long now = System.nanoTime();
+        for (Registration registration : registrations) {
+            if (registration.mode == DispatchMode.SYNC) {
+                registration.deliver(order, now);
+                continue;
+            }
+            if (registration.mode == DispatchMode.RING) {
+                continue;
+            }
+            try {
+                registration.queue.put(new Event(order, now));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while queueing an order event", e);
+            }
+        }
+    }
+
+    public int size() {
+        return registrations.size();
+    }
+
+    /**
+     * Queue depth, delivery counts and latency for every registered observer,
+     * in registration order.
+     */
+    public List<ObserverStats> stats() {
+        List<ObserverStats> stats = new ArrayList<>();
+        for (Registration registration : registrations) {
+            stats.add(registration.stats());
+        }
+        return stats;
+    }
+
+    /**
+     * Stop accepting events, let every asynchronous and ring observer work
+     * through what is already queued and stop its thread.
+     */
+    public void shutdown() {
+        shutDown = true;
+        for (Registration registration : registrations) {
+            stop(registration);
+        }
+    }
+
+    private void stop(Registration registration) {
+        if (registration.consumer != null) {
+            ring.unsubscribe(registration.consumer);
+            return;
+        }
+        if (registration.worker == null) {
+            return;
+        }
+        try {
+            registration.queue.put(Event.STOP);
+            registration.worker.join(TimeUnit.SECONDS.toMillis(SHUTDOWN_WAIT_SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
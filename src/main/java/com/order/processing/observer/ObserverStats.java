@@ -0,0 +1,72 @@
+package com.order.processing.observer;
+
+/**
+ * Delivery figures for one registered observer, read at one moment.
+ *
+ * Latency runs from the dispatch call to the observer's callback returning,
+ * so for an asynchronous observer it includes time spent queued.
+ */
+public final class ObserverStats {
+
+    private final String observerName;
+    private final DispatchMode mode;
+    private final int queueDepth;
+    private final long delivered;
+    private final long failed;
+    private final long totalLatencyNanos;
+    private final long maxLatencyNanos;
+
+    ObserverStats(String observerName, DispatchMode mode, int queueDepth, long delivered, long failed,
+                  long totalLatencyNanos, long maxLatencyNanos) {
+        this.observerName = observerName;
+        this.mode = mode;
+        this.queueDepth = queueDepth;
+        this.delivered = delivered;
+        this.failed = failed;
+        this.totalLatencyNanos = totalLatencyNanos;
+        this.maxLatencyNanos = maxLatencyNanos;
+    }
+
+    public String getObserverName() {
+        return observerName;
+    }
+
+    public DispatchMode getMode() {
+        return mode;
+    }
+
+    /**
+     * Events waiting for the observer; always 0 for a synchronous one.
+     */
+    public int getQueueDepth() {
+        return queueDepth;
+    }
+
+    /**
+     * Events handed to the observer, including those it threw on.
+     */
+    public long getDelivered() {
+        return delivered;
+    }
+
+    /**
+     * Events the observer threw on.
+     */
+    public long getFailed() {
+        return failed;
+    }
+
+    public double getAverageLatencyMicros() {
+        return delivered == 0 ? 0 : totalLatencyNanos / 1_000.0 / delivered;
+    }
+
+    public double getMaxLatencyMicros() {
+        return maxLatencyNanos / 1_000.0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s [%s]: queued=%d, delivered=%d, failed=%d, latency avg=%.1f us, max=%.1f us",
+            observerName, mode, queueDepth, delivered, failed, getAverageLatencyMicros(), getMaxLatencyMicros());
+    }
+}
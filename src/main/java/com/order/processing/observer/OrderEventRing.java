@@ -0,0 +1,340 @@
+package com.order.processing.observer;
+
+import com.order.processing.model.Order;
+import com.order.processing.state.OrderStatus;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Pre-allocated ring of order events between any number of publishing
+ * threads and any number of consumers, in the style of the LMAX Disruptor.
+ *
+ * Every slot is allocated up front and rewritten in place, so publishing an
+ * event allocates nothing. A publisher claims the next sequence with a CAS on
+ * the cursor, fills that sequence's slot and marks it available by storing
+ * the ring lap it belongs to. Each consumer runs on its own thread and owns a
+ * sequence: it reads every available event past it in one batch, then moves
+ * its sequence to the end of the batch. Publishers never pass the slowest
+ * consumer, so no event is overwritten before every consumer has seen it;
+ * a full ring makes publishers wait.
+ *
+ * Waiting, for publishers on a full ring and consumers on an empty one, follows
+ * the ring's {@link WaitStrategy}. No locks are taken per event.
+ */
+public class OrderEventRing {
+
+    /**
+     * How a thread waits for the ring to move.
+     */
+    public enum WaitStrategy {
+        /** Spin on the CPU. Lowest latency; needs a core per waiting thread. */
+        BUSY_SPIN {
+            @Override
+            void idle(int attempt) {
+                Thread.onSpinWait();
+            }
+        },
+        /** Spin briefly, then yield the CPU to other threads. */
+        YIELDING {
+            @Override
+            void idle(int attempt) {
+                if (attempt < SPIN_ATTEMPTS) {
+                    Thread.onSpinWait();
+                } else {
+                    Thread.yield();
+                }
+            }
+        },
+        /** Spin, yield, then sleep in short parks. Nearly idle when the ring is quiet. */
+        SLEEPING {
+            @Override
+            void idle(int attempt) {
+                if (attempt < SPIN_ATTEMPTS) {
+                    Thread.onSpinWait();
+                } else if (attempt < SPIN_ATTEMPTS + YIELD_ATTEMPTS) {
+                    Thread.yield();
+                } else {
+                    LockSupport.parkNanos(SLEEP_NANOS);
+                }
+            }
+        };
+
+        private static final int SPIN_ATTEMPTS = 100;
+        private static final int YIELD_ATTEMPTS = 100;
+        private static final long SLEEP_NANOS = 100_000;
+
+        /**
+         * Wait a little.
+         *
+         * @param attempt How many times in a row the caller has waited already
+         */
+        abstract void idle(int attempt);
+    }
+
+    /**
+     * One reusable event. Consumers may read it only inside
+     * {@link Handler#onEvent}; the slot is rewritten once the ring wraps.
+     */
+    public static final class Slot {
+        private Order order;
+        private OrderStatus status;
+        private long publishedAt;
+
+        public Order getOrder() {
+            return order;
+        }
+
+        public OrderStatus getStatus() {
+            return status;
+        }
+
+        /**
+         * {@link System#nanoTime()} when the event was published.
+         */
+        public long getPublishedAt() {
+            return publishedAt;
+        }
+    }
+
+    /**
+     * Receives events on a consumer's thread, in sequence order. A handler
+     * must not throw: its consumer would stop and hold publishers back for
+     * good once the ring fills.
+     */
+    @FunctionalInterface
+    public interface Handler {
+        /**
+         * @param endOfBatch Whether this is the last event currently available,
+         *                   e.g. to flush work batched over the preceding events
+         */
+        void onEvent(Slot slot, long sequence, boolean endOfBatch);
+    }
+
+    @SuppressWarnings("unused")
+    private static class LeftPadding {
+        long p1, p2, p3, p4, p5, p6, p7;
+    }
+
+    private static class SequenceValue extends LeftPadding {
+        volatile long value;
+    }
+
+    /**
+     * A sequence number with a cache line of padding either side, so that
+     * counters written by different threads do not share a line. The
+     * superclass chain keeps the JVM from reordering the padding away.
+     */
+    private static final class Sequence extends SequenceValue {
+        private static final VarHandle VALUE;
+
+        static {
+            try {
+                VALUE = MethodHandles.lookup().findVarHandle(SequenceValue.class, "value", long.class);
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        @SuppressWarnings("unused")
+        long p9, p10, p11, p12, p13, p14, p15;
+
+        Sequence(long initial) {
+            value = initial;
+        }
+
+        long get() {
+            return value;
+        }
+
+        void set(long newValue) {
+            value = newValue;
+        }
+
+        /** Store without a full fence; readers still see it in order. */
+        void setRelease(long newValue) {
+            VALUE.setRelease(this, newValue);
+        }
+
+        boolean compareAndSet(long expected, long newValue) {
+            return VALUE.compareAndSet(this, expected, newValue);
+        }
+    }
+
+    /**
+     * A consumer thread and its position in the ring.
+     */
+    public final class Consumer {
+        private final Sequence sequence;
+        private final Handler handler;
+        private final Thread thread;
+        private volatile boolean running = true;
+
+        private Consumer(Handler handler, String name) {
+            this.handler = handler;
+            this.sequence = new Sequence(cursor.get());
+            this.thread = new Thread(this::run, name);
+            this.thread.setDaemon(true);
+        }
+
+        /**
+         * Events published but not yet handled by this consumer.
+         */
+        public long lag() {
+            return Math.max(0, cursor.get() - sequence.get());
+        }
+
+        private void run() {
+            long next = sequence.get() + 1;
+            int attempt = 0;
+            while (true) {
+                long last = highestAvailable(next);
+                if (last < next) {
+                    if (!running && cursor.get() < next) {
+                        return;
+                    }
+                    waitStrategy.idle(attempt++);
+                    continue;
+                }
+                attempt = 0;
+                for (long s = next; s <= last; s++) {
+                    handler.onEvent(slots[(int) s & mask], s, s == last);
+                }
+                sequence.setRelease(last);
+                next = last + 1;
+            }
+        }
+    }
+
+    private final Slot[] slots;
+    private final int mask;
+    private final int indexShift;
+    /** Ring lap each slot was last published for; -1 before its first use. */
+    private final AtomicIntegerArray published;
+    private final WaitStrategy waitStrategy;
+    /** Highest sequence claimed by a publisher. */
+    private final Sequence cursor = new Sequence(-1);
+    /** Last known position of the slowest consumer, to skip rescanning them on every claim. */
+    private final Sequence gateCache = new Sequence(-1);
+    private volatile Sequence[] gates = new Sequence[0];
+
+    /**
+     * @param capacity Number of slots; a power of two
+     */
+    public OrderEventRing(int capacity, WaitStrategy waitStrategy) {
+        if (capacity < 1 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Ring capacity must be a power of two: " + capacity);
+        }
+        if (waitStrategy == null) {
+            throw new IllegalArgumentException("Wait strategy cannot be null");
+        }
+        this.slots = new Slot[capacity];
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new Slot();
+        }
+        this.mask = capacity - 1;
+        this.indexShift = Integer.numberOfTrailingZeros(capacity);
+        this.published = new AtomicIntegerArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            published.set(i, -1);
+        }
+        this.waitStrategy = waitStrategy;
+    }
+
+    public int capacity() {
+        return slots.length;
+    }
+
+    /**
+     * Publish an event, waiting while the ring is full.
+     *
+     * @return The event's sequence number
+     */
+    public long publish(Order order, OrderStatus status) {
+        long sequence = claim();
+        Slot slot = slots[(int) sequence & mask];
+        slot.order = order;
+        slot.status = status;
+        slot.publishedAt = System.nanoTime();
+        // Release store: a consumer that sees the lap also sees the slot's fields
+        published.lazySet((int) sequence & mask, (int) (sequence >>> indexShift));
+        return sequence;
+    }
+
+    /**
+     * Start a consumer that sees every event published from now on.
+     */
+    public Consumer subscribe(Handler handler, String threadName) {
+        Consumer consumer;
+        synchronized (this) {
+            consumer = new Consumer(handler, threadName);
+            Sequence[] current = gates;
+            Sequence[] grown = Arrays.copyOf(current, current.length + 1);
+            grown[current.length] = consumer.sequence;
+            gates = grown;
+        }
+        consumer.thread.start();
+        return consumer;
+    }
+
+    /**
+     * Stop a consumer once it has handled every event published so far, and
+     * stop holding publishers back for it.
+     */
+    public void unsubscribe(Consumer consumer) {
+        consumer.running = false;
+        try {
+            consumer.thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            gates = Arrays.stream(gates).filter(gate -> gate != consumer.sequence).toArray(Sequence[]::new);
+        }
+    }
+
+    private long claim() {
+        int attempt = 0;
+        while (true) {
+            long current = cursor.get();
+            long next = current + 1;
+            long wrapPoint = next - slots.length;
+            if (wrapPoint > gateCache.get()) {
+                long gate = slowestGate(current);
+                if (wrapPoint > gate) {
+                    waitStrategy.idle(attempt++);
+                    continue;
+                }
+                gateCache.set(gate);
+            } else if (cursor.compareAndSet(current, next)) {
+                return next;
+            }
+        }
+    }
+
+    private long slowestGate(long fallback) {
+        long slowest = fallback;
+        for (Sequence gate : gates) {
+            slowest = Math.min(slowest, gate.get());
+        }
+        return slowest;
+    }
+
+    /**
+     * The last sequence from {@code next} on up to which every event has been
+     * published, or {@code next - 1} if {@code next} itself is not ready yet.
+     * Publishers finish out of order, so a claimed sequence may still be empty.
+     */
+    private long highestAvailable(long next) {
+        long claimed = cursor.get();
+        long sequence = next;
+        while (sequence <= claimed
+                && published.get((int) sequence & mask) == (int) (sequence >>> indexShift)) {
+            sequence++;
+        }
+        return sequence - 1;
+    }
+}
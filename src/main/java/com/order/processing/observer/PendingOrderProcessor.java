@@ -136,6 +136,16 @@ public class PendingOrderProcessor implements OrderObserver {
                     order.getId(), order.getStatus()
                 ));
             }
+        } catch (IllegalStateException e) {
+            // Cancelled or processed by someone else between the status check and the transition
+            DebugLogger.log(DebugLogger.Category.OBSERVER, "processOrder", 
+                String.format("Order[%s] - Lost race to a concurrent transition (now %s), skipping auto-processing", 
+                    order.getId().substring(0, 8), order.getStatus()));
+            
+            System.out.println(String.format(
+                "⊘ Order %s changed status concurrently (current status: %s), skipping auto-processing",
+                order.getId(), order.getStatus()
+            ));
         } catch (Exception e) {
             DebugLogger.log(DebugLogger.Category.ERROR, "processOrder", 
                 String.format("Order[%s] - Exception during auto-processing: %s", 
@@ -0,0 +1,502 @@
+package com.order.processing.persistence;
+
+import com.order.processing.codec.ProductDictionary;
+import com.order.processing.model.Order;
+import com.order.processing.state.OrderStatus;
+import com.order.processing.util.DebugLogger;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Single-file journal that appends checksummed records with sequential writes.
+ *
+ * File layout: a 16-byte header (magic, format version, base LSN) followed by
+ * records framed as described in {@link JournalRecordCodec}. The base LSN is a
+ * floor for the next LSN, so numbering survives a truncation that empties the log.
+ *
+ * Appends are serialized by a lock and reuse one direct buffer, so the write path
+ * allocates nothing per record. Each append is durable before it returns: either
+ * it forces the file itself, or - with a {@link GroupCommitConfig} - it waits for
+ * the shared flusher thread to force a batch that includes it.
+ *
+ * A torn or corrupt tail left by a crash is detected on the first replay or append
+ * and cut off; everything before it is kept.
+ *
+ * {@link #truncateBefore(long)} rewrites the file without the records a snapshot
+ * covers. The prefix is scanned and the tail copied while appends carry on; only
+ * the bytes appended during the copy are moved under the append lock, right
+ * before the new file atomically replaces the old one.
+ */
+public class FileOrderJournal implements OrderJournal {
+
+    static final int MAGIC = 0x4F4A4E4C; // "OJNL"
+    static final int FORMAT_VERSION = 3;
+    static final int FILE_HEADER_SIZE = 16;
+
+    private static final int INITIAL_BUFFER_SIZE = 64 * 1024;
+    private static final String COMPACT_SUFFIX = ".compact";
+
+    private static final JournalReplayHandler NO_OP_HANDLER = new JournalReplayHandler() {
+        @Override
+        public void onCreate(Order order) {
+        }
+
+        @Override
+        public void onTransition(String orderId, OrderStatus status, LocalDateTime modifiedAt) {
+        }
+    };
+
+    private final Path file;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ReentrantLock truncateLock = new ReentrantLock();
+    // Guards swapping the channel against a concurrent group-commit force
+    private final ReentrantReadWriteLock channelLock = new ReentrantReadWriteLock();
+    private final ProductDictionary dictionary = new ProductDictionary();
+    private final JournalRecordCodec writeCodec = new JournalRecordCodec(dictionary);
+    private final GroupCommitter committer;
+    private ByteBuffer writeBuffer = ByteBuffer.allocateDirect(INITIAL_BUFFER_SIZE);
+
+    private volatile FileChannel channel;
+    private boolean scanned;
+    private boolean closed;
+    private long baseLsn;
+    private long writePosition;
+    private long nextLsn;
+
+    /**
+     * Open (or create) a journal file that forces every append individually.
+     *
+     * @param file Path of the journal file
+     * @throws UncheckedIOException if the file cannot be opened or has a bad header
+     */
+    public FileOrderJournal(Path file) {
+        this(file, null);
+    }
+
+    /**
+     * Open (or create) a journal file.
+     *
+     * @param file Path of the journal file
+     * @param groupCommit Group commit settings, or null to force every append individually
+     * @throws UncheckedIOException if the file cannot be opened or has a bad header
+     */
+    public FileOrderJournal(Path file, GroupCommitConfig groupCommit) {
+        this.file = file;
+        try {
+            this.channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            initHeader();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open journal " + file, e);
+        }
+        this.committer = groupCommit != null
+            ? new GroupCommitter(this::forceChannel, groupCommit, file.getFileName().toString())
+            : null;
+        DebugLogger.log(DebugLogger.Category.PERSISTENCE, "FileOrderJournal",
+            "Opened journal " + file + (groupCommit != null ? " with " + groupCommit : ""));
+    }
+
+    @Override
+    public void appendCreate(Order order) {
+        long lsnAfter;
+        lock.lock();
+        try {
+            ensureWritable();
+            writeBuffer.clear();
+            while (true) {
+                try {
+                    lsnAfter = writeCodec.encodeCreate(writeBuffer, nextLsn, order);
+                    break;
+                } catch (BufferOverflowException e) {
+                    growWriteBuffer();
+                }
+            }
+            write(lsnAfter);
+        } finally {
+            lock.unlock();
+        }
+        awaitDurable(lsnAfter);
+    }
+
+    @Override
+    public void appendTransition(Order order, OrderStatus newStatus) {
+        long lsnAfter;
+        lock.lock();
+        try {
+            ensureWritable();
+            lsnAfter = nextLsn + 1;
+            writeBuffer.clear();
+            writeCodec.encodeTransition(writeBuffer, nextLsn, order, newStatus);
+            write(lsnAfter);
+        } finally {
+            lock.unlock();
+        }
+        awaitDurable(lsnAfter);
+    }
+
+    @Override
+    public void replay(long fromLsn, JournalReplayHandler handler) {
+        lock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Journal is closed: " + file);
+            }
+            scan(handler, fromLsn);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public long nextLsn() {
+        lock.lock();
+        try {
+            ensureWritable();
+            return nextLsn;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Make sure every record appended from now on gets an LSN of at least
+     * {@code lsn}. The new floor is written to the header and forced, so it
+     * holds across a restart. Used to align partitions on a common cut-off.
+     *
+     * @param lsn Lowest LSN for the next record
+     */
+    void advanceTo(long lsn) {
+        lock.lock();
+        try {
+            ensureWritable();
+            if (lsn <= nextLsn) {
+                return;
+            }
+            ByteBuffer base = ByteBuffer.allocate(8).putLong(0, lsn);
+            while (base.hasRemaining()) {
+                channel.write(base, 8 + base.position());
+            }
+            channel.force(false);
+            nextLsn = lsn;
+            baseLsn = lsn;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot advance journal " + file, e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Rewrite the file without the records below {@code lsn}. Product definitions
+     * from the dropped prefix are carried over, since later records refer to them.
+     *
+     * @param lsn First LSN that must be kept
+     * @return Number of bytes the file shrank by
+     */
+    @Override
+    public long truncateBefore(long lsn) {
+        truncateLock.lock();
+        try {
+            FileChannel source;
+            long copyEnd;
+            long newBaseLsn;
+            lock.lock();
+            try {
+                ensureWritable();
+                source = channel;
+                copyEnd = writePosition;
+                newBaseLsn = Math.min(lsn, nextLsn);
+            } finally {
+                lock.unlock();
+            }
+
+            Path temp = file.resolveSibling(file.getFileName() + COMPACT_SUFFIX);
+            try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                writeHeader(out, newBaseLsn);
+                long tailStart = copyDefinitions(source, newBaseLsn, copyEnd, out);
+                if (tailStart != FILE_HEADER_SIZE) {
+                    transfer(source, tailStart, copyEnd, out);
+
+                    lock.lock();
+                    try {
+                        // Bring over whatever was appended while the tail was copied
+                        transfer(channel, copyEnd, writePosition, out);
+                        if (baseLsn > newBaseLsn) {
+                            // advanceTo() ran meanwhile; keep its floor
+                            newBaseLsn = baseLsn;
+                            out.write(ByteBuffer.allocate(8).putLong(0, newBaseLsn), 8);
+                        }
+                        out.force(true);
+                        long newSize = out.position();
+                        Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                        forceDirectory();
+                        swapChannel(FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE));
+                        long released = writePosition - newSize;
+                        writePosition = newSize;
+                        baseLsn = newBaseLsn;
+                        DebugLogger.log(DebugLogger.Category.PERSISTENCE, "FileOrderJournal",
+                            String.format("Truncated %s below LSN %d, released %d byte(s)", file, newBaseLsn, released));
+                        return released;
+                    } finally {
+                        lock.unlock();
+                    }
+                }
+            }
+            // Nothing below the LSN to release; drop the unused copy
+            Files.delete(temp);
+            return 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot truncate journal " + file, e);
+        } finally {
+            truncateLock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (committer != null) {
+                committer.close();
+            }
+            channel.force(true);
+            channel.close();
+            DebugLogger.log(DebugLogger.Category.PERSISTENCE, "FileOrderJournal",
+                "Closed journal " + file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot close journal " + file, e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void initHeader() throws IOException {
+        if (channel.size() == 0) {
+            writeHeader(channel, 0);
+            channel.force(true);
+            return;
+        }
+        ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_SIZE);
+        channel.read(header, 0);
+        header.flip();
+        if (header.remaining() < 8 || header.getInt() != MAGIC) {
+            throw new IOException("Not an order journal: " + file);
+        }
+        int version = header.getInt();
+        if (version != FORMAT_VERSION || header.remaining() < 8) {
+            throw new IOException("Unsupported journal version " + version + " in " + file);
+        }
+        baseLsn = header.getLong();
+    }
+
+    private static void writeHeader(FileChannel target, long baseLsn) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_SIZE);
+        header.putInt(MAGIC).putInt(FORMAT_VERSION).putLong(baseLsn).flip();
+        while (header.hasRemaining()) {
+            target.write(header, header.position());
+        }
+        target.position(FILE_HEADER_SIZE);
+    }
+
+    private void ensureWritable() {
+        if (closed) {
+            throw new IllegalStateException("Journal is closed: " + file);
+        }
+        if (!scanned) {
+            scan(null, 0);
+        }
+    }
+
+    /**
+     * Write the encoded records; without group commit, also force them.
+     * Must hold the lock.
+     *
+     * @param lsnAfter The LSN following the last record in the buffer
+     */
+    private void write(long lsnAfter) {
+        writeBuffer.flip();
+        try {
+            while (writeBuffer.hasRemaining()) {
+                writePosition += channel.write(writeBuffer, writePosition);
+            }
+            if (committer == null) {
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Journal append failed: " + file, e);
+        }
+        nextLsn = lsnAfter;
+    }
+
+    private void awaitDurable(long lsnAfter) {
+        if (committer != null) {
+            committer.commit(lsnAfter);
+        }
+    }
+
+    private void forceChannel() throws IOException {
+        channelLock.readLock().lock();
+        try {
+            channel.force(false);
+        } finally {
+            channelLock.readLock().unlock();
+        }
+    }
+
+    private void swapChannel(FileChannel reopened) throws IOException {
+        FileChannel old;
+        channelLock.writeLock().lock();
+        try {
+            old = channel;
+            channel = reopened;
+        } finally {
+            channelLock.writeLock().unlock();
+        }
+        old.close();
+    }
+
+    private void growWriteBuffer() {
+        writeBuffer = ByteBuffer.allocateDirect(writeBuffer.capacity() * 2);
+    }
+
+    /**
+     * Walk the records before {@code end}, copying product definitions to
+     * {@code out} until the first record at or above {@code lsn}.
+     *
+     * @return File offset of the first record to keep, or {@code end}
+     */
+    private static long copyDefinitions(FileChannel source, long lsn, long end, FileChannel out) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+        buf.limit(0);
+        long position = FILE_HEADER_SIZE;
+        while (position < end) {
+            int recordSize = buf.remaining() >= JournalRecordCodec.FRAME_HEADER_SIZE
+                ? JournalRecordCodec.FRAME_HEADER_SIZE + buf.getInt(buf.position())
+                : Integer.MAX_VALUE;
+            if (buf.remaining() < recordSize) {
+                buf.compact();
+                if (!buf.hasRemaining()) {
+                    ByteBuffer bigger = ByteBuffer.allocate(buf.capacity() * 2);
+                    buf.flip();
+                    bigger.put(buf);
+                    buf = bigger;
+                }
+                int read = source.read(buf, position + buf.position());
+                buf.flip();
+                if (read <= 0) {
+                    throw new IOException("Unexpected end of journal at offset " + position);
+                }
+                continue;
+            }
+            if (JournalRecordCodec.peekLsn(buf) >= lsn) {
+                break;
+            }
+            if (JournalRecordCodec.peekType(buf) == JournalRecordCodec.TYPE_DEFINE_PRODUCT) {
+                ByteBuffer record = buf.duplicate();
+                record.limit(record.position() + recordSize);
+                while (record.hasRemaining()) {
+                    out.write(record);
+                }
+            }
+            buf.position(buf.position() + recordSize);
+            position += recordSize;
+        }
+        return position;
+    }
+
+    private static void transfer(FileChannel source, long from, long to, FileChannel out) throws IOException {
+        while (from < to) {
+            from += source.transferTo(from, to - from, out);
+        }
+    }
+
+    private void forceDirectory() {
+        Path directory = file.toAbsolutePath().getParent();
+        try (FileChannel dir = FileChannel.open(directory, StandardOpenOption.READ)) {
+            dir.force(true);
+        } catch (IOException e) {
+            // Not supported on every platform; the rename is still atomic
+        }
+    }
+
+    /**
+     * Read every valid record from the start of the file. Locates the end of the
+     * log, truncating a torn tail, and hands records at or above {@code minLsn}
+     * to the handler if one is given.
+     */
+    private void scan(JournalReplayHandler handler, long minLsn) {
+        JournalReplayHandler target = handler != null ? handler : NO_OP_HANDLER;
+        JournalRecordCodec readCodec = new JournalRecordCodec(dictionary);
+        ByteBuffer readBuffer = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+        long position = FILE_HEADER_SIZE;
+        long lastLsn = -1;
+        int records = 0;
+
+        try {
+            long size = channel.size();
+            readBuffer.limit(0);
+            while (true) {
+                int consumed = readCodec.decode(readBuffer, target, minLsn);
+                if (consumed > 0) {
+                    position += consumed;
+                    lastLsn = readCodec.lastLsn();
+                    records++;
+                    continue;
+                }
+                if (consumed == JournalRecordCodec.CORRUPT) {
+                    break;
+                }
+                // INCOMPLETE: pull more bytes, growing the buffer for oversized records
+                long filePosition = position + readBuffer.remaining();
+                if (filePosition >= size) {
+                    break;
+                }
+                readBuffer.compact();
+                if (!readBuffer.hasRemaining()) {
+                    ByteBuffer bigger = ByteBuffer.allocate(readBuffer.capacity() * 2);
+                    readBuffer.flip();
+                    bigger.put(readBuffer);
+                    readBuffer = bigger;
+                }
+                int read = channel.read(readBuffer, filePosition);
+                readBuffer.flip();
+                if (read <= 0) {
+                    break;
+                }
+            }
+
+            if (position < size) {
+                DebugLogger.log(DebugLogger.Category.PERSISTENCE, "FileOrderJournal",
+                    String.format("Truncating %d byte(s) of torn tail from %s",
+                        size - position, file));
+                channel.truncate(position);
+                channel.force(true);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Journal replay failed: " + file, e);
+        }
+
+        writePosition = position;
+        nextLsn = Math.max(lastLsn + 1, baseLsn);
+        writeCodec.markDictionaryLogged();
+        scanned = true;
+        DebugLogger.log(DebugLogger.Category.PERSISTENCE, "FileOrderJournal",
+            String.format("Scanned %d record(s) from %s, next LSN %d", records, file, nextLsn));
+    }
+}
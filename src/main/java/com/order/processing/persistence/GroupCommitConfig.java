@@ -0,0 +1,45 @@
+package com.order.processing.persistence;
+
+import java.time.Duration;
+
+/**
+ * Settings for group commit: how long a batch may wait for more records
+ * and how many records it may hold before it is forced to disk.
+ */
+public final class GroupCommitConfig {
+
+    /** No extra batching window: each force covers whatever queued up during the previous one. */
+    public static final GroupCommitConfig DEFAULT = new GroupCommitConfig(Duration.ZERO, 512);
+
+    private final Duration maxBatchDelay;
+    private final int maxBatchSize;
+
+    /**
+     * @param maxBatchDelay Longest a record waits for others to join its batch (zero = force as soon as possible)
+     * @param maxBatchSize Number of pending records that triggers a force without waiting
+     */
+    public GroupCommitConfig(Duration maxBatchDelay, int maxBatchSize) {
+        if (maxBatchDelay == null || maxBatchDelay.isNegative()) {
+            throw new IllegalArgumentException("Max batch delay must be non-negative");
+        }
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException("Max batch size must be greater than 0");
+        }
+        this.maxBatchDelay = maxBatchDelay;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    public Duration getMaxBatchDelay() {
+        return maxBatchDelay;
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("GroupCommitConfig[maxBatchDelay=%s, maxBatchSize=%d]",
+            maxBatchDelay, maxBatchSize);
+    }
+}
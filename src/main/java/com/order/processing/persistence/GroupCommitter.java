@@ -0,0 +1,176 @@
+package com.order.processing.persistence;
+
+import com.order.processing.util.DebugLogger;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Group commit: one flusher thread forces the log on behalf of every
+ * caller whose record was written since the last force.
+ *
+ * Writers report a monotonic position their record ends at (a file offset or
+ * an LSN - whatever the journal uses) and then block until a force covering
+ * that position has completed. The flusher waits up to the
+ * configured delay (or until the batch is full) before each force, so many
+ * concurrent appends share a single fsync.
+ */
+class GroupCommitter {
+
+    /**
+     * Makes everything written so far durable.
+     */
+    @FunctionalInterface
+    interface ForceAction {
+        void force() throws IOException;
+    }
+
+    private final ForceAction forceAction;
+    private final long maxBatchDelayNanos;
+    private final int maxBatchSize;
+    private final Thread flusher;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition batchReady = lock.newCondition();
+    private final Condition batchDurable = lock.newCondition();
+
+    private long writtenPosition;
+    private long durablePosition;
+    private int pendingRecords;
+    private boolean stopping;
+    /** Set once the flusher has exited; nothing written after that will be forced. */
+    private boolean stopped;
+    private IOException failure;
+
+    private long forces;
+    private long recordsCommitted;
+
+    GroupCommitter(ForceAction forceAction, GroupCommitConfig config, String name) {
+        this.forceAction = forceAction;
+        this.maxBatchDelayNanos = config.getMaxBatchDelay().toNanos();
+        this.maxBatchSize = config.getMaxBatchSize();
+        this.flusher = new Thread(this::runFlusher, "group-commit-" + name);
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    /**
+     * Block until everything up to {@code endPosition} has been forced to disk.
+     *
+     * @param endPosition Position just past the caller's record
+     * @throws UncheckedIOException if the force failed
+     */
+    void commit(long endPosition) {
+        lock.lock();
+        try {
+            if (endPosition > writtenPosition) {
+                writtenPosition = endPosition;
+            }
+            pendingRecords++;
+            if (pendingRecords == 1 || pendingRecords >= maxBatchSize) {
+                batchReady.signal();
+            }
+            while (durablePosition < endPosition) {
+                if (failure != null) {
+                    throw new UncheckedIOException("Journal force failed", failure);
+                }
+                if (stopped) {
+                    throw new IllegalStateException("Journal closed before record became durable");
+                }
+                batchDurable.awaitUninterruptibly();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Force whatever is pending, then stop the flusher thread.
+     */
+    void close() {
+        lock.lock();
+        try {
+            stopping = true;
+            batchReady.signal();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        DebugLogger.log(DebugLogger.Category.PERSISTENCE, "GroupCommitter",
+            String.format("Stopped after %d force(s) covering %d record(s)", forces, recordsCommitted));
+    }
+
+    private void runFlusher() {
+        try {
+            flushUntilStopped();
+        } finally {
+            lock.lock();
+            try {
+                stopped = true;
+                batchDurable.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void flushUntilStopped() {
+        while (true) {
+            long target;
+            int batch;
+            lock.lock();
+            try {
+                while (pendingRecords == 0 && !stopping) {
+                    batchReady.awaitUninterruptibly();
+                }
+                if (pendingRecords == 0) {
+                    return;
+                }
+                // Give other writers a chance to join this batch
+                long remaining = maxBatchDelayNanos;
+                while (remaining > 0 && pendingRecords < maxBatchSize && !stopping) {
+                    try {
+                        remaining = batchReady.awaitNanos(remaining);
+                    } catch (InterruptedException e) {
+                        break;
+                    }
+                }
+                target = writtenPosition;
+                batch = pendingRecords;
+                pendingRecords = 0;
+            } finally {
+                lock.unlock();
+            }
+
+            IOException error = null;
+            try {
+                forceAction.force();
+            } catch (IOException e) {
+                error = e;
+            }
+
+            lock.lock();
+            try {
+                if (error != null) {
+                    failure = error;
+                } else if (target > durablePosition) {
+                    durablePosition = target;
+                }
+                forces++;
+                recordsCommitted += batch;
+                batchDurable.signalAll();
+                if (error != null) {
+                    return;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
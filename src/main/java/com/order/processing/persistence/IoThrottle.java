@@ -0,0 +1,65 @@
+package com.order.processing.persistence;
+
+/**
+ * Paces background I/O to a byte rate so it leaves the disk to foreground work,
+ * and breaks its CPU work into short slices so it leaves the processor too.
+ *
+ * Callers report the bytes they are about to read or write; the throttle sleeps
+ * whenever the running total gets ahead of the allowed rate since it was
+ * created. They also report each record they handle; after
+ * {@link #RECORDS_PER_SLICE} records without a sleep the throttle pauses
+ * briefly, so a burst of records already in memory cannot hold a core for
+ * long. Not thread-safe: one instance per background task.
+ */
+final class IoThrottle {
+
+    /** Records handled between two pauses. */
+    static final int RECORDS_PER_SLICE = 256;
+    /** How long a pause between slices lasts. */
+    static final long SLICE_PAUSE_MILLIS = 1;
+
+    private final long bytesPerSecond;
+    private final long startNanos = System.nanoTime();
+    private long bytes;
+    private int sliceRecords;
+
+    /**
+     * @param bytesPerSecond Allowed rate; zero or less means unlimited
+     */
+    IoThrottle(long bytesPerSecond) {
+        this.bytesPerSecond = bytesPerSecond;
+    }
+
+    /**
+     * Account for {@code count} bytes, sleeping first if the rate would be exceeded.
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    void acquire(long count) throws InterruptedException {
+        if (bytesPerSecond <= 0) {
+            return;
+        }
+        bytes += count;
+        long dueNanos = (long) (bytes * 1e9 / bytesPerSecond);
+        long aheadNanos = dueNanos - (System.nanoTime() - startNanos);
+        if (aheadNanos > 1_000_000) {
+            Thread.sleep(aheadNanos / 1_000_000, (int) (aheadNanos % 1_000_000));
+            sliceRecords = 0;
+        } else if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+    }
+
+    /**
+     * Account for one record, pausing if it ends a slice. Unthrottled tasks never pause.
+     *
+     * @throws InterruptedException if interrupted while paused
+     */
+    void record() throws InterruptedException {
+        if (bytesPerSecond <= 0 || ++sliceRecords < RECORDS_PER_SLICE) {
+            return;
+        }
+        sliceRecords = 0;
+        Thread.sleep(SLICE_PAUSE_MILLIS);
+    }
+}
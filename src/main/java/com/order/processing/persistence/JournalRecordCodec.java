@@ -0,0 +1,375 @@
+package com.order.processing.persistence;
+
+import com.order.processing.codec.OrderCodec;
+import com.order.processing.codec.ProductDictionary;
+import com.order.processing.codec.Varints;
+import com.order.processing.model.Order;
+import com.order.processing.model.OrderItem;
+import com.order.processing.state.OrderStatus;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * Binary layout of journal records.
+ *
+ * Every record is framed as:
+ * <pre>
+ *   int  length   - bytes of lsn + type + payload
+ *   int  crc32c   - checksum of lsn + type + payload
+ *   long lsn      - log sequence number
+ *   byte type     - CREATE, TRANSITION or DEFINE_PRODUCT
+ *   ...  payload
+ * </pre>
+ *
+ * CREATE payloads are {@link OrderCodec} encodings. Their product codes come
+ * from the journal's {@link ProductDictionary}; a DEFINE_PRODUCT record for
+ * each new code is written ahead of the CREATE that first needs it, and is
+ * applied to the dictionary (not passed to the handler) on replay.
+ *
+ * One instance per writer: it reuses its checksum object, so it is not thread-safe.
+ */
+class JournalRecordCodec {
+
+    static final int FRAME_HEADER_SIZE = 8;
+
+    static final byte TYPE_CREATE = 1;
+    static final byte TYPE_TRANSITION = 2;
+    static final byte TYPE_DEFINE_PRODUCT = 3;
+
+    /** Returned by {@link #decode} when the buffer holds only part of a record. */
+    static final int INCOMPLETE = 0;
+    /** Returned by {@link #decode} when the record fails validation. */
+    static final int CORRUPT = -1;
+
+    private static final OrderStatus[] STATUSES = OrderStatus.values();
+
+    private final CRC32C crc = new CRC32C();
+    private final ProductDictionary dictionary;
+    private final OrderCodec orderCodec;
+    private int definedInLog;
+    private long lastLsn = -1;
+
+    JournalRecordCodec(ProductDictionary dictionary) {
+        this.dictionary = dictionary;
+        this.orderCodec = new OrderCodec(dictionary);
+    }
+
+    /**
+     * Write a framed CREATE record at the buffer's position, preceded by
+     * DEFINE_PRODUCT records for any dictionary codes not yet in the log.
+     *
+     * @return The LSN after the last record written
+     * @throws java.nio.BufferOverflowException if the buffer is too small;
+     *         the definitions are then written again on the next attempt
+     */
+    long encodeCreate(ByteBuffer buf, long lsn, Order order) {
+        List<OrderItem> items = order.getItems();
+        for (int i = 0; i < items.size(); i++) {
+            dictionary.intern(items.get(i).getProductId());
+        }
+        int dictionarySize = dictionary.size();
+        for (int code = definedInLog; code < dictionarySize; code++) {
+            int start = beginRecord(buf, lsn++, TYPE_DEFINE_PRODUCT);
+            Varints.putVarInt(buf, code);
+            putString(buf, dictionary.productOf(code));
+            endRecord(buf, start);
+        }
+
+        int start = beginRecord(buf, lsn++, TYPE_CREATE);
+        orderCodec.encode(order, buf);
+        endRecord(buf, start);
+        definedInLog = dictionarySize;
+        return lsn;
+    }
+
+    /**
+     * Write a framed CREATE record around an order already encoded by
+     * {@link OrderCodec}, with no definitions ahead of it. Every product the
+     * order uses must already be defined in the log.
+     *
+     * @throws java.nio.BufferOverflowException if the buffer is too small
+     */
+    void encodeCreateRecord(ByteBuffer buf, long lsn, byte[] encoded) {
+        int start = beginRecord(buf, lsn, TYPE_CREATE);
+        buf.put(encoded);
+        endRecord(buf, start);
+    }
+
+    /**
+     * As {@link #encodeCreateRecord(ByteBuffer, long, byte[])}, but with the
+     * encoded order's status and last-modified time replaced.
+     *
+     * @throws java.nio.BufferOverflowException if the buffer is too small
+     */
+    void encodeCreateRecord(ByteBuffer buf, long lsn, byte[] encoded, OrderStatus status,
+                            long modifiedEpochSecond, int modifiedNano) {
+        int start = beginRecord(buf, lsn, TYPE_CREATE);
+        OrderCodec.copyWithState(ByteBuffer.wrap(encoded), buf, status, modifiedEpochSecond, modifiedNano);
+        endRecord(buf, start);
+    }
+
+    /**
+     * Write a DEFINE_PRODUCT record for one dictionary code with the given LSN.
+     * Compacted segments put their definitions up front this way, all at the
+     * segment's base LSN, since the records after them keep their original LSNs.
+     *
+     * @throws java.nio.BufferOverflowException if the buffer is too small
+     */
+    void encodeDefinition(ByteBuffer buf, long lsn, int code) {
+        int start = beginRecord(buf, lsn, TYPE_DEFINE_PRODUCT);
+        Varints.putVarInt(buf, code);
+        putString(buf, dictionary.productOf(code));
+        endRecord(buf, start);
+    }
+
+    /**
+     * Forget which products have been defined, so the next CREATE re-emits the
+     * whole dictionary. Used when starting a log file that must stand on its own.
+     */
+    void resetDefinitions() {
+        definedInLog = 0;
+    }
+
+    /**
+     * Treat every product currently in the dictionary as already defined in the log.
+     * Used after replay, when the definitions were read back from the log.
+     */
+    void markDictionaryLogged() {
+        definedInLog = dictionary.size();
+    }
+
+    /**
+     * Write a framed TRANSITION record at the buffer's position.
+     *
+     * @throws java.nio.BufferOverflowException if the buffer is too small
+     */
+    void encodeTransition(ByteBuffer buf, long lsn, Order order, OrderStatus newStatus) {
+        encodeTransition(buf, lsn, order.getId(), newStatus, order.getLastModifiedAt());
+    }
+
+    /**
+     * Write a framed TRANSITION record from its parts.
+     *
+     * @throws java.nio.BufferOverflowException if the buffer is too small
+     */
+    void encodeTransition(ByteBuffer buf, long lsn, String orderId, OrderStatus newStatus, LocalDateTime modifiedAt) {
+        encodeTransition(buf, lsn, orderId, newStatus, modifiedAt.toEpochSecond(ZoneOffset.UTC), modifiedAt.getNano());
+    }
+
+    /**
+     * Write a framed TRANSITION record with the time as epoch seconds (UTC) and nanos.
+     *
+     * @throws java.nio.BufferOverflowException if the buffer is too small
+     */
+    void encodeTransition(ByteBuffer buf, long lsn, String orderId, OrderStatus newStatus,
+                          long modifiedEpochSecond, int modifiedNano) {
+        int start = beginRecord(buf, lsn, TYPE_TRANSITION);
+        OrderCodec.putId(buf, orderId);
+        buf.put((byte) newStatus.ordinal());
+        Varints.putSignedVarLong(buf, modifiedEpochSecond);
+        Varints.putVarInt(buf, modifiedNano);
+        endRecord(buf, start);
+    }
+
+    /**
+     * Decode one record at the buffer's position and hand it to the handler.
+     * On success the position moves past the record.
+     *
+     * @return bytes consumed, {@link #INCOMPLETE} or {@link #CORRUPT}
+     */
+    int decode(ByteBuffer buf, JournalReplayHandler handler) {
+        return decode(buf, handler, Long.MIN_VALUE);
+    }
+
+    /**
+     * Decode one record, passing it to the handler only if its LSN is at least
+     * {@code minLsn}. Product definitions are always applied, since later
+     * records may refer to them.
+     *
+     * @return bytes consumed, {@link #INCOMPLETE} or {@link #CORRUPT}
+     */
+    int decode(ByteBuffer buf, JournalReplayHandler handler, long minLsn) {
+        int start = buf.position();
+        int length = validate(buf);
+        if (length <= 0) {
+            return length;
+        }
+        int bodyStart = start + FRAME_HEADER_SIZE;
+        int savedLimit = buf.limit();
+        buf.limit(bodyStart + length).position(bodyStart);
+        try {
+            lastLsn = buf.getLong();
+            byte type = buf.get();
+            if (lastLsn < minLsn && (type == TYPE_CREATE || type == TYPE_TRANSITION)) {
+                // Already covered by a snapshot
+            } else if (type == TYPE_CREATE) {
+                handler.onCreate(orderCodec.decode(buf));
+            } else if (type == TYPE_TRANSITION) {
+                String orderId = OrderCodec.getId(buf);
+                OrderStatus status = STATUSES[buf.get()];
+                handler.onTransition(orderId, status, getTime(buf));
+            } else if (type == TYPE_DEFINE_PRODUCT) {
+                int code = Varints.getVarInt(buf);
+                dictionary.define(code, getString(buf));
+            } else {
+                buf.position(start);
+                return CORRUPT;
+            }
+        } finally {
+            buf.limit(savedLimit);
+        }
+        buf.position(bodyStart + length);
+        return FRAME_HEADER_SIZE + length;
+    }
+
+    /**
+     * Decode one record for compaction: a CREATE is handed over still encoded
+     * and a TRANSITION as plain values, so no Order or LocalDateTime is built.
+     * On success the position moves past the record.
+     *
+     * @return bytes consumed, {@link #INCOMPLETE} or {@link #CORRUPT}
+     */
+    int decodeRaw(ByteBuffer buf, RawRecordHandler handler) {
+        int start = buf.position();
+        int length = validate(buf);
+        if (length <= 0) {
+            return length;
+        }
+        int bodyStart = start + FRAME_HEADER_SIZE;
+        ByteBuffer body = buf.duplicate().limit(bodyStart + length).position(bodyStart);
+        lastLsn = body.getLong();
+        byte type = body.get();
+        if (type == TYPE_CREATE) {
+            ByteBuffer head = body.duplicate();
+            head.get();
+            handler.onCreate(OrderCodec.getId(head), body);
+        } else if (type == TYPE_TRANSITION) {
+            String orderId = OrderCodec.getId(body);
+            OrderStatus status = STATUSES[body.get()];
+            long seconds = Varints.getSignedVarLong(body);
+            handler.onTransition(orderId, status, seconds, Varints.getVarInt(body));
+        } else if (type == TYPE_DEFINE_PRODUCT) {
+            int code = Varints.getVarInt(body);
+            dictionary.define(code, getString(body));
+        } else {
+            return CORRUPT;
+        }
+        buf.position(bodyStart + length);
+        return FRAME_HEADER_SIZE + length;
+    }
+
+    /**
+     * Receives records from {@link #decodeRaw}.
+     */
+    interface RawRecordHandler {
+        /**
+         * @param encoded The order's {@link OrderCodec} encoding, from its
+         *        position to its limit; valid only during the call
+         */
+        void onCreate(String orderId, ByteBuffer encoded);
+
+        /**
+         * @param modifiedEpochSecond Epoch seconds (UTC) of the transition
+         */
+        void onTransition(String orderId, OrderStatus status, long modifiedEpochSecond, int modifiedNano);
+    }
+
+    /**
+     * LSN of the record starting at the buffer's position, without validating it.
+     */
+    static long peekLsn(ByteBuffer buf) {
+        return buf.getLong(buf.position() + FRAME_HEADER_SIZE);
+    }
+
+    /**
+     * Type of the record starting at the buffer's position, without validating it.
+     */
+    static byte peekType(ByteBuffer buf) {
+        return buf.get(buf.position() + FRAME_HEADER_SIZE + 8);
+    }
+
+    /**
+     * LSN of the record most recently decoded.
+     */
+    long lastLsn() {
+        return lastLsn;
+    }
+
+    /**
+     * Check the frame at the buffer's position without moving it.
+     *
+     * @return body length, {@link #INCOMPLETE} or {@link #CORRUPT}
+     */
+    private int validate(ByteBuffer buf) {
+        int start = buf.position();
+        if (buf.remaining() < FRAME_HEADER_SIZE) {
+            return INCOMPLETE;
+        }
+        int length = buf.getInt(start);
+        int expectedCrc = buf.getInt(start + 4);
+        if (length < 9) {
+            return CORRUPT;
+        }
+        if (buf.remaining() < FRAME_HEADER_SIZE + length) {
+            return INCOMPLETE;
+        }
+        int bodyStart = start + FRAME_HEADER_SIZE;
+        if (checksum(buf, bodyStart, bodyStart + length) != expectedCrc) {
+            return CORRUPT;
+        }
+        return length;
+    }
+
+    private int beginRecord(ByteBuffer buf, long lsn, byte type) {
+        int start = buf.position();
+        if (buf.remaining() < FRAME_HEADER_SIZE + 9) {
+            // position() would fail with IllegalArgumentException instead
+            throw new BufferOverflowException();
+        }
+        buf.position(start + FRAME_HEADER_SIZE);
+        buf.putLong(lsn);
+        buf.put(type);
+        return start;
+    }
+
+    private void endRecord(ByteBuffer buf, int start) {
+        int end = buf.position();
+        int bodyStart = start + FRAME_HEADER_SIZE;
+        buf.putInt(start, end - bodyStart);
+        buf.putInt(start + 4, checksum(buf, bodyStart, end));
+    }
+
+    private int checksum(ByteBuffer buf, int from, int to) {
+        int savedPosition = buf.position();
+        int savedLimit = buf.limit();
+        buf.limit(to).position(from);
+        crc.reset();
+        crc.update(buf);
+        buf.limit(savedLimit).position(savedPosition);
+        return (int) crc.getValue();
+    }
+
+    private static void putString(ByteBuffer buf, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        Varints.putVarInt(buf, bytes.length);
+        buf.put(bytes);
+    }
+
+    private static String getString(ByteBuffer buf) {
+        byte[] bytes = new byte[Varints.getVarInt(buf)];
+        buf.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static LocalDateTime getTime(ByteBuffer buf) {
+        long seconds = Varints.getSignedVarLong(buf);
+        int nanos = Varints.getVarInt(buf);
+        return LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC);
+    }
+}
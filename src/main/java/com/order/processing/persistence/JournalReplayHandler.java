@@ -0,0 +1,31 @@
+package com.order.processing.persistence;
+
+import com.order.processing.model.Order;
+import com.order.processing.state.OrderStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Receives journal records during replay.
+ *
+ * Must be thread-safe if the journal replays concurrently, as
+ * {@link PartitionedOrderJournal} does. Records of one order still arrive in order.
+ */
+public interface JournalReplayHandler {
+
+    /**
+     * An order was created. The order is fully rebuilt, in the status it had when logged.
+     *
+     * @param order The recovered order
+     */
+    void onCreate(Order order);
+
+    /**
+     * An existing order moved to a new status.
+     *
+     * @param orderId The order's ID
+     * @param status The new status
+     * @param modifiedAt When the transition happened
+     */
+    void onTransition(String orderId, OrderStatus status, LocalDateTime modifiedAt);
+}
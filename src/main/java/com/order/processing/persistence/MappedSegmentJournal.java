@@ -0,0 +1,802 @@
+package com.order.processing.persistence;
+
+import com.order.processing.codec.ProductDictionary;
+import com.order.processing.model.Order;
+import com.order.processing.state.OrderStatus;
+import com.order.processing.util.DebugLogger;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Journal stored as fixed-size memory-mapped segment files.
+ *
+ * Records are encoded straight into the mapped buffer of the active segment, so
+ * an append is a memory copy with no system call. When a record does not fit,
+ * the active segment is forced and a new one is created. Segment files are
+ * named after the first LSN they hold: {@code orders-<baseLsn>.seg}.
+ *
+ * Segment layout: a 16-byte header (magic, format version, base LSN) followed by
+ * records framed as described in {@link JournalRecordCodec}. The unused tail of
+ * a segment is zero, which reads as end-of-log.
+ *
+ * Durability is the same as {@link FileOrderJournal}: each append forces its own
+ * pages, or waits for a group commit when a {@link GroupCommitConfig} is given.
+ * Segments wholly below an LSN can be dropped with {@link #truncateBefore(long)}
+ * once a snapshot covers them.
+ *
+ * Without snapshots, {@link #compact} shrinks the sealed segments instead: it
+ * folds every order's records into one carrying its latest state and writes
+ * them to a single compacted segment, named after the first segment it
+ * replaces. A compacted segment has a 24-byte header (magic "OSCM", format
+ * version, base LSN, end LSN) and is only as long as its records. Its records
+ * keep their original LSNs, so the sequence has gaps up to the end LSN, where
+ * the next segment starts; its product definitions come first, all at the base
+ * LSN. The compacted file is renamed over the first input in one atomic step;
+ * input segments left behind by a crash after that are recognised on open,
+ * because they start below the end LSN, and deleted.
+ */
+public class MappedSegmentJournal implements OrderJournal {
+
+    /** 64 MB segments unless told otherwise. */
+    public static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+    static final int MAGIC = 0x4F534547; // "OSEG"
+    static final int FORMAT_VERSION = 2;
+    static final int SEGMENT_HEADER_SIZE = 16;
+    static final int COMPACTED_MAGIC = 0x4F53434D; // "OSCM"
+    static final int COMPACTED_HEADER_SIZE = 24;
+
+    private static final String SEGMENT_PREFIX = "orders-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String COMPACT_SUFFIX = ".compact";
+    private static final int COMPACT_BUFFER_SIZE = 1024 * 1024;
+
+    private static final JournalReplayHandler NO_OP_HANDLER = new JournalReplayHandler() {
+        @Override
+        public void onCreate(Order order) {
+        }
+
+        @Override
+        public void onTransition(String orderId, OrderStatus status, LocalDateTime modifiedAt) {
+        }
+    };
+
+    /**
+     * One segment file. Only the active segment keeps its mapping.
+     */
+    private static final class Segment {
+        final Path path;
+        final long baseLsn;
+        MappedByteBuffer buffer;
+        boolean compacted;
+        long endLsn;
+
+        Segment(Path path, long baseLsn) {
+            this.path = path;
+            this.baseLsn = baseLsn;
+        }
+    }
+
+    /**
+     * Latest state of one order while compacting, kept as the raw fields the
+     * compacted records need rather than as an Order.
+     */
+    private static final class FoldedOrder {
+        final String orderId;
+        /** OrderCodec encoding from the order's CREATE, or null if it predates these segments. */
+        byte[] created;
+        /** Whether a TRANSITION followed the CREATE, so the state below supersedes the encoded one. */
+        boolean transitioned;
+        OrderStatus status;
+        long modifiedEpochSecond;
+        int modifiedNano;
+        long lsn;
+
+        FoldedOrder(String orderId) {
+            this.orderId = orderId;
+        }
+    }
+
+    private final Path directory;
+    private final int segmentSize;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ReentrantLock compactionLock = new ReentrantLock();
+    private final ProductDictionary dictionary = new ProductDictionary();
+    private final JournalRecordCodec writeCodec = new JournalRecordCodec(dictionary);
+    private final GroupCommitter committer;
+    private final List<Segment> segments = new ArrayList<>();
+
+    private volatile Segment active;
+    private boolean scanned;
+    private boolean closed;
+    private long nextLsn;
+
+    private ScheduledExecutorService compactionScheduler;
+
+    /**
+     * Open (or create) a segmented journal with default segment size,
+     * forcing every append individually.
+     *
+     * @param directory Directory holding the segment files
+     */
+    public MappedSegmentJournal(Path directory) {
+        this(directory, DEFAULT_SEGMENT_SIZE, null);
+    }
+
+    /**
+     * Open (or create) a segmented journal.
+     *
+     * @param directory Directory holding the segment files
+     * @param segmentSize Size in bytes of each segment file
+     * @param groupCommit Group commit settings, or null to force every append individually
+     * @throws UncheckedIOException if the directory cannot be read or a segment is invalid
+     */
+    public MappedSegmentJournal(Path directory, int segmentSize, GroupCommitConfig groupCommit) {
+        if (segmentSize <= SEGMENT_HEADER_SIZE + JournalRecordCodec.FRAME_HEADER_SIZE) {
+            throw new IllegalArgumentException("Segment size too small: " + segmentSize);
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        try {
+            Files.createDirectories(directory);
+            discoverSegments();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open journal directory " + directory, e);
+        }
+        this.committer = groupCommit != null
+            ? new GroupCommitter(this::forceActive, groupCommit, directory.getFileName().toString())
+            : null;
+        DebugLogger.log(DebugLogger.Category.PERSISTENCE, "MappedSegmentJournal",
+            String.format("Opened %s with %d segment(s) of %d bytes", directory, segments.size(), segmentSize));
+    }
+
+    @Override
+    public void appendCreate(Order order) {
+        long lsnAfter;
+        lock.lock();
+        try {
+            ensureWritable();
+            int start = active.buffer.position();
+            try {
+                lsnAfter = writeCodec.encodeCreate(active.buffer, nextLsn, order);
+            } catch (BufferOverflowException e) {
+                rollAfterOverflow(start);
+                try {
+                    lsnAfter = writeCodec.encodeCreate(active.buffer, nextLsn, order);
+                } catch (BufferOverflowException tooBig) {
+                    active.buffer.position(SEGMENT_HEADER_SIZE);
+                    throw new IllegalArgumentException(
+                        "Order record larger than segment size " + segmentSize + ": " + order.getId());
+                }
+                start = SEGMENT_HEADER_SIZE;
+            }
+            completeAppend(start, lsnAfter);
+        } finally {
+            lock.unlock();
+        }
+        awaitDurable(lsnAfter);
+    }
+
+    @Override
+    public void appendTransition(Order order, OrderStatus newStatus) {
+        long lsnAfter;
+        lock.lock();
+        try {
+            ensureWritable();
+            lsnAfter = nextLsn + 1;
+            int start = active.buffer.position();
+            try {
+                writeCodec.encodeTransition(active.buffer, nextLsn, order, newStatus);
+            } catch (BufferOverflowException e) {
+                rollAfterOverflow(start);
+                writeCodec.encodeTransition(active.buffer, nextLsn, order, newStatus);
+                start = SEGMENT_HEADER_SIZE;
+            }
+            completeAppend(start, lsnAfter);
+        } finally {
+            lock.unlock();
+        }
+        awaitDurable(lsnAfter);
+    }
+
+    @Override
+    public void replay(long fromLsn, JournalReplayHandler handler) {
+        lock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Journal is closed: " + directory);
+            }
+            scan(handler, fromLsn);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public long nextLsn() {
+        lock.lock();
+        try {
+            ensureWritable();
+            return nextLsn;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Delete every segment whose records all have an LSN below {@code lsn}.
+     * The active segment is never deleted. Dropped segments are unreferenced
+     * here; their mappings are released by the garbage collector.
+     *
+     * @param lsn First LSN that must be kept
+     * @return Number of bytes released, the size of the deleted segment files
+     */
+    @Override
+    public long truncateBefore(long lsn) {
+        lock.lock();
+        try {
+            int deleted = 0;
+            long released = 0;
+            while (segments.size() > 1 && segments.get(1).baseLsn <= lsn) {
+                Segment oldest = segments.remove(0);
+                oldest.buffer = null;
+                released += Files.size(oldest.path);
+                Files.deleteIfExists(oldest.path);
+                deleted++;
+            }
+            if (deleted > 0) {
+                DebugLogger.log(DebugLogger.Category.PERSISTENCE, "MappedSegmentJournal",
+                    String.format("Released %d segment(s) below LSN %d", deleted, lsn));
+            }
+            return released;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot delete journal segment in " + directory, e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Compact the sealed segments without limiting the I/O rate.
+     *
+     * @return Number of bytes released
+     */
+    public long compact() {
+        return compact(0);
+    }
+
+    /**
+     * Rewrite every sealed segment into one compacted segment that keeps only
+     * each order's latest record. An order created in those segments becomes a
+     * single CREATE record holding its current status, at the LSN of its last
+     * record there; for an order created earlier, only its last TRANSITION is
+     * kept. Replay therefore ends in the same state as before.
+     *
+     * Appends carry on meanwhile: the segments are read and the new one is
+     * written without the append lock, which is held only to swap it in. The
+     * folded orders are held in memory as their encoded CREATE and latest
+     * status and time, never as Order objects. Does nothing if every sealed
+     * segment is already compacted, and gives up if the segments were
+     * truncated meanwhile.
+     *
+     * A throttled compaction also pauses for a millisecond every
+     * {@value IoThrottle#RECORDS_PER_SLICE} records, so on a busy machine it
+     * yields the CPU to appends instead of running in long bursts.
+     *
+     * @param maxBytesPerSecond Read plus write rate to stay under; zero or less for unlimited
+     * @return Number of bytes released
+     * @throws UncheckedIOException if the compacted segment cannot be written
+     */
+    public long compact(long maxBytesPerSecond) {
+        compactionLock.lock();
+        try {
+            return compactSealed(new IoThrottle(maxBytesPerSecond));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            DebugLogger.log(DebugLogger.Category.PERSISTENCE, "MappedSegmentJournal",
+                "Compaction interrupted: " + directory);
+            return 0;
+        } finally {
+            compactionLock.unlock();
+        }
+    }
+
+    /**
+     * Run {@link #compact(long)} periodically on a background thread until {@link #close()}.
+     *
+     * @param maxBytesPerSecond I/O rate for each run; zero or less for unlimited
+     */
+    public synchronized void startCompaction(long period, TimeUnit unit, long maxBytesPerSecond) {
+        if (compactionScheduler != null) {
+            throw new IllegalStateException("Compaction already started");
+        }
+        compactionScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "journal-compaction");
+            thread.setDaemon(true);
+            return thread;
+        });
+        compactionScheduler.scheduleWithFixedDelay(() -> {
+            try {
+                compact(maxBytesPerSecond);
+            } catch (RuntimeException e) {
+                DebugLogger.log(DebugLogger.Category.ERROR, "MappedSegmentJournal",
+                    "Compaction failed: " + e.getMessage());
+            }
+        }, period, period, unit);
+    }
+
+    @Override
+    public void close() {
+        ScheduledExecutorService running;
+        synchronized (this) {
+            running = compactionScheduler;
+            compactionScheduler = null;
+        }
+        if (running != null) {
+            // Interrupts a throttled compaction; one past its checks finds the journal closed
+            running.shutdownNow();
+        }
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (committer != null) {
+                committer.close();
+            }
+            if (active != null && active.buffer != null) {
+                active.buffer.force();
+            }
+            DebugLogger.log(DebugLogger.Category.PERSISTENCE, "MappedSegmentJournal",
+                "Closed journal " + directory);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long compactSealed(IoThrottle throttle) throws InterruptedException {
+        List<Segment> sealed;
+        long endLsn;
+        lock.lock();
+        try {
+            ensureWritable();
+            sealed = new ArrayList<>(segments.subList(0, segments.size() - 1));
+            endLsn = active.baseLsn;
+        } finally {
+            lock.unlock();
+        }
+        if (sealed.isEmpty() || (sealed.size() == 1 && sealed.get(0).compacted)) {
+            return 0;
+        }
+
+        Segment first = sealed.get(0);
+        Path temp = directory.resolve(first.path.getFileName() + COMPACT_SUFFIX);
+        long inputBytes = 0;
+        long outputBytes;
+        int orders;
+        try {
+            Map<String, FoldedOrder> latest = fold(sealed, endLsn, throttle);
+            orders = latest.size();
+            for (Segment segment : sealed) {
+                inputBytes += Files.size(segment.path);
+            }
+            outputBytes = writeCompacted(temp, first.baseLsn, endLsn, latest.values(), throttle);
+        } catch (IOException e) {
+            deleteQuietly(temp);
+            throw new UncheckedIOException("Cannot compact journal " + directory, e);
+        } catch (InterruptedException | RuntimeException e) {
+            deleteQuietly(temp);
+            throw e;
+        }
+
+        Segment compacted = new Segment(first.path, first.baseLsn);
+        compacted.compacted = true;
+        compacted.endLsn = endLsn;
+        lock.lock();
+        try {
+            // Truncation may have dropped some of the inputs meanwhile
+            if (closed || segments.size() <= sealed.size()
+                    || !segments.subList(0, sealed.size()).equals(sealed)
+                    || segments.get(sealed.size()).baseLsn != endLsn) {
+                deleteQuietly(temp);
+                return 0;
+            }
+            Files.move(temp, first.path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            segments.subList(0, sealed.size()).clear();
+            segments.add(0, compacted);
+        } catch (IOException e) {
+            deleteQuietly(temp);
+            throw new UncheckedIOException("Cannot install compacted segment " + first.path, e);
+        } finally {
+            lock.unlock();
+        }
+
+        forceDirectory();
+        try {
+            for (Segment segment : sealed.subList(1, sealed.size())) {
+                Files.deleteIfExists(segment.path);
+            }
+        } catch (IOException e) {
+            // Harmless: the next open recognises them as superseded
+            DebugLogger.log(DebugLogger.Category.ERROR, "MappedSegmentJournal",
+                "Cannot delete compacted segment: " + e.getMessage());
+        }
+        DebugLogger.log(DebugLogger.Category.PERSISTENCE, "MappedSegmentJournal",
+            String.format("Compacted %d segment(s) of %d bytes into %d bytes holding %d order(s)",
+                sealed.size(), inputBytes, outputBytes, orders));
+        return inputBytes - outputBytes;
+    }
+
+    /**
+     * Read the sealed segments, keeping each order's latest state. The map is
+     * in access order, so it iterates by each order's last record and the
+     * compacted segment keeps LSNs ascending without a sort.
+     */
+    private Map<String, FoldedOrder> fold(List<Segment> sealed, long endLsn, IoThrottle throttle)
+            throws IOException, InterruptedException {
+        Map<String, FoldedOrder> latest = new LinkedHashMap<>(1024, 0.75f, true);
+        JournalRecordCodec readCodec = new JournalRecordCodec(dictionary);
+        JournalRecordCodec.RawRecordHandler folder = new JournalRecordCodec.RawRecordHandler() {
+            @Override
+            public void onCreate(String orderId, ByteBuffer encoded) {
+                FoldedOrder folded = latest.computeIfAbsent(orderId, FoldedOrder::new);
+                folded.created = new byte[encoded.remaining()];
+                encoded.get(folded.created);
+                folded.transitioned = false;
+                folded.lsn = readCodec.lastLsn();
+            }
+
+            @Override
+            public void onTransition(String orderId, OrderStatus status, long modifiedEpochSecond, int modifiedNano) {
+                FoldedOrder folded = latest.computeIfAbsent(orderId, FoldedOrder::new);
+                folded.transitioned = true;
+                folded.status = status;
+                folded.modifiedEpochSecond = modifiedEpochSecond;
+                folded.modifiedNano = modifiedNano;
+                folded.lsn = readCodec.lastLsn();
+            }
+        };
+
+        for (int i = 0; i < sealed.size(); i++) {
+            Segment segment = sealed.get(i);
+            long limitLsn = i + 1 < sealed.size() ? sealed.get(i + 1).baseLsn : endLsn;
+            ByteBuffer view = map(segment.path, false).duplicate();
+            view.position(segment.compacted ? COMPACTED_HEADER_SIZE : SEGMENT_HEADER_SIZE);
+            while (view.remaining() >= JournalRecordCodec.FRAME_HEADER_SIZE + 8) {
+                long lsn = JournalRecordCodec.peekLsn(view);
+                if (lsn < segment.baseLsn || lsn >= limitLsn) {
+                    break;
+                }
+                int consumed = readCodec.decodeRaw(view, folder);
+                if (consumed <= 0) {
+                    break;
+                }
+                throttle.acquire(consumed);
+                throttle.record();
+            }
+        }
+        return latest;
+    }
+
+    /**
+     * Write the folded orders as a compacted segment file.
+     *
+     * @return Size of the file
+     */
+    private long writeCompacted(Path file, long baseLsn, long endLsn, Collection<FoldedOrder> folded,
+                                IoThrottle throttle) throws IOException, InterruptedException {
+        JournalRecordCodec codec = new JournalRecordCodec(dictionary);
+        ByteBuffer out = ByteBuffer.allocate(COMPACT_BUFFER_SIZE);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            out.putInt(COMPACTED_MAGIC).putInt(FORMAT_VERSION).putLong(baseLsn).putLong(endLsn);
+            int products = dictionary.size();
+            for (int code = 0; code < products; code++) {
+                int productCode = code;
+                out = put(channel, out, throttle, buf -> codec.encodeDefinition(buf, baseLsn, productCode));
+            }
+            for (FoldedOrder order : folded) {
+                if (order.created != null && !order.transitioned) {
+                    out = put(channel, out, throttle, buf -> codec.encodeCreateRecord(buf, order.lsn, order.created));
+                } else if (order.created != null) {
+                    out = put(channel, out, throttle, buf -> codec.encodeCreateRecord(buf, order.lsn, order.created,
+                        order.status, order.modifiedEpochSecond, order.modifiedNano));
+                } else {
+                    out = put(channel, out, throttle, buf -> codec.encodeTransition(buf, order.lsn, order.orderId,
+                        order.status, order.modifiedEpochSecond, order.modifiedNano));
+                }
+                throttle.record();
+            }
+            flush(channel, out, throttle);
+            channel.force(true);
+            return channel.size();
+        }
+    }
+
+    /**
+     * Encode one record into the output buffer, flushing it to the channel or
+     * growing it when the record does not fit.
+     *
+     * @return The buffer to carry on with
+     */
+    private static ByteBuffer put(FileChannel channel, ByteBuffer out, IoThrottle throttle,
+                                  Consumer<ByteBuffer> record) throws IOException, InterruptedException {
+        while (true) {
+            int start = out.position();
+            try {
+                record.accept(out);
+                return out;
+            } catch (BufferOverflowException e) {
+                out.position(start);
+                if (start > 0) {
+                    flush(channel, out, throttle);
+                } else {
+                    out = ByteBuffer.allocate(out.capacity() * 2);
+                }
+            }
+        }
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer out, IoThrottle throttle)
+            throws IOException, InterruptedException {
+        out.flip();
+        throttle.acquire(out.remaining());
+        while (out.hasRemaining()) {
+            channel.write(out);
+        }
+        out.clear();
+    }
+
+    private void forceDirectory() {
+        try (FileChannel dir = FileChannel.open(directory, StandardOpenOption.READ)) {
+            dir.force(true);
+        } catch (IOException e) {
+            // Not supported on every platform; the rename is still atomic
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            // Left for the next open to clean up
+        }
+    }
+
+    private void discoverSegments() throws IOException {
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path path : stream) {
+                String name = path.getFileName().toString();
+                String lsnPart = name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length());
+                try {
+                    segments.add(new Segment(path, Long.parseLong(lsnPart)));
+                } catch (NumberFormatException e) {
+                    throw new IOException("Unexpected segment file name: " + path);
+                }
+            }
+        }
+        segments.sort(Comparator.comparingLong(segment -> segment.baseLsn));
+        // A compaction that never reached its rename
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory,
+                SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX + COMPACT_SUFFIX)) {
+            for (Path path : stream) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    private void ensureWritable() {
+        if (closed) {
+            throw new IllegalStateException("Journal is closed: " + directory);
+        }
+        if (!scanned) {
+            scan(null, 0);
+        }
+    }
+
+    private void completeAppend(int start, long lsnAfter) {
+        if (committer == null) {
+            active.buffer.force(start, active.buffer.position() - start);
+        }
+        nextLsn = lsnAfter;
+    }
+
+    private void awaitDurable(long lsnAfter) {
+        if (committer != null) {
+            committer.commit(lsnAfter);
+        }
+    }
+
+    private void forceActive() {
+        Segment segment = active;
+        if (segment != null && segment.buffer != null) {
+            segment.buffer.force();
+        }
+    }
+
+    /**
+     * The record did not fit: clear the partial bytes, seal the active segment
+     * and continue in a new one. Must hold the lock.
+     */
+    private void rollAfterOverflow(int start) {
+        MappedByteBuffer buffer = active.buffer;
+        for (int i = start; i < buffer.capacity(); i++) {
+            buffer.put(i, (byte) 0);
+        }
+        buffer.force();
+        active.buffer = null;
+        openNewSegment(nextLsn);
+    }
+
+    private void openNewSegment(long baseLsn) {
+        Path path = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, baseLsn, SEGMENT_SUFFIX));
+        Segment segment = new Segment(path, baseLsn);
+        try {
+            segment.buffer = map(path, true);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create journal segment " + path, e);
+        }
+        segment.buffer.putInt(MAGIC).putInt(FORMAT_VERSION).putLong(baseLsn);
+        segment.buffer.force(0, SEGMENT_HEADER_SIZE);
+        segments.add(segment);
+        active = segment;
+        // Each segment carries its own product definitions so older ones can be deleted
+        writeCodec.resetDefinitions();
+        DebugLogger.log(DebugLogger.Category.PERSISTENCE, "MappedSegmentJournal",
+            "Rolled to new segment " + path.getFileName());
+    }
+
+    private MappedByteBuffer map(Path path, boolean create) throws IOException {
+        StandardOpenOption[] options = create
+            ? new StandardOpenOption[] {StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE}
+            : new StandardOpenOption[] {StandardOpenOption.READ, StandardOpenOption.WRITE};
+        try (FileChannel channel = FileChannel.open(path, options)) {
+            long size = create ? segmentSize : channel.size();
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+    }
+
+    /**
+     * Read every segment in LSN order. Stops at the first torn or corrupt record;
+     * segments after it cannot be trusted and are deleted. The segment holding
+     * the end of the log becomes the active one. Records below {@code minLsn}
+     * are read but not handed to the handler.
+     */
+    private void scan(JournalReplayHandler handler, long minLsn) {
+        JournalReplayHandler target = handler != null ? handler : NO_OP_HANDLER;
+        JournalRecordCodec readCodec = new JournalRecordCodec(dictionary);
+        long expectedLsn = segments.isEmpty() ? 0 : segments.get(0).baseLsn;
+        int records = 0;
+        int endIndex = -1;
+        int endPosition = SEGMENT_HEADER_SIZE;
+
+        try {
+            for (int i = 0; i < segments.size(); i++) {
+                Segment segment = segments.get(i);
+                if (segment.baseLsn < expectedLsn) {
+                    // Input to a compaction that was interrupted before deleting it
+                    segments.remove(i--);
+                    Files.deleteIfExists(segment.path);
+                    DebugLogger.log(DebugLogger.Category.PERSISTENCE, "MappedSegmentJournal",
+                        "Deleted segment superseded by compaction: " + segment.path.getFileName());
+                    continue;
+                }
+                if (segment.baseLsn != expectedLsn) {
+                    break;
+                }
+                MappedByteBuffer buffer = segment == active ? segment.buffer : map(segment.path, false);
+                if (buffer.getInt(0) == COMPACTED_MAGIC) {
+                    records += scanCompacted(segment, buffer, readCodec, target, minLsn);
+                    expectedLsn = segment.endLsn;
+                    endIndex = i;
+                    continue;
+                }
+                if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != FORMAT_VERSION
+                        || buffer.getLong(8) != segment.baseLsn) {
+                    throw new IOException("Bad segment header: " + segment.path);
+                }
+                ByteBuffer view = buffer.duplicate();
+                view.position(SEGMENT_HEADER_SIZE);
+                // A record whose LSN breaks the sequence is leftover garbage, not log
+                while (view.remaining() >= JournalRecordCodec.FRAME_HEADER_SIZE + 8
+                        && view.getLong(view.position() + JournalRecordCodec.FRAME_HEADER_SIZE) == expectedLsn
+                        && readCodec.decode(view, target, minLsn) > 0) {
+                    expectedLsn++;
+                    records++;
+                    endPosition = view.position();
+                }
+                endIndex = i;
+                if (i + 1 < segments.size() && segments.get(i + 1).baseLsn == expectedLsn) {
+                    endPosition = SEGMENT_HEADER_SIZE;
+                    continue;
+                }
+                // End of the log: keep this mapping as the active segment
+                endPosition = view.position();
+                segment.buffer = buffer;
+                break;
+            }
+
+            while (segments.size() > endIndex + 1) {
+                Segment orphan = segments.remove(segments.size() - 1);
+                DebugLogger.log(DebugLogger.Category.ERROR, "MappedSegmentJournal",
+                    "Discarding segment after end of log: " + orphan.path.getFileName());
+                Files.deleteIfExists(orphan.path);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Journal replay failed: " + directory, e);
+        }
+
+        nextLsn = expectedLsn;
+        if (endIndex < 0 || segments.get(endIndex).compacted) {
+            openNewSegment(nextLsn);
+        } else {
+            Segment last = segments.get(endIndex);
+            MappedByteBuffer buffer = last.buffer;
+            // Wipe any torn record left after the end of the log
+            for (int i = endPosition; i < buffer.capacity() && i < endPosition + JournalRecordCodec.FRAME_HEADER_SIZE; i++) {
+                buffer.put(i, (byte) 0);
+            }
+            buffer.position(endPosition);
+            active = last;
+            // Definitions in the active segment were replayed, older ones may be deleted later
+            writeCodec.resetDefinitions();
+        }
+        scanned = true;
+        DebugLogger.log(DebugLogger.Category.PERSISTENCE, "MappedSegmentJournal",
+            String.format("Scanned %d record(s) from %d segment(s), next LSN %d", records, segments.size(), nextLsn));
+    }
+
+    /**
+     * Replay a compacted segment. Its records must run to the end of the file
+     * with non-decreasing LSNs below its end LSN; anything else is damage, not a
+     * torn write, since the file was complete before it was renamed into place.
+     *
+     * @return Number of records read
+     */
+    private int scanCompacted(Segment segment, MappedByteBuffer buffer, JournalRecordCodec readCodec,
+                              JournalReplayHandler handler, long minLsn) throws IOException {
+        if (buffer.getInt(4) != FORMAT_VERSION || buffer.getLong(8) != segment.baseLsn
+                || buffer.getLong(16) <= segment.baseLsn) {
+            throw new IOException("Bad compacted segment header: " + segment.path);
+        }
+        segment.compacted = true;
+        segment.endLsn = buffer.getLong(16);
+        ByteBuffer view = buffer.duplicate();
+        view.position(COMPACTED_HEADER_SIZE);
+        long lastLsn = segment.baseLsn;
+        int records = 0;
+        while (view.hasRemaining()) {
+            long lsn = view.remaining() >= JournalRecordCodec.FRAME_HEADER_SIZE + 8
+                ? JournalRecordCodec.peekLsn(view) : -1;
+            if (lsn < lastLsn || lsn >= segment.endLsn || readCodec.decode(view, handler, minLsn) <= 0) {
+                throw new IOException("Corrupt compacted segment: " + segment.path);
+            }
+            lastLsn = lsn;
+            records++;
+        }
+        return records;
+    }
+}
@@ -0,0 +1,77 @@
+package com.order.processing.persistence;
+
+import com.order.processing.model.Order;
+import com.order.processing.state.OrderStatus;
+
+import java.io.Closeable;
+
+/**
+ * Append-only write-ahead log of order mutations.
+ *
+ * OrderService appends a record for every mutation before the call returns,
+ * and replays the journal on startup to rebuild its order map.
+ *
+ * Implementations must be safe to call from many threads at once.
+ * I/O failures are reported as {@link java.io.UncheckedIOException}.
+ */
+public interface OrderJournal extends Closeable {
+
+    /**
+     * Durably record a newly created order.
+     *
+     * @param order The order that was created
+     */
+    void appendCreate(Order order);
+
+    /**
+     * Durably record that an order moved to a new status.
+     * The order's last-modified time is stored with the record.
+     *
+     * @param order The order that changed
+     * @param newStatus The status the order moved to
+     */
+    void appendTransition(Order order, OrderStatus newStatus);
+
+    /**
+     * Replay every record in the journal, oldest first.
+     *
+     * @param handler Receives the decoded records
+     */
+    default void replay(JournalReplayHandler handler) {
+        replay(0, handler);
+    }
+
+    /**
+     * Replay the records with an LSN of at least {@code fromLsn}, oldest first.
+     * Used to apply the tail of the log on top of a snapshot.
+     *
+     * Records of any one order are always delivered in order, but an
+     * implementation may replay different orders on several threads at once.
+     *
+     * @param fromLsn First LSN to hand to the handler
+     * @param handler Receives the decoded records
+     */
+    void replay(long fromLsn, JournalReplayHandler handler);
+
+    /**
+     * LSN the next appended record will get. Every record appended before this
+     * call returned has a lower LSN.
+     */
+    long nextLsn();
+
+    /**
+     * Discard records with an LSN below {@code lsn}, typically because a snapshot
+     * now covers them. Implementations may keep some older records, but never
+     * drop one at or above {@code lsn}. Appends may continue meanwhile.
+     *
+     * @param lsn First LSN that must be kept
+     * @return Number of bytes released
+     */
+    long truncateBefore(long lsn);
+
+    /**
+     * Flush and release the journal. Appends after close fail.
+     */
+    @Override
+    void close();
+}
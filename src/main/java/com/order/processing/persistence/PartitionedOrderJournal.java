@@ -0,0 +1,163 @@
+package com.order.processing.persistence;
+
+import com.order.processing.model.Order;
+import com.order.processing.state.OrderStatus;
+import com.order.processing.util.DebugLogger;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Journal split into independent {@link FileOrderJournal} partitions by order-ID hash.
+ *
+ * Every record for an order goes to the same partition, so replaying the
+ * partitions concurrently still applies each order's records in order. Replay
+ * runs one task per partition on a fork/join pool sized to the machine; the
+ * handler is therefore called from several threads at once.
+ *
+ * Partitions keep their own LSNs. To give snapshots a single cut-off,
+ * {@link #nextLsn()} takes the highest next LSN of any partition and advances
+ * every partition to it, so everything appended afterwards is at or above it.
+ *
+ * Files are named {@code partition-<n>.journal}. The partition count must stay
+ * the same for the life of the journal, since it decides where each order lives.
+ */
+public class PartitionedOrderJournal implements OrderJournal {
+
+    private static final String PREFIX = "partition-";
+    private static final String SUFFIX = ".journal";
+
+    private final Path directory;
+    private final FileOrderJournal[] partitions;
+
+    /**
+     * Open (or create) a partitioned journal.
+     *
+     * @param directory Directory holding the partition files
+     * @param partitionCount Number of partitions
+     * @param groupCommit Group commit settings for each partition, or null to force every append individually
+     * @throws IllegalArgumentException if the partition count is not positive
+     * @throws IllegalStateException if the directory holds a different number of partitions
+     * @throws UncheckedIOException if the directory or a partition cannot be opened
+     */
+    public PartitionedOrderJournal(Path directory, int partitionCount, GroupCommitConfig groupCommit) {
+        if (partitionCount <= 0) {
+            throw new IllegalArgumentException("Partition count must be positive: " + partitionCount);
+        }
+        this.directory = directory;
+        try {
+            Files.createDirectories(directory);
+            int existing = countPartitionFiles();
+            if (existing != 0 && existing != partitionCount) {
+                throw new IllegalStateException(String.format(
+                    "Journal %s has %d partition(s), cannot open it with %d", directory, existing, partitionCount));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open journal directory " + directory, e);
+        }
+        this.partitions = new FileOrderJournal[partitionCount];
+        for (int i = 0; i < partitionCount; i++) {
+            partitions[i] = new FileOrderJournal(
+                directory.resolve(String.format("%s%03d%s", PREFIX, i, SUFFIX)), groupCommit);
+        }
+        DebugLogger.log(DebugLogger.Category.PERSISTENCE, "PartitionedOrderJournal",
+            String.format("Opened %s with %d partition(s)", directory, partitionCount));
+    }
+
+    @Override
+    public void appendCreate(Order order) {
+        partitionFor(order.getId()).appendCreate(order);
+    }
+
+    @Override
+    public void appendTransition(Order order, OrderStatus newStatus) {
+        partitionFor(order.getId()).appendTransition(order, newStatus);
+    }
+
+    /**
+     * Replay every partition concurrently. Records of one order are delivered in
+     * order on a single thread; records of different orders may interleave.
+     */
+    @Override
+    public void replay(long fromLsn, JournalReplayHandler handler) {
+        int parallelism = Math.min(partitions.length, Runtime.getRuntime().availableProcessors());
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            List<ForkJoinTask<?>> tasks = new ArrayList<>(partitions.length);
+            for (FileOrderJournal partition : partitions) {
+                tasks.add(pool.submit(() -> partition.replay(fromLsn, handler)));
+            }
+            for (ForkJoinTask<?> task : tasks) {
+                task.join();
+            }
+        } finally {
+            pool.shutdown();
+        }
+        DebugLogger.log(DebugLogger.Category.PERSISTENCE, "PartitionedOrderJournal",
+            String.format("Replayed %d partition(s) on %d thread(s)", partitions.length, parallelism));
+    }
+
+    @Override
+    public long nextLsn() {
+        long lsn = 0;
+        for (FileOrderJournal partition : partitions) {
+            lsn = Math.max(lsn, partition.nextLsn());
+        }
+        for (FileOrderJournal partition : partitions) {
+            partition.advanceTo(lsn);
+        }
+        return lsn;
+    }
+
+    @Override
+    public long truncateBefore(long lsn) {
+        long released = 0;
+        for (FileOrderJournal partition : partitions) {
+            released += partition.truncateBefore(lsn);
+        }
+        return released;
+    }
+
+    @Override
+    public void close() {
+        for (FileOrderJournal partition : partitions) {
+            partition.close();
+        }
+    }
+
+    /**
+     * Number of partitions.
+     */
+    public int getPartitionCount() {
+        return partitions.length;
+    }
+
+    /**
+     * Index of the partition holding an order. String.hashCode is specified by
+     * the language, so the mapping is stable across restarts.
+     */
+    int partitionOf(String orderId) {
+        return (orderId.hashCode() & Integer.MAX_VALUE) % partitions.length;
+    }
+
+    private FileOrderJournal partitionFor(String orderId) {
+        return partitions[partitionOf(orderId)];
+    }
+
+    private int countPartitionFiles() throws IOException {
+        int count = 0;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+            for (Path ignored : stream) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,43 @@
+package com.order.processing.persistence;
+
+/**
+ * How long the last startup recovery took and where the time went.
+ */
+public class RecoveryStats {
+    private final long snapshotLsn;
+    private final long ordersFromSnapshot;
+    private final long recordsReplayed;
+    private final long snapshotLoadMillis;
+    private final long replayMillis;
+
+    /**
+     * @param snapshotLsn LSN of the snapshot loaded, or -1 if none
+     * @param ordersFromSnapshot Orders restored from the snapshot
+     * @param recordsReplayed Journal records applied on top of it
+     * @param snapshotLoadMillis Time spent loading the snapshot
+     * @param replayMillis Time spent replaying the journal
+     */
+    public RecoveryStats(long snapshotLsn, long ordersFromSnapshot, long recordsReplayed,
+                         long snapshotLoadMillis, long replayMillis) {
+        this.snapshotLsn = snapshotLsn;
+        this.ordersFromSnapshot = ordersFromSnapshot;
+        this.recordsReplayed = recordsReplayed;
+        this.snapshotLoadMillis = snapshotLoadMillis;
+        this.replayMillis = replayMillis;
+    }
+
+    public long getSnapshotLsn() { return snapshotLsn; }
+    public long getOrdersFromSnapshot() { return ordersFromSnapshot; }
+    public long getRecordsReplayed() { return recordsReplayed; }
+    public long getSnapshotLoadMillis() { return snapshotLoadMillis; }
+    public long getReplayMillis() { return replayMillis; }
+    public long getTotalMillis() { return snapshotLoadMillis + replayMillis; }
+
+    @Override
+    public String toString() {
+        return String.format(
+            "Recovery: %d ms total (snapshot@%d: %d order(s) in %d ms, journal: %d record(s) in %d ms)",
+            getTotalMillis(), snapshotLsn, ordersFromSnapshot, snapshotLoadMillis, recordsReplayed, replayMillis
+        );
+    }
+}
@@ -0,0 +1,317 @@
+package com.order.processing.persistence;
+
+import com.order.processing.codec.OrderCodec;
+import com.order.processing.codec.ProductDictionary;
+import com.order.processing.codec.Varints;
+import com.order.processing.model.Order;
+import com.order.processing.util.DebugLogger;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+/**
+ * Point-in-time snapshots of the order map, written next to a journal so that
+ * recovery only has to replay the records appended after the snapshot.
+ *
+ * A snapshot is tagged with the journal LSN it was started at: every record
+ * below that LSN is reflected in it. Records at or above it may or may not be;
+ * replaying them on top is harmless, because each record carries the full
+ * state it sets.
+ *
+ * File layout, named {@code snapshot-<lsn>.snap}:
+ * <pre>
+ *   int   magic "OSNP", int format version, long lsn
+ *   entries: byte type, int length, payload
+ *     DEFINE_PRODUCT - varint code, varint length + UTF-8 product id
+ *     ORDER          - {@link OrderCodec} encoding
+ *     END            - long order count, int crc32c of every entry before it
+ * </pre>
+ *
+ * Snapshots are written to a temporary file, forced and atomically renamed, so
+ * a crash while writing leaves the previous snapshot in place. Only the newest
+ * snapshot is kept.
+ */
+public class SnapshotStore {
+
+    static final int MAGIC = 0x4F534E50; // "OSNP"
+    static final int FORMAT_VERSION = 1;
+    static final int HEADER_SIZE = 16;
+
+    private static final byte TYPE_END = 0;
+    private static final byte TYPE_DEFINE_PRODUCT = 1;
+    private static final byte TYPE_ORDER = 2;
+    private static final int ENTRY_HEADER_SIZE = 5;
+    private static final int END_PAYLOAD_SIZE = 12;
+
+    private static final String PREFIX = "snapshot-";
+    private static final String SUFFIX = ".snap";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final int BUFFER_SIZE = 1024 * 1024;
+
+    private final Path directory;
+
+    /**
+     * @param directory Directory holding the snapshot files; created if missing
+     * @throws UncheckedIOException if the directory cannot be created
+     */
+    public SnapshotStore(Path directory) {
+        this.directory = directory;
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create snapshot directory " + directory, e);
+        }
+    }
+
+    /**
+     * Write a snapshot and make it the latest one.
+     *
+     * The orders may change while they are written; each one is read once and
+     * written as seen. The caller must make sure every order created below
+     * {@code lsn} is in {@code orders}.
+     *
+     * @param lsn Journal LSN the snapshot covers everything below
+     * @param orders The orders to write
+     * @return Number of orders written
+     * @throws UncheckedIOException if the snapshot cannot be written
+     */
+    public long write(long lsn, Iterable<Order> orders) {
+        Path target = pathFor(lsn);
+        Path temp = directory.resolve(target.getFileName() + TEMP_SUFFIX);
+        ProductDictionary dictionary = new ProductDictionary();
+        OrderCodec codec = new OrderCodec(dictionary);
+        CRC32C crc = new CRC32C();
+        ByteBuffer out = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        ByteBuffer scratch = ByteBuffer.allocate(4096);
+        int definedCodes = 0;
+        long count = 0;
+
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            out.putInt(MAGIC).putInt(FORMAT_VERSION).putLong(lsn);
+            int checksumFrom = out.position();
+
+            for (Order order : orders) {
+                // Encode first so new products get their codes before the order refers to them
+                while (true) {
+                    try {
+                        scratch.clear();
+                        codec.encode(order, scratch);
+                        break;
+                    } catch (BufferOverflowException e) {
+                        scratch = ByteBuffer.allocate(scratch.capacity() * 2);
+                    }
+                }
+                scratch.flip();
+
+                int dictionarySize = dictionary.size();
+                for (int code = definedCodes; code < dictionarySize; code++) {
+                    byte[] product = dictionary.productOf(code).getBytes(StandardCharsets.UTF_8);
+                    int length = 10 + product.length;
+                    checksumFrom = ensureRoom(channel, out, crc, checksumFrom, ENTRY_HEADER_SIZE + length);
+                    int start = out.position();
+                    out.put(TYPE_DEFINE_PRODUCT).putInt(0);
+                    Varints.putVarInt(out, code);
+                    Varints.putVarInt(out, product.length);
+                    out.put(product);
+                    out.putInt(start + 1, out.position() - start - ENTRY_HEADER_SIZE);
+                }
+                definedCodes = dictionarySize;
+
+                checksumFrom = ensureRoom(channel, out, crc, checksumFrom, ENTRY_HEADER_SIZE + scratch.remaining());
+                out.put(TYPE_ORDER).putInt(scratch.remaining()).put(scratch);
+                count++;
+            }
+
+            checksumFrom = ensureRoom(channel, out, crc, checksumFrom, out.capacity());
+            out.put(TYPE_END).putInt(END_PAYLOAD_SIZE).putLong(count).putInt((int) crc.getValue());
+            out.flip();
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+            channel.force(true);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write snapshot " + target, e);
+        }
+
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            forceDirectory();
+            for (Path older : listSnapshots()) {
+                if (!older.equals(target)) {
+                    Files.deleteIfExists(older);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot install snapshot " + target, e);
+        }
+        DebugLogger.log(DebugLogger.Category.PERSISTENCE, "SnapshotStore",
+            String.format("Wrote %d order(s) to %s", count, target.getFileName()));
+        return count;
+    }
+
+    /**
+     * Load the latest snapshot, handing each order to the consumer.
+     *
+     * @param consumer Receives the restored orders
+     * @return The snapshot's LSN, or -1 if there is no snapshot
+     * @throws UncheckedIOException if the snapshot cannot be read or fails its checksum
+     */
+    public long loadLatest(Consumer<Order> consumer) {
+        Path latest;
+        try {
+            List<Path> snapshots = listSnapshots();
+            if (snapshots.isEmpty()) {
+                return -1;
+            }
+            latest = snapshots.get(snapshots.size() - 1);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot list snapshots in " + directory, e);
+        }
+
+        ProductDictionary dictionary = new ProductDictionary();
+        OrderCodec codec = new OrderCodec(dictionary);
+        CRC32C crc = new CRC32C();
+        long count = 0;
+        try (FileChannel channel = FileChannel.open(latest, StandardOpenOption.READ)) {
+            ByteBuffer buf = ByteBuffer.allocate(BUFFER_SIZE);
+            buf.limit(0);
+            buf = fill(channel, buf, HEADER_SIZE);
+            if (buf.getInt() != MAGIC || buf.getInt() != FORMAT_VERSION) {
+                throw new IOException("Not a snapshot of this format: " + latest);
+            }
+            long lsn = buf.getLong();
+
+            while (true) {
+                buf = fill(channel, buf, ENTRY_HEADER_SIZE);
+                int entryStart = buf.position();
+                byte type = buf.get();
+                int length = buf.getInt();
+                if (length < 0) {
+                    throw new IOException("Corrupt snapshot entry in " + latest);
+                }
+                if (type == TYPE_END) {
+                    buf = fill(channel, buf, END_PAYLOAD_SIZE);
+                    long expectedCount = buf.getLong();
+                    int expectedCrc = buf.getInt();
+                    if (expectedCount != count || expectedCrc != (int) crc.getValue()) {
+                        throw new IOException("Snapshot checksum mismatch: " + latest);
+                    }
+                    break;
+                }
+                buf.position(entryStart);
+                buf = fill(channel, buf, ENTRY_HEADER_SIZE + length);
+                entryStart = buf.position();
+                ByteBuffer entry = buf.duplicate();
+                entry.limit(entryStart + ENTRY_HEADER_SIZE + length);
+                crc.update(entry.duplicate());
+                entry.position(entryStart + ENTRY_HEADER_SIZE);
+                if (type == TYPE_DEFINE_PRODUCT) {
+                    int code = Varints.getVarInt(entry);
+                    byte[] product = new byte[Varints.getVarInt(entry)];
+                    entry.get(product);
+                    dictionary.define(code, new String(product, StandardCharsets.UTF_8));
+                } else if (type == TYPE_ORDER) {
+                    consumer.accept(codec.decode(entry));
+                    count++;
+                } else {
+                    throw new IOException("Unknown snapshot entry type " + type + " in " + latest);
+                }
+                buf.position(entryStart + ENTRY_HEADER_SIZE + length);
+            }
+
+            DebugLogger.log(DebugLogger.Category.PERSISTENCE, "SnapshotStore",
+                String.format("Loaded %d order(s) from %s", count, latest.getFileName()));
+            return lsn;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot load snapshot " + latest, e);
+        }
+    }
+
+    private Path pathFor(long lsn) {
+        return directory.resolve(String.format("%s%020d%s", PREFIX, lsn, SUFFIX));
+    }
+
+    private List<Path> listSnapshots() throws IOException {
+        List<Path> snapshots = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+            for (Path path : stream) {
+                snapshots.add(path);
+            }
+        }
+        // Zero-padded LSNs sort correctly by name
+        snapshots.sort(Comparator.comparing(path -> path.getFileName().toString()));
+        return snapshots;
+    }
+
+    /**
+     * Make room for {@code needed} bytes, flushing the buffer to the channel and
+     * folding the flushed entries into the checksum.
+     *
+     * @return Where the checksum continues from in the buffer
+     */
+    private static int ensureRoom(FileChannel channel, ByteBuffer out, CRC32C crc,
+                                  int checksumFrom, int needed) throws IOException {
+        if (out.remaining() >= needed) {
+            return checksumFrom;
+        }
+        ByteBuffer covered = out.duplicate();
+        covered.flip().position(checksumFrom);
+        crc.update(covered);
+        out.flip();
+        while (out.hasRemaining()) {
+            channel.write(out);
+        }
+        out.clear();
+        if (needed > out.capacity()) {
+            throw new IOException("Snapshot entry too large: " + needed + " bytes");
+        }
+        return 0;
+    }
+
+    /**
+     * Make sure at least {@code needed} bytes are readable from the buffer's position,
+     * reading more from the channel and growing the buffer as required.
+     */
+    private static ByteBuffer fill(FileChannel channel, ByteBuffer buf, int needed) throws IOException {
+        if (buf.remaining() >= needed) {
+            return buf;
+        }
+        if (buf.capacity() < needed) {
+            ByteBuffer bigger = ByteBuffer.allocate(Math.max(buf.capacity() * 2, needed));
+            bigger.put(buf);
+            buf = bigger;
+        } else {
+            buf.compact();
+        }
+        while (buf.position() < needed) {
+            if (channel.read(buf) < 0) {
+                throw new IOException("Unexpected end of snapshot");
+            }
+        }
+        buf.flip();
+        return buf;
+    }
+
+    private void forceDirectory() {
+        try (FileChannel dir = FileChannel.open(directory, StandardOpenOption.READ)) {
+            dir.force(true);
+        } catch (IOException e) {
+            // Not supported on every platform; the rename is still atomic
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package com.order.processing.query;
+
+import com.order.processing.model.Order;
+import com.order.processing.state.OrderStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A filter over orders, with optional sort and limit, run by
+ * {@link com.order.processing.service.OrderService#query}.
+ *
+ * Start from {@link #orders()} and narrow it down; every call returns this
+ * query so they chain:
+ * <pre>
+ *   OrderQuery.orders()
+ *       .withStatus(OrderStatus.PENDING)
+ *       .withTotalBetween(new BigDecimal("1000"), null)
+ *       .sortBy(OrderQuery.SortKey.TOTAL_AMOUNT, false)
+ *       .limit(100);
+ * </pre>
+ * All predicates must hold. Time ranges are half-open, {@code [from, to)};
+ * amount and item count ranges are inclusive. A null bound is open.
+ *
+ * Not thread-safe while it is being built; treat it as read-only once run.
+ */
+public class OrderQuery {
+
+    /**
+     * What results can be sorted by.
+     */
+    public enum SortKey {
+        CREATED_AT(Comparator.comparing(Order::getCreatedAt)),
+        LAST_MODIFIED_AT(Comparator.comparing(Order::getLastModifiedAt)),
+        TOTAL_AMOUNT(Comparator.comparing(Order::getTotalAmount));
+
+        private final Comparator<Order> comparator;
+
+        SortKey(Comparator<Order> comparator) {
+            this.comparator = comparator;
+        }
+
+        public Comparator<Order> comparator() {
+            return comparator;
+        }
+    }
+
+    private Set<OrderStatus> statuses;
+    private LocalDateTime createdFrom;
+    private LocalDateTime createdTo;
+    private LocalDateTime modifiedFrom;
+    private LocalDateTime modifiedTo;
+    private BigDecimal minTotal;
+    private BigDecimal maxTotal;
+    private String productId;
+    private Integer minItems;
+    private Integer maxItems;
+    private SortKey sortKey;
+    private boolean ascending = true;
+    private Integer limit;
+
+    private OrderQuery() {
+    }
+
+    /**
+     * A query matching every order.
+     */
+    public static OrderQuery orders() {
+        return new OrderQuery();
+    }
+
+    /**
+     * Keep orders in any of the given statuses. Calling it again replaces the set.
+     */
+    public OrderQuery withStatus(OrderStatus first, OrderStatus... more) {
+        statuses = EnumSet.of(first, more);
+        return this;
+    }
+
+    /**
+     * Keep orders created in {@code [from, to)}.
+     */
+    public OrderQuery createdBetween(LocalDateTime from, LocalDateTime to) {
+        createdFrom = from;
+        createdTo = to;
+        return this;
+    }
+
+    /**
+     * Keep orders last modified in {@code [from, to)}.
+     */
+    public OrderQuery modifiedBetween(LocalDateTime from, LocalDateTime to) {
+        modifiedFrom = from;
+        modifiedTo = to;
+        return this;
+    }
+
+    /**
+     * Keep orders not modified at or after {@code cutoff}.
+     */
+    public OrderQuery notModifiedSince(LocalDateTime cutoff) {
+        return modifiedBetween(null, cutoff);
+    }
+
+    /**
+     * Keep orders with a total amount in {@code [min, max]}.
+     *
+     * @throws IllegalArgumentException if a bound is negative
+     */
+    public OrderQuery withTotalBetween(BigDecimal min, BigDecimal max) {
+        if ((min != null && min.signum() < 0) || (max != null && max.signum() < 0)) {
+            throw new IllegalArgumentException("Amount bounds must be non-negative");
+        }
+        minTotal = min;
+        maxTotal = max;
+        return this;
+    }
+
+    /**
+     * Keep orders with at least one item of a product.
+     */
+    public OrderQuery containing(String productId) {
+        this.productId = productId;
+        return this;
+    }
+
+    /**
+     * Keep orders with a number of items in {@code [min, max]}.
+     */
+    public OrderQuery withItemCountBetween(Integer min, Integer max) {
+        minItems = min;
+        maxItems = max;
+        return this;
+    }
+
+    /**
+     * Sort the results. Without this, results come in whatever order the
+     * chosen index yields them.
+     */
+    public OrderQuery sortBy(SortKey key, boolean ascending) {
+        this.sortKey = key;
+        this.ascending = ascending;
+        return this;
+    }
+
+    /**
+     * Return at most this many orders.
+     *
+     * @throws IllegalArgumentException if the limit is negative
+     */
+    public OrderQuery limit(int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Limit must be non-negative: " + limit);
+        }
+        this.limit = limit;
+        return this;
+    }
+
+    /**
+     * Whether an order satisfies every predicate of this query.
+     */
+    public boolean matches(Order order) {
+        return (statuses == null || statuses.contains(order.getStatus()))
+            && within(order.getCreatedAt(), createdFrom, createdTo)
+            && within(order.getLastModifiedAt(), modifiedFrom, modifiedTo)
+            && (minTotal == null || order.getTotalAmount().compareTo(minTotal) >= 0)
+            && (maxTotal == null || order.getTotalAmount().compareTo(maxTotal) <= 0)
+            && (minItems == null || order.getItemCount() >= minItems)
+            && (maxItems == null || order.getItemCount() <= maxItems)
+            && (productId == null || order.getItems().stream().anyMatch(item -> item.getProductId().equals(productId)));
+    }
+
+    private static boolean within(LocalDateTime time, LocalDateTime from, LocalDateTime to) {
+        return (from == null || !time.isBefore(from)) && (to == null || time.isBefore(to));
+    }
+
+    /**
+     * Comparator for the requested sort, or null if unsorted.
+     */
+    public Comparator<Order> comparator() {
+        if (sortKey == null) {
+            return null;
+        }
+        return ascending ? sortKey.comparator() : sortKey.comparator().reversed();
+    }
+
+    public Set<OrderStatus> getStatuses() {
+        return statuses != null ? Collections.unmodifiableSet(statuses) : null;
+    }
+
+    public LocalDateTime getCreatedFrom() { return createdFrom; }
+    public LocalDateTime getCreatedTo() { return createdTo; }
+    public LocalDateTime getModifiedFrom() { return modifiedFrom; }
+    public LocalDateTime getModifiedTo() { return modifiedTo; }
+    public BigDecimal getMinTotal() { return minTotal; }
+    public BigDecimal getMaxTotal() { return maxTotal; }
+    public String getProductId() { return productId; }
+    public Integer getMinItems() { return minItems; }
+    public Integer getMaxItems() { return maxItems; }
+    public SortKey getSortKey() { return sortKey; }
+    public boolean isAscending() { return ascending; }
+    public Integer getLimit() { return limit; }
+
+    public boolean hasCreatedRange() {
+        return createdFrom != null || createdTo != null;
+    }
+
+    public boolean hasModifiedRange() {
+        return modifiedFrom != null || modifiedTo != null;
+    }
+
+    public boolean hasTotalRange() {
+        return minTotal != null || maxTotal != null;
+    }
+
+    @Override
+    public String toString() {
+        List<String> parts = new ArrayList<>();
+        if (statuses != null) {
+            parts.add("status in " + statuses);
+        }
+        if (hasCreatedRange()) {
+            parts.add(String.format("created in [%s, %s)", bound(createdFrom), bound(createdTo)));
+        }
+        if (hasModifiedRange()) {
+            parts.add(String.format("modified in [%s, %s)", bound(modifiedFrom), bound(modifiedTo)));
+        }
+        if (hasTotalRange()) {
+            parts.add(String.format("total in [%s, %s]", bound(minTotal), bound(maxTotal)));
+        }
+        if (productId != null) {
+            parts.add("contains " + productId);
+        }
+        if (minItems != null || maxItems != null) {
+            parts.add(String.format("items in [%s, %s]", bound(minItems), bound(maxItems)));
+        }
+        String filter = parts.isEmpty() ? "all orders" : String.join(" and ", parts);
+        if (sortKey != null) {
+            filter += " order by " + sortKey + (ascending ? " asc" : " desc");
+        }
+        if (limit != null) {
+            filter += " limit " + limit;
+        }
+        return filter;
+    }
+
+    private static String bound(Object value) {
+        return value != null ? value.toString() : "*";
+    }
+}
@@ -0,0 +1,63 @@
+package com.order.processing.query;
+
+/**
+ * How an {@link OrderQuery} was run: the access path the planner picked, what
+ * it expected that path to produce, and what running it actually took.
+ * {@link #toString()} is the explain output.
+ */
+public class QueryPlan {
+
+    /**
+     * Where candidate orders come from before the remaining predicates are applied.
+     */
+    public enum AccessPath {
+        STATUS_INDEX,
+        CREATED_INDEX,
+        MODIFIED_INDEX,
+        AMOUNT_INDEX,
+        OPEN_PRODUCT_INDEX,
+        PRODUCT_BITMAP,
+        FULL_SCAN
+    }
+
+    private final String query;
+    private final AccessPath accessPath;
+    private final String detail;
+    private final long estimatedCandidates;
+    private final boolean sortedByIndex;
+    private final long candidatesScanned;
+    private final int returned;
+    private final long elapsedMicros;
+
+    public QueryPlan(String query, AccessPath accessPath, String detail, long estimatedCandidates,
+                     boolean sortedByIndex, long candidatesScanned, int returned, long elapsedMicros) {
+        this.query = query;
+        this.accessPath = accessPath;
+        this.detail = detail;
+        this.estimatedCandidates = estimatedCandidates;
+        this.sortedByIndex = sortedByIndex;
+        this.candidatesScanned = candidatesScanned;
+        this.returned = returned;
+        this.elapsedMicros = elapsedMicros;
+    }
+
+    public AccessPath getAccessPath() { return accessPath; }
+    public long getEstimatedCandidates() { return estimatedCandidates; }
+    public boolean isSortedByIndex() { return sortedByIndex; }
+    public long getCandidatesScanned() { return candidatesScanned; }
+    public int getReturned() { return returned; }
+    public long getElapsedMicros() { return elapsedMicros; }
+
+    @Override
+    public String toString() {
+        return String.format(
+            "Query: %s%n" +
+            "  Access path : %s (%s)%n" +
+            "  Estimated   : %,d candidate(s)%n" +
+            "  Sort        : %s%n" +
+            "  Scanned     : %,d candidate(s), %,d returned, %,d us",
+            query, accessPath, detail, estimatedCandidates,
+            sortedByIndex ? "index order, no sort step" : "in memory after filtering",
+            candidatesScanned, returned, elapsedMicros);
+    }
+}
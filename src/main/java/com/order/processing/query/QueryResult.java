@@ -0,0 +1,27 @@
+package com.order.processing.query;
+
+import com.order.processing.model.Order;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Orders matched by an {@link OrderQuery} and the plan that found them.
+ */
+public class QueryResult {
+    private final List<Order> orders;
+    private final QueryPlan plan;
+
+    public QueryResult(List<Order> orders, QueryPlan plan) {
+        this.orders = Collections.unmodifiableList(orders);
+        this.plan = plan;
+    }
+
+    public List<Order> getOrders() {
+        return orders;
+    }
+
+    public QueryPlan getPlan() {
+        return plan;
+    }
+}
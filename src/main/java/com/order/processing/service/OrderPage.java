@@ -0,0 +1,41 @@
+package com.order.processing.service;
+
+import com.order.processing.model.Order;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * One page of orders from {@link OrderService#getOrderPage}, with the cursor to
+ * pass back for the next page.
+ */
+public class OrderPage {
+    private final List<Order> orders;
+    private final String nextCursor;
+
+    OrderPage(List<Order> orders, String nextCursor) {
+        this.orders = Collections.unmodifiableList(orders);
+        this.nextCursor = nextCursor;
+    }
+
+    public List<Order> getOrders() {
+        return orders;
+    }
+
+    /**
+     * Opaque cursor for the page after this one, or empty if this is the last.
+     */
+    public Optional<String> getNextCursor() {
+        return Optional.ofNullable(nextCursor);
+    }
+
+    public boolean hasMore() {
+        return nextCursor != null;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("OrderPage[orders=%d, hasMore=%s]", orders.size(), hasMore());
+    }
+}
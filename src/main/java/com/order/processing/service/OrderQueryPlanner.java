@@ -0,0 +1,255 @@
+package com.order.processing.service;
+
+import com.order.processing.index.AmountIndex;
+import com.order.processing.index.BitmapIndex;
+import com.order.processing.index.ProductIndex;
+import com.order.processing.index.StatusIndex;
+import com.order.processing.index.TimeIndex;
+import com.order.processing.model.Order;
+import com.order.processing.query.OrderQuery;
+import com.order.processing.query.QueryPlan;
+import com.order.processing.query.QueryPlan.AccessPath;
+import com.order.processing.query.QueryResult;
+import com.order.processing.state.OrderStatus;
+import com.order.processing.store.OrderStore;
+import com.order.processing.util.DebugLogger;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Runs {@link OrderQuery}s against the service's indexes.
+ *
+ * For every predicate with an index, the planner estimates how many candidates
+ * that index would produce: exactly for status and product, and for time and
+ * amount ranges by counting entries only up to the best estimate so far, so a
+ * poor range is never walked in full just to be rejected. It picks the
+ * cheapest access path, streams candidates from it and applies every predicate
+ * of the query to each one.
+ *
+ * When the query sorts and limits, an index already in sort order is also
+ * considered: walking it stops after the limit is reached, so its cost is
+ * estimated as the limit divided by the query's selectivity, and no sort step
+ * is needed. Predicates without an index (item count) are assumed to keep
+ * every candidate; when they keep almost none, such a walk reads the whole
+ * index before giving up.
+ */
+class OrderQueryPlanner {
+
+    private static final Set<OrderStatus> OPEN = Set.of(OrderStatus.PENDING, OrderStatus.PROCESSING, OrderStatus.SHIPPED);
+
+    /**
+     * Streams candidate orders, counting every index entry it reads.
+     */
+    private interface Source {
+        Stream<Order> open(LongAdder scanned);
+    }
+
+    private static final class Candidate {
+        final AccessPath path;
+        final String detail;
+        final long estimate;
+        final long cost;
+        final boolean sorted;
+        final Source source;
+
+        Candidate(AccessPath path, String detail, long estimate, long cost, boolean sorted, Source source) {
+            this.path = path;
+            this.detail = detail;
+            this.estimate = estimate;
+            this.cost = cost;
+            this.sorted = sorted;
+            this.source = source;
+        }
+    }
+
+    private final OrderStore orders;
+    private final StatusIndex statusIndex;
+    private final TimeIndex createdIndex;
+    private final TimeIndex modifiedIndex;
+    private final AmountIndex amountIndex;
+    private final ProductIndex productIndex;
+    private final BitmapIndex bitmapIndex;
+    private final Supplier<Stream<Order>> fullScan;
+    private final UnaryOperator<Order> attach;
+
+    OrderQueryPlanner(OrderStore orders, StatusIndex statusIndex, TimeIndex createdIndex, TimeIndex modifiedIndex,
+                      AmountIndex amountIndex, ProductIndex productIndex, BitmapIndex bitmapIndex,
+                      Supplier<Stream<Order>> fullScan, UnaryOperator<Order> attach) {
+        this.orders = orders;
+        this.statusIndex = statusIndex;
+        this.createdIndex = createdIndex;
+        this.modifiedIndex = modifiedIndex;
+        this.amountIndex = amountIndex;
+        this.productIndex = productIndex;
+        this.bitmapIndex = bitmapIndex;
+        this.fullScan = fullScan;
+        this.attach = attach;
+    }
+
+    QueryResult run(OrderQuery query) {
+        long start = System.nanoTime();
+        Candidate plan = choose(query);
+
+        LongAdder scanned = new LongAdder();
+        Stream<Order> results = plan.source.open(scanned).filter(query::matches);
+        Comparator<Order> comparator = query.comparator();
+        if (comparator != null && !plan.sorted) {
+            results = results.sorted(comparator);
+        }
+        if (query.getLimit() != null) {
+            results = results.limit(query.getLimit());
+        }
+        List<Order> found = results.map(attach).collect(Collectors.toList());
+
+        QueryPlan explained = new QueryPlan(query.toString(), plan.path, plan.detail, plan.estimate,
+            plan.sorted && comparator != null, scanned.sum(), found.size(), (System.nanoTime() - start) / 1_000);
+        DebugLogger.log(DebugLogger.Category.SERVICE, "query",
+            String.format("%s via %s: %d scanned, %d returned", query, plan.path, scanned.sum(), found.size()));
+        return new QueryResult(found, explained);
+    }
+
+    private Candidate choose(OrderQuery query) {
+        long total = orders.size();
+        List<Candidate> candidates = new ArrayList<>();
+        candidates.add(new Candidate(AccessPath.FULL_SCAN, "every order", total, total, false,
+            scanned -> fullScan.get().peek(order -> scanned.increment())));
+        long best = total;
+
+        Set<OrderStatus> statuses = query.getStatuses();
+        if (statuses != null) {
+            long estimate = 0;
+            for (OrderStatus status : statuses) {
+                estimate += statusIndex.count(status);
+            }
+            candidates.add(new Candidate(AccessPath.STATUS_INDEX, "status in " + statuses, estimate, estimate, false,
+                scanned -> statuses.stream().flatMap(status -> statusIndex.idsWith(status).stream()
+                    .peek(id -> scanned.increment())
+                    .map(orders::get)
+                    .filter(order -> order != null && order.getStatus() == status))));
+            best = Math.min(best, estimate);
+        }
+
+        String productId = query.getProductId();
+        if (productId != null) {
+            if (statuses != null && OPEN.containsAll(statuses)) {
+                long estimate = productIndex.countOpen(productId);
+                candidates.add(new Candidate(AccessPath.OPEN_PRODUCT_INDEX, "open orders containing " + productId,
+                    estimate, estimate, false, scanned -> slots(productIndex::forEachOpen, productId)
+                        .peek(slot -> scanned.increment())
+                        .mapToObj(slot -> orders.get(productIndex.orderIdOf(slot)))
+                        .filter(Objects::nonNull)));
+                best = Math.min(best, estimate);
+            } else {
+                long estimate = bitmapIndex.countContaining(productId);
+                candidates.add(new Candidate(AccessPath.PRODUCT_BITMAP, "orders containing " + productId,
+                    estimate, estimate, false, scanned -> IntStream.of(bitmapIndex.containing(productId).toArray())
+                        .peek(slot -> scanned.increment())
+                        .mapToObj(slot -> orders.get(bitmapIndex.orderIdOf(slot)))
+                        .filter(Objects::nonNull)));
+                best = Math.min(best, estimate);
+            }
+        }
+
+        OrderQuery.SortKey sortKey = query.getSortKey();
+        boolean ascending = query.isAscending();
+        OrderStatus onlyStatus = statuses != null && statuses.size() == 1 ? statuses.iterator().next() : null;
+        if (query.hasTotalRange() || sortKey == OrderQuery.SortKey.TOTAL_AMOUNT) {
+            boolean sorted = sortKey == OrderQuery.SortKey.TOTAL_AMOUNT;
+            boolean direction = !sorted || ascending;
+            Supplier<Stream<AmountIndex.Entry>> entries = () -> amountIndex.range(
+                query.getMinTotal(), query.getMaxTotal(), onlyStatus, direction);
+            // Without a range the whole list is in play, and its size is already known
+            long estimate = query.hasTotalRange() ? boundedCount(entries.get(), best)
+                : onlyStatus != null ? statusIndex.count(onlyStatus) : total;
+            String detail = String.format("total in [%s, %s]%s", bound(query.getMinTotal()), bound(query.getMaxTotal()),
+                onlyStatus != null ? " within " + onlyStatus : "");
+            candidates.add(new Candidate(AccessPath.AMOUNT_INDEX, detail, estimate, estimate, sorted,
+                scanned -> entries.get()
+                    .peek(entry -> scanned.increment())
+                    .map(entry -> {
+                        Order order = orders.get(entry.getOrderId());
+                        return order != null && order.getStatus() == entry.getStatus() ? order : null;
+                    })
+                    .filter(Objects::nonNull)));
+            best = Math.min(best, estimate);
+        }
+
+        if (query.hasCreatedRange() || sortKey == OrderQuery.SortKey.CREATED_AT) {
+            best = addTimeCandidate(candidates, AccessPath.CREATED_INDEX, "created", createdIndex,
+                query.getCreatedFrom(), query.getCreatedTo(), Order::getCreatedAt,
+                sortKey == OrderQuery.SortKey.CREATED_AT, ascending, best, total);
+        }
+        if (query.hasModifiedRange() || sortKey == OrderQuery.SortKey.LAST_MODIFIED_AT) {
+            best = addTimeCandidate(candidates, AccessPath.MODIFIED_INDEX, "modified", modifiedIndex,
+                query.getModifiedFrom(), query.getModifiedTo(), Order::getLastModifiedAt,
+                sortKey == OrderQuery.SortKey.LAST_MODIFIED_AT, ascending, best, total);
+        }
+
+        // An index in sort order only has to be walked until the limit is met
+        Integer limit = query.getLimit();
+        Candidate chosen = null;
+        for (Candidate candidate : candidates) {
+            long cost = candidate.cost;
+            if (candidate.sorted && limit != null && best > 0) {
+                cost = Math.min(cost, (long) Math.ceil((double) limit * total / best));
+            }
+            Candidate costed = new Candidate(candidate.path, candidate.detail, candidate.estimate, cost,
+                candidate.sorted, candidate.source);
+            if (chosen == null || cost < chosen.cost || (cost == chosen.cost && costed.sorted && !chosen.sorted)) {
+                chosen = costed;
+            }
+        }
+        return chosen;
+    }
+
+    private long addTimeCandidate(List<Candidate> candidates, AccessPath path, String name, TimeIndex index,
+                                  LocalDateTime from, LocalDateTime to, Function<Order, LocalDateTime> timestamp,
+                                  boolean sorted, boolean ascending, long best, long total) {
+        boolean direction = !sorted || ascending;
+        long estimate = from != null || to != null ? boundedCount(index.range(from, to, direction), best) : total;
+        String detail = String.format("%s in [%s, %s)", name, bound(from), bound(to));
+        candidates.add(new Candidate(path, detail, estimate, estimate, sorted,
+            scanned -> index.range(from, to, direction)
+                .peek(entry -> scanned.increment())
+                .map(entry -> {
+                    Order order = orders.get(entry.getOrderId());
+                    return order != null && entry.getTime().equals(timestamp.apply(order)) ? order : null;
+                })
+                .filter(Objects::nonNull)));
+        return Math.min(best, estimate);
+    }
+
+    /**
+     * Count a lazy range, giving up just past the cap.
+     */
+    private static long boundedCount(Stream<?> entries, long cap) {
+        return entries.limit(cap + 1).count();
+    }
+
+    private interface SlotWalker {
+        void forEach(String key, IntConsumer action);
+    }
+
+    private static IntStream slots(SlotWalker walker, String key) {
+        IntStream.Builder slots = IntStream.builder();
+        walker.forEach(key, slots::add);
+        return slots.build();
+    }
+
+    private static String bound(Object value) {
+        return value != null ? value.toString() : "*";
+    }
+}
@@ -2,33 +2,180 @@ package com.order.processing.service;
 
 import com.order.processing.model.Order;
 import com.order.processing.model.OrderItem;
-import com.order.processing.state.CancelledState;
+import com.order.processing.model.OrderTransitionListener;
 import com.order.processing.state.OrderStatus;
 import com.order.processing.factory.OrderFactory;
+import com.order.processing.index.AmountIndex;
+import com.order.processing.index.BitmapIndex;
+import com.order.processing.index.OrderSlots;
+import com.order.processing.index.ProductIndex;
+import com.order.processing.index.SlotBitmap;
+import com.order.processing.index.StatusIndex;
+import com.order.processing.index.TimeIndex;
+import com.order.processing.observer.DispatchMode;
+import com.order.processing.observer.ObserverDispatcher;
+import com.order.processing.observer.ObserverStats;
 import com.order.processing.observer.OrderObserver;
+import com.order.processing.persistence.JournalReplayHandler;
+import com.order.processing.persistence.OrderJournal;
+import com.order.processing.persistence.RecoveryStats;
+import com.order.processing.persistence.SnapshotStore;
+import com.order.processing.query.OrderQuery;
+import com.order.processing.query.QueryPlan;
+import com.order.processing.query.QueryResult;
+import com.order.processing.state.OrderStates;
+import com.order.processing.stats.ProductSales;
+import com.order.processing.stats.ProductSalesView;
+import com.order.processing.stats.SlidingWindows;
+import com.order.processing.stats.StatusCounters;
+import com.order.processing.stats.WindowStats;
+import com.order.processing.store.HeapOrderStore;
+import com.order.processing.store.OrderStore;
 import com.order.processing.util.DebugLogger;
 
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class OrderService {
-    private final Map<String, Order> orders = new ConcurrentHashMap<>();
+    private static final String CURSOR_PREFIX = "slot:";
+    
+    private final OrderStore orders;
+    private final OrderTransitionListener transitionListener = this::onOrderTransition;
+    private final StatusIndex statusIndex = new StatusIndex();
+    private final TimeIndex createdIndex = new TimeIndex();
+    private final TimeIndex modifiedIndex = new TimeIndex();
+    private final OrderSlots orderSlots = new OrderSlots();
+    private final ProductIndex productIndex = new ProductIndex(orderSlots);
+    private final BitmapIndex bitmapIndex = new BitmapIndex(orderSlots);
+    private final OrderQueryPlanner queryPlanner;
+    private final AmountIndex amountIndex = new AmountIndex();
+    private final StatusCounters statusCounters = new StatusCounters();
+    private final ProductSalesView productSales = new ProductSalesView();
+    private final SlidingWindows slidingWindows = new SlidingWindows();
     private final OrderFactory orderFactory;
-    private final List<OrderObserver> observers = new ArrayList<>();
+    private final ObserverDispatcher observers = new ObserverDispatcher();
+    private final OrderJournal journal;
+    private final SnapshotStore snapshots;
+    // Creates hold the read lock from journal append to map insert; a snapshot
+    // takes the write lock just long enough to pick its LSN
+    private final ReentrantReadWriteLock checkpointLock = new ReentrantReadWriteLock();
+    private volatile RecoveryStats recoveryStats;
+    private ScheduledExecutorService snapshotScheduler;
 
     public OrderService(OrderFactory orderFactory) {
+        this(orderFactory, null);
+    }
+
+    /**
+     * Create a durable service. Every mutation is appended to the journal before
+     * the call returns, and the journal is replayed here to rebuild the order map.
+     * 
+     * @param orderFactory Factory for new orders
+     * @param journal Journal to recover from and append to, or null for in-memory only
+     */
+    public OrderService(OrderFactory orderFactory, OrderJournal journal) {
+        this(orderFactory, journal, null);
+    }
+
+    /**
+     * Create a durable service that also takes snapshots. Recovery loads the
+     * latest snapshot and replays only the journal records appended after it.
+     * 
+     * @param orderFactory Factory for new orders
+     * @param journal Journal to recover from and append to, or null for in-memory only
+     * @param snapshots Where snapshots are kept, or null for journal-only recovery
+     * @throws IllegalArgumentException if snapshots are given without a journal
+     */
+    public OrderService(OrderFactory orderFactory, OrderJournal journal, SnapshotStore snapshots) {
+        this(orderFactory, journal, snapshots, new HeapOrderStore());
+    }
+
+    /**
+     * Create a service on a custom order store, e.g. a {@link com.order.processing.store.TieredOrderStore}.
+     * 
+     * @param orderFactory Factory for new orders
+     * @param journal Journal to recover from and append to, or null for in-memory only
+     * @param snapshots Where snapshots are kept, or null for journal-only recovery
+     * @param store Where orders are kept; must be empty
+     * @throws IllegalArgumentException if snapshots are given without a journal
+     */
+    public OrderService(OrderFactory orderFactory, OrderJournal journal, SnapshotStore snapshots, OrderStore store) {
+        if (snapshots != null && journal == null) {
+            throw new IllegalArgumentException("Snapshots require a journal");
+        }
+        this.orders = store;
+        this.queryPlanner = new OrderQueryPlanner(store, statusIndex, createdIndex, modifiedIndex, amountIndex,
+            productIndex, bitmapIndex, this::streamOrders, this::attach);
         this.orderFactory = orderFactory;
+        this.journal = journal;
+        this.snapshots = snapshots;
         DebugLogger.log(DebugLogger.Category.SERVICE, "OrderService", 
             "Service initialized with " + orderFactory.getClass().getSimpleName());
+        
+        if (journal != null) {
+            recoverFromJournal();
+        }
     }
 
+    /**
+     * Register an observer called synchronously, on the thread that created or
+     * cancelled the order.
+     */
     public void addObserver(OrderObserver observer) {
-        observers.add(observer);
+        addObserver(observer, DispatchMode.SYNC);
+    }
+
+    /**
+     * Register an observer. An {@link DispatchMode#ASYNC} observer gets its own
+     * queue and worker thread, so it cannot slow down order creation; a
+     * {@link DispatchMode#RING} observer reads a ring shared with the other ring
+     * observers on its own thread. Safe to call while orders are being created.
+     */
+    public void addObserver(OrderObserver observer, DispatchMode mode) {
+        observers.register(observer, mode);
         DebugLogger.log(DebugLogger.Category.SERVICE, "addObserver", 
-            "Registered observer: " + observer.getClass().getSimpleName());
+            "Registered observer: " + observer.getClass().getSimpleName() + " (" + mode + ")");
+    }
+
+    /**
+     * Unregister an observer. An asynchronous one still gets the events already
+     * queued for it.
+     *
+     * @return Whether the observer was registered
+     */
+    public boolean removeObserver(OrderObserver observer) {
+        boolean removed = observers.unregister(observer);
+        DebugLogger.log(DebugLogger.Category.SERVICE, "removeObserver", 
+            (removed ? "Removed observer: " : "Observer not registered: ") + observer.getClass().getSimpleName());
+        return removed;
+    }
+
+    /**
+     * Queue depth, delivery counts and dispatch latency per registered observer.
+     */
+    public List<ObserverStats> getObserverStats() {
+        return observers.stats();
     }
 
     public Order createOrder(List<OrderItem> items) {
@@ -36,13 +183,47 @@ public class OrderService {
         DebugLogger.log(DebugLogger.Category.SERVICE, "createOrder", 
             String.format("Received request with %d items", items != null ? items.size() : 0));
         
-        Order order = orderFactory.createOrder(items);
-        
-        DebugLogger.logServiceOperation("createOrder", order.getId(), 
-            String.format("Storing in ConcurrentHashMap (total orders before: %d)", orders.size()));
-        orders.put(order.getId(), order);
-        DebugLogger.logServiceOperation("createOrder", order.getId(), 
-            String.format("Stored successfully (total orders now: %d)", orders.size()));
+        return addOrder(orderFactory.createOrder(items));
+    }
+
+    /**
+     * Store, index and announce an order the factory has just created.
+     * {@link ShardedOrderService} builds orders on the calling thread and
+     * hands them to the owning shard's writer through here.
+     *
+     * The order is indexed and counted before it goes into the store, and
+     * only then gets its transition listener: until it is stored no other
+     * thread can reach it, so no transition can slip in between the counters
+     * seeing it as created and seeing it move.
+     */
+    Order addOrder(Order order) {
+        checkpointLock.readLock().lock();
+        try {
+            if (journal != null) {
+                journal.appendCreate(order);
+            }
+            
+            DebugLogger.logServiceOperation("createOrder", order.getId(), 
+                String.format("Storing in %s (total orders before: %d)", 
+                    orders.getClass().getSimpleName(), orders.size()));
+            OrderStatus status = order.getStatus();
+            orderSlots.intern(order.getId());
+            statusIndex.add(order.getId(), status);
+            statusCounters.increment(status);
+            createdIndex.add(order.getId(), order.getCreatedAt());
+            modifiedIndex.update(order.getId(), order.getLastModifiedAt());
+            productIndex.add(order);
+            amountIndex.add(order.getId(), order.getTotalAmount(), status);
+            bitmapIndex.add(order);
+            productSales.add(order);
+            slidingWindows.recordCreated(order.getTotalAmount());
+            order.setTransitionListener(transitionListener);
+            orders.put(order);
+            DebugLogger.logServiceOperation("createOrder", order.getId(), 
+                String.format("Stored successfully (total orders now: %d)", orders.size()));
+        } finally {
+            checkpointLock.readLock().unlock();
+        }
         
         notifyObservers(order);
         
@@ -61,7 +242,7 @@ public class OrderService {
         DebugLogger.log(DebugLogger.Category.SERVICE, "getOrder", 
             String.format("Looking up Order[%s]", orderId.substring(0, 8)));
         
-        Optional<Order> result = Optional.ofNullable(orders.get(orderId));
+        Optional<Order> result = Optional.ofNullable(orders.get(orderId)).map(this::attach);
         
         if (result.isPresent()) {
             DebugLogger.log(DebugLogger.Category.SERVICE, "getOrder", 
@@ -75,19 +256,148 @@ public class OrderService {
         return result;
     }
 
+    /**
+     * Copy of every order. Allocates a list as large as the store; prefer
+     * {@link #getOrderPage} or {@link #streamOrders} for large stores.
+     */
     public List<Order> getAllOrders() {
         DebugLogger.log(DebugLogger.Category.SERVICE, "getAllOrders", 
             String.format("Retrieving all orders (total: %d)", orders.size()));
-        return new ArrayList<>(orders.values());
+        List<Order> all = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            all.add(attach(order));
+        }
+        return all;
+    }
+
+    /**
+     * One page of orders, in the order they were added to this service:
+     * creation order, except that recovered orders come first in the order
+     * recovery found them. Pass null for the first page and
+     * then the previous page's {@link OrderPage#getNextCursor() cursor}. Each
+     * page costs in proportion to its size, not the number of orders, and
+     * orders created meanwhile show up on later pages.
+     * 
+     * @param cursor Cursor from the previous page, or null to start
+     * @param pageSize Maximum number of orders on the page
+     * @throws IllegalArgumentException if the page size is not positive or the cursor is not one this service issued
+     */
+    public OrderPage getOrderPage(String cursor, int pageSize) {
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("Page size must be positive: " + pageSize);
+        }
+        int slot = cursor != null ? decodeCursor(cursor) : 0;
+        int end = orderSlots.size();
+        List<Order> page = new ArrayList<>(Math.min(pageSize, Math.max(end - slot, 0)));
+        while (slot < end && page.size() < pageSize) {
+            Order order = orders.get(orderSlots.idOf(slot++));
+            if (order != null) {
+                page.add(attach(order));
+            }
+        }
+        
+        DebugLogger.log(DebugLogger.Category.SERVICE, "getOrderPage", 
+            String.format("Returning %d order(s), slots up to %d of %d", page.size(), slot, end));
+        return new OrderPage(page, slot < end ? encodeCursor(slot) : null);
+    }
+
+    /**
+     * Every order, in the same order as {@link #getOrderPage}, read lazily from
+     * the store without copying. Orders created after the call are not
+     * included. The stream splits into ranges of that order, so it can also be
+     * made parallel.
+     */
+    public Stream<Order> streamOrders() {
+        return StreamSupport.stream(new OrderSpliterator(0, orderSlots.size()), false);
+    }
+
+    /**
+     * Iterator over {@link #streamOrders()}.
+     */
+    public Iterator<Order> iterateOrders() {
+        return streamOrders().iterator();
+    }
+
+    private static String encodeCursor(int slot) {
+        return Base64.getUrlEncoder().withoutPadding()
+            .encodeToString((CURSOR_PREFIX + slot).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private int decodeCursor(String cursor) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII);
+            if (decoded.startsWith(CURSOR_PREFIX)) {
+                int slot = Integer.parseInt(decoded.substring(CURSOR_PREFIX.length()));
+                if (slot >= 0) {
+                    return slot;
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            // Falls through to the error below; NumberFormatException is one of these too
+        }
+        throw new IllegalArgumentException("Invalid page cursor: " + cursor);
+    }
+
+    /**
+     * Walks a range of order slots, looking each order up as it goes.
+     */
+    private final class OrderSpliterator implements Spliterator<Order> {
+        private int next;
+        private final int end;
+
+        OrderSpliterator(int from, int end) {
+            this.next = from;
+            this.end = end;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Order> action) {
+            while (next < end) {
+                Order order = orders.get(orderSlots.idOf(next++));
+                if (order != null) {
+                    action.accept(attach(order));
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public Spliterator<Order> trySplit() {
+            int mid = (next + end) >>> 1;
+            if (mid - next < 1024) {
+                return null;
+            }
+            Spliterator<Order> prefix = new OrderSpliterator(next, mid);
+            next = mid;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return end - next;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | NONNULL;
+        }
     }
 
     public List<Order> getOrdersByStatus(OrderStatus status) {
         DebugLogger.log(DebugLogger.Category.SERVICE, "getOrdersByStatus", 
             String.format("Filtering orders by status: %s", status));
         
-        List<Order> filtered = orders.values().stream()
-                    .filter(order -> order.getStatus() == status)
-                    .toList();
+        Set<String> ids = statusIndex.idsWith(status);
+        List<Order> matching = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            Order order = orders.get(id);
+            // A transition in flight can leave the ID under its old status for a moment
+            if (order != null && order.getStatus() == status) {
+                matching.add(attach(order));
+            }
+        }
+        List<Order> filtered = Collections.unmodifiableList(matching);
         
         DebugLogger.log(DebugLogger.Category.SERVICE, "getOrdersByStatus", 
             String.format("Found %d order(s) with status %s", filtered.size(), status));
@@ -95,6 +405,200 @@ public class OrderService {
         return filtered;
     }
 
+    /**
+     * Open orders, i.e. not yet DELIVERED or CANCELLED, with at least one item
+     * of a product, in creation order. Answered from the product index; cost
+     * depends on how many orders contain the product, not on the total.
+     */
+    public List<Order> getOpenOrdersContaining(String productId) {
+        DebugLogger.log(DebugLogger.Category.SERVICE, "getOpenOrdersContaining", 
+            String.format("Looking up open orders containing %s", productId));
+        
+        List<Order> matching = new ArrayList<>();
+        productIndex.forEachOpen(productId, slot -> {
+            Order order = orders.get(productIndex.orderIdOf(slot));
+            // A transition in flight can close an order before the index hears of it
+            if (order != null && isOpen(order.getStatus())) {
+                matching.add(attach(order));
+            }
+        });
+        
+        DebugLogger.log(DebugLogger.Category.SERVICE, "getOpenOrdersContaining", 
+            String.format("Found %d open order(s) containing %s", matching.size(), productId));
+        return Collections.unmodifiableList(matching);
+    }
+
+    /**
+     * The {@code k} orders with the largest total amount, largest first. Walks
+     * the amount index from the top and stops after {@code k} orders.
+     *
+     * @param status Only consider orders in this status, or null for all orders
+     * @throws IllegalArgumentException if k is negative
+     */
+    public List<Order> getLargestOrders(int k, OrderStatus status) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k must be non-negative: " + k);
+        }
+        DebugLogger.log(DebugLogger.Category.SERVICE, "getLargestOrders", 
+            String.format("Looking up the %d largest order(s) with status %s", k, status != null ? status : "ANY"));
+        List<Order> largest = resolve(amountIndex.descending(status))
+            .limit(k)
+            .collect(Collectors.toList());
+        return Collections.unmodifiableList(largest);
+    }
+
+    /**
+     * Orders with a total amount in {@code [min, max]}, smallest first. The
+     * stream is lazy, like {@link #getOrdersCreatedBetween}.
+     *
+     * @param status Only consider orders in this status, or null for all orders
+     */
+    public Stream<Order> getOrdersWithTotalBetween(BigDecimal min, BigDecimal max, OrderStatus status) {
+        DebugLogger.log(DebugLogger.Category.SERVICE, "getOrdersWithTotalBetween", 
+            String.format("Streaming orders with total $%s to $%s and status %s", min, max, status != null ? status : "ANY"));
+        return resolve(amountIndex.between(min, max, status));
+    }
+
+    /**
+     * Look up the orders behind amount index entries as the stream is consumed.
+     */
+    private Stream<Order> resolve(Stream<AmountIndex.Entry> entries) {
+        return entries
+            .map(entry -> {
+                Order order = orders.get(entry.getOrderId());
+                // A transition in flight can leave an entry under the old status for a moment
+                return order != null && order.getStatus() == entry.getStatus() ? order : null;
+            })
+            .filter(Objects::nonNull)
+            .map(this::attach);
+    }
+
+    /**
+     * Run a query. The planner picks the most selective index for it, or an
+     * index already in the requested sort order when a limit makes that
+     * cheaper, and checks the remaining predicates on each candidate.
+     */
+    public QueryResult query(OrderQuery query) {
+        return queryPlanner.run(query);
+    }
+
+    /**
+     * Run a query and describe how it ran: the index used, the estimated and
+     * actual number of candidates scanned, and whether a sort step was needed.
+     * Print the result for a readable summary.
+     */
+    public QueryPlan explain(OrderQuery query) {
+        return queryPlanner.run(query).getPlan();
+    }
+
+    /**
+     * Orders matching every given predicate, in creation order. Each non-null
+     * predicate picks a bitmap from the bitmap index; they are ANDed, smallest
+     * first, and only orders in the result are looked up and re-checked.
+     *
+     * @param statuses Allowed statuses, or null for any
+     * @param createdFrom First creation day, inclusive, or null for no lower bound
+     * @param createdTo Last creation day, inclusive, or null for no upper bound
+     * @param minTotal Smallest total amount, inclusive, or null for no lower bound
+     * @param maxTotal Largest total amount, inclusive, or null for no upper bound
+     * @param productId Product the order must contain, or null for any
+     */
+    public List<Order> findOrders(Set<OrderStatus> statuses, LocalDate createdFrom, LocalDate createdTo,
+                                  BigDecimal minTotal, BigDecimal maxTotal, String productId) {
+        DebugLogger.log(DebugLogger.Category.SERVICE, "findOrders", 
+            String.format("Filtering by status=%s, created=%s..%s, total=%s..%s, product=%s", 
+                statuses, createdFrom, createdTo, minTotal, maxTotal, productId));
+        
+        LocalDate fromDay = createdFrom != null ? createdFrom : LocalDate.MIN;
+        LocalDate toDay = createdTo != null ? createdTo : LocalDate.MAX;
+        BigDecimal min = minTotal != null ? minTotal : BigDecimal.ZERO;
+        List<SlotBitmap> bitmaps = new ArrayList<>();
+        if (statuses != null) {
+            bitmaps.add(bitmapIndex.withStatus(statuses));
+        }
+        if (createdFrom != null || createdTo != null) {
+            bitmaps.add(bitmapIndex.createdBetween(fromDay, toDay));
+        }
+        if (minTotal != null || maxTotal != null) {
+            bitmaps.add(bitmapIndex.withTotalBetween(min, maxTotal));
+        }
+        if (productId != null) {
+            bitmaps.add(bitmapIndex.containing(productId));
+        }
+        if (bitmaps.isEmpty()) {
+            bitmaps.add(bitmapIndex.withStatus(List.of(OrderStatus.values())));
+        }
+        bitmaps.sort((a, b) -> Integer.compare(a.cardinality(), b.cardinality()));
+        SlotBitmap matches = bitmaps.get(0);
+        for (int i = 1; i < bitmaps.size() && !matches.isEmpty(); i++) {
+            matches = SlotBitmap.and(matches, bitmaps.get(i));
+        }
+        
+        List<Order> found = new ArrayList<>(matches.cardinality());
+        matches.forEach(slot -> {
+            Order order = orders.get(bitmapIndex.orderIdOf(slot));
+            // Amount bitmaps are per bucket, and a transition in flight can leave a stale status bit
+            if (order != null
+                    && (statuses == null || statuses.contains(order.getStatus()))
+                    && order.getTotalAmount().compareTo(min) >= 0
+                    && (maxTotal == null || order.getTotalAmount().compareTo(maxTotal) <= 0)
+                    && !order.getCreatedAt().toLocalDate().isBefore(fromDay)
+                    && !order.getCreatedAt().toLocalDate().isAfter(toDay)) {
+                found.add(attach(order));
+            }
+        });
+        
+        DebugLogger.log(DebugLogger.Category.SERVICE, "findOrders", 
+            String.format("Found %d order(s) from %d candidate slot(s)", found.size(), matches.cardinality()));
+        return Collections.unmodifiableList(found);
+    }
+
+    /**
+     * Orders created in {@code [from, to)}, oldest first. The stream is lazy:
+     * orders are looked up only as it is consumed, so limiting it or stopping
+     * early does not touch the rest of the range.
+     */
+    public Stream<Order> getOrdersCreatedBetween(LocalDateTime from, LocalDateTime to) {
+        DebugLogger.log(DebugLogger.Category.SERVICE, "getOrdersCreatedBetween", 
+            String.format("Streaming orders created from %s to %s", from, to));
+        return resolve(createdIndex.between(from, to), Order::getCreatedAt);
+    }
+
+    /**
+     * Orders last modified in {@code [from, to)}, least recently modified first.
+     * Lazy, like {@link #getOrdersCreatedBetween}.
+     */
+    public Stream<Order> getOrdersModifiedBetween(LocalDateTime from, LocalDateTime to) {
+        DebugLogger.log(DebugLogger.Category.SERVICE, "getOrdersModifiedBetween", 
+            String.format("Streaming orders modified from %s to %s", from, to));
+        return resolve(modifiedIndex.between(from, to), Order::getLastModifiedAt);
+    }
+
+    /**
+     * Orders not modified at or after {@code cutoff}, least recently modified
+     * first, e.g. for a job sweeping up orders that have sat idle. Lazy, like
+     * {@link #getOrdersCreatedBetween}.
+     */
+    public Stream<Order> getOrdersNotModifiedSince(LocalDateTime cutoff) {
+        DebugLogger.log(DebugLogger.Category.SERVICE, "getOrdersNotModifiedSince", 
+            String.format("Streaming orders not modified since %s", cutoff));
+        return resolve(modifiedIndex.before(cutoff), Order::getLastModifiedAt);
+    }
+
+    /**
+     * Look up the orders behind index entries as the stream is consumed.
+     */
+    private Stream<Order> resolve(Stream<TimeIndex.Entry> entries, Function<Order, LocalDateTime> timestamp) {
+        return entries
+            .map(entry -> {
+                Order order = orders.get(entry.getOrderId());
+                // An update in flight can leave an entry under the old time for a moment
+                return order != null && entry.getTime().equals(timestamp.apply(order)) ? order : null;
+            })
+            .filter(Objects::nonNull)
+            .map(this::attach);
+    }
+
     public boolean cancelOrder(String orderId) {
         DebugLogger.section("CANCEL ORDER REQUEST");
         
@@ -114,7 +618,14 @@ public class OrderService {
                 DebugLogger.logServiceOperation("cancelOrder", orderId, 
                     "Status is PENDING - cancellation allowed");
                 
-                order.setState(new CancelledState());
+                try {
+                    order.setState(OrderStates.CANCELLED);
+                } catch (IllegalStateException e) {
+                    // A concurrent transition moved the order on since the status was read
+                    DebugLogger.logServiceOperation("cancelOrder", orderId, 
+                        String.format("Lost race to a concurrent transition (now %s) - cancellation DENIED", order.getStatus()));
+                    return false;
+                }
                 notifyObservers(order);
                 
                 DebugLogger.logStateTransition(orderId, "PENDING", "CANCELLED", true);
@@ -132,16 +643,218 @@ public class OrderService {
         });
     }
 
-    private void notifyObservers(Order order) {
-        DebugLogger.log(DebugLogger.Category.SERVICE, "notifyObservers", 
-            String.format("Notifying %d observer(s) about Order[%s]", 
-                observers.size(), order.getId().substring(0, 8)));
+    /**
+     * Make sure an order handed out by the store reports its transitions here.
+     * Stores that return copies rely on this to get changes written back.
+     */
+    private Order attach(Order order) {
+        order.setTransitionListener(transitionListener);
+        return order;
+    }
+
+    /**
+     * Called by every tracked order after a successful state change.
+     * 
+     * @throws IllegalStateException if the order is a stale copy that another
+     *         transition has overtaken; nothing is journaled or indexed for it
+     */
+    private void onOrderTransition(Order order, OrderStatus from, OrderStatus to) {
+        // Like addOrder: a snapshot must not pick its LSN between the store write and the journal record
+        checkpointLock.readLock().lock();
+        try {
+            // Store first: it decides between copies of one order that a store
+            // without shared instances hands out, and a reader that finds the ID
+            // under the new status must see the new state
+            if (!orders.replace(order, from)) {
+                throw new IllegalStateException(String.format(
+                    "Order[%s] was moved on from %s by a concurrent transition; fetch it again",
+                    order.getId().substring(0, 8), from));
+            }
+            if (journal != null) {
+                journal.appendTransition(order, to);
+            }
+            statusIndex.move(order.getId(), from, to);
+            statusCounters.move(from, to);
+            modifiedIndex.update(order.getId(), order.getLastModifiedAt());
+            amountIndex.move(order.getId(), order.getTotalAmount(), from, to);
+            bitmapIndex.move(order.getId(), from, to);
+            productSales.move(order, from, to);
+            slidingWindows.recordTransition(to);
+            if (!isOpen(to)) {
+                productIndex.close(order);
+            }
+        } finally {
+            checkpointLock.readLock().unlock();
+        }
+    }
+
+    private static boolean isOpen(OrderStatus status) {
+        return status != OrderStatus.DELIVERED && status != OrderStatus.CANCELLED;
+    }
+    
+    /**
+     * Write a snapshot of every order and truncate the journal below it.
+     * Writers are held up only while the snapshot LSN is picked.
+     * 
+     * @return The LSN the snapshot covers everything below
+     * @throws IllegalStateException if the service has no snapshot store
+     */
+    public synchronized long takeSnapshot() {
+        if (snapshots == null) {
+            throw new IllegalStateException("No snapshot store configured");
+        }
+        long start = System.nanoTime();
+        long lsn;
+        checkpointLock.writeLock().lock();
+        try {
+            lsn = journal.nextLsn();
+        } finally {
+            checkpointLock.writeLock().unlock();
+        }
         
-        for (OrderObserver observer : observers) {
+        long written = snapshots.write(lsn, orders);
+        long released = journal.truncateBefore(lsn);
+        
+        DebugLogger.log(DebugLogger.Category.SERVICE, "takeSnapshot", 
+            String.format("Snapshot at LSN %d: %d order(s) in %d ms, %d journal byte(s) released", 
+                lsn, written, (System.nanoTime() - start) / 1_000_000, released));
+        return lsn;
+    }
+    
+    /**
+     * Take a snapshot periodically on a background thread until shutdown.
+     * 
+     * @param period Time between the end of one snapshot and the start of the next
+     * @param unit Unit of the period
+     * @throws IllegalStateException if the service has no snapshot store or is already snapshotting
+     */
+    public synchronized void startSnapshots(long period, TimeUnit unit) {
+        if (snapshots == null) {
+            throw new IllegalStateException("No snapshot store configured");
+        }
+        if (snapshotScheduler != null) {
+            throw new IllegalStateException("Periodic snapshots already started");
+        }
+        snapshotScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "order-snapshots");
+            thread.setDaemon(true);
+            return thread;
+        });
+        snapshotScheduler.scheduleWithFixedDelay(() -> {
+            try {
+                takeSnapshot();
+            } catch (RuntimeException e) {
+                DebugLogger.log(DebugLogger.Category.ERROR, "takeSnapshot", 
+                    "Snapshot failed: " + e.getMessage());
+            }
+        }, period, period, unit);
+        DebugLogger.log(DebugLogger.Category.SERVICE, "startSnapshots", 
+            String.format("Snapshotting every %d %s", period, unit.toString().toLowerCase()));
+    }
+    
+    /**
+     * Timings of the recovery done when this service started.
+     * 
+     * @return The stats, or empty for an in-memory service
+     */
+    public Optional<RecoveryStats> getRecoveryStats() {
+        return Optional.ofNullable(recoveryStats);
+    }
+    
+    private void recoverFromJournal() {
+        DebugLogger.section("RECOVERING ORDERS FROM JOURNAL");
+        long start = System.nanoTime();
+        
+        long snapshotLsn = -1;
+        if (snapshots != null) {
+            snapshotLsn = snapshots.loadLatest(order -> {
+                order.setTransitionListener(transitionListener);
+                orders.put(order);
+            });
+        }
+        int fromSnapshot = orders.size();
+        long loaded = System.nanoTime();
+        
+        // Called from several threads at once when the journal is partitioned
+        var handler = new JournalReplayHandler() {
+            final LongAdder records = new LongAdder();
+            
+            @Override
+            public void onCreate(Order order) {
+                records.increment();
+                order.setTransitionListener(transitionListener);
+                orders.put(order);
+            }
+            
+            @Override
+            public void onTransition(String orderId, OrderStatus status, LocalDateTime modifiedAt) {
+                records.increment();
+                Order existing = orders.get(orderId);
+                if (existing == null) {
+                    return;
+                }
+                Order recovered = new Order(orderId, existing.getItems(), OrderStates.forStatus(status),
+                                            existing.getCreatedAt(), modifiedAt);
+                recovered.setTransitionListener(transitionListener);
+                orders.put(recovered);
+            }
+        };
+        journal.replay(Math.max(snapshotLsn, 0), handler);
+        // Indexed once at the end rather than per record, since replay may revisit an order
+        for (Order order : orders) {
+            statusIndex.add(order.getId(), order.getStatus());
+            statusCounters.increment(order.getStatus());
+            createdIndex.add(order.getId(), order.getCreatedAt());
+            modifiedIndex.update(order.getId(), order.getLastModifiedAt());
+            orderSlots.intern(order.getId());
+            amountIndex.add(order.getId(), order.getTotalAmount(), order.getStatus());
+            bitmapIndex.add(order);
+            productSales.add(order);
+            if (isOpen(order.getStatus())) {
+                productIndex.add(order);
+            }
+        }
+        long replayed = System.nanoTime();
+        
+        recoveryStats = new RecoveryStats(snapshotLsn, fromSnapshot, handler.records.sum(),
+            (loaded - start) / 1_000_000, (replayed - loaded) / 1_000_000);
+        DebugLogger.log(DebugLogger.Category.SERVICE, "recoverFromJournal", 
+            String.format("Recovered %d order(s). %s", orders.size(), recoveryStats));
+    }
+    
+    /**
+     * Stop periodic snapshots, let asynchronous observers drain their queues,
+     * then close the journal, if any, and the order store.
+     * The service should not be used afterwards.
+     */
+    public void shutdown() {
+        ScheduledExecutorService scheduler;
+        synchronized (this) {
+            scheduler = snapshotScheduler;
+        }
+        if (scheduler != null) {
+            scheduler.shutdown();
+            try {
+                scheduler.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        observers.shutdown();
+        if (journal != null) {
+            journal.close();
+        }
+        orders.close();
+    }
+
+    private void notifyObservers(Order order) {
+        if (DebugLogger.isEnabled()) {
             DebugLogger.log(DebugLogger.Category.SERVICE, "notifyObservers", 
-                String.format("Calling %s.onOrderStatusChanged()", observer.getClass().getSimpleName()));
-            observer.onOrderStatusChanged(order);
+                String.format("Notifying %d observer(s) about Order[%s]", 
+                    observers.size(), order.getId().substring(0, 8)));
         }
+        
+        observers.dispatch(order);
     }
     
     public int getOrderCount() {
@@ -182,14 +895,52 @@ public class OrderService {
         }
     }
     
+    /**
+     * Order counts per status, read from counters maintained on every create
+     * and transition. Constant time; the counts form one consistent snapshot
+     * and the total is their sum.
+     */
     public OrderStatistics getStatistics() {
-        int total = orders.size();
-        int pending = (int) orders.values().stream().filter(o -> o.getStatus() == OrderStatus.PENDING).count();
-        int processing = (int) orders.values().stream().filter(o -> o.getStatus() == OrderStatus.PROCESSING).count();
-        int shipped = (int) orders.values().stream().filter(o -> o.getStatus() == OrderStatus.SHIPPED).count();
-        int delivered = (int) orders.values().stream().filter(o -> o.getStatus() == OrderStatus.DELIVERED).count();
-        int cancelled = (int) orders.values().stream().filter(o -> o.getStatus() == OrderStatus.CANCELLED).count();
+        long[] counts = statusCounters.snapshot();
+        int pending = (int) counts[OrderStatus.PENDING.ordinal()];
+        int processing = (int) counts[OrderStatus.PROCESSING.ordinal()];
+        int shipped = (int) counts[OrderStatus.SHIPPED.ordinal()];
+        int delivered = (int) counts[OrderStatus.DELIVERED.ordinal()];
+        int cancelled = (int) counts[OrderStatus.CANCELLED.ordinal()];
+        int total = pending + processing + shipped + delivered + cancelled;
         
         return new OrderStatistics(total, pending, processing, shipped, delivered, cancelled);
     }
-}
\ No newline at end of file
+
+    /**
+     * Units sold and revenue for one product, per order status. Read from a
+     * view maintained on every create and transition, so it costs the same
+     * however many orders there are.
+     */
+    public ProductSales getProductSales(String productId) {
+        if (productId == null) {
+            throw new IllegalArgumentException("Product ID cannot be null");
+        }
+        return productSales.sales(productId);
+    }
+    
+    /**
+     * Sales of every product ordered so far; proportional to the number of
+     * products, not orders.
+     */
+    public List<ProductSales> getAllProductSales() {
+        return productSales.all();
+    }
+
+    /**
+     * Orders created, transitions per status and revenue over a recent window.
+     * Only activity since this service started counts; recovered orders do
+     * not. The cost is fixed, however busy the window was.
+     */
+    public WindowStats getWindowStats(SlidingWindows.Window window) {
+        if (window == null) {
+            throw new IllegalArgumentException("Window cannot be null");
+        }
+        return slidingWindows.stats(window);
+    }
+}
@@ -0,0 +1,308 @@
+package com.order.processing.service;
+
+import com.order.processing.factory.OrderFactory;
+import com.order.processing.model.Order;
+import com.order.processing.model.OrderItem;
+import com.order.processing.observer.DispatchMode;
+import com.order.processing.observer.OrderObserver;
+import com.order.processing.state.OrderStatus;
+import com.order.processing.util.DebugLogger;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Orders partitioned by ID hash across several {@link OrderService} shards,
+ * each written by one thread of its own.
+ *
+ * Every shard is a complete in-memory OrderService with its own store,
+ * indexes and views, and a single-thread executor whose queue is the shard's
+ * command queue. Creating, processing and cancelling orders run as commands on
+ * the owning shard's writer, so writes to one shard never contend with each other and
+ * writes to different shards share nothing. An order is built and validated
+ * by the factory on the calling thread; its ID then picks the shard that
+ * stores it.
+ *
+ * The single writer covers this service's own commands only. Reads go
+ * straight to the owning shard's structures on the calling thread and return
+ * the shard's live Order instances, not copies; a caller that transitions one
+ * of them directly does so on its own thread, beside the shard's writer. Such
+ * a transition is still safe, since Order moves its state with a
+ * compare-and-set and the shard's listener keeps the indexes in step, but it
+ * gives up the ordering the writer provides, so processOrder and cancelOrder
+ * here are the way to change an order. Queries over all orders ask every
+ * shard and merge the answers; they are not a snapshot across shards. Synchronous observers are called on the shard's
+ * writer thread, and an asynchronous one gets a queue per shard.
+ */
+public class ShardedOrderService {
+
+    private static final long SHUTDOWN_WAIT_SECONDS = 30;
+
+    private final OrderFactory orderFactory;
+    private final OrderService[] shards;
+    private final ExecutorService[] writers;
+
+    /**
+     * @param shardCount Number of shards, each with its own writer thread
+     */
+    public ShardedOrderService(OrderFactory orderFactory, int shardCount) {
+        if (orderFactory == null) {
+            throw new IllegalArgumentException("Order factory cannot be null");
+        }
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("Shard count must be positive: " + shardCount);
+        }
+        this.orderFactory = orderFactory;
+        this.shards = new OrderService[shardCount];
+        this.writers = new ExecutorService[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new OrderService(orderFactory);
+            String name = "order-shard-" + i;
+            writers[i] = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, name);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        DebugLogger.log(DebugLogger.Category.SERVICE, "ShardedOrderService",
+            String.format("Started %d shard(s)", shardCount));
+    }
+
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    /**
+     * The shard that owns an order ID.
+     */
+    int shardOf(String orderId) {
+        int hash = orderId.hashCode();
+        return Math.floorMod(hash ^ (hash >>> 16), shards.length);
+    }
+
+    /**
+     * Register an observer with every shard.
+     */
+    public void addObserver(OrderObserver observer, DispatchMode mode) {
+        for (OrderService shard : shards) {
+            shard.addObserver(observer, mode);
+        }
+    }
+
+    /**
+     * @return Whether the observer was registered
+     */
+    public boolean removeObserver(OrderObserver observer) {
+        boolean removed = false;
+        for (OrderService shard : shards) {
+            removed |= shard.removeObserver(observer);
+        }
+        return removed;
+    }
+
+    /**
+     * Create an order and wait until its shard has stored it.
+     *
+     * @throws IllegalArgumentException if the factory rejects the items
+     * @throws IllegalStateException if the service has been shut down
+     */
+    public Order createOrder(List<OrderItem> items) {
+        return await(createOrderAsync(items));
+    }
+
+    /**
+     * Create an order and queue it for its shard's writer. The future
+     * completes once the order is stored, indexed and announced; a caller
+     * may keep several creates in flight.
+     *
+     * @throws IllegalArgumentException if the factory rejects the items
+     * @throws IllegalStateException if the service has been shut down
+     */
+    public CompletableFuture<Order> createOrderAsync(List<OrderItem> items) {
+        Order order = orderFactory.createOrder(items);
+        int shard = shardOf(order.getId());
+        return submit(shard, () -> shards[shard].addOrder(order));
+    }
+
+    /**
+     * Cancel a PENDING order on its shard's writer.
+     *
+     * @return Whether the order was cancelled
+     * @throws IllegalStateException if the service has been shut down
+     */
+    public boolean cancelOrder(String orderId) {
+        if (orderId == null) {
+            DebugLogger.log(DebugLogger.Category.ERROR, "cancelOrder", "Order ID is null");
+            return false;
+        }
+        int shard = shardOf(orderId);
+        return await(submit(shard, () -> shards[shard].cancelOrder(orderId)));
+    }
+
+    /**
+     * Move an order one step along its lifecycle (PENDING to PROCESSING to
+     * SHIPPED to DELIVERED) on its shard's writer and wait for it.
+     *
+     * @return Whether the order moved; false if it is unknown or already final
+     * @throws IllegalStateException if the service has been shut down
+     */
+    public boolean processOrder(String orderId) {
+        return await(processOrderAsync(orderId));
+    }
+
+    /**
+     * Queue one lifecycle step of an order for its shard's writer.
+     *
+     * @return Completes with whether the order moved
+     * @throws IllegalStateException if the service has been shut down
+     */
+    public CompletableFuture<Boolean> processOrderAsync(String orderId) {
+        if (orderId == null) {
+            DebugLogger.log(DebugLogger.Category.ERROR, "processOrder", "Order ID is null");
+            return CompletableFuture.completedFuture(false);
+        }
+        int shard = shardOf(orderId);
+        return submit(shard, () -> shards[shard].getOrder(orderId).map(order -> {
+            long version = order.getVersion();
+            try {
+                order.processOrder();
+            } catch (IllegalStateException e) {
+                // Moved on by a transition made outside the shard's writer
+                return false;
+            }
+            return order.getVersion() != version;
+        }).orElse(false));
+    }
+
+    /**
+     * The shard's live order, not a copy; change it through processOrder or
+     * cancelOrder to keep to the shard's writer.
+     */
+    public Optional<Order> getOrder(String orderId) {
+        if (orderId == null) {
+            DebugLogger.log(DebugLogger.Category.ERROR, "getOrder", "Order ID is null");
+            return Optional.empty();
+        }
+        return shards[shardOf(orderId)].getOrder(orderId);
+    }
+
+    /**
+     * Every order, shard by shard, as the shards' live instances.
+     */
+    public List<Order> getAllOrders() {
+        List<Order> all = new ArrayList<>(getOrderCount());
+        for (OrderService shard : shards) {
+            all.addAll(shard.getAllOrders());
+        }
+        return all;
+    }
+
+    public List<Order> getOrdersByStatus(OrderStatus status) {
+        List<Order> matching = new ArrayList<>();
+        for (OrderService shard : shards) {
+            matching.addAll(shard.getOrdersByStatus(status));
+        }
+        return Collections.unmodifiableList(matching);
+    }
+
+    /**
+     * The {@code k} orders with the largest total amount, largest first: the
+     * top {@code k} of each shard, merged.
+     *
+     * @param status Only consider orders in this status, or null for all orders
+     * @throws IllegalArgumentException if k is negative
+     */
+    public List<Order> getLargestOrders(int k, OrderStatus status) {
+        List<Order> candidates = new ArrayList<>();
+        for (OrderService shard : shards) {
+            candidates.addAll(shard.getLargestOrders(k, status));
+        }
+        List<Order> largest = candidates.stream()
+            .sorted(Comparator.comparing(Order::getTotalAmount).reversed())
+            .limit(k)
+            .collect(Collectors.toList());
+        return Collections.unmodifiableList(largest);
+    }
+
+    public int getOrderCount() {
+        int count = 0;
+        for (OrderService shard : shards) {
+            count += shard.getOrderCount();
+        }
+        return count;
+    }
+
+    /**
+     * Order counts per status, summed over the shards' counters.
+     */
+    public OrderService.OrderStatistics getStatistics() {
+        int pending = 0;
+        int processing = 0;
+        int shipped = 0;
+        int delivered = 0;
+        int cancelled = 0;
+        for (OrderService shard : shards) {
+            OrderService.OrderStatistics stats = shard.getStatistics();
+            pending += stats.getPendingOrders();
+            processing += stats.getProcessingOrders();
+            shipped += stats.getShippedOrders();
+            delivered += stats.getDeliveredOrders();
+            cancelled += stats.getCancelledOrders();
+        }
+        int total = pending + processing + shipped + delivered + cancelled;
+        return new OrderService.OrderStatistics(total, pending, processing, shipped, delivered, cancelled);
+    }
+
+    /**
+     * Let every writer finish the commands already queued, then shut the
+     * shards down. The service should not be used afterwards.
+     */
+    public void shutdown() {
+        for (ExecutorService writer : writers) {
+            writer.shutdown();
+        }
+        for (ExecutorService writer : writers) {
+            try {
+                writer.awaitTermination(SHUTDOWN_WAIT_SECONDS, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        for (OrderService shard : shards) {
+            shard.shutdown();
+        }
+    }
+
+    private <T> CompletableFuture<T> submit(int shard, Supplier<T> command) {
+        try {
+            return CompletableFuture.supplyAsync(command, writers[shard]);
+        } catch (RejectedExecutionException e) {
+            throw new IllegalStateException("Sharded order service is shut down", e);
+        }
+    }
+
+    /**
+     * Wait for a command, rethrowing its exception as it was thrown.
+     */
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+}
@@ -27,11 +27,14 @@ public class CancelledState implements OrderState {
     @Override
     public boolean canTransitionTo(OrderState newState) {
         // CANCELLED is a final state - no transitions allowed
-        String targetState = newState.getClass().getSimpleName();
-        DebugLogger.log(DebugLogger.Category.STATE, "CancelledState.canTransitionTo", 
-            String.format("Checking CANCELLED → %s: ✗ DENIED (FINAL STATE)", targetState));
+        boolean allowed = OrderStates.canTransition(OrderStatus.CANCELLED, newState.getStatus());
         
-        return false;
+        if (DebugLogger.isEnabled()) {
+            DebugLogger.log(DebugLogger.Category.STATE, "CancelledState.canTransitionTo", 
+                String.format("Checking CANCELLED → %s: ✗ DENIED (FINAL STATE)", newState.getStatus()));
+        }
+        
+        return allowed;
     }
     
     @Override
@@ -27,11 +27,14 @@ public class DeliveredState implements OrderState {
     @Override
     public boolean canTransitionTo(OrderState newState) {
         // DELIVERED is a final state - no transitions allowed
-        String targetState = newState.getClass().getSimpleName();
-        DebugLogger.log(DebugLogger.Category.STATE, "DeliveredState.canTransitionTo", 
-            String.format("Checking DELIVERED → %s: ✗ DENIED (FINAL STATE)", targetState));
+        boolean allowed = OrderStates.canTransition(OrderStatus.DELIVERED, newState.getStatus());
         
-        return false;
+        if (DebugLogger.isEnabled()) {
+            DebugLogger.log(DebugLogger.Category.STATE, "DeliveredState.canTransitionTo", 
+                String.format("Checking DELIVERED → %s: ✗ DENIED (FINAL STATE)", newState.getStatus()));
+        }
+        
+        return allowed;
     }
     
     @Override
@@ -0,0 +1,67 @@
+package com.order.processing.state;
+
+/**
+ * Shared state objects and the table of allowed transitions between statuses.
+ *
+ * States hold no per-order data, so one instance of each serves every order
+ * and a transition allocates no state. Whether a transition is allowed is a
+ * lookup in an {@link OrderStatus} x {@link OrderStatus} table filled once
+ * here, which every state's canTransitionTo consults; the business rules live
+ * in one place instead of one instanceof chain per state.
+ */
+public final class OrderStates {
+
+    public static final OrderState PENDING = new PendingState();
+    public static final OrderState PROCESSING = new ProcessingState();
+    public static final OrderState SHIPPED = new ShippedState();
+    public static final OrderState DELIVERED = new DeliveredState();
+    public static final OrderState CANCELLED = new CancelledState();
+
+    private static final OrderStatus[] STATUSES = OrderStatus.values();
+    private static final OrderState[] BY_STATUS = new OrderState[STATUSES.length];
+    private static final boolean[][] ALLOWED = new boolean[STATUSES.length][STATUSES.length];
+
+    static {
+        for (OrderState state : new OrderState[] {PENDING, PROCESSING, SHIPPED, DELIVERED, CANCELLED}) {
+            BY_STATUS[state.getStatus().ordinal()] = state;
+        }
+        // PENDING may be processed or cancelled; once processing starts it can only move forward
+        allow(OrderStatus.PENDING, OrderStatus.PROCESSING, OrderStatus.CANCELLED);
+        allow(OrderStatus.PROCESSING, OrderStatus.SHIPPED);
+        allow(OrderStatus.SHIPPED, OrderStatus.DELIVERED);
+        // DELIVERED and CANCELLED are final
+    }
+
+    private OrderStates() {
+    }
+
+    private static void allow(OrderStatus from, OrderStatus... targets) {
+        for (OrderStatus to : targets) {
+            ALLOWED[from.ordinal()][to.ordinal()] = true;
+        }
+    }
+
+    /**
+     * Get the shared state object for the given status.
+     * Used when orders are rebuilt from persisted data.
+     *
+     * @param status The status to look up
+     * @return The matching OrderState
+     */
+    public static OrderState forStatus(OrderStatus status) {
+        if (status == null) {
+            throw new IllegalArgumentException("Unknown status: null");
+        }
+        return BY_STATUS[status.ordinal()];
+    }
+
+    /**
+     * Check the transition table.
+     *
+     * @return true if an order may move from one status to the other; false
+     *         for any null status
+     */
+    public static boolean canTransition(OrderStatus from, OrderStatus to) {
+        return from != null && to != null && ALLOWED[from.ordinal()][to.ordinal()];
+    }
+}
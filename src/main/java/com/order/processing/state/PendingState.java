@@ -23,7 +23,7 @@ public class PendingState implements OrderState {
         
         System.out.println("Processing pending order " + order.getId() + 
                          " - Moving to PROCESSING state");
-        order.setState(new ProcessingState());
+        order.setState(OrderStates.PROCESSING);
         
         DebugLogger.log(DebugLogger.Category.STATE, "PendingState.processOrder", 
             String.format("Order[%s] - Transition completed successfully", 
@@ -33,12 +33,12 @@ public class PendingState implements OrderState {
     @Override
     public boolean canTransitionTo(OrderState newState) {
         // PENDING can only transition to PROCESSING or CANCELLED
-        boolean allowed = newState instanceof ProcessingState || 
-                         newState instanceof CancelledState;
+        boolean allowed = OrderStates.canTransition(OrderStatus.PENDING, newState.getStatus());
         
-        String targetState = newState.getClass().getSimpleName();
-        DebugLogger.log(DebugLogger.Category.STATE, "PendingState.canTransitionTo", 
-            String.format("Checking PENDING → %s: %s", targetState, allowed ? "✓ ALLOWED" : "✗ DENIED"));
+        if (DebugLogger.isEnabled()) {
+            DebugLogger.log(DebugLogger.Category.STATE, "PendingState.canTransitionTo", 
+                String.format("Checking PENDING → %s: %s", newState.getStatus(), allowed ? "✓ ALLOWED" : "✗ DENIED"));
+        }
         
         return allowed;
     }
@@ -22,7 +22,7 @@ public class ProcessingState implements OrderState {
         
         System.out.println("Order " + order.getId() + 
                          " processing complete - Moving to SHIPPED state");
-        order.setState(new ShippedState());
+        order.setState(OrderStates.SHIPPED);
         
         DebugLogger.log(DebugLogger.Category.STATE, "ProcessingState.processOrder", 
             String.format("Order[%s] - Transition completed successfully", 
@@ -33,11 +33,12 @@ public class ProcessingState implements OrderState {
     public boolean canTransitionTo(OrderState newState) {
         // PROCESSING can ONLY transition to SHIPPED
         // CANNOT be cancelled once processing starts (business requirement)
-        boolean allowed = newState instanceof ShippedState;
+        boolean allowed = OrderStates.canTransition(OrderStatus.PROCESSING, newState.getStatus());
         
-        String targetState = newState.getClass().getSimpleName();
-        DebugLogger.log(DebugLogger.Category.STATE, "ProcessingState.canTransitionTo", 
-            String.format("Checking PROCESSING → %s: %s", targetState, allowed ? "✓ ALLOWED" : "✗ DENIED"));
+        if (DebugLogger.isEnabled()) {
+            DebugLogger.log(DebugLogger.Category.STATE, "ProcessingState.canTransitionTo", 
+                String.format("Checking PROCESSING → %s: %s", newState.getStatus(), allowed ? "✓ ALLOWED" : "✗ DENIED"));
+        }
         
         return allowed;
     }
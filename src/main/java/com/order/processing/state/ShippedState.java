@@ -22,7 +22,7 @@ public class ShippedState implements OrderState {
         
         System.out.println("Order " + order.getId() + 
                          " has been delivered - Moving to DELIVERED state");
-        order.setState(new DeliveredState());
+        order.setState(OrderStates.DELIVERED);
         
         DebugLogger.log(DebugLogger.Category.STATE, "ShippedState.processOrder", 
             String.format("Order[%s] - Transition completed successfully", 
@@ -32,11 +32,12 @@ public class ShippedState implements OrderState {
     @Override
     public boolean canTransitionTo(OrderState newState) {
         // SHIPPED can ONLY transition to DELIVERED
-        boolean allowed = newState instanceof DeliveredState;
+        boolean allowed = OrderStates.canTransition(OrderStatus.SHIPPED, newState.getStatus());
         
-        String targetState = newState.getClass().getSimpleName();
-        DebugLogger.log(DebugLogger.Category.STATE, "ShippedState.canTransitionTo", 
-            String.format("Checking SHIPPED → %s: %s", targetState, allowed ? "✓ ALLOWED" : "✗ DENIED"));
+        if (DebugLogger.isEnabled()) {
+            DebugLogger.log(DebugLogger.Category.STATE, "ShippedState.canTransitionTo", 
+                String.format("Checking SHIPPED → %s: %s", newState.getStatus(), allowed ? "✓ ALLOWED" : "✗ DENIED"));
+        }
         
         return allowed;
     }
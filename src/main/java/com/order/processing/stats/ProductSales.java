@@ -0,0 +1,74 @@
+package com.order.processing.stats;
+
+import com.order.processing.state.OrderStatus;
+
+import java.math.BigDecimal;
+
+/**
+ * Units sold and revenue for one product, broken down by the status of the
+ * orders they belong to. A copy read from {@link ProductSalesView}; it does
+ * not change afterwards.
+ */
+public final class ProductSales {
+
+    private final String productId;
+    private final long[] units;
+    private final long[] revenue;
+
+    /**
+     * @param units Units per status, indexed by {@link OrderStatus#ordinal()}
+     * @param revenue Unscaled revenue per status at {@link ProductSalesView#REVENUE_SCALE}
+     */
+    ProductSales(String productId, long[] units, long[] revenue) {
+        this.productId = productId;
+        this.units = units;
+        this.revenue = revenue;
+    }
+
+    public String getProductId() {
+        return productId;
+    }
+
+    public long getUnits(OrderStatus status) {
+        return units[status.ordinal()];
+    }
+
+    public BigDecimal getRevenue(OrderStatus status) {
+        return BigDecimal.valueOf(revenue[status.ordinal()], ProductSalesView.REVENUE_SCALE);
+    }
+
+    /**
+     * Units across every status, cancelled orders included.
+     */
+    public long getTotalUnits() {
+        long total = 0;
+        for (long count : units) {
+            total += count;
+        }
+        return total;
+    }
+
+    /**
+     * Revenue across every status, cancelled orders included.
+     */
+    public BigDecimal getTotalRevenue() {
+        long total = 0;
+        for (long amount : revenue) {
+            total = Math.addExact(total, amount);
+        }
+        return BigDecimal.valueOf(total, ProductSalesView.REVENUE_SCALE);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder(productId).append(": ");
+        for (OrderStatus status : OrderStatus.values()) {
+            if (units[status.ordinal()] != 0) {
+                text.append(String.format("%s=%d ($%s) ", status, units[status.ordinal()],
+                    getRevenue(status).stripTrailingZeros().toPlainString()));
+            }
+        }
+        return text.append(String.format("total=%d ($%s)", getTotalUnits(),
+            getTotalRevenue().stripTrailingZeros().toPlainString())).toString();
+    }
+}
@@ -0,0 +1,133 @@
+package com.order.processing.stats;
+
+import com.order.processing.codec.ProductDictionary;
+import com.order.processing.model.Order;
+import com.order.processing.model.OrderItem;
+import com.order.processing.state.OrderStatus;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Units sold and revenue per product and order status, maintained as orders
+ * are created and change status, so reading them never touches the orders.
+ *
+ * Products get dense codes from a {@link ProductDictionary}; each code owns one
+ * row of long counters, units for every status followed by revenue for every
+ * status. Revenue is kept unscaled at {@link #REVENUE_SCALE} decimal places, so
+ * an update is a pair of atomic adds with no {@code BigDecimal} arithmetic on
+ * the shared state. A status change moves an order's items between columns of
+ * the same rows, adding to the new status before subtracting from the old one,
+ * so a concurrent reader may briefly see an order counted under both but never
+ * under neither.
+ *
+ * Thread-safe; updates and reads take no locks once a product has a row.
+ */
+public class ProductSalesView {
+
+    /**
+     * Decimal places revenue is kept at. Item totals with more places are
+     * rounded half-even.
+     */
+    public static final int REVENUE_SCALE = 4;
+
+    private static final OrderStatus[] STATUSES = OrderStatus.values();
+
+    private final ProductDictionary products = new ProductDictionary();
+    private volatile AtomicLongArray[] rows = new AtomicLongArray[64];
+
+    /**
+     * Count a new order's items under its status. A null status is ignored.
+     */
+    public void add(Order order) {
+        if (order.getStatus() != null) {
+            apply(order, order.getStatus(), 1);
+        }
+    }
+
+    /**
+     * Move an order's items from one status to another.
+     *
+     * @param from Previous status, or null if the order was not counted
+     * @param to New status
+     */
+    public void move(Order order, OrderStatus from, OrderStatus to) {
+        if (from == to) {
+            return;
+        }
+        apply(order, to, 1);
+        if (from != null) {
+            apply(order, from, -1);
+        }
+    }
+
+    /**
+     * Sales of one product; all zero for a product never ordered. Constant
+     * time, whatever the number of orders.
+     */
+    public ProductSales sales(String productId) {
+        int code = products.codeOf(productId);
+        AtomicLongArray[] current = rows;
+        AtomicLongArray row = code >= 0 && code < current.length ? current[code] : null;
+        return read(productId, row);
+    }
+
+    /**
+     * Sales of every product ordered so far, in the order each was first seen.
+     */
+    public List<ProductSales> all() {
+        int size = products.size();
+        AtomicLongArray[] current = rows;
+        List<ProductSales> sales = new ArrayList<>(size);
+        for (int code = 0; code < size; code++) {
+            sales.add(read(products.productOf(code), code < current.length ? current[code] : null));
+        }
+        return sales;
+    }
+
+    private void apply(Order order, OrderStatus status, int sign) {
+        for (OrderItem item : order.getItems()) {
+            AtomicLongArray row = rowFor(products.intern(item.getProductId()));
+            row.addAndGet(status.ordinal(), sign * (long) item.getQuantity());
+            row.addAndGet(STATUSES.length + status.ordinal(), sign * unscaled(item.getTotalPrice()));
+        }
+    }
+
+    private static long unscaled(BigDecimal amount) {
+        return amount.setScale(REVENUE_SCALE, RoundingMode.HALF_EVEN).unscaledValue().longValueExact();
+    }
+
+    private static ProductSales read(String productId, AtomicLongArray row) {
+        long[] units = new long[STATUSES.length];
+        long[] revenue = new long[STATUSES.length];
+        if (row != null) {
+            for (int i = 0; i < STATUSES.length; i++) {
+                units[i] = row.get(i);
+                revenue[i] = row.get(STATUSES.length + i);
+            }
+        }
+        return new ProductSales(productId, units, revenue);
+    }
+
+    private AtomicLongArray rowFor(int code) {
+        AtomicLongArray[] current = rows;
+        if (code < current.length && current[code] != null) {
+            return current[code];
+        }
+        synchronized (this) {
+            current = rows;
+            if (code >= current.length) {
+                current = Arrays.copyOf(current, Math.max(current.length * 2, code + 1));
+            }
+            if (current[code] == null) {
+                current[code] = new AtomicLongArray(2 * STATUSES.length);
+            }
+            rows = current;
+            return current[code];
+        }
+    }
+}
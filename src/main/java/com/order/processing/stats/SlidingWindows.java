@@ -0,0 +1,174 @@
+package com.order.processing.stats;
+
+import com.order.processing.state.OrderStatus;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Order creations, transitions per status and revenue over the last minute,
+ * five minutes and hour.
+ *
+ * Each window is a ring of {@link #BUCKETS} time buckets: one second wide for
+ * the minute, five seconds for five minutes and one minute for the hour. A
+ * bucket is tagged with the tick it counts. A writer that finds an older
+ * bucket in its slot installs a fresh one for its tick with a CAS; if another
+ * writer got there first it uses theirs, so no writer ever waits for another.
+ * A read adds up the buckets whose tick lies in the window and ignores stale
+ * ones, so its cost is fixed by the bucket count, not by how many orders went
+ * through. The bucket being filled is included, so a window covers between 59
+ * and 60 buckets of history.
+ *
+ * Thread-safe and lock-free. A writer descheduled for a whole ring's length
+ * between finding its bucket and updating it adds its count to a bucket that
+ * has already been replaced, and the count is lost; the figures are for
+ * dashboards, not accounting.
+ */
+public class SlidingWindows {
+
+    /** Buckets per window. */
+    public static final int BUCKETS = 60;
+    /** Decimal places revenue is kept at. */
+    public static final int REVENUE_SCALE = 4;
+
+    private static final OrderStatus[] STATUSES = OrderStatus.values();
+    private static final int CREATED = 0;
+    private static final int REVENUE = 1;
+    private static final int TRANSITIONS = 2;
+    private static final int FIELDS = TRANSITIONS + STATUSES.length;
+
+    public enum Window {
+        ONE_MINUTE("1 min", 60_000),
+        FIVE_MINUTES("5 min", 300_000),
+        ONE_HOUR("1 hour", 3_600_000);
+
+        private final String label;
+        private final long millis;
+
+        Window(String label, long millis) {
+            this.label = label;
+            this.millis = millis;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        public long getMillis() {
+            return millis;
+        }
+    }
+
+    private static final class Bucket {
+        final long tick;
+        final AtomicLongArray counts = new AtomicLongArray(FIELDS);
+
+        Bucket(long tick) {
+            this.tick = tick;
+        }
+    }
+
+    private static final class Ring {
+        final long bucketMillis;
+        /** Slot i holds the latest bucket whose tick is i modulo BUCKETS, or null. */
+        final AtomicReferenceArray<Bucket> buckets = new AtomicReferenceArray<>(BUCKETS);
+
+        Ring(Window window) {
+            this.bucketMillis = window.millis / BUCKETS;
+        }
+
+        void add(long now, int field, long delta) {
+            long tick = Math.floorDiv(now, bucketMillis);
+            int slot = Math.floorMod(tick, BUCKETS);
+            Bucket bucket = buckets.get(slot);
+            while (bucket == null || bucket.tick < tick) {
+                Bucket fresh = new Bucket(tick);
+                if (buckets.compareAndSet(slot, bucket, fresh)) {
+                    bucket = fresh;
+                    break;
+                }
+                // Another writer replaced it first; use theirs if it is for this tick
+                bucket = buckets.get(slot);
+            }
+            if (bucket.tick > tick) {
+                // Outrun by a later tick while this writer was descheduled
+                return;
+            }
+            bucket.counts.addAndGet(field, delta);
+        }
+
+        long[] sum(long now) {
+            long tick = Math.floorDiv(now, bucketMillis);
+            long[] totals = new long[FIELDS];
+            for (int slot = 0; slot < BUCKETS; slot++) {
+                Bucket bucket = buckets.get(slot);
+                if (bucket == null || bucket.tick <= tick - BUCKETS || bucket.tick > tick) {
+                    continue;
+                }
+                for (int i = 0; i < FIELDS; i++) {
+                    totals[i] += bucket.counts.get(i);
+                }
+            }
+            return totals;
+        }
+    }
+
+    private final LongSupplier clock;
+    private final Ring[] rings;
+
+    public SlidingWindows() {
+        this(() -> System.nanoTime() / 1_000_000);
+    }
+
+    /**
+     * @param clock Monotonic time in milliseconds
+     */
+    public SlidingWindows(LongSupplier clock) {
+        this.clock = clock;
+        Window[] windows = Window.values();
+        this.rings = new Ring[windows.length];
+        for (int i = 0; i < windows.length; i++) {
+            rings[i] = new Ring(windows[i]);
+        }
+    }
+
+    /**
+     * Count a new order and its total. A null total counts the order only.
+     */
+    public void recordCreated(BigDecimal total) {
+        long now = clock.getAsLong();
+        long revenue = total != null
+            ? total.setScale(REVENUE_SCALE, RoundingMode.HALF_EVEN).unscaledValue().longValueExact()
+            : 0;
+        for (Ring ring : rings) {
+            ring.add(now, CREATED, 1);
+            if (revenue != 0) {
+                ring.add(now, REVENUE, revenue);
+            }
+        }
+    }
+
+    /**
+     * Count an order entering a status.
+     */
+    public void recordTransition(OrderStatus to) {
+        long now = clock.getAsLong();
+        for (Ring ring : rings) {
+            ring.add(now, TRANSITIONS + to.ordinal(), 1);
+        }
+    }
+
+    /**
+     * Totals over one window, ending now.
+     */
+    public WindowStats stats(Window window) {
+        long[] totals = rings[window.ordinal()].sum(clock.getAsLong());
+        long[] transitions = new long[STATUSES.length];
+        System.arraycopy(totals, TRANSITIONS, transitions, 0, transitions.length);
+        return new WindowStats(window, totals[CREATED],
+            BigDecimal.valueOf(totals[REVENUE], REVENUE_SCALE), transitions);
+    }
+}
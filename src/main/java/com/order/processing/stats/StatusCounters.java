@@ -0,0 +1,114 @@
+package com.order.processing.stats;
+
+import com.order.processing.state.OrderStatus;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Number of orders in each {@link OrderStatus}, kept up to date as orders are
+ * created and move between statuses.
+ *
+ * Counts are striped: each writer thread updates the stripe its thread ID maps
+ * to, under that stripe's lock, so concurrent writers rarely meet. A transition
+ * decrements and increments within one stripe. {@link #snapshot()} holds every
+ * stripe's lock at once while it adds them up, so it sees a single consistent
+ * cut: no transition is half-counted and no count is transiently negative. Its
+ * cost depends on the stripe count, not the number of orders.
+ */
+public class StatusCounters {
+
+    private static final OrderStatus[] STATUSES = OrderStatus.values();
+    /** Longs of padding either side of each stripe's counts, one cache line. */
+    private static final int PADDING = 8;
+
+    private static final class Stripe {
+        final ReentrantLock lock = new ReentrantLock();
+        final long[] counts = new long[PADDING + STATUSES.length + PADDING];
+    }
+
+    private final Stripe[] stripes;
+    private final int mask;
+
+    public StatusCounters() {
+        this(Runtime.getRuntime().availableProcessors() * 2);
+    }
+
+    /**
+     * @param stripes Minimum number of stripes; rounded up to a power of two
+     */
+    public StatusCounters(int stripes) {
+        if (stripes < 1) {
+            throw new IllegalArgumentException("Stripe count must be positive: " + stripes);
+        }
+        int size = Integer.highestOneBit(stripes - 1) << 1;
+        this.stripes = new Stripe[Math.max(1, size)];
+        for (int i = 0; i < this.stripes.length; i++) {
+            this.stripes[i] = new Stripe();
+        }
+        this.mask = this.stripes.length - 1;
+    }
+
+    /**
+     * Count a new order. A null status is ignored.
+     */
+    public void increment(OrderStatus status) {
+        if (status == null) {
+            return;
+        }
+        Stripe stripe = stripe();
+        stripe.lock.lock();
+        try {
+            stripe.counts[PADDING + status.ordinal()]++;
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Count an order moving from one status to another.
+     *
+     * @param from Previous status, or null if the order was not counted
+     * @param to New status
+     */
+    public void move(OrderStatus from, OrderStatus to) {
+        Stripe stripe = stripe();
+        stripe.lock.lock();
+        try {
+            if (from != null) {
+                stripe.counts[PADDING + from.ordinal()]--;
+            }
+            stripe.counts[PADDING + to.ordinal()]++;
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Consistent counts, indexed by {@link OrderStatus#ordinal()}.
+     */
+    public long[] snapshot() {
+        long[] totals = new long[STATUSES.length];
+        int locked = 0;
+        try {
+            for (Stripe stripe : stripes) {
+                stripe.lock.lock();
+                locked++;
+            }
+            for (Stripe stripe : stripes) {
+                for (int i = 0; i < totals.length; i++) {
+                    totals[i] += stripe.counts[PADDING + i];
+                }
+            }
+        } finally {
+            for (int i = 0; i < locked; i++) {
+                stripes[i].lock.unlock();
+            }
+        }
+        return totals;
+    }
+
+    private Stripe stripe() {
+        long id = Thread.currentThread().getId();
+        return stripes[(int) (id ^ (id >>> 16)) & mask];
+    }
+}
@@ -0,0 +1,67 @@
+package com.order.processing.stats;
+
+import com.order.processing.state.OrderStatus;
+
+import java.math.BigDecimal;
+
+/**
+ * Order activity over one {@link SlidingWindows.Window}, read at one moment.
+ */
+public final class WindowStats {
+
+    private final SlidingWindows.Window window;
+    private final long created;
+    private final BigDecimal revenue;
+    private final long[] transitions;
+
+    /**
+     * @param transitions Transitions into each status, indexed by {@link OrderStatus#ordinal()}
+     */
+    WindowStats(SlidingWindows.Window window, long created, BigDecimal revenue, long[] transitions) {
+        this.window = window;
+        this.created = created;
+        this.revenue = revenue;
+        this.transitions = transitions;
+    }
+
+    public SlidingWindows.Window getWindow() {
+        return window;
+    }
+
+    public long getCreated() {
+        return created;
+    }
+
+    /**
+     * Summed totals of the orders created in the window.
+     */
+    public BigDecimal getRevenue() {
+        return revenue;
+    }
+
+    /**
+     * Number of orders that entered a status in the window.
+     */
+    public long getTransitions(OrderStatus status) {
+        return transitions[status.ordinal()];
+    }
+
+    /**
+     * Orders created per second, averaged over the whole window.
+     */
+    public double getCreatedPerSecond() {
+        return created * 1000.0 / window.getMillis();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder(String.format("last %s: %d created (%.2f/s), $%s",
+            window.getLabel(), created, getCreatedPerSecond(), revenue.stripTrailingZeros().toPlainString()));
+        for (OrderStatus status : OrderStatus.values()) {
+            if (transitions[status.ordinal()] != 0) {
+                text.append(String.format(", %d -> %s", transitions[status.ordinal()], status));
+            }
+        }
+        return text.toString();
+    }
+}
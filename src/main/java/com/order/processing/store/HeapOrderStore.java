@@ -0,0 +1,53 @@
+package com.order.processing.store;
+
+import com.order.processing.model.Order;
+import com.order.processing.state.OrderStatus;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Every order as a plain object in a ConcurrentHashMap. The default store.
+ */
+public class HeapOrderStore implements OrderStore {
+
+    private final Map<String, Order> orders = new ConcurrentHashMap<>();
+
+    @Override
+    public Order get(String orderId) {
+        return orders.get(orderId);
+    }
+
+    @Override
+    public void put(Order order) {
+        orders.put(order.getId(), order);
+    }
+
+    @Override
+    public boolean replace(Order order, OrderStatus expectedStatus) {
+        Order stored = orders.get(order.getId());
+        if (stored == order) {
+            // The stored instance itself transitioned; its own CAS already decided the race
+            return true;
+        }
+        return stored != null && stored.getStatus() == expectedStatus
+            && orders.replace(order.getId(), stored, order);
+    }
+
+    @Override
+    public int size() {
+        return orders.size();
+    }
+
+    @Override
+    public Iterator<Order> iterator() {
+        return orders.values().iterator();
+    }
+
+    @Override
+    public Spliterator<Order> spliterator() {
+        return orders.values().spliterator();
+    }
+}
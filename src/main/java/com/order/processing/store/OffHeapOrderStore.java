@@ -0,0 +1,454 @@
+package com.order.processing.store;
+
+import com.order.processing.codec.OrderCodec;
+import com.order.processing.codec.ProductDictionary;
+import com.order.processing.codec.Varints;
+import com.order.processing.model.Order;
+import com.order.processing.model.OrderItem;
+import com.order.processing.state.OrderStatus;
+import com.order.processing.util.DebugLogger;
+
+import java.math.BigDecimal;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+
+/**
+ * Order store that keeps every order as a compact record in direct-buffer
+ * slabs instead of as an object graph on the heap.
+ *
+ * Records use the layout described in {@link OrderView} and are appended to
+ * the current slab; they never move. The index is an open-addressing hash
+ * table of primitive arrays (hash + packed slab/offset address, linear
+ * probing), so the heap holds no per-order objects at all.
+ *
+ * An order's items never change after creation, so updating a stored order
+ * only rewrites its status and last-modified time in place.
+ *
+ * {@link #get} and iteration decode a fresh copy on every read, so two callers
+ * can each transition a copy of their own. The record's status is what
+ * decides between them: {@link #replace} writes a transition back only if the
+ * record still holds the status it started from, so exactly one copy wins.
+ *
+ * Writes are serialized by a StampedLock. Lookups probe the index and read the
+ * mutable fields under an optimistic read stamp, and fall back to the read lock
+ * if a write raced them. {@link #view} and {@link #forEachView} read without
+ * copying.
+ */
+public class OffHeapOrderStore implements OrderStore {
+
+    /** 64 MB slabs unless told otherwise. */
+    public static final int DEFAULT_SLAB_SIZE = 64 * 1024 * 1024;
+
+    private static final int MIN_CAPACITY = 16;
+
+    private final int slabSize;
+    private final StampedLock lock = new StampedLock();
+    private final ProductDictionary dictionary = new ProductDictionary();
+    private final ThreadLocal<ByteBuffer> keyBuffer = ThreadLocal.withInitial(() -> ByteBuffer.allocate(256));
+    private ByteBuffer encodeBuffer = ByteBuffer.allocate(4096);
+
+    private volatile ByteBuffer[] slabs = new ByteBuffer[0];
+    // Index: hashes[i] is meaningful only where addresses[i] != 0; addresses hold (slab << 32 | offset) + 1
+    private volatile int[] hashes;
+    private volatile long[] addresses;
+    private volatile int size;
+
+    /**
+     * Create a store with default slab size and room for a million orders
+     * before the index first grows.
+     */
+    public OffHeapOrderStore() {
+        this(DEFAULT_SLAB_SIZE, 1 << 20);
+    }
+
+    /**
+     * @param slabSize Bytes per direct-buffer slab; bounds the size of one record
+     * @param expectedOrders Orders the index should hold before it first grows
+     */
+    public OffHeapOrderStore(int slabSize, int expectedOrders) {
+        if (slabSize < 1024) {
+            throw new IllegalArgumentException("Slab size too small: " + slabSize);
+        }
+        this.slabSize = slabSize;
+        int capacity = Integer.highestOneBit(Math.max(MIN_CAPACITY, expectedOrders * 2 - 1)) << 1;
+        this.hashes = new int[capacity];
+        this.addresses = new long[capacity];
+    }
+
+    @Override
+    public Order get(String orderId) {
+        ByteBuffer key = encodeKey(orderId);
+        int hash = hash(orderId);
+        OrderView view = new OrderView(dictionary);
+        long stamp = lock.tryOptimisticRead();
+        try {
+            // Status and time are updated in place, so decode inside the stamp
+            Order order = locate(key, hash, view) ? view.toOrder() : null;
+            if (lock.validate(stamp)) {
+                return order;
+            }
+        } catch (RuntimeException raced) {
+            // Saw a half-resized table; retry under the lock
+        }
+        stamp = lock.readLock();
+        try {
+            return locate(key, hash, view) ? view.toOrder() : null;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Flyweight over a stored order, or null if there is none with that ID.
+     */
+    public OrderView view(String orderId) {
+        ByteBuffer key = encodeKey(orderId);
+        int hash = hash(orderId);
+        OrderView view = new OrderView(dictionary);
+        long stamp = lock.tryOptimisticRead();
+        try {
+            boolean found = locate(key, hash, view);
+            if (lock.validate(stamp)) {
+                return found ? view : null;
+            }
+        } catch (RuntimeException raced) {
+            // Saw a half-resized table; retry under the lock
+        }
+        stamp = lock.readLock();
+        try {
+            return locate(key, hash, view) ? view : null;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Insert an order, or update the status and last-modified time of the
+     * stored order with the same ID.
+     *
+     * @throws IllegalArgumentException if the record would not fit in a slab or
+     *         an amount does not fit the fixed-point record format
+     */
+    @Override
+    public void put(Order order) {
+        ByteBuffer key = encodeKey(order.getId());
+        int hash = hash(order.getId());
+        long stamp = lock.writeLock();
+        try {
+            long address = find(key, hash);
+            if (address >= 0) {
+                ByteBuffer slab = slabs[slabOf(address)];
+                int offset = offsetOf(address);
+                writeMutable(slab, offset, order);
+            } else {
+                insert(hash, append(order));
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Compare-and-set on the status byte of the stored record, under the write
+     * lock.
+     */
+    @Override
+    public boolean replace(Order order, OrderStatus expectedStatus) {
+        ByteBuffer key = encodeKey(order.getId());
+        int hash = hash(order.getId());
+        long stamp = lock.writeLock();
+        try {
+            long address = find(key, hash);
+            if (address < 0) {
+                return false;
+            }
+            ByteBuffer slab = slabs[slabOf(address)];
+            int offset = offsetOf(address);
+            if (slab.get(offset + OrderView.STATUS) != expectedStatus.ordinal()) {
+                return false;
+            }
+            writeMutable(slab, offset, order);
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Bytes of off-heap memory allocated for slabs.
+     */
+    public long offHeapBytes() {
+        return (long) slabs.length * slabSize;
+    }
+
+    /**
+     * Visit every order through one reused flyweight. The view is only valid
+     * during the callback.
+     */
+    public void forEachView(Consumer<OrderView> action) {
+        OrderView view = new OrderView(dictionary);
+        RecordCursor cursor = new RecordCursor();
+        while (cursor.advance()) {
+            view.moveTo(cursor.slab, cursor.offset);
+            action.accept(view);
+        }
+    }
+
+    @Override
+    public Iterator<Order> iterator() {
+        RecordCursor cursor = new RecordCursor();
+        OrderView view = new OrderView(dictionary);
+        return new Iterator<>() {
+            private boolean ready;
+            private boolean more;
+
+            @Override
+            public boolean hasNext() {
+                if (!ready) {
+                    more = cursor.advance();
+                    ready = true;
+                }
+                return more;
+            }
+
+            @Override
+            public Order next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                ready = false;
+                view.moveTo(cursor.slab, cursor.offset);
+                return view.toOrder();
+            }
+        };
+    }
+
+    /**
+     * Walks the records that existed when it was created, slab by slab. A zero
+     * length marks the end of a full slab's records; slabs are zero-filled when
+     * allocated.
+     */
+    private final class RecordCursor {
+        private final ByteBuffer[] snapshot;
+        private final int lastSlabEnd;
+        private int slabIndex;
+        private int next;
+        ByteBuffer slab;
+        int offset;
+
+        RecordCursor() {
+            long stamp = lock.readLock();
+            try {
+                snapshot = slabs;
+                lastSlabEnd = snapshot.length > 0 ? snapshot[snapshot.length - 1].position() : 0;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        boolean advance() {
+            while (slabIndex < snapshot.length) {
+                ByteBuffer current = snapshot[slabIndex];
+                int end = slabIndex == snapshot.length - 1 ? lastSlabEnd : current.capacity();
+                int length = next + 4 <= end ? current.getInt(next) : 0;
+                if (length > 0) {
+                    slab = current;
+                    offset = next;
+                    next += length;
+                    return true;
+                }
+                slabIndex++;
+                next = 0;
+            }
+            return false;
+        }
+    }
+
+    private boolean locate(ByteBuffer key, int hash, OrderView view) {
+        long address = find(key, hash);
+        if (address < 0) {
+            return false;
+        }
+        view.moveTo(slabs[slabOf(address)], offsetOf(address));
+        return true;
+    }
+
+    /**
+     * Probe for a key. Safe to call without the lock as long as the result is
+     * validated afterwards.
+     *
+     * @return The record address, or -1 if absent
+     */
+    private long find(ByteBuffer key, int hash) {
+        int[] hashTable = hashes;
+        long[] addressTable = addresses;
+        ByteBuffer[] slabTable = slabs;
+        int mask = addressTable.length - 1;
+        for (int i = hash & mask, probes = 0; probes <= mask; i = (i + 1) & mask, probes++) {
+            long stored = addressTable[i];
+            if (stored == 0) {
+                return -1;
+            }
+            long address = stored - 1;
+            if (hashTable[i] == hash && idEquals(slabTable[slabOf(address)], offsetOf(address), key)) {
+                return address;
+            }
+        }
+        return -1;
+    }
+
+    private void insert(int hash, long address) {
+        if ((size + 1) * 2 > addresses.length) {
+            resize();
+        }
+        int mask = addresses.length - 1;
+        int i = hash & mask;
+        while (addresses[i] != 0) {
+            i = (i + 1) & mask;
+        }
+        hashes[i] = hash;
+        addresses[i] = address + 1;
+        size++;
+    }
+
+    private void resize() {
+        int[] oldHashes = hashes;
+        long[] oldAddresses = addresses;
+        int[] newHashes = new int[oldAddresses.length * 2];
+        long[] newAddresses = new long[oldAddresses.length * 2];
+        int mask = newAddresses.length - 1;
+        for (int j = 0; j < oldAddresses.length; j++) {
+            if (oldAddresses[j] != 0) {
+                int i = oldHashes[j] & mask;
+                while (newAddresses[i] != 0) {
+                    i = (i + 1) & mask;
+                }
+                newHashes[i] = oldHashes[j];
+                newAddresses[i] = oldAddresses[j];
+            }
+        }
+        hashes = newHashes;
+        addresses = newAddresses;
+        DebugLogger.log(DebugLogger.Category.STORE, "OffHeapOrderStore",
+            String.format("Index grown to %d slots for %d order(s)", newAddresses.length, size));
+    }
+
+    /**
+     * Encode a new record and copy it into the current slab. Must hold the write lock.
+     *
+     * @return The record's address
+     */
+    private long append(Order order) {
+        while (true) {
+            try {
+                encodeBuffer.clear();
+                encode(order, encodeBuffer);
+                break;
+            } catch (BufferOverflowException e) {
+                encodeBuffer = ByteBuffer.allocate(encodeBuffer.capacity() * 2);
+            }
+        }
+        encodeBuffer.flip();
+        int length = encodeBuffer.remaining();
+        // Leave room for the zero length that ends the slab
+        if (length + 4 > slabSize) {
+            throw new IllegalArgumentException("Order record larger than slab size " + slabSize + ": " + order.getId());
+        }
+        ByteBuffer[] current = slabs;
+        ByteBuffer slab = current.length > 0 ? current[current.length - 1] : null;
+        if (slab == null || slab.remaining() < length + 4) {
+            slab = ByteBuffer.allocateDirect(slabSize);
+            current = Arrays.copyOf(current, current.length + 1);
+            current[current.length - 1] = slab;
+            slabs = current;
+        }
+        int offset = slab.position();
+        slab.put(encodeBuffer);
+        return (long) (current.length - 1) << 32 | offset;
+    }
+
+    private void encode(Order order, ByteBuffer buf) {
+        int start = buf.position();
+        buf.position(start + OrderView.ID);
+        OrderCodec.putId(buf, order.getId());
+        List<OrderItem> items = order.getItems();
+        Varints.putVarInt(buf, items.size());
+        for (int i = 0; i < items.size(); i++) {
+            OrderItem item = items.get(i);
+            Varints.putVarInt(buf, dictionary.intern(item.getProductId()));
+            Varints.putVarInt(buf, item.getQuantity());
+            BigDecimal price = item.getPricePerUnit();
+            Varints.putSignedVarLong(buf, price.unscaledValue().longValueExact());
+            buf.put((byte) price.scale());
+        }
+        int end = buf.position();
+
+        BigDecimal total = order.getTotalAmount();
+        if (total.scale() < 0 || total.scale() > Byte.MAX_VALUE || total.unscaledValue().bitLength() > 63) {
+            throw new IllegalArgumentException("Total amount out of range for order " + order.getId() + ": " + total);
+        }
+        buf.putInt(start + OrderView.LENGTH, end - start);
+        buf.put(start + OrderView.TOTAL_SCALE, (byte) total.scale());
+        buf.putLong(start + OrderView.TOTAL_UNSCALED, total.unscaledValue().longValue());
+        LocalDateTime createdAt = order.getCreatedAt();
+        buf.putLong(start + OrderView.CREATED_SECONDS, createdAt.toEpochSecond(ZoneOffset.UTC));
+        buf.putInt(start + OrderView.CREATED_NANOS, createdAt.getNano());
+        writeMutable(buf, start, order);
+        buf.position(end);
+    }
+
+    private static void writeMutable(ByteBuffer buf, int offset, Order order) {
+        LocalDateTime modifiedAt = order.getLastModifiedAt();
+        buf.putLong(offset + OrderView.MODIFIED_SECONDS, modifiedAt.toEpochSecond(ZoneOffset.UTC));
+        buf.putInt(offset + OrderView.MODIFIED_NANOS, modifiedAt.getNano());
+        buf.put(offset + OrderView.STATUS, (byte) order.getStatus().ordinal());
+    }
+
+    private ByteBuffer encodeKey(String orderId) {
+        ByteBuffer key = keyBuffer.get();
+        key.clear();
+        try {
+            OrderCodec.putId(key, orderId);
+        } catch (BufferOverflowException e) {
+            key = ByteBuffer.allocate(orderId.length() * 4 + 8);
+            OrderCodec.putId(key, orderId);
+        }
+        key.flip();
+        return key;
+    }
+
+    private static boolean idEquals(ByteBuffer slab, int offset, ByteBuffer key) {
+        int from = offset + OrderView.ID;
+        int length = key.remaining();
+        if (from + length > slab.capacity()) {
+            return false;
+        }
+        return slab.slice(from, length).equals(key);
+    }
+
+    private static int hash(String orderId) {
+        int h = orderId.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private static int slabOf(long address) {
+        return (int) (address >>> 32);
+    }
+
+    private static int offsetOf(long address) {
+        return (int) address;
+    }
+}
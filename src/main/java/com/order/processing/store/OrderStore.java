@@ -0,0 +1,64 @@
+package com.order.processing.store;
+
+import com.order.processing.model.Order;
+import com.order.processing.state.OrderStatus;
+
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Where OrderService keeps its orders, keyed by order ID.
+ *
+ * Implementations must be safe for concurrent use. Iteration is weakly
+ * consistent, like a ConcurrentHashMap view: it never fails because of
+ * concurrent updates but may or may not reflect them.
+ */
+public interface OrderStore extends Iterable<Order> {
+
+    /**
+     * Look up an order.
+     *
+     * @param orderId The order's ID
+     * @return The order, or null if there is none with that ID
+     */
+    Order get(String orderId);
+
+    /**
+     * Insert an order, or replace the one with the same ID.
+     *
+     * @param order The order to store
+     */
+    void put(Order order);
+
+    /**
+     * Write back an order that has just made a transition, but only if the
+     * stored order is still in the status the transition started from.
+     * Statuses only ever move forward, so that check tells a current instance
+     * from a stale copy that another transition has overtaken.
+     *
+     * @param order The order in its new state
+     * @param expectedStatus The status the transition started from
+     * @return Whether the order was written; false if it is not stored or the
+     *         stored order has moved on
+     */
+    boolean replace(Order order, OrderStatus expectedStatus);
+
+    /**
+     * Number of orders stored.
+     */
+    int size();
+
+    /**
+     * Sequential stream over every order.
+     */
+    default Stream<Order> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    /**
+     * Stop any background work and release resources. The store should not be
+     * used afterwards.
+     */
+    default void close() {
+    }
+}
@@ -0,0 +1,128 @@
+package com.order.processing.store;
+
+import com.order.processing.codec.OrderCodec;
+import com.order.processing.codec.ProductDictionary;
+import com.order.processing.codec.Varints;
+import com.order.processing.model.Order;
+import com.order.processing.model.OrderItem;
+import com.order.processing.state.OrderStates;
+import com.order.processing.state.OrderStatus;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Flyweight over one order record in an {@link OffHeapOrderStore} slab.
+ *
+ * Reads fields straight from off-heap memory without building an Order. A view
+ * can be repositioned onto another record, so one instance can walk a whole
+ * store without allocating. Status and last-modified time are read afresh on
+ * each call and reflect concurrent updates.
+ *
+ * Record layout (offsets from the record start):
+ * <pre>
+ *   0   int   record length
+ *   4   byte  status ordinal
+ *   5   byte  total amount scale
+ *   8   long  createdAt epoch seconds (UTC)
+ *   16  long  lastModifiedAt epoch seconds (UTC)
+ *   24  int   createdAt nano-of-second
+ *   28  int   lastModifiedAt nano-of-second
+ *   32  long  total amount unscaled value
+ *   40  ...   id as written by {@link OrderCodec#putId}
+ *   ...       varint item count, then per item: varint product code,
+ *             varint quantity, zigzag price unscaled value, byte price scale
+ * </pre>
+ */
+public final class OrderView {
+
+    static final int LENGTH = 0;
+    static final int STATUS = 4;
+    static final int TOTAL_SCALE = 5;
+    static final int CREATED_SECONDS = 8;
+    static final int MODIFIED_SECONDS = 16;
+    static final int CREATED_NANOS = 24;
+    static final int MODIFIED_NANOS = 28;
+    static final int TOTAL_UNSCALED = 32;
+    static final int ID = 40;
+
+    private static final OrderStatus[] STATUSES = OrderStatus.values();
+
+    private final ProductDictionary dictionary;
+    private ByteBuffer slab;
+    private int offset;
+
+    OrderView(ProductDictionary dictionary) {
+        this.dictionary = dictionary;
+    }
+
+    void moveTo(ByteBuffer slab, int offset) {
+        this.slab = slab;
+        this.offset = offset;
+    }
+
+    public String getId() {
+        return OrderCodec.getId(slab.duplicate().position(offset + ID));
+    }
+
+    public OrderStatus getStatus() {
+        return STATUSES[slab.get(offset + STATUS)];
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return LocalDateTime.ofEpochSecond(slab.getLong(offset + CREATED_SECONDS),
+            slab.getInt(offset + CREATED_NANOS), ZoneOffset.UTC);
+    }
+
+    public LocalDateTime getLastModifiedAt() {
+        return LocalDateTime.ofEpochSecond(slab.getLong(offset + MODIFIED_SECONDS),
+            slab.getInt(offset + MODIFIED_NANOS), ZoneOffset.UTC);
+    }
+
+    public BigDecimal getTotalAmount() {
+        return BigDecimal.valueOf(slab.getLong(offset + TOTAL_UNSCALED), slab.get(offset + TOTAL_SCALE));
+    }
+
+    public int getItemCount() {
+        return Varints.getVarInt(itemsStart());
+    }
+
+    /**
+     * Build a detached Order holding the record's current contents.
+     */
+    public Order toOrder() {
+        ByteBuffer buf = slab.duplicate().position(offset + ID);
+        String id = OrderCodec.getId(buf);
+        int count = Varints.getVarInt(buf);
+        List<OrderItem> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String productId = dictionary.productOf(Varints.getVarInt(buf));
+            int quantity = Varints.getVarInt(buf);
+            long unscaled = Varints.getSignedVarLong(buf);
+            int scale = buf.get();
+            items.add(new OrderItem(productId, quantity, BigDecimal.valueOf(unscaled, scale)));
+        }
+        return new Order(id, items, OrderStates.forStatus(getStatus()), getCreatedAt(), getLastModifiedAt());
+    }
+
+    private ByteBuffer itemsStart() {
+        ByteBuffer buf = slab.duplicate().position(offset + ID);
+        // Skip the id without materializing it
+        if (buf.get() == 0) {
+            buf.position(buf.position() + 16);
+        } else {
+            int length = Varints.getVarInt(buf);
+            buf.position(buf.position() + length);
+        }
+        return buf;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("OrderView[%s, %s]", getId(), getStatus());
+    }
+}
@@ -0,0 +1,383 @@
+package com.order.processing.store;
+
+import com.order.processing.codec.OrderCodec;
+import com.order.processing.codec.ProductDictionary;
+import com.order.processing.model.Order;
+import com.order.processing.state.OrderStatus;
+import com.order.processing.util.DebugLogger;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Two-tier store: live orders stay on the heap, terminal ones move to a
+ * compressed off-heap tier once they are old enough.
+ *
+ * DELIVERED and CANCELLED orders can never change again. When one has not been
+ * modified for the configured age, {@link #demote()} encodes it with
+ * {@link OrderCodec}, packs it with its neighbours into a deflated block in a
+ * direct-buffer slab and drops the heap object. All that stays on the heap per
+ * cold order is its ID and a packed block/offset locator.
+ *
+ * {@link #get} faults a cold order back in by inflating its block and decoding
+ * it. The result is a fresh, detached object each time: it is not re-promoted,
+ * which is safe because a terminal order rejects every transition.
+ *
+ * An order being demoted is written to the cold tier before it leaves the hot
+ * one, so lookups never miss it; a concurrent iteration may see it twice.
+ */
+public class TieredOrderStore implements OrderStore {
+
+    /** Uncompressed bytes gathered before a block is sealed. */
+    static final int BLOCK_TARGET_SIZE = 4 * 1024;
+    static final int SLAB_SIZE = 8 * 1024 * 1024;
+
+    private static final int RAW_BUFFER_SIZE = 32 * 1024;
+
+    /**
+     * One sealed block: a deflated run of encoded orders inside a slab.
+     */
+    private static final class Block {
+        final ByteBuffer compressed;
+        final int rawLength;
+        final int count;
+
+        Block(ByteBuffer compressed, int rawLength, int count) {
+            this.compressed = compressed;
+            this.rawLength = rawLength;
+            this.count = count;
+        }
+    }
+
+    /**
+     * Last block a thread inflated; consecutive reads often hit the same one.
+     */
+    private static final class InflatedBlock {
+        final Inflater inflater = new Inflater();
+        int index = -1;
+        byte[] raw = new byte[0];
+    }
+
+    private final Map<String, Order> hot = new ConcurrentHashMap<>();
+    private final Map<String, Long> coldIndex = new ConcurrentHashMap<>();
+    private final Duration demoteAfter;
+    private final OrderCodec codec = new OrderCodec(new ProductDictionary());
+    private final ThreadLocal<InflatedBlock> lastInflated = ThreadLocal.withInitial(InflatedBlock::new);
+
+    // Written only by the demoting thread (under this), read lock-free
+    private volatile Block[] blocks = new Block[64];
+    private volatile int blockCount;
+    private ByteBuffer slab;
+    private long slabBytes;
+    private long compressedBytes;
+    private long rawBytes;
+
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * @param demoteAfter How long a terminal order must go unmodified before it is demoted
+     */
+    public TieredOrderStore(Duration demoteAfter) {
+        if (demoteAfter.isNegative()) {
+            throw new IllegalArgumentException("Demotion age must not be negative: " + demoteAfter);
+        }
+        this.demoteAfter = demoteAfter;
+    }
+
+    @Override
+    public Order get(String orderId) {
+        Order order = hot.get(orderId);
+        if (order != null) {
+            return order;
+        }
+        Long locator = coldIndex.get(orderId);
+        return locator != null ? faultIn(locator) : null;
+    }
+
+    @Override
+    public void put(Order order) {
+        hot.put(order.getId(), order);
+    }
+
+    /**
+     * Only hot orders can be replaced: a cold one is terminal, so no
+     * transition can start from it.
+     */
+    @Override
+    public boolean replace(Order order, OrderStatus expectedStatus) {
+        Order stored = hot.get(order.getId());
+        if (stored == order) {
+            // The stored instance itself transitioned; its own CAS already decided the race
+            return true;
+        }
+        return stored != null && stored.getStatus() == expectedStatus
+            && hot.replace(order.getId(), stored, order);
+    }
+
+    @Override
+    public int size() {
+        return hot.size() + coldIndex.size();
+    }
+
+    /**
+     * Number of orders in the cold tier.
+     */
+    public int coldSize() {
+        return coldIndex.size();
+    }
+
+    /**
+     * Bytes of off-heap memory the cold tier occupies.
+     */
+    public synchronized long offHeapBytes() {
+        return slabBytes;
+    }
+
+    /**
+     * Move every eligible terminal order to the cold tier.
+     *
+     * @return Number of orders demoted
+     */
+    public synchronized int demote() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(demoteAfter);
+        ByteBuffer raw = ByteBuffer.allocate(RAW_BUFFER_SIZE);
+        List<Order> pending = new ArrayList<>();
+        List<Integer> offsets = new ArrayList<>();
+        int demoted = 0;
+
+        for (Order order : hot.values()) {
+            OrderStatus status = order.getStatus();
+            if ((status != OrderStatus.DELIVERED && status != OrderStatus.CANCELLED)
+                    || order.getLastModifiedAt().isAfter(cutoff)) {
+                continue;
+            }
+            int offset = raw.position();
+            try {
+                codec.encode(order, raw);
+            } catch (BufferOverflowException e) {
+                raw.position(offset);
+                demoted += seal(raw, pending, offsets);
+                try {
+                    codec.encode(order, raw);
+                } catch (BufferOverflowException tooBig) {
+                    // Larger than a block: leave it on the heap
+                    raw.clear();
+                    continue;
+                }
+                offset = 0;
+            }
+            pending.add(order);
+            offsets.add(offset);
+            if (raw.position() >= BLOCK_TARGET_SIZE) {
+                demoted += seal(raw, pending, offsets);
+            }
+        }
+        demoted += seal(raw, pending, offsets);
+
+        if (demoted > 0) {
+            DebugLogger.log(DebugLogger.Category.STORE, "TieredOrderStore",
+                String.format("Demoted %d order(s); cold tier holds %d in %d block(s), %d -> %d bytes",
+                    demoted, coldIndex.size(), blockCount, rawBytes, compressedBytes));
+        }
+        return demoted;
+    }
+
+    /**
+     * Run {@link #demote()} periodically on a background thread until {@link #close()}.
+     */
+    public synchronized void startDemotion(long period, TimeUnit unit) {
+        if (scheduler != null) {
+            throw new IllegalStateException("Demotion already started");
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "order-demotion");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                demote();
+            } catch (RuntimeException e) {
+                DebugLogger.log(DebugLogger.Category.ERROR, "TieredOrderStore",
+                    "Demotion failed: " + e.getMessage());
+            }
+        }, period, period, unit);
+    }
+
+    @Override
+    public void close() {
+        ScheduledExecutorService running;
+        synchronized (this) {
+            running = scheduler;
+            scheduler = null;
+        }
+        if (running != null) {
+            running.shutdownNow();
+        }
+    }
+
+    @Override
+    public Iterator<Order> iterator() {
+        Iterator<Order> hotOrders = hot.values().iterator();
+        int sealedBlocks = blockCount;
+        return new Iterator<>() {
+            private final Inflater inflater = lastInflated.get().inflater;
+            private int block = -1;
+            private ByteBuffer decoded;
+            private int remaining;
+            private Order next;
+
+            @Override
+            public boolean hasNext() {
+                if (next == null) {
+                    next = advance();
+                }
+                return next != null;
+            }
+
+            @Override
+            public Order next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Order result = next;
+                next = null;
+                return result;
+            }
+
+            private Order advance() {
+                if (hotOrders.hasNext()) {
+                    return hotOrders.next();
+                }
+                while (true) {
+                    if (remaining == 0) {
+                        if (++block >= sealedBlocks) {
+                            return null;
+                        }
+                        Block sealed = blocks[block];
+                        decoded = ByteBuffer.wrap(inflate(sealed, inflater));
+                        remaining = sealed.count;
+                    }
+                    remaining--;
+                    long locator = (long) block << 32 | decoded.position();
+                    Order order = codec.decode(decoded);
+                    // Skip copies still on the heap mid-demotion (the hot pass returned
+                    // them) and stale copies superseded by a later demotion
+                    Long current = coldIndex.get(order.getId());
+                    if (!hot.containsKey(order.getId()) && current != null && current == locator) {
+                        return order;
+                    }
+                }
+            }
+        };
+    }
+
+    /**
+     * Compress the pending orders into a block, publish it, then drop the
+     * orders from the hot tier. Resets the buffer and lists.
+     *
+     * @return Number of orders moved
+     */
+    private int seal(ByteBuffer raw, List<Order> pending, List<Integer> offsets) {
+        if (pending.isEmpty()) {
+            raw.clear();
+            return 0;
+        }
+        int rawLength = raw.position();
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        byte[] out = new byte[rawLength + rawLength / 64 + 64];
+        int compressedLength = 0;
+        try {
+            deflater.setInput(raw.array(), 0, rawLength);
+            deflater.finish();
+            while (!deflater.finished()) {
+                if (compressedLength == out.length) {
+                    out = Arrays.copyOf(out, out.length * 2);
+                }
+                compressedLength += deflater.deflate(out, compressedLength, out.length - compressedLength);
+            }
+        } finally {
+            deflater.end();
+        }
+
+        if (slab == null || slab.remaining() < compressedLength) {
+            slab = ByteBuffer.allocateDirect(Math.max(SLAB_SIZE, compressedLength));
+            slabBytes += slab.capacity();
+        }
+        ByteBuffer region = slab.slice(slab.position(), compressedLength);
+        slab.put(out, 0, compressedLength);
+
+        int index = blockCount;
+        Block[] current = blocks;
+        if (index == current.length) {
+            current = Arrays.copyOf(current, current.length * 2);
+        }
+        current[index] = new Block(region, rawLength, pending.size());
+        blocks = current;
+        blockCount = index + 1;
+
+        for (int i = 0; i < pending.size(); i++) {
+            Order order = pending.get(i);
+            coldIndex.put(order.getId(), (long) index << 32 | offsets.get(i));
+            hot.remove(order.getId(), order);
+        }
+        rawBytes += rawLength;
+        compressedBytes += compressedLength;
+
+        int moved = pending.size();
+        pending.clear();
+        offsets.clear();
+        raw.clear();
+        return moved;
+    }
+
+    private Order faultIn(long locator) {
+        int index = (int) (locator >>> 32);
+        int offset = (int) locator;
+        InflatedBlock cached = lastInflated.get();
+        if (cached.index != index) {
+            cached.raw = inflate(blocks[index], cached.inflater);
+            cached.index = index;
+        }
+        ByteBuffer buf = ByteBuffer.wrap(cached.raw);
+        buf.position(offset);
+        return codec.decode(buf);
+    }
+
+    private static byte[] inflate(Block block, Inflater inflater) {
+        byte[] raw = new byte[block.rawLength];
+        inflater.reset();
+        try {
+            inflater.setInput(block.compressed.duplicate());
+            int read = 0;
+            while (read < raw.length) {
+                int n = inflater.inflate(raw, read, raw.length - read);
+                if (n == 0 && (inflater.finished() || inflater.needsInput())) {
+                    break;
+                }
+                read += n;
+            }
+            if (read != raw.length) {
+                throw new IllegalStateException("Cold block truncated: " + read + " of " + raw.length + " bytes");
+            }
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupt cold block", e);
+        }
+        return raw;
+    }
+}
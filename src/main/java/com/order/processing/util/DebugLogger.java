@@ -18,12 +18,17 @@ public class DebugLogger {
     private static final String CYAN = "\u001B[36m";
     private static final String WHITE = "\u001B[37m";
     
+    // Disable with -Dorder.debug=false (e.g. for benchmarks and bulk loads)
+    private static volatile boolean enabled = !"false".equalsIgnoreCase(System.getProperty("order.debug"));
+    
     public enum Category {
         STATE(CYAN, "STATE"),
         FACTORY(MAGENTA, "FACTORY"),
         OBSERVER(YELLOW, "OBSERVER"),
         SERVICE(BLUE, "SERVICE"),
         MODEL(GREEN, "MODEL"),
+        PERSISTENCE(BLUE, "PERSISTENCE"),
+        STORE(MAGENTA, "STORE"),
         MAIN(WHITE, "MAIN"),
         ERROR(RED, "ERROR");
         
@@ -36,7 +41,18 @@ public class DebugLogger {
         }
     }
     
+    public static boolean isEnabled() {
+        return enabled;
+    }
+    
+    public static void setEnabled(boolean enabled) {
+        DebugLogger.enabled = enabled;
+    }
+    
     public static void log(Category category, String component, String message) {
+        if (!enabled) {
+            return;
+        }
         String timestamp = LocalDateTime.now().format(TIME_FORMATTER);
         System.out.println(String.format(
             "%s[%s] [%s] [%s]%s %s",
@@ -74,10 +90,16 @@ public class DebugLogger {
     }
     
     public static void separator() {
+        if (!enabled) {
+            return;
+        }
         System.out.println(CYAN + "═".repeat(100) + RESET);
     }
     
     public static void section(String title) {
+        if (!enabled) {
+            return;
+        }
         System.out.println();
         separator();
         System.out.println(YELLOW + "║ " + title);
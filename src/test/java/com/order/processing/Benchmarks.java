@@ -0,0 +1,186 @@
+package com.order.processing;
+
+import com.order.processing.model.OrderItem;
+import com.order.processing.util.DebugLogger;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Shared timing and setup helpers for the hand-run {@code *Benchmark} classes.
+ *
+ * The benchmarks are not part of the unit test run (surefire only picks up
+ * {@code *Test}). Execute one manually after {@code mvn test-compile}:
+ * <pre>
+ *   java -Xmx2g -cp target/classes:target/test-classes com.order.processing.store.OffHeapStoreBenchmark
+ * </pre>
+ * Every benchmark calls {@link #start()} first and takes its sizes as optional
+ * positional arguments.
+ */
+public final class Benchmarks {
+
+    private static final PrintStream CONSOLE = System.out;
+    private static final PrintStream NOWHERE = new PrintStream(OutputStream.nullOutputStream());
+    private static final com.sun.management.ThreadMXBean THREADS =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private Benchmarks() {
+    }
+
+    /**
+     * Turn off debug logging for the run.
+     */
+    public static void start() {
+        DebugLogger.setEnabled(false);
+    }
+
+    /**
+     * Positional int argument, or the default when it is absent.
+     */
+    public static int intArg(String[] args, int index, int defaultValue) {
+        return args.length > index ? Integer.parseInt(args[index]) : defaultValue;
+    }
+
+    /**
+     * Two or three items of the demo catalogue.
+     */
+    public static List<OrderItem> sampleItems(int count) {
+        List<OrderItem> items = Arrays.asList(
+            new OrderItem("LAPTOP-001", 1, new BigDecimal("999.99")),
+            new OrderItem("MOUSE-001", 2, new BigDecimal("29.99")),
+            new OrderItem("KEYBOARD-001", 1, new BigDecimal("79.99"))
+        );
+        return items.subList(0, count);
+    }
+
+    /**
+     * Run a fill or load step with the console silenced. The factory and the
+     * state classes print every order and transition.
+     */
+    public static <T> T quietly(Supplier<T> work) {
+        System.setOut(NOWHERE);
+        try {
+            return work.get();
+        } finally {
+            System.setOut(CONSOLE);
+        }
+    }
+
+    public static void quietly(Runnable work) {
+        quietly(() -> {
+            work.run();
+            return null;
+        });
+    }
+
+    /**
+     * Best wall time of several rounds, in nanoseconds.
+     */
+    public static long bestOf(int rounds, Runnable work) {
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < rounds; round++) {
+            long start = System.nanoTime();
+            work.run();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+
+    /**
+     * Bytes the calling thread allocates while running the work once.
+     */
+    public static long allocatedBy(Runnable work) {
+        long before = THREADS.getCurrentThreadAllocatedBytes();
+        work.run();
+        return THREADS.getCurrentThreadAllocatedBytes() - before;
+    }
+
+    /**
+     * Run the work on several fresh threads at once and return the wall time
+     * until the last one finishes, in nanoseconds.
+     */
+    public static long onThreads(int threads, Runnable work) throws InterruptedException {
+        Thread[] workers = new Thread[threads];
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(work);
+            workers[t].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * Percentile of latency samples; sorts them in place.
+     */
+    public static long percentile(long[] samples, int percent) {
+        Arrays.sort(samples);
+        return samples[Math.min(samples.length - 1, samples.length * percent / 100)];
+    }
+
+    public static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    /**
+     * Operations per second for a count done in the given nanoseconds.
+     */
+    public static double perSecond(long count, long nanos) {
+        return count / (nanos / 1e9);
+    }
+
+    public static long usedHeapAfterGc() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Milliseconds one explicit full GC takes, as reported by the collectors.
+     */
+    public static long timeFullGc() {
+        long before = gcMillis();
+        System.gc();
+        return gcMillis() - before;
+    }
+
+    private static long gcMillis() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += gc.getCollectionTime();
+        }
+        return total;
+    }
+
+    /**
+     * Delete a temporary file or directory tree, ignoring failures.
+     */
+    public static void deleteQuietly(Path path) {
+        try (Stream<Path> walk = Files.walk(path)) {
+            walk.sorted(Comparator.reverseOrder()).forEach(p -> {
+                try {
+                    Files.deleteIfExists(p);
+                } catch (IOException e) {
+                    // ignore
+                }
+            });
+        } catch (IOException e) {
+            // ignore
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.order.processing.archive;
+
+import com.order.processing.Benchmarks;
+import com.order.processing.model.Order;
+import com.order.processing.model.OrderItem;
+import com.order.processing.state.OrderStates;
+import com.order.processing.state.OrderStatus;
+import com.order.processing.store.HeapOrderStore;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * "Revenue of DELIVERED orders last week" over a month of orders: a walk over
+ * the Order objects against a columnar archive scan.
+ *
+ * Run by hand, see {@link Benchmarks}. Optional arg: order count.
+ */
+public class ArchiveScanBenchmark {
+
+    private static final int ROUNDS = 10;
+
+    public static void main(String[] args) throws Exception {
+        Benchmarks.start();
+        int orders = Benchmarks.intArg(args, 0, 1_000_000);
+        List<OrderItem> items = Benchmarks.sampleItems(3);
+        LocalDateTime start = LocalDateTime.now().minusDays(30);
+        long stepNanos = 30L * 24 * 3600 * 1_000_000_000L / orders;
+        HeapOrderStore store = new HeapOrderStore();
+        List<Order> byCreation = new ArrayList<>(orders);
+        for (int i = 0; i < orders; i++) {
+            LocalDateTime created = start.plusNanos(i * stepNanos);
+            Order order = new Order(UUID.randomUUID().toString(), items,
+                                    i % 10 == 0 ? OrderStates.CANCELLED : OrderStates.DELIVERED,
+                                    created, created.plusHours(20));
+            store.put(order);
+            byCreation.add(order);
+        }
+        LocalDateTime to = LocalDateTime.now();
+        LocalDateTime from = to.minusDays(7);
+
+        Path file = Files.createTempFile("orders", ".ocol");
+        try {
+            // Archived in creation order, as a periodic export would, so block time ranges barely overlap
+            long writeNanos = Benchmarks.bestOf(1, () -> new ColumnarArchiveWriter().write(file, byCreation));
+
+            BigDecimal[] walkRevenue = new BigDecimal[1];
+            long walk = Benchmarks.bestOf(ROUNDS, () -> walkRevenue[0] = store.stream()
+                .filter(o -> o.getStatus() == OrderStatus.DELIVERED)
+                .filter(o -> !o.getLastModifiedAt().isBefore(from) && o.getLastModifiedAt().isBefore(to))
+                .map(Order::getTotalAmount)
+                .reduce(BigDecimal.ZERO, BigDecimal::add));
+
+            try (ColumnarArchive archive = new ColumnarArchive(file)) {
+                ColumnarArchive.ScanResult[] result = new ColumnarArchive.ScanResult[1];
+                long scan = Benchmarks.bestOf(ROUNDS, () -> result[0] = archive.revenue(
+                    OrderStatus.DELIVERED, ColumnarArchive.TimeColumn.LAST_MODIFIED_AT, from, to));
+
+                System.out.println(String.format("%,d orders over 30 days, %d block(s), %,d MB archive (written in %,.0f ms)",
+                    orders, archive.getBlockCount(), Files.size(file) >> 20, Benchmarks.millis(writeNanos)));
+                System.out.println(String.format("  Order walk     : %,8.1f ms  revenue %s",
+                    Benchmarks.millis(walk), walkRevenue[0]));
+                System.out.println(String.format("  columnar scan  : %,8.1f ms  revenue %s (%d block(s) skipped)  (%.0fx)",
+                    Benchmarks.millis(scan), result[0].getRevenue(), result[0].getBlocksSkipped(), walk / (double) scan));
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.order.processing.archive;
+
+import com.order.processing.model.Order;
+import com.order.processing.model.OrderItem;
+import com.order.processing.state.OrderStates;
+import com.order.processing.state.OrderStatus;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnarArchiveTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 3, 1, 0, 0);
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void write_ShouldRoundTripTerminalOrdersOnly() {
+        // Arrange
+        List<Order> orders = orders(500);
+        Path file = tempDir.resolve("orders.ocol");
+
+        // Act
+        long written = new ColumnarArchiveWriter(64).write(file, orders);
+        List<Order> read = new ArrayList<>();
+        try (ColumnarArchive archive = new ColumnarArchive(file)) {
+            archive.forEach(read::add);
+
+            // Assert
+            assertEquals(terminal(orders).size(), written);
+            assertEquals(written, archive.getOrderCount());
+            assertTrue(archive.getBlockCount() > 1);
+        }
+        List<Order> expected = terminal(orders);
+        assertEquals(expected.size(), read.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Order original = expected.get(i);
+            Order restored = read.get(i);
+            assertEquals(original.getId(), restored.getId());
+            assertEquals(original.getStatus(), restored.getStatus());
+            assertEquals(original.getItems(), restored.getItems());
+            assertEquals(original.getCreatedAt(), restored.getCreatedAt());
+            assertEquals(original.getLastModifiedAt(), restored.getLastModifiedAt());
+            assertEquals(original.getTotalAmount(), restored.getTotalAmount());
+        }
+    }
+
+    @Test
+    void revenue_ShouldMatchFullWalkAndSkipBlocksOutsideRange() {
+        // Arrange
+        List<Order> orders = orders(2_000);
+        Path file = tempDir.resolve("orders.ocol");
+        new ColumnarArchiveWriter(100).write(file, orders);
+        LocalDateTime from = START.plusDays(3);
+        LocalDateTime to = START.plusDays(10);
+        BigDecimal expected = BigDecimal.ZERO;
+        long expectedCount = 0;
+        for (Order order : orders) {
+            LocalDateTime modified = order.getLastModifiedAt();
+            if (order.getStatus() == OrderStatus.DELIVERED && !modified.isBefore(from) && modified.isBefore(to)) {
+                expected = expected.add(order.getTotalAmount());
+                expectedCount++;
+            }
+        }
+
+        // Act
+        ColumnarArchive.ScanResult result;
+        try (ColumnarArchive archive = new ColumnarArchive(file)) {
+            result = archive.revenue(OrderStatus.DELIVERED, ColumnarArchive.TimeColumn.LAST_MODIFIED_AT, from, to);
+        }
+
+        // Assert
+        assertEquals(expectedCount, result.getOrders());
+        assertEquals(0, expected.compareTo(result.getRevenue()));
+        assertTrue(result.getBlocksSkipped() > 0);
+        assertTrue(result.getBlocksScanned() > 0);
+    }
+
+    @Test
+    void aggregations_ShouldReadStatusAndItemColumns() {
+        // Arrange
+        List<Order> orders = orders(300);
+        Path file = tempDir.resolve("orders.ocol");
+        new ColumnarArchiveWriter(50).write(file, orders);
+        long delivered = orders.stream().filter(o -> o.getStatus() == OrderStatus.DELIVERED).count();
+        long cancelled = orders.stream().filter(o -> o.getStatus() == OrderStatus.CANCELLED).count();
+        long laptops = terminal(orders).stream()
+            .flatMap(o -> o.getItems().stream())
+            .filter(item -> item.getProductId().equals("LAPTOP-001"))
+            .mapToLong(OrderItem::getQuantity)
+            .sum();
+
+        // Act
+        Map<OrderStatus, Long> counts;
+        Map<String, Long> quantities;
+        try (ColumnarArchive archive = new ColumnarArchive(file)) {
+            counts = archive.countByStatus();
+            quantities = archive.quantityByProduct();
+        }
+
+        // Assert
+        assertEquals(delivered, counts.get(OrderStatus.DELIVERED));
+        assertEquals(cancelled, counts.get(OrderStatus.CANCELLED));
+        assertEquals(0L, counts.get(OrderStatus.PENDING));
+        assertEquals(laptops, quantities.get("LAPTOP-001"));
+    }
+
+    @Test
+    void open_CorruptFooter_ShouldThrow() throws Exception {
+        // Arrange
+        Path file = tempDir.resolve("orders.ocol");
+        new ColumnarArchiveWriter(50).write(file, orders(100));
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length - ColumnarArchive.TRAILER_SIZE - 1] ^= 0x55;
+        Files.write(file, bytes);
+
+        // Act & Assert
+        assertThrows(UncheckedIOException.class, () -> new ColumnarArchive(file));
+    }
+
+    private static List<Order> orders(int count) {
+        List<Order> orders = new ArrayList<>();
+        OrderStatus[] statuses = { OrderStatus.DELIVERED, OrderStatus.CANCELLED, OrderStatus.DELIVERED, OrderStatus.SHIPPED };
+        for (int i = 0; i < count; i++) {
+            List<OrderItem> items = Arrays.asList(
+                new OrderItem("LAPTOP-001", 1 + i % 3, new BigDecimal("999.99")),
+                new OrderItem("CABLE-" + (i % 7), 2, new BigDecimal("4.5"))
+            );
+            // Created in time order, so blocks cover disjoint time ranges
+            LocalDateTime created = START.plusMinutes(i * 10L).plusNanos(i);
+            String id = i % 5 == 0 ? "legacy-" + i : UUID.randomUUID().toString();
+            orders.add(new Order(id, items, OrderStates.forStatus(statuses[i % statuses.length]),
+                                 created, created.plusHours(6)));
+        }
+        return orders;
+    }
+
+    private static List<Order> terminal(List<Order> orders) {
+        List<Order> terminal = new ArrayList<>();
+        for (Order order : orders) {
+            if (order.getStatus() == OrderStatus.DELIVERED || order.getStatus() == OrderStatus.CANCELLED) {
+                terminal.add(order);
+            }
+        }
+        return terminal;
+    }
+}
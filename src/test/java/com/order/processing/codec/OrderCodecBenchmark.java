@@ -0,0 +1,128 @@
+package com.order.processing.codec;
+
+import com.order.processing.Benchmarks;
+import com.order.processing.model.Order;
+import com.order.processing.model.OrderItem;
+import com.order.processing.state.OrderStates;
+import com.order.processing.state.OrderStatus;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Encode/decode throughput of {@link OrderCodec} against Java serialization of
+ * an equivalent Serializable object graph (Order and OrderItem are not Serializable).
+ *
+ * Run by hand, see {@link Benchmarks}. Optional arg: order count.
+ */
+public class OrderCodecBenchmark {
+
+    private static final int ROUNDS = 20;
+
+    public static void main(String[] args) {
+        Benchmarks.start();
+        int count = Benchmarks.intArg(args, 0, 10_000);
+        List<OrderItem> items = Benchmarks.sampleItems(3);
+        List<Order> orders = new ArrayList<>(count);
+        List<SerializableOrder> graphs = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Order order = new Order(items, OrderStates.PENDING);
+            orders.add(order);
+            graphs.add(SerializableOrder.of(order));
+        }
+
+        OrderCodec codec = new OrderCodec(new ProductDictionary());
+        ByteBuffer buf = ByteBuffer.allocateDirect(count * 128);
+        long codecEncode = Benchmarks.bestOf(ROUNDS, () -> {
+            buf.clear();
+            orders.forEach(order -> codec.encode(order, buf));
+        });
+        long codecBytes = buf.position();
+        long codecDecode = Benchmarks.bestOf(ROUNDS, () -> {
+            buf.flip();
+            for (int i = 0; i < count; i++) {
+                codec.decode(buf);
+            }
+            buf.position(buf.limit());
+        });
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(count * 512);
+        long javaEncode = Benchmarks.bestOf(ROUNDS, () -> {
+            bytes.reset();
+            try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+                for (SerializableOrder graph : graphs) {
+                    out.writeUnshared(graph);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        byte[] serialized = bytes.toByteArray();
+        long javaDecode = Benchmarks.bestOf(ROUNDS, () -> {
+            try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(serialized))) {
+                for (int i = 0; i < count; i++) {
+                    in.readUnshared();
+                }
+            } catch (IOException | ClassNotFoundException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        System.out.println(String.format("%,d orders x 3 items, best of %d rounds", count, ROUNDS));
+        report("OrderCodec", count, codecBytes, codecEncode, codecDecode);
+        report("Java serialization", count, serialized.length, javaEncode, javaDecode);
+    }
+
+    private static void report(String label, int count, long bytes, long encodeNanos, long decodeNanos) {
+        System.out.println(String.format("  %-20s %6.1f bytes/order  encode %,12.0f orders/s  decode %,12.0f orders/s",
+            label, bytes / (double) count,
+            Benchmarks.perSecond(count, encodeNanos), Benchmarks.perSecond(count, decodeNanos)));
+    }
+
+    private static final class SerializableItem implements Serializable {
+        private static final long serialVersionUID = 1L;
+        String productId;
+        int quantity;
+        BigDecimal pricePerUnit;
+        BigDecimal totalPrice;
+    }
+
+    private static final class SerializableOrder implements Serializable {
+        private static final long serialVersionUID = 1L;
+        String id;
+        OrderStatus status;
+        LocalDateTime createdAt;
+        LocalDateTime lastModifiedAt;
+        BigDecimal totalAmount;
+        ArrayList<SerializableItem> items;
+
+        static SerializableOrder of(Order order) {
+            SerializableOrder graph = new SerializableOrder();
+            graph.id = order.getId();
+            graph.status = order.getStatus();
+            graph.createdAt = order.getCreatedAt();
+            graph.lastModifiedAt = order.getLastModifiedAt();
+            graph.totalAmount = order.getTotalAmount();
+            graph.items = new ArrayList<>();
+            for (OrderItem item : order.getItems()) {
+                SerializableItem copy = new SerializableItem();
+                copy.productId = item.getProductId();
+                copy.quantity = item.getQuantity();
+                copy.pricePerUnit = item.getPricePerUnit();
+                copy.totalPrice = item.getTotalPrice();
+                graph.items.add(copy);
+            }
+            return graph;
+        }
+    }
+}
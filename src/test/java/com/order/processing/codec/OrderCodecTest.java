@@ -0,0 +1,176 @@
+package com.order.processing.codec;
+
+import com.order.processing.model.Order;
+import com.order.processing.model.OrderItem;
+import com.order.processing.state.OrderStates;
+import com.order.processing.state.OrderStatus;
+import com.order.processing.state.PendingState;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderCodecTest {
+
+    private ProductDictionary dictionary;
+    private OrderCodec codec;
+    private List<OrderItem> items;
+
+    @BeforeEach
+    void setUp() {
+        dictionary = new ProductDictionary();
+        codec = new OrderCodec(dictionary);
+        items = Arrays.asList(
+            new OrderItem("LAPTOP-001", 1, new BigDecimal("999.99")),
+            new OrderItem("MOUSE-001", 3, new BigDecimal("29.9900")),
+            new OrderItem("CABLE-001", 12, new BigDecimal("5"))
+        );
+    }
+
+    @Test
+    void roundTrip_NewOrder_ShouldPreserveAllFields() {
+        // Arrange
+        Order order = new Order(items, new PendingState());
+
+        // Act
+        Order decoded = roundTrip(order);
+
+        // Assert
+        assertOrderEquals(order, decoded);
+    }
+
+    @ParameterizedTest
+    @EnumSource(OrderStatus.class)
+    void roundTrip_EveryStatus_ShouldPreserveStatus(OrderStatus status) {
+        // Arrange
+        LocalDateTime created = LocalDateTime.of(2024, 3, 1, 12, 30, 15, 123_456_789);
+        Order order = new Order("8f14e45f-ceea-467f-a0e6-1c5e0f8d1e3b", items,
+            OrderStates.forStatus(status), created, created.plusHours(5).withNano(7));
+
+        // Act
+        Order decoded = roundTrip(order);
+
+        // Assert
+        assertOrderEquals(order, decoded);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"ORDER-42", "8F14E45F-CEEA-467F-A0E6-1C5E0F8D1E3B", "bestellung-ä"})
+    void roundTrip_NonCanonicalIds_ShouldBeKeptVerbatim(String id) {
+        // Arrange
+        LocalDateTime created = LocalDateTime.of(1969, 12, 31, 23, 59, 59);
+        Order order = new Order(id, items, new PendingState(), created, created);
+
+        // Act
+        Order decoded = roundTrip(order);
+
+        // Assert
+        assertOrderEquals(order, decoded);
+    }
+
+    @Test
+    void encode_RepeatedProducts_ShouldShareDictionaryCodes() {
+        // Arrange
+        Order first = new Order(items, new PendingState());
+        Order second = new Order(items, new PendingState());
+        ByteBuffer buf = ByteBuffer.allocate(1024);
+
+        // Act
+        codec.encode(first, buf);
+        int firstSize = buf.position();
+        codec.encode(second, buf);
+
+        // Assert
+        assertEquals(3, dictionary.size());
+        assertEquals(firstSize * 2, buf.position());
+        assertTrue(firstSize < 80, "encoded size was " + firstSize);
+    }
+
+    @Test
+    void decode_UnknownVersion_ShouldThrow() {
+        // Arrange
+        ByteBuffer buf = ByteBuffer.allocate(1024);
+        codec.encode(new Order(items, new PendingState()), buf);
+        buf.put(0, (byte) 99).flip();
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> codec.decode(buf));
+    }
+
+    @Test
+    void copyWithState_ShouldReplaceOnlyStatusAndModifiedTime() {
+        // Arrange
+        LocalDateTime created = LocalDateTime.of(2024, 3, 1, 12, 30, 15, 123_456_789);
+        LocalDateTime delivered = created.plusDays(2).withNano(42);
+        Order order = new Order("legacy-order-17", items, OrderStates.PENDING, created, created);
+        ByteBuffer src = ByteBuffer.allocate(1024);
+        codec.encode(order, src);
+        src.flip();
+        ByteBuffer dst = ByteBuffer.allocate(1024);
+
+        // Act
+        OrderCodec.copyWithState(src, dst, OrderStatus.DELIVERED,
+            delivered.toEpochSecond(ZoneOffset.UTC), delivered.getNano());
+        dst.flip();
+        Order copied = codec.decode(dst);
+
+        // Assert
+        assertFalse(src.hasRemaining());
+        assertFalse(dst.hasRemaining());
+        assertEquals(order.getId(), copied.getId());
+        assertEquals(OrderStatus.DELIVERED, copied.getStatus());
+        assertEquals(created, copied.getCreatedAt());
+        assertEquals(delivered, copied.getLastModifiedAt());
+        assertEquals(order.getItems(), copied.getItems());
+    }
+
+    @Test
+    void varints_ShouldRoundTripBoundaryValues() {
+        // Arrange
+        long[] values = {0, 1, -1, 63, -64, 127, 128, Integer.MAX_VALUE, Integer.MIN_VALUE,
+                         Long.MAX_VALUE, Long.MIN_VALUE};
+        ByteBuffer buf = ByteBuffer.allocate(256);
+
+        // Act
+        for (long value : values) {
+            Varints.putSignedVarLong(buf, value);
+            Varints.putVarInt(buf, (int) value);
+        }
+        buf.flip();
+
+        // Assert
+        for (long value : values) {
+            assertEquals(value, Varints.getSignedVarLong(buf));
+            assertEquals((int) value, Varints.getVarInt(buf));
+        }
+        assertFalse(buf.hasRemaining());
+    }
+
+    private Order roundTrip(Order order) {
+        ByteBuffer buf = ByteBuffer.allocate(1024);
+        codec.encode(order, buf);
+        buf.flip();
+        Order decoded = codec.decode(buf);
+        assertFalse(buf.hasRemaining());
+        return decoded;
+    }
+
+    private static void assertOrderEquals(Order expected, Order actual) {
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getStatus(), actual.getStatus());
+        assertEquals(expected.getCreatedAt(), actual.getCreatedAt());
+        assertEquals(expected.getLastModifiedAt(), actual.getLastModifiedAt());
+        assertEquals(expected.getItems(), actual.getItems());
+        assertEquals(expected.getTotalAmount(), actual.getTotalAmount());
+    }
+}
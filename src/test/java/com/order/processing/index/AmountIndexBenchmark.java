@@ -0,0 +1,62 @@
+package com.order.processing.index;
+
+import com.order.processing.Benchmarks;
+import com.order.processing.factory.StandardOrderFactory;
+import com.order.processing.model.Order;
+import com.order.processing.model.OrderItem;
+import com.order.processing.service.OrderService;
+import com.order.processing.state.OrderStatus;
+
+import java.math.BigDecimal;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * "100 largest PENDING orders" and "orders between $1k and $5k" at 1M orders:
+ * the amount index against scanning and sorting getAllOrders.
+ *
+ * Run by hand, see {@link Benchmarks}. Optional arg: order count.
+ */
+public class AmountIndexBenchmark {
+
+    private static final int ROUNDS = 10;
+
+    public static void main(String[] args) {
+        Benchmarks.start();
+        int orders = Benchmarks.intArg(args, 0, 1_000_000);
+        BigDecimal min = new BigDecimal("1000");
+        BigDecimal max = new BigDecimal("5000");
+
+        OrderService service = Benchmarks.quietly(() -> {
+            OrderService filled = new OrderService(new StandardOrderFactory());
+            for (int i = 0; i < orders; i++) {
+                // Prices spread evenly over $1-$10,000, so about 40% of orders fall in [min, max]
+                BigDecimal price = BigDecimal.valueOf(100 + (i * 7919L) % 1_000_000, 2);
+                Order order = filled.createOrder(List.of(new OrderItem("SKU-" + (i % 100), 1, price)));
+                if (i % 2 == 0) {
+                    order.processOrder();
+                }
+            }
+            return filled;
+        });
+
+        long indexedTop = Benchmarks.bestOf(ROUNDS, () -> service.getLargestOrders(100, OrderStatus.PENDING));
+        long scannedTop = Benchmarks.bestOf(ROUNDS, () -> service.getAllOrders().stream()
+            .filter(order -> order.getStatus() == OrderStatus.PENDING)
+            .sorted(Comparator.comparing(Order::getTotalAmount).reversed())
+            .limit(100)
+            .toList());
+        long indexedRange = Benchmarks.bestOf(ROUNDS, () -> service.getOrdersWithTotalBetween(min, max, null).count());
+        long scannedRange = Benchmarks.bestOf(ROUNDS, () -> service.getAllOrders().stream()
+            .filter(order -> order.getTotalAmount().compareTo(min) >= 0 && order.getTotalAmount().compareTo(max) <= 0)
+            .sorted(Comparator.comparing(Order::getTotalAmount))
+            .toList());
+
+        System.out.println(String.format("%,d orders, %,d between $%s and $%s, best of %d",
+            orders, service.getOrdersWithTotalBetween(min, max, null).count(), min, max, ROUNDS));
+        System.out.println(String.format("  top 100 PENDING  index: %,9.3f ms   scan+sort: %,9.3f ms  (%.0fx)",
+            Benchmarks.millis(indexedTop), Benchmarks.millis(scannedTop), scannedTop / (double) indexedTop));
+        System.out.println(String.format("  $1k-$5k range    index: %,9.3f ms   scan+sort: %,9.3f ms  (%.1fx)",
+            Benchmarks.millis(indexedRange), Benchmarks.millis(scannedRange), scannedRange / (double) indexedRange));
+    }
+}
@@ -0,0 +1,61 @@
+package com.order.processing.index;
+
+import com.order.processing.factory.StandardOrderFactory;
+import com.order.processing.model.Order;
+import com.order.processing.model.OrderItem;
+import com.order.processing.service.OrderService;
+import com.order.processing.state.OrderStatus;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AmountIndexTest {
+
+    @Test
+    void queries_ShouldMergeStatusesAndTreatRangeBoundsInclusively() {
+        // Arrange
+        AmountIndex index = new AmountIndex();
+        index.add("small", new BigDecimal("10.00"), OrderStatus.PENDING);
+        index.add("medium", new BigDecimal("50.00"), OrderStatus.SHIPPED);
+        index.add("large", new BigDecimal("90.00"), OrderStatus.PENDING);
+        index.add("tie", new BigDecimal("50.0"), OrderStatus.PENDING);
+
+        // Act
+        index.move("large", new BigDecimal("90.00"), OrderStatus.PENDING, OrderStatus.PROCESSING);
+
+        // Assert
+        assertEquals(List.of("large", "tie", "medium", "small"), ids(index.descending(null).collect(Collectors.toList())));
+        assertEquals(List.of("tie", "small"), ids(index.descending(OrderStatus.PENDING).collect(Collectors.toList())));
+        assertEquals(List.of("medium", "tie", "large"),
+            ids(index.between(new BigDecimal("50"), new BigDecimal("90"), null).collect(Collectors.toList())));
+        assertEquals(0, index.between(new BigDecimal("91"), new BigDecimal("90"), null).count());
+        assertEquals(1, index.size(OrderStatus.PROCESSING));
+    }
+
+    @Test
+    void getLargestOrders_ShouldFollowStatusAndLimit() {
+        // Arrange
+        OrderService service = new OrderService(new StandardOrderFactory());
+        Order cheap = service.createOrder(List.of(new OrderItem("A", 1, new BigDecimal("5.00"))));
+        Order mid = service.createOrder(List.of(new OrderItem("A", 3, new BigDecimal("5.00"))));
+        Order big = service.createOrder(List.of(new OrderItem("A", 9, new BigDecimal("5.00"))));
+
+        // Act
+        big.processOrder();
+
+        // Assert
+        assertEquals(List.of(mid, cheap), service.getLargestOrders(5, OrderStatus.PENDING));
+        assertEquals(List.of(big, mid), service.getLargestOrders(2, null));
+        assertEquals(List.of(cheap, mid),
+            service.getOrdersWithTotalBetween(new BigDecimal("5"), new BigDecimal("15"), null).collect(Collectors.toList()));
+        assertThrows(IllegalArgumentException.class, () -> service.getLargestOrders(-1, null));
+    }
+
+    private static List<String> ids(List<AmountIndex.Entry> entries) {
+        return entries.stream().map(AmountIndex.Entry::getOrderId).collect(Collectors.toList());
+    }
+}
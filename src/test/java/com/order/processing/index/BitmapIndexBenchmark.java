@@ -0,0 +1,60 @@
+package com.order.processing.index;
+
+import com.order.processing.Benchmarks;
+import com.order.processing.factory.StandardOrderFactory;
+import com.order.processing.model.Order;
+import com.order.processing.model.OrderItem;
+import com.order.processing.service.OrderService;
+import com.order.processing.state.OrderStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * "PENDING orders of product X between $100 and $1,000 created today" at 1M
+ * orders: findOrders over the bitmap index against the chained filter() scan.
+ *
+ * Run by hand, see {@link Benchmarks}. Optional arg: order count.
+ */
+public class BitmapIndexBenchmark {
+
+    private static final int ROUNDS = 10;
+
+    public static void main(String[] args) {
+        Benchmarks.start();
+        int orders = Benchmarks.intArg(args, 0, 1_000_000);
+
+        OrderService service = Benchmarks.quietly(() -> {
+            OrderService filled = new OrderService(new StandardOrderFactory());
+            for (int i = 0; i < orders; i++) {
+                BigDecimal price = BigDecimal.valueOf(100 + (i * 7919L) % 200_000, 2);
+                Order order = filled.createOrder(List.of(new OrderItem("SKU-" + (i % 50), 1, price)));
+                if (i % 4 != 0) {
+                    order.processOrder();
+                }
+            }
+            return filled;
+        });
+        Set<OrderStatus> statuses = Set.of(OrderStatus.PENDING);
+        LocalDate today = LocalDate.now();
+        BigDecimal min = new BigDecimal("100");
+        BigDecimal max = new BigDecimal("1000");
+        String product = "SKU-8";
+
+        long indexed = Benchmarks.bestOf(ROUNDS, () -> service.findOrders(statuses, today, today, min, max, product));
+        long scanned = Benchmarks.bestOf(ROUNDS, () -> service.getAllOrders().stream()
+            .filter(order -> statuses.contains(order.getStatus()))
+            .filter(order -> order.getCreatedAt().toLocalDate().equals(today))
+            .filter(order -> order.getTotalAmount().compareTo(min) >= 0 && order.getTotalAmount().compareTo(max) <= 0)
+            .filter(order -> order.getItems().stream().anyMatch(item -> item.getProductId().equals(product)))
+            .toList());
+
+        System.out.println(String.format("%,d orders, %,d match PENDING + %s + $%s-$%s + today, best of %d",
+            orders, service.findOrders(statuses, today, today, min, max, product).size(), product, min, max, ROUNDS));
+        System.out.println(String.format("  bitmap index : %,9.3f ms", Benchmarks.millis(indexed)));
+        System.out.println(String.format("  filter scan  : %,9.3f ms  (%.0fx)",
+            Benchmarks.millis(scanned), scanned / (double) indexed));
+    }
+}
@@ -0,0 +1,115 @@
+package com.order.processing.index;
+
+import com.order.processing.factory.StandardOrderFactory;
+import com.order.processing.model.Order;
+import com.order.processing.model.OrderItem;
+import com.order.processing.service.OrderService;
+import com.order.processing.state.OrderStates;
+import com.order.processing.state.OrderStatus;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BitmapIndexTest {
+
+    @Test
+    void andOr_ShouldMatchPlainSetsAcrossArrayAndBitsetChunks() {
+        // Arrange
+        SlotBitmap evens = new SlotBitmap();
+        SlotBitmap threes = new SlotBitmap();
+        for (int slot = 0; slot < 200_000; slot++) {
+            if (slot % 2 == 0) {
+                evens.add(slot);
+            }
+            if (slot % 3 == 0 && slot < 70_000) {
+                threes.add(slot);
+            }
+        }
+        SlotBitmap sparse = SlotBitmap.of(6, 9, 65_540, 150_000, 1_000_000);
+
+        // Act
+        SlotBitmap both = SlotBitmap.and(evens, threes);
+        SlotBitmap either = SlotBitmap.or(threes, sparse);
+        SlotBitmap sparseEvens = SlotBitmap.and(sparse, evens);
+        for (int slot = 0; slot < 200_000; slot += 2) {
+            evens.remove(slot);
+        }
+
+        // Assert
+        assertEquals(11_667, both.cardinality());
+        assertTrue(both.contains(69_996));
+        assertFalse(both.contains(69_999));
+        assertEquals(23_334 + 3, either.cardinality());
+        assertTrue(either.contains(1_000_000));
+        List<Integer> slots = new ArrayList<>();
+        sparseEvens.forEach(slots::add);
+        assertEquals(List.of(6, 65_540, 150_000), slots);
+        assertTrue(evens.isEmpty());
+    }
+
+    @Test
+    void findOrders_ShouldIntersectPredicatesAndRecheckAmounts() {
+        // Arrange
+        OrderService service = new OrderService(new StandardOrderFactory());
+        Order match = service.createOrder(List.of(new OrderItem("WIDGET", 3, new BigDecimal("20.00"))));
+        Order wrongStatus = service.createOrder(List.of(new OrderItem("WIDGET", 3, new BigDecimal("20.00"))));
+        Order sameBucketTooCheap = service.createOrder(List.of(new OrderItem("WIDGET", 1, new BigDecimal("15.00"))));
+        service.createOrder(List.of(new OrderItem("GADGET", 3, new BigDecimal("20.00"))));
+        LocalDate today = match.getCreatedAt().toLocalDate();
+
+        // Act
+        wrongStatus.processOrder();
+        List<Order> found = service.findOrders(Set.of(OrderStatus.PENDING), today, today,
+            new BigDecimal("50"), new BigDecimal("60"), "WIDGET");
+
+        // Assert
+        assertEquals(List.of(match), found);
+        assertEquals(List.of(match, sameBucketTooCheap), service.findOrders(Set.of(OrderStatus.PENDING),
+            null, null, null, null, "WIDGET"));
+        assertEquals(4, service.findOrders(null, null, null, null, null, null).size());
+        assertTrue(service.findOrders(null, today.plusDays(1), null, null, null, null).isEmpty());
+    }
+
+    @Test
+    void addAndMove_FromConcurrentWriters_ShouldLoseNoUpdates() throws InterruptedException {
+        // Arrange
+        BitmapIndex index = new BitmapIndex(new OrderSlots());
+        int writers = 4;
+        int ordersPerWriter = 2_000;
+        Thread[] threads = new Thread[writers];
+        for (int t = 0; t < writers; t++) {
+            String product = "SKU-" + t;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < ordersPerWriter; i++) {
+                    Order order = new Order(List.of(new OrderItem(product, 1, new BigDecimal("20.00"))),
+                                            OrderStates.PENDING);
+                    index.add(order);
+                    index.move(order.getId(), OrderStatus.PENDING, OrderStatus.PROCESSING);
+                }
+            });
+        }
+
+        // Act
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // Assert
+        assertEquals(0, index.count(OrderStatus.PENDING));
+        assertEquals(writers * ordersPerWriter, index.count(OrderStatus.PROCESSING));
+        for (int t = 0; t < writers; t++) {
+            assertEquals(ordersPerWriter, index.countContaining("SKU-" + t));
+        }
+        assertEquals(writers * ordersPerWriter,
+            index.withTotalBetween(new BigDecimal("20.00"), new BigDecimal("20.00")).cardinality());
+    }
+}
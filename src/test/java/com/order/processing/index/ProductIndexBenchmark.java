@@ -0,0 +1,62 @@
+package com.order.processing.index;
+
+import com.order.processing.Benchmarks;
+import com.order.processing.factory.StandardOrderFactory;
+import com.order.processing.model.Order;
+import com.order.processing.model.OrderItem;
+import com.order.processing.service.OrderService;
+import com.order.processing.state.OrderStates;
+import com.order.processing.state.OrderStatus;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+/**
+ * "Open orders containing product X" at 1M orders over 1,000 products, half of
+ * the orders delivered: the product index against walking every order's items.
+ *
+ * Run by hand, see {@link Benchmarks}. Optional args: order count, product count.
+ */
+public class ProductIndexBenchmark {
+
+    private static final int ROUNDS = 20;
+
+    public static void main(String[] args) {
+        Benchmarks.start();
+        int orders = Benchmarks.intArg(args, 0, 1_000_000);
+        int products = Benchmarks.intArg(args, 1, 1_000);
+
+        OrderService service = Benchmarks.quietly(() -> {
+            OrderService filled = new OrderService(new StandardOrderFactory());
+            for (int i = 0; i < orders; i++) {
+                Order order = filled.createOrder(Arrays.asList(
+                    new OrderItem("SKU-" + (i % products), 1, new BigDecimal("19.99")),
+                    new OrderItem("SKU-" + ((i * 7 + 3) % products), 2, new BigDecimal("4.99"))
+                ));
+                if (i % 2 == 0) {
+                    order.processOrder();
+                    order.setState(OrderStates.SHIPPED);
+                    order.setState(OrderStates.DELIVERED);
+                }
+            }
+            return filled;
+        });
+        String recalled = "SKU-" + (products / 2 + 1);
+
+        int[] found = new int[1];
+        long indexed = Benchmarks.bestOf(ROUNDS,
+            () -> found[0] = service.getOpenOrdersContaining(recalled).size());
+        long[] scanned = new long[1];
+        long scan = Benchmarks.bestOf(ROUNDS, () -> scanned[0] = service.getAllOrders().stream()
+            .filter(order -> order.getStatus() != OrderStatus.DELIVERED
+                && order.getStatus() != OrderStatus.CANCELLED)
+            .filter(order -> order.getItems().stream().anyMatch(item -> item.getProductId().equals(recalled)))
+            .count());
+
+        System.out.println(String.format("%,d orders, %,d products, %,d open orders contain %s, best of %d",
+            orders, products, found[0], recalled, ROUNDS));
+        System.out.println(String.format("  product index : %,9.3f ms", Benchmarks.millis(indexed)));
+        System.out.println(String.format("  full scan     : %,9.3f ms  (%d found, %.0fx)",
+            Benchmarks.millis(scan), scanned[0], scan / (double) indexed));
+    }
+}
@@ -0,0 +1,70 @@
+package com.order.processing.index;
+
+import com.order.processing.factory.StandardOrderFactory;
+import com.order.processing.model.Order;
+import com.order.processing.model.OrderItem;
+import com.order.processing.service.OrderService;
+import com.order.processing.state.CancelledState;
+import com.order.processing.state.PendingState;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductIndexTest {
+
+    @Test
+    void close_ShouldDropOrderFromEveryProductAndSurviveCompaction() {
+        // Arrange
+        ProductIndex index = new ProductIndex(new OrderSlots());
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Order order = new Order(Arrays.asList(
+                new OrderItem("RECALLED", 1, new BigDecimal("5.00")),
+                new OrderItem(i % 2 == 0 ? "EVEN" : "ODD", 1, new BigDecimal("1.00")),
+                new OrderItem("RECALLED", 2, new BigDecimal("5.00"))
+            ), new PendingState());
+            orders.add(order);
+            index.add(order);
+        }
+
+        // Act
+        for (int i = 0; i < 8; i++) {
+            index.close(orders.get(i));
+        }
+        index.close(orders.get(0));
+
+        // Assert
+        List<String> open = new ArrayList<>();
+        index.forEachOpen("RECALLED", slot -> open.add(index.orderIdOf(slot)));
+        assertEquals(List.of(orders.get(8).getId(), orders.get(9).getId()), open);
+        assertEquals(1, index.countOpen("EVEN"));
+        assertEquals(1, index.countOpen("ODD"));
+        assertEquals(0, index.countOpen("UNKNOWN"));
+    }
+
+    @Test
+    void getOpenOrdersContaining_ShouldSkipCancelledAndUnrelatedOrders() {
+        // Arrange
+        OrderService service = new OrderService(new StandardOrderFactory());
+        Order recalled = service.createOrder(Arrays.asList(new OrderItem("RECALLED", 1, new BigDecimal("5.00"))));
+        Order processing = service.createOrder(Arrays.asList(
+            new OrderItem("OTHER", 1, new BigDecimal("1.00")),
+            new OrderItem("RECALLED", 3, new BigDecimal("5.00"))));
+        Order cancelled = service.createOrder(Arrays.asList(new OrderItem("RECALLED", 1, new BigDecimal("5.00"))));
+        service.createOrder(Arrays.asList(new OrderItem("OTHER", 1, new BigDecimal("1.00"))));
+
+        // Act
+        processing.processOrder();
+        cancelled.setState(new CancelledState());
+
+        // Assert
+        assertEquals(List.of(recalled, processing), service.getOpenOrdersContaining("RECALLED"));
+        assertEquals(2, service.getOpenOrdersContaining("OTHER").size());
+        assertTrue(service.getOpenOrdersContaining("NOT-SOLD").isEmpty());
+    }
+}
@@ -0,0 +1,55 @@
+package com.order.processing.index;
+
+import com.order.processing.Benchmarks;
+import com.order.processing.factory.StandardOrderFactory;
+import com.order.processing.model.Order;
+import com.order.processing.model.OrderItem;
+import com.order.processing.service.OrderService;
+import com.order.processing.state.OrderStates;
+import com.order.processing.state.OrderStatus;
+
+import java.util.List;
+
+/**
+ * "List PENDING" at 1M orders: getOrdersByStatus through the status index
+ * against the full scan it replaced.
+ *
+ * Run by hand, see {@link Benchmarks}. Optional args: order count, percentage of orders left PENDING.
+ */
+public class StatusIndexBenchmark {
+
+    private static final int ROUNDS = 20;
+
+    public static void main(String[] args) {
+        Benchmarks.start();
+        int orders = Benchmarks.intArg(args, 0, 1_000_000);
+        int pendingPercent = Benchmarks.intArg(args, 1, 1);
+        List<OrderItem> items = Benchmarks.sampleItems(2);
+
+        OrderService service = Benchmarks.quietly(() -> {
+            OrderService filled = new OrderService(new StandardOrderFactory());
+            for (int i = 0; i < orders; i++) {
+                Order order = filled.createOrder(items);
+                if (i % 100 >= pendingPercent) {
+                    order.processOrder();
+                    order.setState(OrderStates.SHIPPED);
+                }
+            }
+            return filled;
+        });
+
+        int[] found = new int[1];
+        long indexed = Benchmarks.bestOf(ROUNDS,
+            () -> found[0] = service.getOrdersByStatus(OrderStatus.PENDING).size());
+        int[] scanned = new int[1];
+        long scan = Benchmarks.bestOf(ROUNDS, () -> scanned[0] = service.getAllOrders().stream()
+            .filter(order -> order.getStatus() == OrderStatus.PENDING)
+            .toList()
+            .size());
+
+        System.out.println(String.format("%,d orders, %,d PENDING, best of %d", orders, found[0], ROUNDS));
+        System.out.println(String.format("  status index : %,9.3f ms", Benchmarks.millis(indexed)));
+        System.out.println(String.format("  full scan    : %,9.3f ms  (%d found, %.0fx)",
+            Benchmarks.millis(scan), scanned[0], scan / (double) indexed));
+    }
+}
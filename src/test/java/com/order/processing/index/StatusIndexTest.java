@@ -0,0 +1,63 @@
+package com.order.processing.index;
+
+import com.order.processing.factory.StandardOrderFactory;
+import com.order.processing.model.Order;
+import com.order.processing.model.OrderItem;
+import com.order.processing.service.OrderService;
+import com.order.processing.state.OrderStatus;
+import com.order.processing.state.ShippedState;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StatusIndexTest {
+
+    private final List<OrderItem> items = Arrays.asList(
+        new OrderItem("TEST-1", 2, new BigDecimal("10.00")),
+        new OrderItem("TEST-2", 1, new BigDecimal("20.00"))
+    );
+
+    @Test
+    void move_ShouldReindexUnderNewStatusOnly() {
+        // Arrange
+        StatusIndex index = new StatusIndex();
+        index.add("order-1", OrderStatus.PENDING);
+        index.add("order-2", OrderStatus.PENDING);
+
+        // Act
+        index.move("order-1", OrderStatus.PENDING, OrderStatus.PROCESSING);
+
+        // Assert
+        assertEquals(Set.of("order-2"), index.idsWith(OrderStatus.PENDING));
+        assertEquals(Set.of("order-1"), index.idsWith(OrderStatus.PROCESSING));
+        assertEquals(0, index.count(OrderStatus.SHIPPED));
+    }
+
+    @Test
+    void getOrdersByStatus_ShouldFollowTransitionsFromStateClasses() {
+        // Arrange
+        OrderService service = new OrderService(new StandardOrderFactory());
+        Order processed = service.createOrder(items);
+        Order shipped = service.createOrder(items);
+        Order cancelled = service.createOrder(items);
+        service.createOrder(items);
+
+        // Act
+        processed.processOrder();
+        shipped.processOrder();
+        shipped.setState(new ShippedState());
+        service.cancelOrder(cancelled.getId());
+
+        // Assert
+        assertEquals(1, service.getOrdersByStatus(OrderStatus.PENDING).size());
+        assertEquals(List.of(processed), service.getOrdersByStatus(OrderStatus.PROCESSING));
+        assertEquals(List.of(shipped), service.getOrdersByStatus(OrderStatus.SHIPPED));
+        assertEquals(List.of(cancelled), service.getOrdersByStatus(OrderStatus.CANCELLED));
+        assertTrue(service.getOrdersByStatus(OrderStatus.DELIVERED).isEmpty());
+    }
+}
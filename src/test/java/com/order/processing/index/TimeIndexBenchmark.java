@@ -0,0 +1,69 @@
+package com.order.processing.index;
+
+import com.order.processing.Benchmarks;
+import com.order.processing.factory.StandardOrderFactory;
+import com.order.processing.model.Order;
+import com.order.processing.model.OrderItem;
+import com.order.processing.service.OrderService;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * "Orders created in a narrow window" and "first 100 orders idle since T" at
+ * 1M orders: the time index range queries against a scan of getAllOrders.
+ *
+ * Run by hand, see {@link Benchmarks}. Optional arg: order count.
+ */
+public class TimeIndexBenchmark {
+
+    private static final int ROUNDS = 20;
+
+    public static void main(String[] args) {
+        Benchmarks.start();
+        int orders = Benchmarks.intArg(args, 0, 1_000_000);
+        List<OrderItem> items = Benchmarks.sampleItems(2);
+
+        LocalDateTime[] window = new LocalDateTime[2];
+        OrderService service = Benchmarks.quietly(() -> {
+            OrderService filled = new OrderService(new StandardOrderFactory());
+            for (int i = 0; i < orders; i++) {
+                Order order = filled.createOrder(items);
+                // A window holding roughly 0.1% of the orders, in the middle of the run
+                if (i == orders / 2) {
+                    window[0] = order.getCreatedAt();
+                } else if (i == orders / 2 + orders / 1000) {
+                    window[1] = order.getCreatedAt();
+                }
+                if (i % 2 == 0) {
+                    order.processOrder();
+                }
+            }
+            return filled;
+        });
+        LocalDateTime from = window[0];
+        LocalDateTime to = window[1];
+        LocalDateTime idleCutoff = to;
+
+        long indexedWindow = Benchmarks.bestOf(ROUNDS, () -> service.getOrdersCreatedBetween(from, to).count());
+        long scannedWindow = Benchmarks.bestOf(ROUNDS, () -> service.getAllOrders().stream()
+            .filter(o -> !o.getCreatedAt().isBefore(from) && o.getCreatedAt().isBefore(to))
+            .count());
+        long indexedIdle = Benchmarks.bestOf(ROUNDS,
+            () -> service.getOrdersNotModifiedSince(idleCutoff).limit(100).count());
+        long scannedIdle = Benchmarks.bestOf(ROUNDS, () -> service.getAllOrders().stream()
+            .filter(o -> o.getLastModifiedAt().isBefore(idleCutoff))
+            .sorted((a, b) -> a.getLastModifiedAt().compareTo(b.getLastModifiedAt()))
+            .limit(100)
+            .count());
+
+        System.out.println(String.format("%,d orders, %,d created in window, best of %d",
+            orders, service.getOrdersCreatedBetween(from, to).count(), ROUNDS));
+        System.out.println(String.format("  created window  index: %,9.3f ms   scan: %,9.3f ms  (%.0fx)",
+            Benchmarks.millis(indexedWindow), Benchmarks.millis(scannedWindow),
+            scannedWindow / (double) indexedWindow));
+        System.out.println(String.format("  100 oldest idle index: %,9.3f ms   scan: %,9.3f ms  (%.0fx)",
+            Benchmarks.millis(indexedIdle), Benchmarks.millis(scannedIdle),
+            scannedIdle / (double) indexedIdle));
+    }
+}
@@ -0,0 +1,68 @@
+package com.order.processing.index;
+
+import com.order.processing.factory.StandardOrderFactory;
+import com.order.processing.model.Order;
+import com.order.processing.model.OrderItem;
+import com.order.processing.service.OrderService;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimeIndexTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    @Test
+    void update_ShouldMoveEntryAndRangesShouldBeHalfOpen() {
+        // Arrange
+        TimeIndex index = new TimeIndex();
+        index.update("order-1", T0);
+        index.update("order-2", T0.plusMinutes(10));
+        index.update("order-3", T0.plusMinutes(20));
+
+        // Act
+        index.update("order-1", T0.plusMinutes(30));
+
+        // Assert
+        assertEquals(3, index.size());
+        assertEquals(List.of("order-2", "order-3"), ids(index.between(T0, T0.plusMinutes(30))));
+        assertEquals(List.of("order-2"), ids(index.before(T0.plusMinutes(20))));
+        assertEquals(List.of("order-3", "order-1"), ids(index.since(T0.plusMinutes(20))));
+        assertTrue(ids(index.between(T0.plusMinutes(30), T0)).isEmpty());
+    }
+
+    @Test
+    void rangeQueries_ShouldFollowCreatesAndTransitions() throws InterruptedException {
+        // Arrange
+        OrderService service = new OrderService(new StandardOrderFactory());
+        List<OrderItem> items = Arrays.asList(new OrderItem("TEST-1", 2, new BigDecimal("10.00")));
+        LocalDateTime before = LocalDateTime.now();
+        Order idle = service.createOrder(items);
+        Order touched = service.createOrder(items);
+        LocalDateTime afterCreates = LocalDateTime.now().plusNanos(1);
+        Thread.sleep(5);
+
+        // Act
+        touched.processOrder();
+        LocalDateTime cutoff = touched.getLastModifiedAt();
+
+        // Assert
+        assertEquals(Set.of(idle, touched),
+            service.getOrdersCreatedBetween(before, afterCreates).collect(Collectors.toSet()));
+        assertEquals(List.of(idle), service.getOrdersNotModifiedSince(cutoff).collect(Collectors.toList()));
+        assertEquals(List.of(touched),
+            service.getOrdersModifiedBetween(cutoff, cutoff.plusNanos(1)).collect(Collectors.toList()));
+    }
+
+    private static List<String> ids(Stream<TimeIndex.Entry> entries) {
+        return entries.map(TimeIndex.Entry::getOrderId).collect(Collectors.toList());
+    }
+}
@@ -10,6 +10,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 
@@ -87,4 +88,34 @@ class OrderTest {
         assertThrows(UnsupportedOperationException.class, 
             () -> order.getItems().add(new OrderItem("TEST-3", 1, BigDecimal.ONE)));
     }
-}
\ No newline at end of file
+
+    @Test
+    void setState_ShouldStampLastModifiedAtWithCurrentLocalTime() {
+        // Arrange
+        LocalDateTime before = LocalDateTime.now();
+
+        // Act
+        order.setState(new ProcessingState());
+        LocalDateTime after = LocalDateTime.now();
+
+        // Assert
+        LocalDateTime modified = order.getLastModifiedAt();
+        assertFalse(modified.isBefore(before), () -> modified + " is before " + before);
+        assertFalse(modified.isAfter(after), () -> modified + " is after " + after);
+    }
+
+    @Test
+    void rebuild_ShouldKeepLastModifiedAtExactly() {
+        // Arrange
+        LocalDateTime created = LocalDateTime.of(1969, 12, 31, 23, 59, 58, 999_999_999);
+        LocalDateTime modified = created.plusNanos(2);
+
+        // Act
+        Order rebuilt = new Order("ORDER-1", items, new PendingState(), created, modified);
+
+        // Assert
+        assertEquals(modified, rebuilt.getLastModifiedAt());
+        assertThrows(IllegalArgumentException.class,
+            () -> new Order("ORDER-2", items, new PendingState(), created, LocalDateTime.of(2300, 1, 1, 0, 0)));
+    }
+}
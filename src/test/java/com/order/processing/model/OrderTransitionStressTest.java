@@ -0,0 +1,181 @@
+package com.order.processing.model;
+
+import com.order.processing.state.CancelledState;
+import com.order.processing.state.DeliveredState;
+import com.order.processing.state.OrderState;
+import com.order.processing.state.OrderStatus;
+import com.order.processing.state.PendingState;
+import com.order.processing.state.ProcessingState;
+import com.order.processing.state.ShippedState;
+import com.order.processing.util.DebugLogger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderTransitionStressTest {
+
+    private static final int THREADS = 4;
+    private static final int ROUNDS = 2_000;
+
+    private boolean loggingWasEnabled;
+
+    @BeforeEach
+    void setUp() {
+        loggingWasEnabled = DebugLogger.isEnabled();
+        DebugLogger.setEnabled(false);
+    }
+
+    @AfterEach
+    void tearDown() {
+        DebugLogger.setEnabled(loggingWasEnabled);
+    }
+
+    @Test
+    void trySetState_CancelRacingProcess_ShouldHaveExactlyOneWinner() throws Exception {
+        // Arrange
+        List<OrderItem> items = List.of(new OrderItem("SKU-1", 1, new BigDecimal("9.99")));
+        Order[] order = new Order[1];
+        AtomicInteger wins = new AtomicInteger();
+        AtomicInteger notified = new AtomicInteger();
+        CyclicBarrier start = new CyclicBarrier(THREADS + 1);
+        CyclicBarrier done = new CyclicBarrier(THREADS + 1);
+        List<Throwable> failures = Collections.synchronizedList(new ArrayList<>());
+        Thread[] threads = new Thread[THREADS];
+        for (int t = 0; t < THREADS; t++) {
+            // Half the threads cancel, half process
+            Supplier<OrderState> target = t % 2 == 0 ? CancelledState::new : ProcessingState::new;
+            threads[t] = new Thread(() -> {
+                try {
+                    for (int round = 0; round < ROUNDS; round++) {
+                        start.await();
+                        if (order[0].trySetState(target.get())) {
+                            wins.incrementAndGet();
+                        }
+                        done.await();
+                    }
+                } catch (Exception e) {
+                    failures.add(e);
+                }
+            });
+            threads[t].start();
+        }
+
+        // Act
+        int roundsWithOneWinner = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            order[0] = new Order(items, new PendingState());
+            order[0].setTransitionListener((changed, from, to) -> notified.incrementAndGet());
+            start.await();
+            done.await();
+            if (wins.getAndSet(0) == 1 && notified.getAndSet(0) == 1 && order[0].getVersion() == 1) {
+                roundsWithOneWinner++;
+            }
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // Assert
+        assertTrue(failures.isEmpty(), () -> "Worker failed: " + failures);
+        assertEquals(ROUNDS, roundsWithOneWinner);
+    }
+
+    @Test
+    void trySetState_ConcurrentChain_ShouldNotifyListenerInTransitionOrder() throws Exception {
+        // Arrange
+        List<OrderItem> items = List.of(new OrderItem("SKU-1", 1, new BigDecimal("9.99")));
+        List<Supplier<OrderState>> chain = List.of(ProcessingState::new, ShippedState::new, DeliveredState::new);
+        List<String> expected = List.of("PENDING>PROCESSING", "PROCESSING>SHIPPED", "SHIPPED>DELIVERED");
+        List<Throwable> failures = Collections.synchronizedList(new ArrayList<>());
+        int outOfOrder = 0;
+
+        // Act
+        for (int round = 0; round < ROUNDS / 10; round++) {
+            Order order = new Order(items, new PendingState());
+            List<String> seen = Collections.synchronizedList(new ArrayList<>());
+            order.setTransitionListener((changed, from, to) -> {
+                seen.add(from + ">" + to);
+                Thread.yield();
+            });
+            Thread[] threads = new Thread[THREADS];
+            for (int t = 0; t < THREADS; t++) {
+                threads[t] = new Thread(() -> {
+                    try {
+                        // Keep pushing the order along until it is delivered
+                        while (order.getStatus() != OrderStatus.DELIVERED) {
+                            for (Supplier<OrderState> next : chain) {
+                                order.trySetState(next.get());
+                            }
+                        }
+                    } catch (RuntimeException e) {
+                        failures.add(e);
+                    }
+                });
+                threads[t].start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            if (!expected.equals(seen) || order.getVersion() != 3) {
+                outOfOrder++;
+            }
+        }
+
+        // Assert
+        assertTrue(failures.isEmpty(), () -> "Worker failed: " + failures);
+        assertEquals(0, outOfOrder);
+    }
+
+    @Test
+    void trySetState_WhilePreviousListenerRuns_ShouldBlockWithoutSpinning() throws Exception {
+        // Arrange
+        Order order = new Order(List.of(new OrderItem("SKU-1", 1, new BigDecimal("9.99"))), new PendingState());
+        CountDownLatch inListener = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> seen = Collections.synchronizedList(new ArrayList<>());
+        order.setTransitionListener((changed, from, to) -> {
+            seen.add(from + ">" + to);
+            if (to == OrderStatus.PROCESSING) {
+                inListener.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        Thread first = new Thread(() -> order.trySetState(new ProcessingState()));
+        Thread second = new Thread(() -> order.trySetState(new ShippedState()));
+
+        // Act
+        first.start();
+        inListener.await();
+        second.start();
+        long deadline = System.nanoTime() + 2_000_000_000L;
+        while (second.getState() != Thread.State.WAITING && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        Thread.State whileBlocked = second.getState();
+        List<String> seenWhileBlocked = List.copyOf(seen);
+        release.countDown();
+        first.join();
+        second.join();
+
+        // Assert
+        assertEquals(Thread.State.WAITING, whileBlocked);
+        assertEquals(List.of("PENDING>PROCESSING"), seenWhileBlocked);
+        assertEquals(List.of("PENDING>PROCESSING", "PROCESSING>SHIPPED"), seen);
+        assertEquals(OrderStatus.SHIPPED, order.getStatus());
+    }
+}
@@ -0,0 +1,56 @@
+package com.order.processing.observer;
+
+import com.order.processing.Benchmarks;
+import com.order.processing.factory.StandardOrderFactory;
+import com.order.processing.model.Order;
+import com.order.processing.model.OrderItem;
+import com.order.processing.service.OrderService;
+
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * createOrder latency with an observer that waits 50 us per event, as a
+ * network call would, registered synchronously and asynchronously. The
+ * default burst fits in the asynchronous queue; a longer one shows the
+ * creating thread slowed to the observer's pace once the queue is full.
+ *
+ * Run by hand, see {@link Benchmarks}. Optional arg: order count.
+ */
+public class ObserverDispatchBenchmark {
+
+    private static final long OBSERVER_WAIT_NANOS = 50_000;
+
+    private static final class SlowObserver implements OrderObserver {
+        @Override
+        public void onOrderStatusChanged(Order order) {
+            LockSupport.parkNanos(OBSERVER_WAIT_NANOS);
+        }
+    }
+
+    public static void main(String[] args) {
+        Benchmarks.start();
+        int orders = Benchmarks.intArg(args, 0, 5_000);
+        List<OrderItem> items = Benchmarks.sampleItems(1);
+
+        for (DispatchMode mode : DispatchMode.values()) {
+            OrderService service = new OrderService(new StandardOrderFactory());
+            service.addObserver(new SlowObserver(), mode);
+            long[] created = new long[1];
+            int[] depth = new int[1];
+            long drained = Benchmarks.bestOf(1, () -> Benchmarks.quietly(() -> {
+                created[0] = Benchmarks.bestOf(1, () -> {
+                    for (int i = 0; i < orders; i++) {
+                        service.createOrder(items);
+                    }
+                });
+                depth[0] = service.getObserverStats().get(0).getQueueDepth();
+                service.shutdown();
+            }));
+            System.out.println(String.format("%-5s: createOrder %,6.1f us avg, all observed after %,7.1f ms "
+                    + "(queue depth %,d when creation finished)",
+                mode, created[0] / 1_000.0 / orders, Benchmarks.millis(drained), depth[0]));
+            System.out.println("       " + service.getObserverStats().get(0));
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.order.processing.observer;
+
+import com.order.processing.model.Order;
+import com.order.processing.model.OrderItem;
+import com.order.processing.state.OrderStates;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ObserverDispatcherTest {
+
+    private static Order newOrder() {
+        return new Order(List.of(new OrderItem("SKU-1", 1, new BigDecimal("5.00"))), OrderStates.PENDING);
+    }
+
+    @Test
+    void dispatch_AsyncObserver_ShouldNotWaitForItAndShouldReportQueueDepth() throws InterruptedException {
+        // Arrange
+        ObserverDispatcher dispatcher = new ObserverDispatcher();
+        CountDownLatch release = new CountDownLatch(1);
+        List<Order> received = Collections.synchronizedList(new ArrayList<>());
+        OrderObserver slow = order -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            received.add(order);
+        };
+        OrderObserver failing = order -> {
+            throw new IllegalStateException("observer failure");
+        };
+        dispatcher.register(slow, DispatchMode.ASYNC);
+        dispatcher.register(failing, DispatchMode.ASYNC);
+        List<Order> sent = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            sent.add(newOrder());
+        }
+
+        // Act
+        long start = System.nanoTime();
+        sent.forEach(dispatcher::dispatch);
+        long dispatchMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        int depthWhileBlocked = dispatcher.stats().get(0).getQueueDepth();
+        release.countDown();
+        dispatcher.shutdown();
+
+        // Assert
+        assertTrue(dispatchMillis < 1_000, "dispatch waited for the observer: " + dispatchMillis + " ms");
+        assertTrue(depthWhileBlocked >= 4, "queue depth " + depthWhileBlocked);
+        assertEquals(sent, received);
+        ObserverStats slowStats = dispatcher.stats().get(0);
+        ObserverStats failingStats = dispatcher.stats().get(1);
+        assertEquals(5, slowStats.getDelivered());
+        assertEquals(0, slowStats.getQueueDepth());
+        assertTrue(slowStats.getMaxLatencyMicros() > 0);
+        assertEquals(5, failingStats.getFailed());
+        assertThrows(IllegalStateException.class, () -> dispatcher.dispatch(newOrder()));
+    }
+
+    @Test
+    void register_WhileDispatching_ShouldBeSafe() throws InterruptedException {
+        // Arrange
+        ObserverDispatcher dispatcher = new ObserverDispatcher();
+        AtomicInteger steadyCalls = new AtomicInteger();
+        dispatcher.register(order -> steadyCalls.incrementAndGet(), DispatchMode.SYNC);
+        int events = 20_000;
+        List<Throwable> failures = Collections.synchronizedList(new ArrayList<>());
+        Order order = newOrder();
+        Thread dispatching = new Thread(() -> {
+            try {
+                for (int i = 0; i < events; i++) {
+                    dispatcher.dispatch(order);
+                }
+            } catch (RuntimeException e) {
+                failures.add(e);
+            }
+        });
+
+        // Act
+        dispatching.start();
+        while (dispatching.isAlive()) {
+            OrderObserver passing = o -> { };
+            dispatcher.register(passing, DispatchMode.SYNC);
+            dispatcher.unregister(passing);
+        }
+        dispatching.join();
+
+        // Assert
+        assertTrue(failures.isEmpty(), () -> "Dispatch failed: " + failures);
+        assertEquals(events, steadyCalls.get());
+        assertEquals(1, dispatcher.size());
+        assertEquals(events, dispatcher.stats().get(0).getDelivered());
+    }
+}
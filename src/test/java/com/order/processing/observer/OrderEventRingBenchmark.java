@@ -0,0 +1,61 @@
+package com.order.processing.observer;
+
+import com.order.processing.Benchmarks;
+import com.order.processing.model.Order;
+import com.order.processing.state.OrderStates;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Events per second from one dispatching thread to two cheap observers, and
+ * bytes the dispatching thread allocates per event, for observers fed through
+ * per-observer queues (ASYNC) and through the shared ring (RING). Timing runs
+ * until both observers have seen every event.
+ *
+ * Run by hand, see {@link Benchmarks}. Optional args: event count, rounds.
+ */
+public class OrderEventRingBenchmark {
+
+    private static final class CountingObserver implements OrderObserver {
+        final LongAdder seen = new LongAdder();
+
+        @Override
+        public void onOrderStatusChanged(Order order) {
+            seen.increment();
+        }
+    }
+
+    public static void main(String[] args) {
+        Benchmarks.start();
+        int events = Benchmarks.intArg(args, 0, 2_000_000);
+        int rounds = Benchmarks.intArg(args, 1, 3);
+        Order order = new Order(Benchmarks.sampleItems(1), OrderStates.PENDING);
+
+        for (int round = 1; round <= rounds; round++) {
+            for (DispatchMode mode : new DispatchMode[] {DispatchMode.ASYNC, DispatchMode.RING}) {
+                ObserverDispatcher dispatcher = new ObserverDispatcher();
+                CountingObserver first = new CountingObserver();
+                CountingObserver second = new CountingObserver();
+                dispatcher.register(first, mode);
+                dispatcher.register(second, mode);
+
+                long[] bytes = new long[1];
+                long elapsed = Benchmarks.bestOf(1, () -> {
+                    bytes[0] = Benchmarks.allocatedBy(() -> {
+                        for (int i = 0; i < events; i++) {
+                            dispatcher.dispatch(order);
+                        }
+                    });
+                    dispatcher.shutdown();
+                });
+
+                if (first.seen.sum() != events || second.seen.sum() != events) {
+                    throw new IllegalStateException("Lost events: " + first.seen.sum() + ", " + second.seen.sum());
+                }
+                System.out.println(String.format("round %d %-5s: %,11.0f events/s, %5.1f bytes/event on the dispatcher, "
+                        + "%,.0f ms", round, mode, Benchmarks.perSecond(events, elapsed), (double) bytes[0] / events,
+                    Benchmarks.millis(elapsed)));
+            }
+        }
+    }
+}
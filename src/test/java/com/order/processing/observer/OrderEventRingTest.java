@@ -0,0 +1,130 @@
+package com.order.processing.observer;
+
+import com.order.processing.model.Order;
+import com.order.processing.model.OrderItem;
+import com.order.processing.state.OrderStates;
+import com.order.processing.state.OrderStatus;
+import com.order.processing.util.DebugLogger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderEventRingTest {
+
+    private static final int PRODUCERS = 4;
+    private static final int EVENTS_PER_PRODUCER = 5_000;
+
+    private boolean loggingWasEnabled;
+
+    @BeforeEach
+    void setUp() {
+        loggingWasEnabled = DebugLogger.isEnabled();
+        DebugLogger.setEnabled(false);
+    }
+
+    @AfterEach
+    void tearDown() {
+        DebugLogger.setEnabled(loggingWasEnabled);
+    }
+
+    private static Order newOrder() {
+        return new Order(List.of(new OrderItem("SKU-1", 1, new BigDecimal("5.00"))), OrderStates.PENDING);
+    }
+
+    @Test
+    void publish_ManyProducersThroughSmallRing_EveryConsumerShouldSeeEveryEventInPublishOrder() throws Exception {
+        // Arrange
+        OrderEventRing ring = new OrderEventRing(8, OrderEventRing.WaitStrategy.YIELDING);
+        List<List<Order>> sent = new ArrayList<>();
+        Map<Order, Integer> producerOf = new IdentityHashMap<>();
+        for (int p = 0; p < PRODUCERS; p++) {
+            List<Order> orders = new ArrayList<>();
+            for (int i = 0; i < EVENTS_PER_PRODUCER; i++) {
+                Order order = newOrder();
+                orders.add(order);
+                producerOf.put(order, p);
+            }
+            sent.add(orders);
+        }
+        List<List<Order>> received = List.of(new ArrayList<>(), new ArrayList<>());
+        List<Long> sequenceGaps = Collections.synchronizedList(new ArrayList<>());
+        List<OrderEventRing.Consumer> consumers = new ArrayList<>();
+        for (List<Order> seen : received) {
+            long[] expected = {0};
+            consumers.add(ring.subscribe((slot, sequence, endOfBatch) -> {
+                if (sequence != expected[0]++) {
+                    sequenceGaps.add(sequence);
+                }
+                seen.add(slot.getOrder());
+            }, "ring-test-consumer"));
+        }
+
+        // Act
+        Thread[] producers = new Thread[PRODUCERS];
+        for (int p = 0; p < PRODUCERS; p++) {
+            List<Order> orders = sent.get(p);
+            producers[p] = new Thread(() -> orders.forEach(order -> ring.publish(order, OrderStatus.PENDING)));
+            producers[p].start();
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        consumers.forEach(ring::unsubscribe);
+
+        // Assert
+        assertTrue(sequenceGaps.isEmpty(), () -> "Skipped or repeated sequences: " + sequenceGaps);
+        for (List<Order> seen : received) {
+            assertEquals(PRODUCERS * EVENTS_PER_PRODUCER, seen.size());
+            for (int p = 0; p < PRODUCERS; p++) {
+                int producer = p;
+                List<Order> fromProducer = seen.stream()
+                    .filter(order -> producerOf.get(order) == producer)
+                    .collect(Collectors.toList());
+                assertEquals(sent.get(p), fromProducer);
+            }
+        }
+    }
+
+    @Test
+    void dispatch_RingObservers_ShouldEachReceiveEveryOrderAndCountFailures() {
+        // Arrange
+        ObserverDispatcher dispatcher = new ObserverDispatcher(
+            ObserverDispatcher.DEFAULT_QUEUE_CAPACITY, 16, OrderEventRing.WaitStrategy.SLEEPING);
+        List<Order> first = new ArrayList<>();
+        List<Order> second = new ArrayList<>();
+        dispatcher.register(first::add, DispatchMode.RING);
+        dispatcher.register(second::add, DispatchMode.RING);
+        dispatcher.register(order -> {
+            throw new IllegalStateException("observer failure");
+        }, DispatchMode.RING);
+        List<Order> sent = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            sent.add(newOrder());
+        }
+
+        // Act
+        sent.forEach(dispatcher::dispatch);
+        dispatcher.shutdown();
+
+        // Assert
+        assertEquals(sent, first);
+        assertEquals(sent, second);
+        List<ObserverStats> stats = dispatcher.stats();
+        assertEquals(DispatchMode.RING, stats.get(0).getMode());
+        assertEquals(200, stats.get(0).getDelivered());
+        assertEquals(0, stats.get(0).getQueueDepth());
+        assertEquals(200, stats.get(2).getDelivered());
+        assertEquals(200, stats.get(2).getFailed());
+        assertThrows(IllegalStateException.class, () -> dispatcher.dispatch(newOrder()));
+    }
+}
@@ -0,0 +1,77 @@
+package com.order.processing.persistence;
+
+import com.order.processing.Benchmarks;
+import com.order.processing.factory.StandardOrderFactory;
+import com.order.processing.model.Order;
+import com.order.processing.model.OrderItem;
+import com.order.processing.service.OrderService;
+import com.order.processing.state.OrderStates;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * createOrder latency on a segmented journal while a throttled compaction
+ * rewrites the sealed segments, against the same probe with no compaction.
+ *
+ * Run by hand, see {@link Benchmarks}. Optional args: order count, compaction MB/s.
+ */
+public class CompactionBenchmark {
+
+    private static final int SEGMENT_SIZE = 4 * 1024 * 1024;
+    private static final int PROBES = 20_000;
+
+    public static void main(String[] args) throws Exception {
+        Benchmarks.start();
+        int orders = Benchmarks.intArg(args, 0, 200_000);
+        long rate = Benchmarks.intArg(args, 1, 32) * 1024L * 1024;
+        List<OrderItem> items = Benchmarks.sampleItems(2);
+
+        Path dir = Files.createTempDirectory("compaction-bench");
+        try {
+            MappedSegmentJournal journal = new MappedSegmentJournal(dir, SEGMENT_SIZE, GroupCommitConfig.DEFAULT);
+            OrderService service = Benchmarks.quietly(() -> {
+                OrderService filled = new OrderService(new StandardOrderFactory(), journal);
+                for (int i = 0; i < orders; i++) {
+                    Order order = filled.createOrder(items);
+                    order.setState(OrderStates.PROCESSING);
+                    order.setState(OrderStates.SHIPPED);
+                    order.setState(OrderStates.DELIVERED);
+                }
+                return filled;
+            });
+            long quietP99 = probe(service, items);
+
+            long[] released = new long[1];
+            long[] compactNanos = new long[1];
+            Thread compactor = new Thread(() -> compactNanos[0] = Benchmarks.bestOf(1,
+                () -> released[0] = journal.compact(rate)));
+            compactor.start();
+            long busyP99 = probe(service, items);
+            compactor.join();
+            service.shutdown();
+
+            System.out.println(String.format("%,d orders x 4 records, %d MB segments, compaction at %d MB/s",
+                orders, SEGMENT_SIZE >> 20, rate >> 20));
+            System.out.println(String.format("  compaction       : released %,d MB in %,.0f ms",
+                released[0] >> 20, Benchmarks.millis(compactNanos[0])));
+            System.out.println(String.format("  createOrder p99  : %,.1f us quiet, %,.1f us while compacting",
+                quietP99 / 1e3, busyP99 / 1e3));
+        } finally {
+            Benchmarks.deleteQuietly(dir);
+        }
+    }
+
+    private static long probe(OrderService service, List<OrderItem> items) {
+        long[] latencies = new long[PROBES];
+        Benchmarks.quietly(() -> {
+            for (int i = 0; i < PROBES; i++) {
+                long start = System.nanoTime();
+                service.createOrder(items);
+                latencies[i] = System.nanoTime() - start;
+            }
+        });
+        return Benchmarks.percentile(latencies, 99);
+    }
+}
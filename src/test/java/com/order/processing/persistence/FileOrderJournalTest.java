@@ -0,0 +1,122 @@
+package com.order.processing.persistence;
+
+import com.order.processing.factory.StandardOrderFactory;
+import com.order.processing.model.Order;
+import com.order.processing.model.OrderItem;
+import com.order.processing.service.OrderService;
+import com.order.processing.state.OrderStatus;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileOrderJournalTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final List<OrderItem> items = Arrays.asList(
+        new OrderItem("TEST-1", 2, new BigDecimal("10.00")),
+        new OrderItem("TEST-2", 1, new BigDecimal("20.00"))
+    );
+
+    @Test
+    void replay_ShouldRebuildOrdersAndTransitions() {
+        // Arrange
+        Path file = tempDir.resolve("orders.journal");
+        OrderService service = new OrderService(new StandardOrderFactory(), new FileOrderJournal(file));
+        Order pending = service.createOrder(items);
+        Order cancelled = service.createOrder(items);
+        Order processed = service.createOrder(items);
+        service.cancelOrder(cancelled.getId());
+        processed.processOrder();
+        service.shutdown();
+
+        // Act
+        OrderService recovered = new OrderService(new StandardOrderFactory(), new FileOrderJournal(file));
+
+        // Assert
+        assertEquals(3, recovered.getOrderCount());
+        assertEquals(OrderStatus.PENDING, recovered.getOrder(pending.getId()).orElseThrow().getStatus());
+        assertEquals(OrderStatus.CANCELLED, recovered.getOrder(cancelled.getId()).orElseThrow().getStatus());
+        Order restored = recovered.getOrder(processed.getId()).orElseThrow();
+        assertEquals(OrderStatus.PROCESSING, restored.getStatus());
+        assertEquals(items, restored.getItems());
+        assertEquals(processed.getCreatedAt(), restored.getCreatedAt());
+        assertEquals(processed.getLastModifiedAt(), restored.getLastModifiedAt());
+        assertEquals(processed.getTotalAmount(), restored.getTotalAmount());
+        recovered.shutdown();
+    }
+
+    @Test
+    void replay_TornTail_ShouldKeepCompleteRecordsAndAcceptAppends() throws IOException {
+        // Arrange
+        Path file = tempDir.resolve("orders.journal");
+        OrderService service = new OrderService(new StandardOrderFactory(), new FileOrderJournal(file));
+        Order first = service.createOrder(items);
+        service.shutdown();
+        Files.write(file, new byte[] {0, 0, 0, 40, 1, 2, 3}, StandardOpenOption.APPEND);
+
+        // Act
+        OrderService recovered = new OrderService(new StandardOrderFactory(), new FileOrderJournal(file));
+        Order second = recovered.createOrder(items);
+        recovered.shutdown();
+        OrderService reopened = new OrderService(new StandardOrderFactory(), new FileOrderJournal(file));
+
+        // Assert
+        assertEquals(2, reopened.getOrderCount());
+        assertTrue(reopened.getOrder(first.getId()).isPresent());
+        assertTrue(reopened.getOrder(second.getId()).isPresent());
+        reopened.shutdown();
+    }
+
+    @Test
+    void groupCommit_ConcurrentCreates_ShouldAllBeRecovered() throws Exception {
+        // Arrange
+        Path file = tempDir.resolve("orders.journal");
+        GroupCommitConfig config = new GroupCommitConfig(Duration.ofMillis(2), 16);
+        OrderService service = new OrderService(new StandardOrderFactory(), new FileOrderJournal(file, config));
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<Order>> futures = new ArrayList<>();
+
+        // Act
+        for (int i = 0; i < 200; i++) {
+            futures.add(pool.submit(() -> service.createOrder(items)));
+        }
+        List<String> ids = new ArrayList<>();
+        for (Future<Order> future : futures) {
+            ids.add(future.get().getId());
+        }
+        pool.shutdown();
+        service.shutdown();
+        OrderService recovered = new OrderService(new StandardOrderFactory(), new FileOrderJournal(file, config));
+
+        // Assert
+        assertEquals(200, recovered.getOrderCount());
+        ids.forEach(id -> assertTrue(recovered.getOrder(id).isPresent()));
+        recovered.shutdown();
+    }
+
+    @Test
+    void open_ForeignFile_ShouldFail() throws IOException {
+        // Arrange
+        Path file = tempDir.resolve("not-a-journal");
+        Files.write(file, "hello world".getBytes());
+
+        // Act & Assert
+        assertThrows(java.io.UncheckedIOException.class, () -> new FileOrderJournal(file));
+    }
+}
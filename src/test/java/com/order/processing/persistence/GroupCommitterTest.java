@@ -0,0 +1,83 @@
+package com.order.processing.persistence;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GroupCommitterTest {
+
+    @Test
+    void commit_RacingClose_ShouldSucceedWhenTheFinalForceCoversTheRecord() throws Exception {
+        // Arrange
+        CountDownLatch firstForceEntered = new CountDownLatch(1);
+        CountDownLatch releaseFirstForce = new CountDownLatch(1);
+        CountDownLatch finalForceEntered = new CountDownLatch(1);
+        CountDownLatch releaseFinalForce = new CountDownLatch(1);
+        AtomicInteger forces = new AtomicInteger();
+        GroupCommitter committer = new GroupCommitter(() -> {
+            boolean first = forces.incrementAndGet() == 1;
+            (first ? firstForceEntered : finalForceEntered).countDown();
+            try {
+                (first ? releaseFirstForce : releaseFinalForce).await();
+            } catch (InterruptedException e) {
+                throw new InterruptedIOException();
+            }
+        }, new GroupCommitConfig(Duration.ZERO, 512), "test");
+        List<Throwable> failures = Collections.synchronizedList(new ArrayList<>());
+        Thread first = new Thread(() -> committer.commit(1));
+        first.start();
+        firstForceEntered.await();
+        Thread second = new Thread(() -> {
+            try {
+                committer.commit(2);
+            } catch (RuntimeException e) {
+                failures.add(e);
+            }
+        });
+        second.start();
+        awaitWaiting(second);
+
+        // Act
+        Thread closer = new Thread(committer::close);
+        closer.start();
+        awaitWaiting(closer);
+        releaseFirstForce.countDown();
+        // The first batch's completion wakes the second committer while its record is still pending
+        finalForceEntered.await();
+        Thread.sleep(100);
+        releaseFinalForce.countDown();
+        first.join();
+        second.join();
+        closer.join();
+
+        // Assert
+        assertTrue(failures.isEmpty(), () -> "Commit failed: " + failures);
+        assertEquals(2, forces.get());
+    }
+
+    @Test
+    void commit_AfterClose_ShouldFail() {
+        // Arrange
+        GroupCommitter committer = new GroupCommitter(() -> { }, GroupCommitConfig.DEFAULT, "test");
+
+        // Act
+        committer.close();
+
+        // Assert
+        assertThrows(IllegalStateException.class, () -> committer.commit(1));
+    }
+
+    private static void awaitWaiting(Thread thread) throws InterruptedException {
+        while (thread.getState() != Thread.State.WAITING) {
+            Thread.sleep(1);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.order.processing.persistence;
+
+import com.order.processing.Benchmarks;
+import com.order.processing.model.Order;
+import com.order.processing.state.OrderStates;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Durable append throughput of per-call fsync against group commit.
+ *
+ * Run by hand, see {@link Benchmarks}. Optional args: thread count, seconds per run.
+ */
+public class JournalThroughputBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        Benchmarks.start();
+        int threads = Benchmarks.intArg(args, 0, 16);
+        int seconds = Benchmarks.intArg(args, 1, 5);
+        Order order = new Order(Benchmarks.sampleItems(2), OrderStates.PENDING);
+
+        double perCall = run(null, order, threads, seconds);
+        double grouped = run(GroupCommitConfig.DEFAULT, order, threads, seconds);
+
+        System.out.println(String.format("%d thread(s), %d s per run", threads, seconds));
+        System.out.println(String.format("  per-call fsync : %,12.0f appends/s", perCall));
+        System.out.println(String.format("  group commit   : %,12.0f appends/s  (%.1fx)", grouped, grouped / perCall));
+    }
+
+    private static double run(GroupCommitConfig config, Order order, int threads, int seconds) throws Exception {
+        Path dir = Files.createTempDirectory("journal-bench");
+        LongAdder appends = new LongAdder();
+        long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        long elapsed;
+        try (FileOrderJournal journal = new FileOrderJournal(dir.resolve("orders.journal"), config)) {
+            elapsed = Benchmarks.onThreads(threads, () -> {
+                while (System.nanoTime() < end) {
+                    journal.appendCreate(order);
+                    appends.increment();
+                }
+            });
+        } finally {
+            Benchmarks.deleteQuietly(dir);
+        }
+        return Benchmarks.perSecond(appends.sum(), elapsed);
+    }
+}
@@ -0,0 +1,188 @@
+package com.order.processing.persistence;
+
+import com.order.processing.factory.StandardOrderFactory;
+import com.order.processing.model.Order;
+import com.order.processing.model.OrderItem;
+import com.order.processing.service.OrderService;
+import com.order.processing.state.OrderStatus;
+import com.order.processing.state.DeliveredState;
+import com.order.processing.state.PendingState;
+import com.order.processing.state.ShippedState;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedSegmentJournalTest {
+
+    private static final int SEGMENT_SIZE = 4096;
+
+    @TempDir
+    Path tempDir;
+
+    private final List<OrderItem> items = Arrays.asList(
+        new OrderItem("TEST-1", 2, new BigDecimal("10.00")),
+        new OrderItem("TEST-2", 1, new BigDecimal("20.00"))
+    );
+
+    @Test
+    void replay_AcrossRolledSegments_ShouldRebuildOrders() throws IOException {
+        // Arrange
+        OrderService service = new OrderService(new StandardOrderFactory(),
+            new MappedSegmentJournal(tempDir, SEGMENT_SIZE, null));
+        List<Order> created = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            created.add(service.createOrder(items));
+        }
+        service.cancelOrder(created.get(0).getId());
+        created.get(99).processOrder();
+        service.shutdown();
+
+        // Act
+        OrderService recovered = new OrderService(new StandardOrderFactory(),
+            new MappedSegmentJournal(tempDir, SEGMENT_SIZE, null));
+
+        // Assert
+        assertTrue(segmentCount() > 1);
+        assertEquals(100, recovered.getOrderCount());
+        assertEquals(OrderStatus.CANCELLED, recovered.getOrder(created.get(0).getId()).orElseThrow().getStatus());
+        assertEquals(OrderStatus.PROCESSING, recovered.getOrder(created.get(99).getId()).orElseThrow().getStatus());
+        assertEquals(OrderStatus.PENDING, recovered.getOrder(created.get(50).getId()).orElseThrow().getStatus());
+        recovered.shutdown();
+    }
+
+    @Test
+    void truncateBefore_ShouldDeleteOnlyFullyCoveredSegments() throws IOException {
+        // Arrange
+        MappedSegmentJournal journal = new MappedSegmentJournal(tempDir, SEGMENT_SIZE,
+            new GroupCommitConfig(Duration.ZERO, 8));
+        Order order = new Order(items, new PendingState());
+        for (int i = 0; i < 100; i++) {
+            journal.appendCreate(order);
+        }
+        long before = segmentCount();
+        long nextLsn = journal.nextLsn();
+
+        // Act
+        long released = journal.truncateBefore(nextLsn);
+
+        // Assert
+        assertEquals((before - 1) * SEGMENT_SIZE, released);
+        assertEquals(1, segmentCount());
+        journal.appendCreate(order);
+        journal.close();
+    }
+
+    @Test
+    void compact_ShouldKeepLatestStateAndShrinkLog() throws IOException {
+        // Arrange
+        MappedSegmentJournal journal = new MappedSegmentJournal(tempDir, SEGMENT_SIZE, null);
+        OrderService service = new OrderService(new StandardOrderFactory(), journal);
+        List<Order> created = advanceOrders(service);
+        long before = segmentBytes();
+
+        // Act
+        long released = journal.compact(1024 * 1024);
+        long after = segmentBytes();
+        Order afterCompaction = service.createOrder(items);
+        service.shutdown();
+        OrderService recovered = new OrderService(new StandardOrderFactory(),
+            new MappedSegmentJournal(tempDir, SEGMENT_SIZE, null));
+
+        // Assert
+        assertTrue(released > 0);
+        assertEquals(before - released, after);
+        assertEquals(61, recovered.getOrderCount());
+        assertRecovered(recovered, created);
+        assertTrue(recovered.getOrder(afterCompaction.getId()).isPresent());
+        recovered.shutdown();
+    }
+
+    @Test
+    void open_AfterCompactionInterruptedBeforeCleanup_ShouldDropSupersededSegments() throws IOException {
+        // Arrange
+        MappedSegmentJournal journal = new MappedSegmentJournal(tempDir, SEGMENT_SIZE, null);
+        OrderService service = new OrderService(new StandardOrderFactory(), journal);
+        List<Order> created = advanceOrders(service);
+        Path saved = Files.createDirectory(tempDir.resolve("saved"));
+        List<Path> originals = segments();
+        for (Path segment : originals) {
+            Files.copy(segment, saved.resolve(segment.getFileName()));
+        }
+        journal.compact();
+        service.shutdown();
+        // Put back every input but the first, as if the crash came right after the rename
+        for (Path segment : originals.subList(1, originals.size() - 1)) {
+            Files.copy(saved.resolve(segment.getFileName()), segment);
+        }
+
+        // Act
+        OrderService recovered = new OrderService(new StandardOrderFactory(),
+            new MappedSegmentJournal(tempDir, SEGMENT_SIZE, null));
+
+        // Assert
+        assertEquals(2, segmentCount());
+        assertEquals(60, recovered.getOrderCount());
+        assertRecovered(recovered, created);
+        recovered.shutdown();
+    }
+
+    /**
+     * Create 60 orders: every third delivered, every third cancelled, the rest pending.
+     */
+    private List<Order> advanceOrders(OrderService service) {
+        List<Order> created = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            created.add(service.createOrder(items));
+        }
+        for (int i = 0; i < 60; i += 3) {
+            Order order = created.get(i);
+            order.processOrder();
+            order.setState(new ShippedState());
+            order.setState(new DeliveredState());
+            service.cancelOrder(created.get(i + 1).getId());
+        }
+        return created;
+    }
+
+    private void assertRecovered(OrderService recovered, List<Order> created) {
+        for (int i = 0; i < 60; i++) {
+            Order original = created.get(i);
+            Order restored = recovered.getOrder(original.getId()).orElseThrow();
+            assertEquals(original.getStatus(), restored.getStatus());
+            assertEquals(original.getLastModifiedAt(), restored.getLastModifiedAt());
+            assertEquals(original.getItems(), restored.getItems());
+        }
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(tempDir)) {
+            return files.filter(path -> path.toString().endsWith(".seg")).sorted().collect(Collectors.toList());
+        }
+    }
+
+    private long segmentBytes() throws IOException {
+        long total = 0;
+        for (Path segment : segments()) {
+            total += Files.size(segment);
+        }
+        return total;
+    }
+
+    private long segmentCount() throws IOException {
+        try (Stream<Path> files = Files.list(tempDir)) {
+            return files.filter(path -> path.toString().endsWith(".seg")).count();
+        }
+    }
+}
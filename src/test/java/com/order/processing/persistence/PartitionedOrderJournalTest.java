@@ -0,0 +1,95 @@
+package com.order.processing.persistence;
+
+import com.order.processing.factory.StandardOrderFactory;
+import com.order.processing.model.Order;
+import com.order.processing.model.OrderItem;
+import com.order.processing.service.OrderService;
+import com.order.processing.state.OrderStatus;
+import com.order.processing.state.ShippedState;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PartitionedOrderJournalTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final List<OrderItem> items = Arrays.asList(
+        new OrderItem("TEST-1", 2, new BigDecimal("10.00")),
+        new OrderItem("TEST-2", 1, new BigDecimal("20.00"))
+    );
+
+    @Test
+    void replay_ShouldRebuildEveryPartitionInOrder() {
+        // Arrange
+        OrderService service = new OrderService(new StandardOrderFactory(),
+            new PartitionedOrderJournal(tempDir, 4, null));
+        List<Order> created = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            created.add(service.createOrder(items));
+        }
+        for (int i = 0; i < 40; i += 2) {
+            created.get(i).processOrder();
+            created.get(i).setState(new ShippedState());
+        }
+        service.cancelOrder(created.get(1).getId());
+        service.shutdown();
+
+        // Act
+        OrderService recovered = new OrderService(new StandardOrderFactory(),
+            new PartitionedOrderJournal(tempDir, 4, null));
+
+        // Assert
+        assertEquals(40, recovered.getOrderCount());
+        for (int i = 0; i < 40; i += 2) {
+            assertEquals(OrderStatus.SHIPPED, recovered.getOrder(created.get(i).getId()).orElseThrow().getStatus());
+        }
+        assertEquals(OrderStatus.CANCELLED, recovered.getOrder(created.get(1).getId()).orElseThrow().getStatus());
+        assertEquals(OrderStatus.PENDING, recovered.getOrder(created.get(3).getId()).orElseThrow().getStatus());
+        assertEquals(81, recovered.getRecoveryStats().orElseThrow().getRecordsReplayed());
+        recovered.shutdown();
+    }
+
+    @Test
+    void snapshot_ShouldCoverEveryPartition() {
+        // Arrange
+        Path snapshotDir = tempDir.resolve("snapshots");
+        OrderService service = new OrderService(new StandardOrderFactory(),
+            new PartitionedOrderJournal(tempDir.resolve("journal"), 3, null), new SnapshotStore(snapshotDir));
+        for (int i = 0; i < 30; i++) {
+            service.createOrder(items);
+        }
+        service.takeSnapshot();
+        Order after = service.createOrder(items);
+        service.shutdown();
+
+        // Act
+        OrderService recovered = new OrderService(new StandardOrderFactory(),
+            new PartitionedOrderJournal(tempDir.resolve("journal"), 3, null), new SnapshotStore(snapshotDir));
+
+        // Assert
+        assertEquals(31, recovered.getOrderCount());
+        assertTrue(recovered.getOrder(after.getId()).isPresent());
+        RecoveryStats stats = recovered.getRecoveryStats().orElseThrow();
+        assertEquals(30, stats.getOrdersFromSnapshot());
+        assertEquals(1, stats.getRecordsReplayed());
+        recovered.shutdown();
+    }
+
+    @Test
+    void open_WithDifferentPartitionCount_ShouldThrow() {
+        // Arrange
+        new PartitionedOrderJournal(tempDir, 4, null).close();
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> new PartitionedOrderJournal(tempDir, 2, null));
+    }
+}
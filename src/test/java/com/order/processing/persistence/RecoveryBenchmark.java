@@ -0,0 +1,71 @@
+package com.order.processing.persistence;
+
+import com.order.processing.Benchmarks;
+import com.order.processing.factory.StandardOrderFactory;
+import com.order.processing.model.Order;
+import com.order.processing.model.OrderItem;
+import com.order.processing.service.OrderService;
+import com.order.processing.state.OrderStates;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Recovery time of one journal replayed sequentially against a hash-partitioned
+ * journal replayed one partition per thread.
+ *
+ * Run by hand, see {@link Benchmarks}. Optional args: order count, partition count.
+ */
+public class RecoveryBenchmark {
+
+    private static final int WRITER_THREADS = 16;
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) throws Exception {
+        Benchmarks.start();
+        int orders = Benchmarks.intArg(args, 0, 200_000);
+        int partitions = Benchmarks.intArg(args, 1, Math.max(2, Runtime.getRuntime().availableProcessors()));
+
+        Path dir = Files.createTempDirectory("recovery-bench");
+        try {
+            Path single = dir.resolve("single.journal");
+            Path partitioned = dir.resolve("partitioned");
+            fill(() -> new FileOrderJournal(single, GroupCommitConfig.DEFAULT), orders);
+            fill(() -> new PartitionedOrderJournal(partitioned, partitions, GroupCommitConfig.DEFAULT), orders);
+
+            long singleMillis = recover(() -> new FileOrderJournal(single));
+            long partitionedMillis = recover(() -> new PartitionedOrderJournal(partitioned, partitions, null));
+
+            System.out.println(String.format("%,d orders, %d partition(s), %d core(s), best of %d",
+                orders, partitions, Runtime.getRuntime().availableProcessors(), ROUNDS));
+            System.out.println(String.format("  single journal      : %,6d ms", singleMillis));
+            System.out.println(String.format("  partitioned journal : %,6d ms  (%.1fx)",
+                partitionedMillis, singleMillis / (double) Math.max(1, partitionedMillis)));
+        } finally {
+            Benchmarks.deleteQuietly(dir);
+        }
+    }
+
+    private static void fill(Supplier<OrderJournal> journals, int orders) throws InterruptedException {
+        List<OrderItem> items = Benchmarks.sampleItems(2);
+        try (OrderJournal journal = journals.get()) {
+            Benchmarks.onThreads(WRITER_THREADS, () -> {
+                for (int i = 0; i < orders / WRITER_THREADS; i++) {
+                    journal.appendCreate(new Order(items, OrderStates.PENDING));
+                }
+            });
+        }
+    }
+
+    private static long recover(Supplier<OrderJournal> journals) {
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            OrderService service = new OrderService(new StandardOrderFactory(), journals.get());
+            best = Math.min(best, service.getRecoveryStats().orElseThrow().getTotalMillis());
+            service.shutdown();
+        }
+        return best;
+    }
+}
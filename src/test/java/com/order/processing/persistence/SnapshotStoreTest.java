@@ -0,0 +1,149 @@
+package com.order.processing.persistence;
+
+import com.order.processing.factory.StandardOrderFactory;
+import com.order.processing.model.Order;
+import com.order.processing.model.OrderItem;
+import com.order.processing.service.OrderService;
+import com.order.processing.state.OrderStatus;
+import com.order.processing.state.PendingState;
+import com.order.processing.store.OffHeapOrderStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapshotStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final List<OrderItem> items = Arrays.asList(
+        new OrderItem("TEST-1", 2, new BigDecimal("10.00")),
+        new OrderItem("TEST-2", 1, new BigDecimal("20.00"))
+    );
+
+    @Test
+    void recovery_ShouldLoadSnapshotAndReplayOnlyTheTail() throws IOException {
+        // Arrange
+        Path file = tempDir.resolve("orders.journal");
+        Path snapshotDir = tempDir.resolve("snapshots");
+        OrderService service = new OrderService(new StandardOrderFactory(),
+            new FileOrderJournal(file), new SnapshotStore(snapshotDir));
+        List<Order> before = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            before.add(service.createOrder(items));
+        }
+        service.cancelOrder(before.get(0).getId());
+        long sizeBefore = Files.size(file);
+        service.takeSnapshot();
+        long sizeAfter = Files.size(file);
+        Order after = service.createOrder(Arrays.asList(new OrderItem("TEST-3", 1, new BigDecimal("5.00"))));
+        before.get(1).processOrder();
+        service.shutdown();
+
+        // Act
+        OrderService recovered = new OrderService(new StandardOrderFactory(),
+            new FileOrderJournal(file), new SnapshotStore(snapshotDir));
+
+        // Assert
+        assertTrue(sizeAfter < sizeBefore / 10, "journal shrank from " + sizeBefore + " to " + sizeAfter);
+        assertEquals(51, recovered.getOrderCount());
+        assertEquals(OrderStatus.CANCELLED, recovered.getOrder(before.get(0).getId()).orElseThrow().getStatus());
+        assertEquals(OrderStatus.PROCESSING, recovered.getOrder(before.get(1).getId()).orElseThrow().getStatus());
+        assertEquals(after.getItems(), recovered.getOrder(after.getId()).orElseThrow().getItems());
+        RecoveryStats stats = recovered.getRecoveryStats().orElseThrow();
+        assertEquals(50, stats.getOrdersFromSnapshot());
+        assertEquals(2, stats.getRecordsReplayed());
+        recovered.shutdown();
+    }
+
+    @Test
+    void truncateBefore_WholeLog_ShouldKeepLsnSequence() {
+        // Arrange
+        Path file = tempDir.resolve("orders.journal");
+        FileOrderJournal journal = new FileOrderJournal(file);
+        Order order = new Order(items, new PendingState());
+        for (int i = 0; i < 10; i++) {
+            journal.appendCreate(order);
+        }
+        long lsn = journal.nextLsn();
+
+        // Act
+        journal.truncateBefore(lsn);
+        journal.close();
+        FileOrderJournal reopened = new FileOrderJournal(file);
+
+        // Assert
+        assertEquals(lsn, reopened.nextLsn());
+        reopened.appendTransition(order, OrderStatus.CANCELLED);
+        List<String> replayed = new ArrayList<>();
+        reopened.replay(lsn, new JournalReplayHandler() {
+            @Override
+            public void onCreate(Order created) {
+                replayed.add("create");
+            }
+
+            @Override
+            public void onTransition(String orderId, OrderStatus status, LocalDateTime modifiedAt) {
+                replayed.add(status.name());
+            }
+        });
+        assertEquals(List.of("CANCELLED"), replayed);
+        reopened.close();
+    }
+
+    @Test
+    void takeSnapshot_DuringTransitionStoreWrite_ShouldNotLoseTheTransition() throws Exception {
+        // Arrange
+        Path file = tempDir.resolve("orders.journal");
+        Path snapshotDir = tempDir.resolve("snapshots");
+        CountDownLatch replaceEntered = new CountDownLatch(1);
+        CountDownLatch releaseReplace = new CountDownLatch(1);
+        OffHeapOrderStore store = new OffHeapOrderStore(1024 * 1024, 16) {
+            @Override
+            public boolean replace(Order order, OrderStatus expectedStatus) {
+                if (order.getStatus() == OrderStatus.PROCESSING) {
+                    replaceEntered.countDown();
+                    try {
+                        releaseReplace.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return super.replace(order, expectedStatus);
+            }
+        };
+        OrderService service = new OrderService(new StandardOrderFactory(),
+            new FileOrderJournal(file), new SnapshotStore(snapshotDir), store);
+        Order order = service.createOrder(items);
+
+        // Act
+        Thread transition = new Thread(order::processOrder);
+        transition.start();
+        replaceEntered.await();
+        // The transition is being written to the store and not yet journaled
+        Thread snapshot = new Thread(service::takeSnapshot);
+        snapshot.start();
+        Thread.sleep(100);
+        releaseReplace.countDown();
+        transition.join();
+        snapshot.join();
+        service.shutdown();
+        OrderService recovered = new OrderService(new StandardOrderFactory(),
+            new FileOrderJournal(file), new SnapshotStore(snapshotDir));
+
+        // Assert
+        assertEquals(OrderStatus.PROCESSING, recovered.getOrder(order.getId()).orElseThrow().getStatus());
+        recovered.shutdown();
+    }
+}
@@ -0,0 +1,75 @@
+package com.order.processing.query;
+
+import com.order.processing.Benchmarks;
+import com.order.processing.factory.StandardOrderFactory;
+import com.order.processing.model.Order;
+import com.order.processing.model.OrderItem;
+import com.order.processing.service.OrderService;
+import com.order.processing.state.OrderStatus;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A few typical queries at 1M orders: planned by OrderService.query against
+ * filtering and sorting getAllOrders, with the explain output of each.
+ *
+ * Run by hand, see {@link Benchmarks} (needs {@code -Xmx3g} at the default size). Optional arg: order count.
+ */
+public class OrderQueryBenchmark {
+
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) {
+        Benchmarks.start();
+        int orders = Benchmarks.intArg(args, 0, 1_000_000);
+
+        OrderService service = Benchmarks.quietly(() -> {
+            OrderService filled = new OrderService(new StandardOrderFactory());
+            for (int i = 0; i < orders; i++) {
+                BigDecimal price = BigDecimal.valueOf(100 + (i * 7919L) % 1_000_000, 2);
+                Order order = filled.createOrder(List.of(new OrderItem("SKU-" + (i % 1000), 1 + i % 3, price)));
+                if (i % 2 == 0) {
+                    order.processOrder();
+                }
+            }
+            return filled;
+        });
+
+        run(service, "100 largest PENDING", OrderQuery.orders()
+            .withStatus(OrderStatus.PENDING)
+            .sortBy(OrderQuery.SortKey.TOTAL_AMOUNT, false)
+            .limit(100));
+        run(service, "PROCESSING with SKU-42 over $1,000", OrderQuery.orders()
+            .withStatus(OrderStatus.PROCESSING)
+            .containing("SKU-42")
+            .withTotalBetween(new BigDecimal("1000"), null));
+        run(service, "20 newest PROCESSING", OrderQuery.orders()
+            .withStatus(OrderStatus.PROCESSING)
+            .sortBy(OrderQuery.SortKey.CREATED_AT, false)
+            .limit(20));
+    }
+
+    private static void run(OrderService service, String name, OrderQuery query) {
+        List<?>[] plannedResult = new List<?>[1];
+        long planned = Benchmarks.bestOf(ROUNDS, () -> plannedResult[0] = service.query(query).getOrders());
+        List<?>[] scannedResult = new List<?>[1];
+        long scanned = Benchmarks.bestOf(ROUNDS, () -> {
+            Stream<Order> stream = service.getAllOrders().stream().filter(query::matches);
+            if (query.comparator() != null) {
+                stream = stream.sorted(query.comparator());
+            }
+            if (query.getLimit() != null) {
+                stream = stream.limit(query.getLimit());
+            }
+            scannedResult[0] = stream.collect(Collectors.toList());
+        });
+        System.out.println(String.format("%s: planned %,.3f ms, filter+sort %,.3f ms (%.0fx), same result: %s",
+            name, Benchmarks.millis(planned), Benchmarks.millis(scanned), scanned / (double) planned,
+            plannedResult[0].size() == scannedResult[0].size()));
+        System.out.println(service.explain(query));
+        System.out.println();
+    }
+}
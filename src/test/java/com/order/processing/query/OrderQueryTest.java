@@ -0,0 +1,94 @@
+package com.order.processing.query;
+
+import com.order.processing.factory.StandardOrderFactory;
+import com.order.processing.model.Order;
+import com.order.processing.model.OrderItem;
+import com.order.processing.query.QueryPlan.AccessPath;
+import com.order.processing.service.OrderService;
+import com.order.processing.state.OrderStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderQueryTest {
+
+    private OrderService service;
+    private List<Order> all;
+
+    @BeforeEach
+    void setUp() {
+        service = new OrderService(new StandardOrderFactory());
+        all = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            List<OrderItem> items = new ArrayList<>();
+            items.add(new OrderItem("SKU-" + (i % 10), 1 + i % 3, new BigDecimal(5 + i)));
+            if (i % 4 == 0) {
+                items.add(new OrderItem("RARE", 1, new BigDecimal("1.00")));
+            }
+            Order order = service.createOrder(items);
+            if (i % 5 != 0) {
+                order.processOrder();
+            }
+            all.add(order);
+        }
+    }
+
+    @Test
+    void query_ShouldMatchBruteForceFilterSortAndLimit() {
+        // Arrange
+        OrderQuery query = OrderQuery.orders()
+            .withStatus(OrderStatus.PROCESSING)
+            .withTotalBetween(new BigDecimal("50"), new BigDecimal("400"))
+            .withItemCountBetween(2, null)
+            .sortBy(OrderQuery.SortKey.TOTAL_AMOUNT, false)
+            .limit(7);
+
+        // Act
+        QueryResult result = service.query(query);
+
+        // Assert
+        List<Order> expected = all.stream()
+            .filter(query::matches)
+            .sorted(Comparator.comparing(Order::getTotalAmount).reversed())
+            .limit(7)
+            .collect(Collectors.toList());
+        assertEquals(7, expected.size());
+        assertEquals(expected, result.getOrders());
+        assertEquals(7, result.getPlan().getReturned());
+    }
+
+    @Test
+    void explain_ShouldPickTheMostSelectivePath() {
+        // Arrange
+        OrderQuery pending = OrderQuery.orders().withStatus(OrderStatus.PENDING);
+        OrderQuery rareProduct = OrderQuery.orders().withStatus(OrderStatus.PROCESSING).containing("RARE");
+        OrderQuery topFive = OrderQuery.orders().sortBy(OrderQuery.SortKey.TOTAL_AMOUNT, false).limit(5);
+        OrderQuery itemsOnly = OrderQuery.orders().withItemCountBetween(2, 2);
+
+        // Act
+        QueryPlan pendingPlan = service.explain(pending);
+        QueryPlan rarePlan = service.explain(rareProduct);
+        QueryPlan topPlan = service.explain(topFive);
+        QueryPlan itemsPlan = service.explain(itemsOnly);
+
+        // Assert
+        assertEquals(AccessPath.STATUS_INDEX, pendingPlan.getAccessPath());
+        assertEquals(40, pendingPlan.getCandidatesScanned());
+        assertEquals(AccessPath.OPEN_PRODUCT_INDEX, rarePlan.getAccessPath());
+        assertEquals(50, rarePlan.getCandidatesScanned());
+        assertEquals(40, rarePlan.getReturned());
+        assertEquals(AccessPath.AMOUNT_INDEX, topPlan.getAccessPath());
+        assertTrue(topPlan.isSortedByIndex());
+        assertEquals(5, topPlan.getCandidatesScanned());
+        assertEquals(AccessPath.FULL_SCAN, itemsPlan.getAccessPath());
+        assertEquals(200, itemsPlan.getCandidatesScanned());
+        assertTrue(topPlan.toString().contains("AMOUNT_INDEX"));
+    }
+}
@@ -0,0 +1,58 @@
+package com.order.processing.service;
+
+import com.order.processing.Benchmarks;
+import com.order.processing.factory.StandardOrderFactory;
+import com.order.processing.model.OrderItem;
+
+import java.util.List;
+import java.util.function.LongSupplier;
+
+/**
+ * Walking 1M orders: getAllOrders against cursor pages and streamOrders,
+ * comparing time and the bytes each allocates on the calling thread.
+ *
+ * Run by hand, see {@link Benchmarks}. Optional args: order count, page size.
+ */
+public class OrderPageBenchmark {
+
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) {
+        Benchmarks.start();
+        int orders = Benchmarks.intArg(args, 0, 1_000_000);
+        int pageSize = Benchmarks.intArg(args, 1, 100);
+        List<OrderItem> items = Benchmarks.sampleItems(1);
+
+        OrderService service = Benchmarks.quietly(() -> {
+            OrderService filled = new OrderService(new StandardOrderFactory());
+            for (int i = 0; i < orders; i++) {
+                filled.createOrder(items);
+            }
+            return filled;
+        });
+
+        report("getAllOrders()", () -> service.getAllOrders().size());
+        report("page walk (" + pageSize + ")", () -> {
+            long seen = 0;
+            OrderPage page = service.getOrderPage(null, pageSize);
+            seen += page.getOrders().size();
+            while (page.hasMore()) {
+                page = service.getOrderPage(page.getNextCursor().get(), pageSize);
+                seen += page.getOrders().size();
+            }
+            return seen;
+        });
+        report("streamOrders()", () -> service.streamOrders().count());
+    }
+
+    private static void report(String name, LongSupplier walk) {
+        long[] seen = new long[1];
+        long bestTime = Benchmarks.bestOf(ROUNDS, () -> seen[0] = walk.getAsLong());
+        long bestBytes = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            bestBytes = Math.min(bestBytes, Benchmarks.allocatedBy(walk::getAsLong));
+        }
+        System.out.println(String.format("  %-18s %,9.1f ms  %,8.1f MB allocated  (%,d orders)",
+            name, Benchmarks.millis(bestTime), bestBytes / 1e6, seen[0]));
+    }
+}
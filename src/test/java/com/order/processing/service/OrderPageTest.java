@@ -0,0 +1,68 @@
+package com.order.processing.service;
+
+import com.order.processing.factory.StandardOrderFactory;
+import com.order.processing.model.Order;
+import com.order.processing.model.OrderItem;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderPageTest {
+
+    private final List<OrderItem> items = List.of(new OrderItem("TEST-1", 1, new BigDecimal("10.00")));
+
+    @Test
+    void getOrderPage_ShouldWalkEveryOrderOnceInCreationOrder() {
+        // Arrange
+        OrderService service = new OrderService(new StandardOrderFactory());
+        List<Order> created = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            created.add(service.createOrder(items));
+        }
+
+        // Act
+        List<Order> walked = new ArrayList<>();
+        List<Integer> pageSizes = new ArrayList<>();
+        OrderPage page = service.getOrderPage(null, 3);
+        walked.addAll(page.getOrders());
+        pageSizes.add(page.getOrders().size());
+        while (page.hasMore()) {
+            page = service.getOrderPage(page.getNextCursor().get(), 3);
+            walked.addAll(page.getOrders());
+            pageSizes.add(page.getOrders().size());
+        }
+
+        // Assert
+        assertEquals(created, walked);
+        assertEquals(List.of(3, 3, 1), pageSizes);
+        assertTrue(page.getNextCursor().isEmpty());
+    }
+
+    @Test
+    void streamOrders_ShouldNotCopyAndRejectBadArguments() {
+        // Arrange
+        OrderService service = new OrderService(new StandardOrderFactory());
+        for (int i = 0; i < 5_000; i++) {
+            service.createOrder(items);
+        }
+
+        // Act
+        long parallelCount = service.streamOrders().parallel().count();
+        Iterator<Order> iterator = service.iterateOrders();
+        Order first = iterator.next();
+        List<String> streamedIds = service.streamOrders().map(Order::getId).collect(Collectors.toList());
+
+        // Assert
+        assertEquals(5_000, parallelCount);
+        assertEquals(first, service.getOrderPage(null, 1).getOrders().get(0));
+        assertEquals(5_000, streamedIds.stream().distinct().count());
+        assertThrows(IllegalArgumentException.class, () -> service.getOrderPage("not-a-cursor", 10));
+        assertThrows(IllegalArgumentException.class, () -> service.getOrderPage(null, 0));
+    }
+}
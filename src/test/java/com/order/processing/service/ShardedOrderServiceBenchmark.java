@@ -0,0 +1,86 @@
+package com.order.processing.service;
+
+import com.order.processing.Benchmarks;
+import com.order.processing.factory.StandardOrderFactory;
+import com.order.processing.model.Order;
+import com.order.processing.model.OrderItem;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * createOrder throughput with several client threads against one
+ * OrderService and against a ShardedOrderService with a shard per client,
+ * waiting on every create or keeping a batch of creates in flight. Scaling
+ * with shards needs as many cores as writers; compare
+ * {@code Runtime.availableProcessors()} in the output before reading the
+ * numbers.
+ *
+ * Run by hand, see {@link Benchmarks}. Optional args: orders per client, clients.
+ */
+public class ShardedOrderServiceBenchmark {
+
+    private static final int IN_FLIGHT = 64;
+
+    public static void main(String[] args) {
+        Benchmarks.start();
+        int perClient = Benchmarks.intArg(args, 0, 50_000);
+        int clients = Benchmarks.intArg(args, 1, 4);
+        List<OrderItem> items = Benchmarks.sampleItems(1);
+        System.out.println(String.format("%d client(s) x %,d orders, %d CPU(s)",
+            clients, perClient, Runtime.getRuntime().availableProcessors()));
+
+        for (int round = 1; round <= 3; round++) {
+            OrderService single = new OrderService(new StandardOrderFactory());
+            long singleNanos = run(clients, () -> {
+                for (int i = 0; i < perClient; i++) {
+                    single.createOrder(items);
+                }
+            });
+            single.shutdown();
+
+            ShardedOrderService sharded = new ShardedOrderService(new StandardOrderFactory(), clients);
+            long shardedNanos = run(clients, () -> {
+                for (int i = 0; i < perClient; i++) {
+                    sharded.createOrder(items);
+                }
+            });
+            sharded.shutdown();
+
+            ShardedOrderService pipelined = new ShardedOrderService(new StandardOrderFactory(), clients);
+            long pipelinedNanos = run(clients, () -> {
+                List<CompletableFuture<Order>> inFlight = new ArrayList<>(IN_FLIGHT);
+                for (int i = 0; i < perClient; i++) {
+                    inFlight.add(pipelined.createOrderAsync(items));
+                    if (inFlight.size() == IN_FLIGHT) {
+                        inFlight.forEach(CompletableFuture::join);
+                        inFlight.clear();
+                    }
+                }
+                inFlight.forEach(CompletableFuture::join);
+            });
+            pipelined.shutdown();
+
+            long orders = (long) perClient * clients;
+            System.out.println(String.format("round %d: single %,9.0f orders/s | sharded %,9.0f orders/s "
+                    + "| sharded, %d in flight %,9.0f orders/s", round,
+                Benchmarks.perSecond(orders, singleNanos), Benchmarks.perSecond(orders, shardedNanos), IN_FLIGHT,
+                Benchmarks.perSecond(orders, pipelinedNanos)));
+        }
+    }
+
+    /**
+     * Wall time of the clients running the work at once, with the console silenced.
+     */
+    private static long run(int clients, Runnable work) {
+        return Benchmarks.quietly(() -> {
+            try {
+                return Benchmarks.onThreads(clients, work);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for clients", e);
+            }
+        });
+    }
+}
@@ -0,0 +1,161 @@
+package com.order.processing.service;
+
+import com.order.processing.factory.StandardOrderFactory;
+import com.order.processing.model.Order;
+import com.order.processing.model.OrderItem;
+import com.order.processing.observer.DispatchMode;
+import com.order.processing.state.OrderStatus;
+import com.order.processing.util.DebugLogger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardedOrderServiceTest {
+
+    private static final int SHARDS = 4;
+
+    private final List<OrderItem> items = List.of(new OrderItem("TEST-1", 1, new BigDecimal("10.00")));
+    private boolean loggingWasEnabled;
+
+    @BeforeEach
+    void setUp() {
+        loggingWasEnabled = DebugLogger.isEnabled();
+        DebugLogger.setEnabled(false);
+    }
+
+    @AfterEach
+    void tearDown() {
+        DebugLogger.setEnabled(loggingWasEnabled);
+    }
+
+    @Test
+    void createOrder_FromManyThreads_ShouldBeWrittenByTheOwningShardsWriter() throws InterruptedException {
+        // Arrange
+        ShardedOrderService service = new ShardedOrderService(new StandardOrderFactory(), SHARDS);
+        Map<String, String> writerOf = new ConcurrentHashMap<>();
+        service.addObserver(order -> writerOf.put(order.getId(), Thread.currentThread().getName()), DispatchMode.SYNC);
+        List<Order> created = Collections.synchronizedList(new ArrayList<>());
+        Thread[] clients = new Thread[3];
+        for (int t = 0; t < clients.length; t++) {
+            clients[t] = new Thread(() -> {
+                for (int i = 0; i < 200; i++) {
+                    created.add(service.createOrder(items));
+                }
+            });
+            clients[t].start();
+        }
+
+        // Act
+        for (Thread client : clients) {
+            client.join();
+        }
+
+        // Assert
+        assertEquals(600, service.getOrderCount());
+        assertEquals(600, service.getStatistics().getPendingOrders());
+        for (Order order : created) {
+            assertSame(order, service.getOrder(order.getId()).orElseThrow());
+            assertEquals("order-shard-" + service.shardOf(order.getId()), writerOf.get(order.getId()));
+        }
+        assertEquals(SHARDS, writerOf.values().stream().distinct().count());
+        service.shutdown();
+    }
+
+    @Test
+    void processOrder_WhileShardsWriterIsBusy_ShouldRunAfterItOnThatWriter() throws Exception {
+        // Arrange
+        ShardedOrderService service = new ShardedOrderService(new StandardOrderFactory(), SHARDS);
+        Order order = service.createOrder(items);
+        int shard = service.shardOf(order.getId());
+        AtomicInteger blockOnShard = new AtomicInteger(-1);
+        CountDownLatch writerBlocked = new CountDownLatch(1);
+        CountDownLatch releaseWriter = new CountDownLatch(1);
+        service.addObserver(created -> {
+            if (service.shardOf(created.getId()) == blockOnShard.get()) {
+                writerBlocked.countDown();
+                try {
+                    releaseWriter.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }, DispatchMode.SYNC);
+        blockOnShard.set(shard);
+        List<CompletableFuture<Order>> creates = new ArrayList<>();
+        while (writerBlocked.getCount() > 0) {
+            creates.add(service.createOrderAsync(items));
+            writerBlocked.await(10, TimeUnit.MILLISECONDS);
+        }
+        blockOnShard.set(-1);
+
+        // Act
+        CompletableFuture<Boolean> processed = service.processOrderAsync(order.getId());
+        Thread.sleep(100);
+        boolean doneWhileWriterBusy = processed.isDone();
+        OrderStatus statusWhileWriterBusy = order.getStatus();
+        releaseWriter.countDown();
+        boolean moved = processed.get(5, TimeUnit.SECONDS);
+
+        // Assert
+        assertFalse(doneWhileWriterBusy);
+        assertEquals(OrderStatus.PENDING, statusWhileWriterBusy);
+        assertTrue(moved);
+        assertEquals(OrderStatus.PROCESSING, order.getStatus());
+        assertTrue(service.processOrder(order.getId()));
+        assertTrue(service.processOrder(order.getId()));
+        assertFalse(service.processOrder(order.getId()));
+        assertEquals(OrderStatus.DELIVERED, order.getStatus());
+        assertFalse(service.processOrder("unknown-order"));
+        creates.forEach(CompletableFuture::join);
+        service.shutdown();
+    }
+
+    @Test
+    void queries_AcrossShards_ShouldMergeEveryShardsAnswer() {
+        // Arrange
+        ShardedOrderService service = new ShardedOrderService(new StandardOrderFactory(), SHARDS);
+        List<Order> created = new ArrayList<>();
+        for (int i = 1; i <= 40; i++) {
+            created.add(service.createOrder(List.of(new OrderItem("TEST-1", i, new BigDecimal("10.00")))));
+        }
+        List<Order> cancelled = created.subList(0, 10);
+
+        // Act
+        cancelled.forEach(order -> assertTrue(service.cancelOrder(order.getId())));
+        boolean cancelledTwice = service.cancelOrder(cancelled.get(0).getId());
+        List<Order> largest = service.getLargestOrders(5, null);
+        List<Order> cancelledFound = service.getOrdersByStatus(OrderStatus.CANCELLED);
+        OrderService.OrderStatistics stats = service.getStatistics();
+        service.shutdown();
+
+        // Assert
+        assertFalse(cancelledTwice);
+        List<Order> expectedLargest = created.stream()
+            .sorted(Comparator.comparing(Order::getTotalAmount).reversed())
+            .limit(5)
+            .collect(Collectors.toList());
+        assertEquals(expectedLargest, largest);
+        assertEquals(Set.copyOf(cancelled), Set.copyOf(cancelledFound));
+        assertEquals(40, stats.getTotalOrders());
+        assertEquals(10, stats.getCancelledOrders());
+        assertEquals(30, stats.getPendingOrders());
+        assertEquals(40, service.getAllOrders().size());
+        assertThrows(IllegalStateException.class, () -> service.createOrder(items));
+    }
+}
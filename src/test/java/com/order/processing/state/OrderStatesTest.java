@@ -0,0 +1,61 @@
+package com.order.processing.state;
+
+import com.order.processing.model.Order;
+import com.order.processing.model.OrderItem;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderStatesTest {
+
+    @Test
+    void canTransitionTo_ShouldFollowTheBusinessRulesForEveryPair() {
+        // Arrange
+        Map<OrderStatus, Set<OrderStatus>> rules = Map.of(
+            OrderStatus.PENDING, EnumSet.of(OrderStatus.PROCESSING, OrderStatus.CANCELLED),
+            OrderStatus.PROCESSING, EnumSet.of(OrderStatus.SHIPPED),
+            OrderStatus.SHIPPED, EnumSet.of(OrderStatus.DELIVERED),
+            OrderStatus.DELIVERED, EnumSet.noneOf(OrderStatus.class),
+            OrderStatus.CANCELLED, EnumSet.noneOf(OrderStatus.class));
+        List<OrderState> freshStates = List.of(new PendingState(), new ProcessingState(), new ShippedState(),
+            new DeliveredState(), new CancelledState());
+
+        // Act & Assert
+        for (OrderStatus from : OrderStatus.values()) {
+            for (OrderStatus to : OrderStatus.values()) {
+                boolean expected = rules.get(from).contains(to);
+                assertEquals(expected, OrderStates.canTransition(from, to), from + " -> " + to);
+                assertEquals(expected, OrderStates.forStatus(from).canTransitionTo(OrderStates.forStatus(to)));
+                // Separately created state objects are judged the same way
+                assertEquals(expected, freshStates.get(from.ordinal()).canTransitionTo(freshStates.get(to.ordinal())));
+            }
+        }
+        assertFalse(OrderStates.canTransition(OrderStatus.PENDING, null));
+    }
+
+    @Test
+    void processOrder_ShouldMoveThroughSharedStateInstances() {
+        // Arrange
+        Order first = new Order(List.of(new OrderItem("SKU-1", 1, new BigDecimal("5.00"))), OrderStates.PENDING);
+        Order second = new Order(List.of(new OrderItem("SKU-2", 1, new BigDecimal("7.00"))), OrderStates.PENDING);
+
+        // Act
+        first.processOrder();
+        second.processOrder();
+        second.processOrder();
+
+        // Assert
+        assertSame(OrderStates.PROCESSING, first.getCurrentState());
+        assertSame(OrderStates.SHIPPED, second.getCurrentState());
+        for (OrderStatus status : OrderStatus.values()) {
+            assertSame(OrderStates.forStatus(status), OrderStates.forStatus(status));
+            assertEquals(status, OrderStates.forStatus(status).getStatus());
+        }
+    }
+}
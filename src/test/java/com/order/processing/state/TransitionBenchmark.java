@@ -0,0 +1,55 @@
+package com.order.processing.state;
+
+import com.order.processing.Benchmarks;
+import com.order.processing.model.Order;
+import com.order.processing.model.OrderItem;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Cost of moving orders PENDING -> PROCESSING -> SHIPPED -> DELIVERED with the
+ * shared states against a fresh state object per transition, in time and in
+ * bytes allocated per transition.
+ *
+ * Run by hand, see {@link Benchmarks}. Optional arg: order count.
+ */
+public class TransitionBenchmark {
+
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) {
+        Benchmarks.start();
+        int orders = Benchmarks.intArg(args, 0, 1_000_000);
+        List<OrderItem> items = Benchmarks.sampleItems(1);
+
+        List<Supplier<OrderState>> shared = List.of(
+            () -> OrderStates.PROCESSING, () -> OrderStates.SHIPPED, () -> OrderStates.DELIVERED);
+        List<Supplier<OrderState>> fresh = List.of(ProcessingState::new, ShippedState::new, DeliveredState::new);
+
+        for (int round = 0; round < ROUNDS; round++) {
+            boolean last = round == ROUNDS - 1;
+            for (List<Supplier<OrderState>> chain : List.of(shared, fresh)) {
+                List<Order> batch = new ArrayList<>(orders);
+                for (int i = 0; i < orders; i++) {
+                    batch.add(new Order(items, OrderStates.PENDING));
+                }
+                long[] elapsed = new long[1];
+                long bytes = Benchmarks.allocatedBy(() -> elapsed[0] = Benchmarks.bestOf(1, () -> {
+                    for (Order order : batch) {
+                        for (Supplier<OrderState> next : chain) {
+                            order.setState(next.get());
+                        }
+                    }
+                }));
+                if (last) {
+                    long transitions = 3L * orders;
+                    System.out.println(String.format("%-7s states: %,6.1f ns and %,5.1f bytes per transition",
+                        chain == shared ? "shared" : "fresh", elapsed[0] / (double) transitions,
+                        bytes / (double) transitions));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.order.processing.stats;
+
+import com.order.processing.Benchmarks;
+import com.order.processing.factory.StandardOrderFactory;
+import com.order.processing.model.Order;
+import com.order.processing.model.OrderItem;
+import com.order.processing.service.OrderService;
+import com.order.processing.state.OrderStatus;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sales per product at 1M orders from the maintained view against walking
+ * every order's items.
+ *
+ * Run by hand, see {@link Benchmarks}. Optional arg: order count.
+ */
+public class ProductSalesBenchmark {
+
+    private static final int ROUNDS = 10;
+    private static final int PRODUCTS = 1000;
+
+    public static void main(String[] args) {
+        Benchmarks.start();
+        int orders = Benchmarks.intArg(args, 0, 1_000_000);
+
+        OrderService service = Benchmarks.quietly(() -> {
+            OrderService filled = new OrderService(new StandardOrderFactory());
+            for (int i = 0; i < orders; i++) {
+                Order order = filled.createOrder(List.of(
+                    new OrderItem("SKU-" + (i % PRODUCTS), 1 + i % 3, new BigDecimal("19.99")),
+                    new OrderItem("SKU-" + ((i * 7) % PRODUCTS), 1, new BigDecimal("5.00"))));
+                if (i % 2 == 0) {
+                    order.processOrder();
+                }
+            }
+            return filled;
+        });
+
+        ProductSales[] sales = new ProductSales[1];
+        long viewOne = Benchmarks.bestOf(ROUNDS, () -> sales[0] = service.getProductSales("SKU-42"));
+        long viewAll = Benchmarks.bestOf(ROUNDS, () -> {
+            List<ProductSales> all = service.getAllProductSales();
+            if (all.size() != PRODUCTS) {
+                throw new IllegalStateException("Expected " + PRODUCTS + " products, got " + all.size());
+            }
+        });
+        long[] scannedUnits = new long[1];
+        long scanOne = Benchmarks.bestOf(ROUNDS, () -> {
+            long units = 0;
+            BigDecimal revenue = BigDecimal.ZERO;
+            for (Order order : service.getAllOrders()) {
+                if (order.getStatus() != OrderStatus.PROCESSING) {
+                    continue;
+                }
+                for (OrderItem item : order.getItems()) {
+                    if (item.getProductId().equals("SKU-42")) {
+                        units += item.getQuantity();
+                        revenue = revenue.add(item.getTotalPrice());
+                    }
+                }
+            }
+            scannedUnits[0] = units;
+        });
+        long scanAll = Benchmarks.bestOf(ROUNDS, () -> {
+            Map<String, long[]> perProduct = new HashMap<>();
+            for (Order order : service.getAllOrders()) {
+                for (OrderItem item : order.getItems()) {
+                    perProduct.computeIfAbsent(item.getProductId(), id -> new long[OrderStatus.values().length])
+                        [order.getStatus().ordinal()] += item.getQuantity();
+                }
+            }
+        });
+
+        System.out.println(String.format("%,d orders, %,d products, best of %d", orders, PRODUCTS, ROUNDS));
+        System.out.println("  " + sales[0]);
+        System.out.println(String.format("  one product : view %,9.3f ms, walk %,9.3f ms (PROCESSING units %d vs %d)",
+            Benchmarks.millis(viewOne), Benchmarks.millis(scanOne),
+            sales[0].getUnits(OrderStatus.PROCESSING), scannedUnits[0]));
+        System.out.println(String.format("  all products: view %,9.3f ms, walk %,9.3f ms",
+            Benchmarks.millis(viewAll), Benchmarks.millis(scanAll)));
+    }
+}
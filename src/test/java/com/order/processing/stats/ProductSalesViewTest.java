@@ -0,0 +1,78 @@
+package com.order.processing.stats;
+
+import com.order.processing.factory.StandardOrderFactory;
+import com.order.processing.model.Order;
+import com.order.processing.model.OrderItem;
+import com.order.processing.service.OrderService;
+import com.order.processing.state.OrderStatus;
+import com.order.processing.state.PendingState;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductSalesViewTest {
+
+    @Test
+    void getProductSales_ShouldFollowCreatesAndTransitions() {
+        // Arrange
+        OrderService service = new OrderService(new StandardOrderFactory());
+        Order first = service.createOrder(List.of(
+            new OrderItem("LAPTOP-001", 1, new BigDecimal("999.99")),
+            new OrderItem("MOUSE-001", 2, new BigDecimal("29.99"))));
+        Order second = service.createOrder(List.of(
+            new OrderItem("MOUSE-001", 3, new BigDecimal("25.00"))));
+
+        // Act
+        first.processOrder();
+        service.cancelOrder(second.getId());
+        ProductSales mouse = service.getProductSales("MOUSE-001");
+        ProductSales laptop = service.getProductSales("LAPTOP-001");
+        ProductSales unknown = service.getProductSales("NOT-SOLD");
+
+        // Assert
+        assertEquals(2, mouse.getUnits(OrderStatus.PROCESSING));
+        assertEquals(3, mouse.getUnits(OrderStatus.CANCELLED));
+        assertEquals(0, mouse.getUnits(OrderStatus.PENDING));
+        assertEquals(0, new BigDecimal("59.98").compareTo(mouse.getRevenue(OrderStatus.PROCESSING)));
+        assertEquals(0, new BigDecimal("134.98").compareTo(mouse.getTotalRevenue()));
+        assertEquals(1, laptop.getUnits(OrderStatus.PROCESSING));
+        assertEquals(0, unknown.getTotalUnits());
+        assertEquals(2, service.getAllProductSales().size());
+    }
+
+    @Test
+    void move_UnderConcurrentWriters_ShouldEndWithExactTotals() throws InterruptedException {
+        // Arrange
+        ProductSalesView view = new ProductSalesView();
+        Order order = new Order(List.of(new OrderItem("SKU-1", 2, new BigDecimal("1.25"))), new PendingState());
+        int writers = 4;
+        int movesPerWriter = 10_000;
+        Thread[] threads = new Thread[writers];
+        for (int t = 0; t < writers; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < movesPerWriter; i++) {
+                    view.add(order);
+                    view.move(order, OrderStatus.PENDING, OrderStatus.PROCESSING);
+                }
+            });
+        }
+
+        // Act
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        ProductSales sales = view.sales("SKU-1");
+
+        // Assert
+        assertEquals(0, sales.getUnits(OrderStatus.PENDING));
+        assertEquals(2L * writers * movesPerWriter, sales.getUnits(OrderStatus.PROCESSING));
+        assertEquals(0, BigDecimal.valueOf(2.5 * writers * movesPerWriter)
+            .compareTo(sales.getRevenue(OrderStatus.PROCESSING)));
+    }
+}
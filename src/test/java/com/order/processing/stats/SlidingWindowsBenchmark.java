@@ -0,0 +1,79 @@
+package com.order.processing.stats;
+
+import com.order.processing.Benchmarks;
+import com.order.processing.factory.StandardOrderFactory;
+import com.order.processing.model.Order;
+import com.order.processing.model.OrderItem;
+import com.order.processing.service.OrderService;
+import com.order.processing.state.OrderStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Last-minute and last-hour activity at 1M orders from the sliding windows
+ * against recomputing it from every order's timestamps, plus the cost of a
+ * window update.
+ *
+ * Run by hand, see {@link Benchmarks}. Optional arg: order count.
+ */
+public class SlidingWindowsBenchmark {
+
+    private static final int ROUNDS = 10;
+    private static final int UPDATES = 10_000_000;
+
+    public static void main(String[] args) {
+        Benchmarks.start();
+        int orders = Benchmarks.intArg(args, 0, 1_000_000);
+        List<OrderItem> items = Benchmarks.sampleItems(1);
+
+        OrderService service = Benchmarks.quietly(() -> {
+            OrderService filled = new OrderService(new StandardOrderFactory());
+            for (int i = 0; i < orders; i++) {
+                Order order = filled.createOrder(items);
+                if (i % 2 == 0) {
+                    order.processOrder();
+                }
+            }
+            return filled;
+        });
+
+        WindowStats[] hour = new WindowStats[1];
+        long windowsBest = Benchmarks.bestOf(ROUNDS, () -> {
+            service.getWindowStats(SlidingWindows.Window.ONE_MINUTE);
+            hour[0] = service.getWindowStats(SlidingWindows.Window.ONE_HOUR);
+        });
+        long[] scanned = new long[2];
+        long scanBest = Benchmarks.bestOf(ROUNDS, () -> {
+            LocalDateTime now = LocalDateTime.now();
+            long lastMinute = 0;
+            long lastHour = 0;
+            BigDecimal revenue = BigDecimal.ZERO;
+            for (Order order : service.getAllOrders()) {
+                if (order.getCreatedAt().isAfter(now.minusHours(1))) {
+                    lastHour++;
+                    revenue = revenue.add(order.getTotalAmount());
+                    if (order.getCreatedAt().isAfter(now.minusMinutes(1))) {
+                        lastMinute++;
+                    }
+                }
+            }
+            scanned[0] = lastMinute;
+            scanned[1] = lastHour;
+        });
+
+        SlidingWindows windows = new SlidingWindows();
+        long updates = Benchmarks.bestOf(1, () -> {
+            for (int i = 0; i < UPDATES; i++) {
+                windows.recordTransition(OrderStatus.SHIPPED);
+            }
+        });
+
+        System.out.println(String.format("%,d orders, best of %d", orders, ROUNDS));
+        System.out.println("  " + hour[0]);
+        System.out.println(String.format("  1 min + 1 hour : windows %,9.3f ms, scan %,9.3f ms (%,d / %,d)",
+            Benchmarks.millis(windowsBest), Benchmarks.millis(scanBest), scanned[0], scanned[1]));
+        System.out.println(String.format("  recordTransition: %d ns (three windows)", updates / UPDATES));
+    }
+}
@@ -0,0 +1,70 @@
+package com.order.processing.stats;
+
+import com.order.processing.state.OrderStatus;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlidingWindowsTest {
+
+    @Test
+    void stats_ShouldDropActivityOlderThanTheWindow() {
+        // Arrange
+        AtomicLong clock = new AtomicLong(1_000_000);
+        SlidingWindows windows = new SlidingWindows(clock::get);
+        windows.recordCreated(new BigDecimal("10.50"));
+        windows.recordTransition(OrderStatus.PROCESSING);
+        clock.addAndGet(90_000);
+        windows.recordCreated(new BigDecimal("2.25"));
+
+        // Act
+        WindowStats minute = windows.stats(SlidingWindows.Window.ONE_MINUTE);
+        WindowStats fiveMinutes = windows.stats(SlidingWindows.Window.FIVE_MINUTES);
+        clock.addAndGet(3_600_000);
+        WindowStats hourLater = windows.stats(SlidingWindows.Window.ONE_HOUR);
+
+        // Assert
+        assertEquals(1, minute.getCreated());
+        assertEquals(0, new BigDecimal("2.25").compareTo(minute.getRevenue()));
+        assertEquals(0, minute.getTransitions(OrderStatus.PROCESSING));
+        assertEquals(2, fiveMinutes.getCreated());
+        assertEquals(0, new BigDecimal("12.75").compareTo(fiveMinutes.getRevenue()));
+        assertEquals(1, fiveMinutes.getTransitions(OrderStatus.PROCESSING));
+        assertEquals(0, hourLater.getCreated());
+    }
+
+    @Test
+    void recordCreated_UnderConcurrentWritersAcrossBuckets_ShouldCountEveryOrder() throws InterruptedException {
+        // Arrange
+        AtomicLong clock = new AtomicLong();
+        SlidingWindows windows = new SlidingWindows(clock::get);
+        int writers = 4;
+        int ordersPerWriter = 10_000;
+        Thread[] threads = new Thread[writers];
+        for (int t = 0; t < writers; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < ordersPerWriter; i++) {
+                    // Every writer moves time on, so buckets are claimed while others write
+                    windows.recordCreated(BigDecimal.ONE);
+                    clock.incrementAndGet();
+                }
+            });
+        }
+
+        // Act
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        WindowStats stats = windows.stats(SlidingWindows.Window.FIVE_MINUTES);
+
+        // Assert
+        assertEquals((long) writers * ordersPerWriter, stats.getCreated());
+        assertEquals(0, BigDecimal.valueOf(writers * ordersPerWriter).compareTo(stats.getRevenue()));
+    }
+}
@@ -0,0 +1,58 @@
+package com.order.processing.stats;
+
+import com.order.processing.Benchmarks;
+import com.order.processing.factory.StandardOrderFactory;
+import com.order.processing.model.Order;
+import com.order.processing.model.OrderItem;
+import com.order.processing.service.OrderService;
+import com.order.processing.state.OrderStates;
+import com.order.processing.state.OrderStatus;
+
+import java.util.List;
+
+/**
+ * getStatistics at 1M orders from the maintained counters against the five
+ * full passes it replaced.
+ *
+ * Run by hand, see {@link Benchmarks}. Optional arg: order count.
+ */
+public class StatisticsBenchmark {
+
+    private static final int ROUNDS = 20;
+
+    public static void main(String[] args) {
+        Benchmarks.start();
+        int orders = Benchmarks.intArg(args, 0, 1_000_000);
+        List<OrderItem> items = Benchmarks.sampleItems(2);
+
+        OrderService service = Benchmarks.quietly(() -> {
+            OrderService filled = new OrderService(new StandardOrderFactory());
+            for (int i = 0; i < orders; i++) {
+                Order order = filled.createOrder(items);
+                if (i % 2 == 0) {
+                    order.processOrder();
+                    order.setState(OrderStates.SHIPPED);
+                }
+            }
+            return filled;
+        });
+
+        OrderService.OrderStatistics[] stats = new OrderService.OrderStatistics[1];
+        long counters = Benchmarks.bestOf(ROUNDS, () -> stats[0] = service.getStatistics());
+        long[] shipped = new long[1];
+        long scan = Benchmarks.bestOf(ROUNDS, () -> {
+            List<Order> all = service.getAllOrders();
+            for (OrderStatus status : OrderStatus.values()) {
+                long count = all.stream().filter(order -> order.getStatus() == status).count();
+                if (status == OrderStatus.SHIPPED) {
+                    shipped[0] = count;
+                }
+            }
+        });
+
+        System.out.println(String.format("%,d orders, best of %d: %s", orders, ROUNDS, stats[0]));
+        System.out.println(String.format("  counters     : %,9.3f ms", Benchmarks.millis(counters)));
+        System.out.println(String.format("  five passes  : %,9.3f ms  (%d shipped, %.0fx)",
+            Benchmarks.millis(scan), shipped[0], scan / (double) counters));
+    }
+}
@@ -0,0 +1,112 @@
+package com.order.processing.stats;
+
+import com.order.processing.factory.StandardOrderFactory;
+import com.order.processing.model.Order;
+import com.order.processing.model.OrderItem;
+import com.order.processing.service.OrderService;
+import com.order.processing.state.OrderStates;
+import com.order.processing.state.OrderStatus;
+import com.order.processing.store.HeapOrderStore;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StatusCountersTest {
+
+    @Test
+    void snapshot_UnderConcurrentMoves_ShouldStayConsistent() throws InterruptedException {
+        // Arrange
+        StatusCounters counters = new StatusCounters(4);
+        int writers = 4;
+        int ordersPerWriter = 20_000;
+        Thread[] threads = new Thread[writers];
+        for (int t = 0; t < writers; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < ordersPerWriter; i++) {
+                    counters.increment(OrderStatus.PENDING);
+                    counters.move(OrderStatus.PENDING, OrderStatus.PROCESSING);
+                    counters.move(OrderStatus.PROCESSING, OrderStatus.SHIPPED);
+                }
+            });
+        }
+        AtomicBoolean inconsistent = new AtomicBoolean();
+
+        // Act
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        boolean running = true;
+        while (running) {
+            running = false;
+            for (Thread thread : threads) {
+                running |= thread.isAlive();
+            }
+            long[] counts = counters.snapshot();
+            for (long count : counts) {
+                inconsistent.compareAndSet(false, count < 0);
+            }
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // Assert
+        long[] counts = counters.snapshot();
+        assertFalse(inconsistent.get());
+        assertEquals(0, counts[OrderStatus.PENDING.ordinal()]);
+        assertEquals(0, counts[OrderStatus.PROCESSING.ordinal()]);
+        assertEquals((long) writers * ordersPerWriter, counts[OrderStatus.SHIPPED.ordinal()]);
+    }
+
+    @Test
+    void getStatistics_ShouldReflectCreatesAndTransitions() {
+        // Arrange
+        OrderService service = new OrderService(new StandardOrderFactory());
+        List<OrderItem> items = Arrays.asList(new OrderItem("TEST-1", 2, new BigDecimal("10.00")));
+        Order processed = service.createOrder(items);
+        Order cancelled = service.createOrder(items);
+        service.createOrder(items);
+
+        // Act
+        processed.processOrder();
+        service.cancelOrder(cancelled.getId());
+        OrderService.OrderStatistics stats = service.getStatistics();
+
+        // Assert
+        assertEquals(3, stats.getTotalOrders());
+        assertEquals(1, stats.getPendingOrders());
+        assertEquals(1, stats.getProcessingOrders());
+        assertEquals(1, stats.getCancelledOrders());
+        assertEquals(0, stats.getShippedOrders());
+    }
+
+    @Test
+    void getStatistics_TransitionRightAfterPublication_ShouldCountOrderOnce() {
+        // Arrange: another thread cancels the order the moment the store makes it reachable
+        HeapOrderStore store = new HeapOrderStore() {
+            @Override
+            public void put(Order order) {
+                super.put(order);
+                order.setState(OrderStates.CANCELLED);
+            }
+        };
+        OrderService service = new OrderService(new StandardOrderFactory(), null, null, store);
+        List<OrderItem> items = Arrays.asList(new OrderItem("TEST-1", 2, new BigDecimal("10.00")));
+
+        // Act
+        service.createOrder(items);
+        OrderService.OrderStatistics stats = service.getStatistics();
+
+        // Assert
+        assertEquals(1, stats.getTotalOrders());
+        assertEquals(0, stats.getPendingOrders());
+        assertEquals(1, stats.getCancelledOrders());
+        assertEquals(List.of(), service.getOrdersByStatus(OrderStatus.PENDING));
+        assertEquals(1, service.getOrdersByStatus(OrderStatus.CANCELLED).size());
+    }
+}
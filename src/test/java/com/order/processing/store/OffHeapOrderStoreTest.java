@@ -0,0 +1,196 @@
+package com.order.processing.store;
+
+import com.order.processing.factory.StandardOrderFactory;
+import com.order.processing.model.Order;
+import com.order.processing.model.OrderItem;
+import com.order.processing.service.OrderService;
+import com.order.processing.state.CancelledState;
+import com.order.processing.state.OrderStates;
+import com.order.processing.state.OrderStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CyclicBarrier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapOrderStoreTest {
+
+    private OffHeapOrderStore store;
+    private List<OrderItem> items;
+
+    @BeforeEach
+    void setUp() {
+        store = new OffHeapOrderStore(4096, 4);
+        items = Arrays.asList(
+            new OrderItem("TEST-1", 2, new BigDecimal("10.00")),
+            new OrderItem("TEST-2", 1, new BigDecimal("20.00"))
+        );
+    }
+
+    @Test
+    void get_ShouldReturnEqualDetachedCopy() {
+        // Arrange
+        Order original = order(UUID.randomUUID().toString(), OrderStatus.PROCESSING);
+        store.put(original);
+
+        // Act
+        Order copy = store.get(original.getId());
+
+        // Assert
+        assertNotSame(original, copy);
+        assertEquals(original.getId(), copy.getId());
+        assertEquals(original.getStatus(), copy.getStatus());
+        assertEquals(original.getItems(), copy.getItems());
+        assertEquals(original.getCreatedAt(), copy.getCreatedAt());
+        assertEquals(original.getLastModifiedAt(), copy.getLastModifiedAt());
+        assertEquals(original.getTotalAmount(), copy.getTotalAmount());
+        assertNull(store.get("no-such-order"));
+    }
+
+    @Test
+    void put_ExistingOrder_ShouldUpdateInPlace() {
+        // Arrange
+        Order original = order("legacy-order-42", OrderStatus.PENDING);
+        store.put(original);
+        long bytesBefore = store.offHeapBytes();
+        Order copy = store.get(original.getId());
+        copy.setState(new CancelledState());
+
+        // Act
+        store.put(copy);
+
+        // Assert
+        OrderView view = store.view(original.getId());
+        assertEquals(1, store.size());
+        assertEquals(bytesBefore, store.offHeapBytes());
+        assertEquals(OrderStatus.CANCELLED, view.getStatus());
+        assertEquals(copy.getLastModifiedAt(), view.getLastModifiedAt());
+        assertEquals("legacy-order-42", view.getId());
+        assertEquals(2, view.getItemCount());
+    }
+
+    @Test
+    void replace_CopyOvertakenByAnotherCopy_ShouldBeRejected() {
+        // Arrange
+        store.put(order("legacy-order-42", OrderStatus.PENDING));
+        Order first = store.get("legacy-order-42");
+        Order second = store.get("legacy-order-42");
+        first.setState(OrderStates.CANCELLED);
+        second.setState(OrderStates.PROCESSING);
+
+        // Act
+        boolean firstWritten = store.replace(first, OrderStatus.PENDING);
+        boolean secondWritten = store.replace(second, OrderStatus.PENDING);
+
+        // Assert
+        assertTrue(firstWritten);
+        assertFalse(secondWritten);
+        assertEquals(OrderStatus.CANCELLED, store.view("legacy-order-42").getStatus());
+        assertFalse(store.replace(order("no-such-order", OrderStatus.PROCESSING), OrderStatus.PENDING));
+    }
+
+    @Test
+    void iterator_ShouldReturnEveryOrderAcrossSlabsAndResizes() {
+        // Arrange
+        Set<String> expected = new HashSet<>();
+        for (int i = 0; i < 2_000; i++) {
+            String id = i % 2 == 0 ? UUID.randomUUID().toString() : "order-" + i;
+            store.put(order(id, OrderStatus.DELIVERED));
+            expected.add(id);
+        }
+
+        // Act
+        Set<String> seen = new HashSet<>();
+        for (Order order : store) {
+            seen.add(order.getId());
+        }
+        int[] views = new int[1];
+        store.forEachView(view -> views[0]++);
+
+        // Assert
+        assertTrue(store.offHeapBytes() > 4096);
+        assertEquals(2_000, store.size());
+        assertEquals(expected, seen);
+        assertEquals(2_000, views[0]);
+        for (String id : expected) {
+            assertEquals(id, store.get(id).getId());
+        }
+    }
+
+    @Test
+    void service_ShouldWriteTransitionsBackToStore() {
+        // Arrange
+        OrderService service = new OrderService(new StandardOrderFactory(), null, null, store);
+        Order created = service.createOrder(items);
+
+        // Act
+        service.getOrder(created.getId()).orElseThrow().processOrder();
+
+        // Assert
+        assertEquals(OrderStatus.PROCESSING, store.view(created.getId()).getStatus());
+        assertEquals(1, service.getOrdersByStatus(OrderStatus.PROCESSING).size());
+        service.shutdown();
+    }
+
+    @Test
+    void service_CancelOnFetchedOrderRacingProcessOnOriginal_ShouldHaveExactlyOneWinner() throws Exception {
+        // Arrange
+        OrderService service = new OrderService(new StandardOrderFactory(), null, null, store);
+        int rounds = 200;
+        int wins = 0;
+
+        // Act
+        for (int round = 0; round < rounds; round++) {
+            Order original = service.createOrder(items);
+            CyclicBarrier start = new CyclicBarrier(2);
+            boolean[] cancelled = new boolean[1];
+            Thread canceller = new Thread(() -> {
+                await(start);
+                cancelled[0] = service.cancelOrder(original.getId());
+            });
+            canceller.start();
+            await(start);
+            boolean processed;
+            try {
+                processed = original.trySetState(OrderStates.PROCESSING);
+            } catch (IllegalStateException e) {
+                // The store turned this copy down: the cancel got there first
+                processed = false;
+            }
+            canceller.join();
+            if (cancelled[0] != processed) {
+                wins++;
+            }
+        }
+
+        // Assert
+        assertEquals(rounds, wins);
+        OrderService.OrderStatistics stats = service.getStatistics();
+        assertEquals(0, stats.getPendingOrders());
+        assertEquals(rounds, stats.getProcessingOrders() + stats.getCancelledOrders());
+        assertEquals(stats.getCancelledOrders(), service.getOrdersByStatus(OrderStatus.CANCELLED).size());
+        assertEquals(stats.getProcessingOrders(), service.getOrdersByStatus(OrderStatus.PROCESSING).size());
+        service.shutdown();
+    }
+
+    private static void await(CyclicBarrier barrier) {
+        try {
+            barrier.await();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Order order(String id, OrderStatus status) {
+        LocalDateTime modified = LocalDateTime.now().minusHours(1);
+        return new Order(id, items, OrderStates.forStatus(status), modified.minusDays(1), modified);
+    }
+}
@@ -0,0 +1,81 @@
+package com.order.processing.store;
+
+import com.order.processing.Benchmarks;
+import com.order.processing.model.Order;
+import com.order.processing.model.OrderItem;
+import com.order.processing.state.OrderStates;
+import com.order.processing.state.OrderStatus;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Retained heap, full-GC time and random-lookup cost of the heap store against
+ * the off-heap store, whose records live in direct-buffer slabs.
+ *
+ * Run by hand, see {@link Benchmarks}. Optional arg: order count.
+ */
+public class OffHeapStoreBenchmark {
+
+    private static final int LOOKUPS = 1_000_000;
+
+    public static void main(String[] args) {
+        Benchmarks.start();
+        int orders = Benchmarks.intArg(args, 0, 1_000_000);
+        List<OrderItem> items = Benchmarks.sampleItems(3);
+        String[] ids = new String[orders];
+
+        long baseline = Benchmarks.usedHeapAfterGc();
+        HeapOrderStore heap = new HeapOrderStore();
+        fill(heap, items, ids);
+        long heapBytes = Benchmarks.usedHeapAfterGc() - baseline;
+        long heapGcMillis = Benchmarks.timeFullGc();
+        double heapMicros = lookups(heap, ids);
+        heap = null;
+
+        baseline = Benchmarks.usedHeapAfterGc();
+        OffHeapOrderStore offHeap = new OffHeapOrderStore();
+        fill(offHeap, items, ids);
+        long offHeapBytes = Benchmarks.usedHeapAfterGc() - baseline;
+        long offHeapGcMillis = Benchmarks.timeFullGc();
+        double offHeapMicros = lookups(offHeap, ids);
+
+        long checksum = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < LOOKUPS; i++) {
+            checksum += offHeap.view(ids[(int) ((i * 2654435761L) % orders)]).getStatus().ordinal();
+        }
+        double viewMicros = (System.nanoTime() - start) / 1e3 / LOOKUPS;
+
+        System.out.println(String.format("%,d orders x 3 items, all five statuses", orders));
+        System.out.println(String.format("  heap store     : %,6d MB heap, full GC %,5d ms, get %.2f us",
+            heapBytes >> 20, heapGcMillis, heapMicros));
+        System.out.println(String.format("  off-heap store : %,6d MB heap + %,d MB off-heap, full GC %,5d ms, get %.2f us",
+            offHeapBytes >> 20, offHeap.offHeapBytes() >> 20, offHeapGcMillis, offHeapMicros));
+        System.out.println(String.format("  off-heap view  : %.2f us per status read (checksum %d)", viewMicros, checksum));
+    }
+
+    private static double lookups(OrderStore store, String[] ids) {
+        long checksum = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < LOOKUPS; i++) {
+            checksum += store.get(ids[(int) ((i * 2654435761L) % ids.length)]).getItemCount();
+        }
+        if (checksum == 0) {
+            throw new IllegalStateException("No items read");
+        }
+        return (System.nanoTime() - start) / 1e3 / LOOKUPS;
+    }
+
+    private static void fill(OrderStore store, List<OrderItem> items, String[] ids) {
+        LocalDateTime created = LocalDateTime.now().minusDays(30);
+        OrderStatus[] statuses = OrderStatus.values();
+        for (int i = 0; i < ids.length; i++) {
+            String id = UUID.randomUUID().toString();
+            ids[i] = id;
+            store.put(new Order(id, items, OrderStates.forStatus(statuses[i % statuses.length]),
+                                created.plusSeconds(i), created.plusSeconds(i).plusDays(2)));
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.order.processing.store;
+
+import com.order.processing.model.Order;
+import com.order.processing.model.OrderItem;
+import com.order.processing.state.OrderStates;
+import com.order.processing.state.OrderStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TieredOrderStoreTest {
+
+    private TieredOrderStore store;
+    private List<OrderItem> items;
+
+    @BeforeEach
+    void setUp() {
+        store = new TieredOrderStore(Duration.ofHours(1));
+        items = Arrays.asList(
+            new OrderItem("TEST-1", 2, new BigDecimal("10.00")),
+            new OrderItem("TEST-2", 1, new BigDecimal("20.00"))
+        );
+    }
+
+    @Test
+    void demote_ShouldMoveOnlyOldTerminalOrders() {
+        // Arrange
+        Order oldDelivered = order(OrderStatus.DELIVERED, 2);
+        Order oldCancelled = order(OrderStatus.CANCELLED, 2);
+        Order recentDelivered = order(OrderStatus.DELIVERED, 0);
+        Order oldShipped = order(OrderStatus.SHIPPED, 2);
+        store.put(oldDelivered);
+        store.put(oldCancelled);
+        store.put(recentDelivered);
+        store.put(oldShipped);
+
+        // Act
+        int demoted = store.demote();
+
+        // Assert
+        assertEquals(2, demoted);
+        assertEquals(2, store.coldSize());
+        assertEquals(4, store.size());
+        assertSame(recentDelivered, store.get(recentDelivered.getId()));
+        assertSame(oldShipped, store.get(oldShipped.getId()));
+    }
+
+    @Test
+    void get_ColdOrder_ShouldFaultInEqualCopy() {
+        // Arrange
+        Order original = order(OrderStatus.DELIVERED, 5);
+        store.put(original);
+        store.demote();
+
+        // Act
+        Order faulted = store.get(original.getId());
+
+        // Assert
+        assertNotSame(original, faulted);
+        assertEquals(original.getId(), faulted.getId());
+        assertEquals(original.getStatus(), faulted.getStatus());
+        assertEquals(original.getItems(), faulted.getItems());
+        assertEquals(original.getCreatedAt(), faulted.getCreatedAt());
+        assertEquals(original.getLastModifiedAt(), faulted.getLastModifiedAt());
+        assertEquals(original.getTotalAmount(), faulted.getTotalAmount());
+        assertNull(store.get("no-such-order"));
+    }
+
+    @Test
+    void iterator_ShouldReturnEveryOrderOnceAcrossBlocks() {
+        // Arrange
+        Set<String> expected = new HashSet<>();
+        for (int i = 0; i < 2_000; i++) {
+            Order order = order(i % 3 == 0 ? OrderStatus.PENDING : OrderStatus.CANCELLED, 3);
+            store.put(order);
+            expected.add(order.getId());
+        }
+        store.demote();
+
+        // Act
+        Set<String> seen = new HashSet<>();
+        int count = 0;
+        for (Order order : store) {
+            seen.add(order.getId());
+            count++;
+        }
+
+        // Assert
+        assertTrue(store.offHeapBytes() > 0);
+        assertEquals(1_333, store.coldSize());
+        assertEquals(2_000, count);
+        assertEquals(expected, seen);
+    }
+
+    private Order order(OrderStatus status, int hoursAgo) {
+        LocalDateTime modified = LocalDateTime.now().minusHours(hoursAgo).minusMinutes(1);
+        return new Order(UUID.randomUUID().toString(), items, OrderStates.forStatus(status),
+                         modified.minusDays(1), modified);
+    }
+}
@@ -0,0 +1,68 @@
+package com.order.processing.store;
+
+import com.order.processing.Benchmarks;
+import com.order.processing.model.Order;
+import com.order.processing.model.OrderItem;
+import com.order.processing.state.OrderStates;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Retained heap and full-GC time of a book of DELIVERED orders in the heap
+ * store against the tiered store after demoting them all, and the cost of
+ * faulting a cold order back in.
+ *
+ * Run by hand, see {@link Benchmarks}. Optional arg: order count.
+ */
+public class TieredStoreBenchmark {
+
+    private static final int LOOKUPS = 200_000;
+
+    public static void main(String[] args) {
+        Benchmarks.start();
+        int orders = Benchmarks.intArg(args, 0, 1_000_000);
+        List<OrderItem> items = Benchmarks.sampleItems(3);
+        String[] ids = new String[orders];
+
+        long baseline = Benchmarks.usedHeapAfterGc();
+        HeapOrderStore heap = new HeapOrderStore();
+        fill(heap, items, ids);
+        long heapBytes = Benchmarks.usedHeapAfterGc() - baseline;
+        long heapGcMillis = Benchmarks.timeFullGc();
+        heap = null;
+
+        baseline = Benchmarks.usedHeapAfterGc();
+        TieredOrderStore tiered = new TieredOrderStore(Duration.ZERO);
+        fill(tiered, items, ids);
+        long demoteNanos = Benchmarks.bestOf(1, tiered::demote);
+        long tieredBytes = Benchmarks.usedHeapAfterGc() - baseline;
+        long tieredGcMillis = Benchmarks.timeFullGc();
+
+        long checksum = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < LOOKUPS; i++) {
+            checksum += tiered.get(ids[(int) ((i * 2654435761L) % orders)]).getItemCount();
+        }
+        double faultMicros = (System.nanoTime() - start) / 1e3 / LOOKUPS;
+
+        System.out.println(String.format("%,d DELIVERED orders x 3 items", orders));
+        System.out.println(String.format("  heap store     : %,6d MB heap, full GC %,5d ms",
+            heapBytes >> 20, heapGcMillis));
+        System.out.println(String.format("  tiered (cold)  : %,6d MB heap + %,d MB off-heap, full GC %,5d ms, demote %,.0f ms",
+            tieredBytes >> 20, tiered.offHeapBytes() >> 20, tieredGcMillis, Benchmarks.millis(demoteNanos)));
+        System.out.println(String.format("  cold get       : %.2f us per random lookup (checksum %d)", faultMicros, checksum));
+    }
+
+    private static void fill(OrderStore store, List<OrderItem> items, String[] ids) {
+        LocalDateTime created = LocalDateTime.now().minusDays(30);
+        for (int i = 0; i < ids.length; i++) {
+            String id = UUID.randomUUID().toString();
+            ids[i] = id;
+            store.put(new Order(id, items, OrderStates.DELIVERED,
+                                created.plusSeconds(i), created.plusSeconds(i).plusDays(2)));
+        }
+    }
+}